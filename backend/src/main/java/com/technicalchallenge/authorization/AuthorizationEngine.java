@@ -0,0 +1,144 @@
+package com.technicalchallenge.authorization;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.repository.ApplicationUserRepository;
+import com.technicalchallenge.repository.PrivilegeRepository;
+import com.technicalchallenge.repository.UserPrivilegeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers trade authorization checks from an in-memory AuthorizationSnapshot, so a check runs no
+ * queries. The snapshot is loaded at startup and swapped atomically by rebuild(), which the user,
+ * profile, privilege and user privilege controllers call after every write.
+ */
+@Component
+public class AuthorizationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationEngine.class);
+
+    private static final String UNKNOWN_OPERATION = "unknown";
+
+    private final ApplicationUserRepository applicationUserRepository;
+    private final PrivilegeRepository privilegeRepository;
+    private final UserPrivilegeRepository userPrivilegeRepository;
+
+    private final Map<String, Timer> allowedTimers = new HashMap<>();
+    private final Map<String, Timer> deniedTimers = new HashMap<>();
+
+    private volatile AuthorizationSnapshot snapshot;
+    // Not synchronized: a rebuild waits on JDBC, which would pin a virtual thread to its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public AuthorizationEngine(ApplicationUserRepository applicationUserRepository,
+                               PrivilegeRepository privilegeRepository,
+                               UserPrivilegeRepository userPrivilegeRepository,
+                               MeterRegistry meterRegistry) {
+        this.applicationUserRepository = applicationUserRepository;
+        this.privilegeRepository = privilegeRepository;
+        this.userPrivilegeRepository = userPrivilegeRepository;
+
+        // Timers are registered up front so recording a decision does not allocate
+        for (String operation : AuthorizationSnapshot.OPERATION_PRIVILEGES.keySet()) {
+            allowedTimers.put(operation, decisionTimer(meterRegistry, operation, "allowed"));
+            deniedTimers.put(operation, decisionTimer(meterRegistry, operation, "denied"));
+        }
+        allowedTimers.put(UNKNOWN_OPERATION, decisionTimer(meterRegistry, UNKNOWN_OPERATION, "allowed"));
+        deniedTimers.put(UNKNOWN_OPERATION, decisionTimer(meterRegistry, UNKNOWN_OPERATION, "denied"));
+    }
+
+    private static Timer decisionTimer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("trade.authorization.decision")
+                .description("Latency of trade authorization decisions")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Reloads users, privileges and grants and publishes them as a new snapshot. */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            AuthorizationSnapshot rebuilt = AuthorizationSnapshot.build(
+                    applicationUserRepository.findAll(),
+                    privilegeRepository.findAll(),
+                    userPrivilegeRepository.findAll());
+            snapshot = rebuilt;
+            logger.info("Authorization snapshot rebuilt for {} users", rebuilt.userCount());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public Optional<AuthorizationSnapshot.UserGrant> findUser(String loginId) {
+        return Optional.ofNullable(currentSnapshot().user(loginId));
+    }
+
+    /**
+     * Decides whether the user may perform the trade operation. TRADER_SALES users additionally
+     * need to own the trade for anything other than booking or reading.
+     */
+    public boolean isAuthorized(String loginId, String operation, TradeDTO tradeDTO) {
+        long start = System.nanoTime();
+        AuthorizationSnapshot current = currentSnapshot();
+        AuthorizationSnapshot.UserGrant user = current.user(loginId);
+
+        boolean allowed = current.isPermitted(user, operation);
+        if (allowed && "TRADER_SALES".equalsIgnoreCase(user.getUserType()) && !"getAllTrades".equalsIgnoreCase(operation)) {
+            allowed = verifyTraderOwnership(user, operation, tradeDTO);
+        }
+
+        String timerKey = allowedTimers.containsKey(operation) ? operation : UNKNOWN_OPERATION;
+        (allowed ? allowedTimers : deniedTimers).get(timerKey).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!allowed) {
+            logger.debug("User {} denied {}", loginId, operation);
+        }
+        return allowed;
+    }
+
+    private boolean verifyTraderOwnership(AuthorizationSnapshot.UserGrant user, String operation, TradeDTO tradeDTO) {
+        //createTrade does not require ownership check
+        if ("createTrade".equals(operation)) {
+            return true;
+        }
+        if (tradeDTO == null) {
+            return false;
+        }
+
+        String tradeOwner = tradeDTO.getTraderUserName();
+        if (tradeOwner == null) {
+            return true;
+        }
+
+        String[] nameParts = tradeOwner.split("\\s+");
+        String firstName = nameParts.length >= 1 ? nameParts[0] : "";
+        return firstName.equalsIgnoreCase(user.getLoginId());
+    }
+
+    private AuthorizationSnapshot currentSnapshot() {
+        AuthorizationSnapshot current = snapshot;
+        if (current == null) {
+            // Checked before the application finished starting
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,136 @@
+package com.technicalchallenge.authorization;
+
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Privilege;
+import com.technicalchallenge.model.UserPrivilege;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable view of user -> profile -> privilege grants. Each user's privileges are held as a
+ * bitset indexed by privilege, and each trade operation is pre-resolved to its privilege bit, so a
+ * check is two hash lookups and a bit test. Instances are never modified after build(); a data
+ * change produces a new snapshot.
+ */
+public final class AuthorizationSnapshot {
+
+    // Trade operation -> privilege it requires
+    static final Map<String, String> OPERATION_PRIVILEGES = Map.of(
+            "createTrade", "BOOK_TRADE",
+            "amendTrade", "AMEND_TRADE",
+            "getAllTrades", "READ_TRADE",
+            "terminateTrade", "TERMINATE_TRADE",
+            "cancelTrade", "CANCEL_TRADE");
+
+    private final Map<String, UserGrant> usersByLoginId;
+    private final Map<String, Integer> operationBits;
+
+    private AuthorizationSnapshot(Map<String, UserGrant> usersByLoginId, Map<String, Integer> operationBits) {
+        this.usersByLoginId = usersByLoginId;
+        this.operationBits = operationBits;
+    }
+
+    public static AuthorizationSnapshot build(Collection<ApplicationUser> users,
+                                              Collection<Privilege> privileges,
+                                              Collection<UserPrivilege> userPrivileges) {
+        Map<Long, Integer> bitByPrivilegeId = new HashMap<>();
+        Map<String, Integer> bitByPrivilegeName = new HashMap<>();
+        int nextBit = 0;
+        for (Privilege privilege : privileges) {
+            bitByPrivilegeId.put(privilege.getId(), nextBit);
+            bitByPrivilegeName.put(privilege.getName(), nextBit);
+            nextBit++;
+        }
+
+        Map<Long, BitSet> grantsByUserId = new HashMap<>();
+        for (UserPrivilege userPrivilege : userPrivileges) {
+            Integer bit = bitByPrivilegeId.get(userPrivilege.getPrivilegeId());
+            if (bit != null) {
+                grantsByUserId.computeIfAbsent(userPrivilege.getUserId(), id -> new BitSet()).set(bit);
+            }
+        }
+
+        Map<String, UserGrant> usersByLoginId = new HashMap<>();
+        for (ApplicationUser user : users) {
+            if (user.getLoginId() == null) {
+                continue;
+            }
+            String userType = user.getUserProfile() != null ? user.getUserProfile().getUserType() : null;
+            BitSet grants = grantsByUserId.getOrDefault(user.getId(), new BitSet());
+            usersByLoginId.put(normalise(user.getLoginId()),
+                    new UserGrant(user.getId(), user.getLoginId(), user.isActive(), userType, grants));
+        }
+
+        Map<String, Integer> operationBits = new HashMap<>();
+        OPERATION_PRIVILEGES.forEach((operation, privilegeName) -> {
+            Integer bit = bitByPrivilegeName.get(privilegeName);
+            if (bit != null) {
+                operationBits.put(operation, bit);
+            }
+        });
+
+        return new AuthorizationSnapshot(Map.copyOf(usersByLoginId), Map.copyOf(operationBits));
+    }
+
+    public static AuthorizationSnapshot empty() {
+        return new AuthorizationSnapshot(Map.of(), Map.of());
+    }
+
+    /** Returns the grants for a login id (case-insensitive), or null if the user is unknown. */
+    public UserGrant user(String loginId) {
+        return loginId == null ? null : usersByLoginId.get(normalise(loginId));
+    }
+
+    /** True if the user exists, is active and holds the privilege the operation requires. */
+    public boolean isPermitted(UserGrant user, String operation) {
+        if (user == null || !user.isActive() || operation == null) {
+            return false;
+        }
+        Integer bit = operationBits.get(operation);
+        return bit != null && user.privileges.get(bit);
+    }
+
+    public int userCount() {
+        return usersByLoginId.size();
+    }
+
+    private static String normalise(String loginId) {
+        return loginId.toLowerCase(Locale.ROOT);
+    }
+
+    public static final class UserGrant {
+        private final Long userId;
+        private final String loginId;
+        private final boolean active;
+        private final String userType;
+        private final BitSet privileges;
+
+        private UserGrant(Long userId, String loginId, boolean active, String userType, BitSet privileges) {
+            this.userId = userId;
+            this.loginId = loginId;
+            this.active = active;
+            this.userType = userType;
+            this.privileges = privileges;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getLoginId() {
+            return loginId;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public String getUserType() {
+            return userType;
+        }
+    }
+}
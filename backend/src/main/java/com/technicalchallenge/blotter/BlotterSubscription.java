@@ -0,0 +1,127 @@
+package com.technicalchallenge.blotter;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeSearchDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One blotter stream connection: its filter, who may see what, and the events waiting to be
+ * written to it. At most one sender thread drains the buffer at a time, so events go out in the
+ * order they were offered.
+ */
+final class BlotterSubscription {
+
+    private final SseEmitter emitter;
+    private final String book;
+    private final String counterparty;
+    private final String trader;
+    // Set for TRADER_SALES users, who only see trades they are the trader on
+    private final Long ownerUserId;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // When the send in progress started, 0 when there is none
+    private volatile long sendStartedNanos;
+
+    BlotterSubscription(SseEmitter emitter, TradeSearchDTO criteria, Long ownerUserId, int bufferSize) {
+        this.emitter = emitter;
+        this.book = normalise(criteria.getBook());
+        this.counterparty = normalise(criteria.getCounterparty());
+        this.trader = normalise(criteria.getTrader());
+        this.ownerUserId = ownerUserId;
+        this.pending = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /** The same book, counterparty and trader matching as the trade search, plus trader ownership. */
+    boolean accepts(TradeDTO trade) {
+        if (ownerUserId != null && !ownerUserId.equals(trade.getTraderUserId())) {
+            return false;
+        }
+        if (book != null && !book.equals(normalise(trade.getBookName()))) {
+            return false;
+        }
+        if (counterparty != null && !counterparty.equals(normalise(trade.getCounterpartyName()))) {
+            return false;
+        }
+        return trader == null || traderNamed(trade.getTraderUserName());
+    }
+
+    // traderUserName is "first last"; the search matches either name
+    private boolean traderNamed(String traderUserName) {
+        String name = normalise(traderUserName);
+        if (name == null) {
+            return false;
+        }
+        int space = name.indexOf(' ');
+        return space < 0 ? trader.equals(name)
+                : trader.equals(name.substring(0, space)) || trader.equals(name.substring(space + 1).trim());
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /** False when the buffer is full. */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        return !closed.get() && pending.offer(event);
+    }
+
+    SseEmitter.SseEventBuilder poll() {
+        return closed.get() ? null : pending.poll();
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    boolean startDraining() {
+        return !closed.get() && draining.compareAndSet(false, true);
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+
+    /**
+     * Once closed: true for the one caller that finds no sender thread writing and so may complete
+     * the response. Nothing drains a closed subscription again.
+     */
+    boolean claimSender() {
+        return closed.get() && draining.compareAndSet(false, true);
+    }
+
+    void sendStarted() {
+        sendStartedNanos = System.nanoTime();
+    }
+
+    void sendFinished() {
+        sendStartedNanos = 0;
+    }
+
+    boolean stalled(long timeoutNanos) {
+        long started = sendStartedNanos;
+        return started != 0 && System.nanoTime() - started > timeoutNanos;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /** True for the caller that closed it. */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        pending.clear();
+        return true;
+    }
+
+    private static String normalise(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,268 @@
+package com.technicalchallenge.blotter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.authorization.AuthorizationSnapshot;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live trade blotter feed over Server-Sent Events. Every trade event the relay hands the
+ * in-process sink is pushed to the connections whose filter and permissions it passes, as a
+ * TradeEventDTO whose trade is a JSON merge patch for the row: the whole TradeDTO for bookings
+ * and amendments, just the status fields for terminations and cancellations. The SSE id is the
+ * stream offset, so a client that drops can catch up from /api/trade-events.
+ *
+ * The relay thread only filters and buffers. A connection with events waiting gets a sender thread
+ * of its own, which writes them and exits, so there are never more sender threads than the
+ * max-clients connections and a stalled client blocks nobody's writes but its own. Each connection
+ * buffers at most buffer-size events, and is dropped when that fills up or when a write has been
+ * stuck for send-timeout-ms. A write that is stuck keeps its emitter busy, so the sender thread
+ * completes the response once the write returns or the container times it out; the relay and
+ * heartbeat threads never wait on it.
+ */
+@Component
+public class TradeBlotterStream {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBlotterStream.class);
+
+    private final AuthorizationEngine authorizationEngine;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final int maxClients;
+    private final ThreadPoolTaskExecutor sender;
+    private final ScheduledExecutorService heartbeat;
+    private final Set<BlotterSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public TradeBlotterStream(AuthorizationEngine authorizationEngine,
+                              ObjectMapper objectMapper,
+                              @Value("${trade.blotter.stream.buffer-size:256}") int bufferSize,
+                              @Value("${trade.blotter.stream.send-timeout-ms:10000}") long sendTimeoutMillis,
+                              @Value("${trade.blotter.stream.max-clients:500}") int maxClients,
+                              @Value("${trade.blotter.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.authorizationEngine = authorizationEngine;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxClients = maxClients;
+
+        // A thread per connection while it has events to write; no queue, so a stalled write never
+        // has other connections' events waiting behind it
+        sender = new ThreadPoolTaskExecutor();
+        sender.setCorePoolSize(0);
+        sender.setMaxPoolSize(maxClients);
+        sender.setQueueCapacity(0);
+        sender.setThreadNamePrefix("trade-blotter-");
+        sender.initialize();
+
+        // Comments keep proxies from closing idle connections and find the ones that went away
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-blotter-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the trades matching the criteria's book, counterparty and trader. Throws
+     * UnauthorizedAccessException if the user may not view trades and RejectedExecutionException
+     * when max-clients streams are open.
+     */
+    public SseEmitter subscribe(TradeSearchDTO criteria, String userId) {
+        // No timeout of its own: spring.mvc.async.request-timeout, after which EventSource reconnects
+        return register(new SseEmitter(), criteria, userId);
+    }
+
+    SseEmitter register(SseEmitter emitter, TradeSearchDTO criteria, String userId) {
+        if (criteria.getTradeStatus() != null || criteria.getStartDate() != null || criteria.getEndDate() != null
+                || criteria.getAsOf() != null) {
+            // A trade moving out of such a filter would leave a stale row behind
+            throw new IllegalArgumentException("The trade stream filters on book, counterparty and trader only");
+        }
+        if (!authorizationEngine.isAuthorized(userId, "getAllTrades", null)) {
+            throw new UnauthorizedAccessException("User does not have permission to view trades");
+        }
+        AuthorizationSnapshot.UserGrant user = authorizationEngine.findUser(userId)
+                .orElseThrow(() -> new UnauthorizedAccessException("User not found " + userId));
+        if (subscriptions.size() >= maxClients) {
+            throw new RejectedExecutionException("Trade stream is at its limit of " + maxClients + " connections");
+        }
+
+        Long ownerUserId = "TRADER_SALES".equalsIgnoreCase(user.getUserType()) ? user.getUserId() : null;
+        BlotterSubscription subscription = new BlotterSubscription(emitter, criteria, ownerUserId, bufferSize);
+        emitter.onCompletion(() -> forget(subscription));
+        emitter.onError(e -> forget(subscription));
+        emitter.onTimeout(() -> close(subscription));
+        subscriptions.add(subscription);
+        logger.debug("User {} opened a trade stream, {} open", userId, subscriptions.size());
+        return emitter;
+    }
+
+    public int getClientCount() {
+        return subscriptions.size();
+    }
+
+    @EventListener
+    public void onTradeEvent(TradeEventDTO event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        TradeDTO trade;
+        String data;
+        try {
+            trade = objectMapper.readValue(event.getTrade(), TradeDTO.class);
+            data = objectMapper.writeValueAsString(new TradeEventDTO(event.getOffset(), event.getTradeId(),
+                    event.getVersion(), event.getEventType(), event.getOccurredAt(), patch(event, trade)));
+        } catch (JsonProcessingException e) {
+            logger.error("Trade event {} could not be read, not streamed", event.getOffset(), e);
+            return;
+        }
+
+        for (BlotterSubscription subscription : subscriptions) {
+            if (subscription.accepts(trade)) {
+                offer(subscription, SseEmitter.event()
+                        .id(String.valueOf(event.getOffset()))
+                        .name(event.getEventType())
+                        .data(data, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    // Status changes only touch the status; anything else may have changed every field
+    private String patch(TradeEventDTO event, TradeDTO trade) throws JsonProcessingException {
+        if (!TradeOutboxEvent.TERMINATED.equals(event.getEventType()) && !TradeOutboxEvent.CANCELLED.equals(event.getEventType())) {
+            return event.getTrade();
+        }
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("tradeId", trade.getTradeId());
+        patch.put("version", trade.getVersion());
+        patch.put("tradeStatusId", trade.getTradeStatusId());
+        patch.put("tradeStatus", trade.getTradeStatus());
+        patch.put("lastTouchTimestamp", trade.getLastTouchTimestamp());
+        return objectMapper.writeValueAsString(patch);
+    }
+
+    private void offer(BlotterSubscription subscription, SseEmitter.SseEventBuilder event) {
+        if (subscription.stalled(sendTimeoutNanos)) {
+            evict(subscription, "a write has been stuck for over " + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " ms");
+        } else if (!subscription.offer(event)) {
+            evict(subscription, "its buffer of " + bufferSize + " events is full");
+        } else if (subscription.startDraining()) {
+            send(subscription);
+        }
+    }
+
+    private void send(BlotterSubscription subscription) {
+        try {
+            sender.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            // Only while evicted connections' writes are still stuck, taking up the threads
+            subscription.stopDraining();
+            evict(subscription, "no sender thread is free");
+        }
+    }
+
+    private void drain(BlotterSubscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.poll()) != null) {
+                subscription.sendStarted();
+                subscription.getEmitter().send(event);
+                subscription.sendFinished();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the response was already completed; the container finishes it
+            forget(subscription);
+            return;
+        } finally {
+            subscription.stopDraining();
+        }
+        if (subscription.isClosed()) {
+            // Evicted or timed out during a write, which left the completion to this thread
+            finish(subscription);
+        } else if (subscription.hasPending() && subscription.startDraining()) {
+            // An event offered after the last poll but before draining stopped
+            send(subscription);
+        }
+    }
+
+    private void sendHeartbeats() {
+        try {
+            for (BlotterSubscription subscription : subscriptions) {
+                offer(subscription, SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of the task, it would cancel every later heartbeat
+            logger.error("Trade stream heartbeat failed", e);
+        }
+    }
+
+    private void evict(BlotterSubscription subscription, String reason) {
+        if (subscription.close()) {
+            subscriptions.remove(subscription);
+            logger.warn("Closing a slow trade stream client: {}", reason);
+            finish(subscription);
+        }
+    }
+
+    private void forget(BlotterSubscription subscription) {
+        if (subscription.close()) {
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void close(BlotterSubscription subscription) {
+        if (subscription.close()) {
+            subscriptions.remove(subscription);
+            finish(subscription);
+        }
+    }
+
+    // Completes a closed subscription's response unless a sender thread is writing to it: the
+    // emitter holds its lock for the write, so completing it here would wait for the write too.
+    // That thread completes it instead when the write returns
+    private static void finish(BlotterSubscription subscription) {
+        if (subscription.claimSender()) {
+            complete(subscription);
+        }
+    }
+
+    private static void complete(BlotterSubscription subscription) {
+        try {
+            subscription.getEmitter().complete();
+        } catch (RuntimeException e) {
+            logger.debug("Trade stream already closed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscriptions.forEach(this::close);
+        sender.shutdown();
+    }
+}
@@ -0,0 +1,47 @@
+package com.technicalchallenge.config;
+
+import com.technicalchallenge.metrics.SqlStatementCounter;
+import com.technicalchallenge.metrics.SqlStatementMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics beyond the Actuator defaults. SqlStatementCounter is installed as Hibernate's statement
+ * inspector and SqlStatementMetricsFilter records the count per API request. The trade type tags
+ * on the TradeMetrics meters come from the request, so they are capped at MAX_TRADE_TYPES values;
+ * anything recorded for further types is dropped.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final int MAX_TRADE_TYPES = 50;
+
+    @Bean
+    public MeterFilter tradeTypeTagLimit() {
+        return MeterFilter.maximumAllowableTags("trade.", "trade.type", MAX_TRADE_TYPES, MeterFilter.deny());
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterInspector(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(SqlStatementCounter sqlStatementCounter,
+                                                                                      MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementMetricsFilter(sqlStatementCounter, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.technicalchallenge.config;
+
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Enables the reference data cache used on the trade booking path.
+ * Cache names and the Caffeine spec live in application.properties; the
+ * cached lookups are declared on the repositories, and every write through
+ * those repositories evicts (see RepositoryWriteCacheEviction).
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class ReferenceDataCacheConfig {
+
+    // Transaction aware, so evictions and puts made inside a transaction only happen once it
+    // commits: a rolled back write leaves the cache alone, and a read cannot cache rows that
+    // are not committed yet
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        String spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            caffeineCacheManager.setCaffeineSpec(CaffeineSpec.parse(spec));
+        }
+        caffeineCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    @Bean
+    public static RepositoryWriteCacheEviction repositoryWriteCacheEviction(ObjectProvider<CacheManager> cacheManager) {
+        return new RepositoryWriteCacheEviction(cacheManager);
+    }
+}
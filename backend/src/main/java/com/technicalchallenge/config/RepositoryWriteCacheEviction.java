@@ -0,0 +1,71 @@
+package com.technicalchallenge.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.List;
+
+/**
+ * Clears the caches a repository names in its @CacheConfig whenever one of its save or delete
+ * methods runs, including every inherited JpaRepository write and any added later. Repositories
+ * whose rows are cached as part of another entity name that entity's cache; CostCenter, SubDesk
+ * and Desk name books, for instance.
+ *
+ * The whole cache is cleared, as @CacheEvict(allEntries = true) would, because lookups are cached
+ * by name and by id and a write does not know the other key. The cache manager is transaction
+ * aware, so the clear happens once the write's transaction commits.
+ */
+public class RepositoryWriteCacheEviction implements BeanPostProcessor {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public RepositoryWriteCacheEviction(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        // Before initialization, since the factory bean creates its repository in afterPropertiesSet
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repository) -> {
+                        List<String> cacheNames = cacheNames(repository);
+                        if (!cacheNames.isEmpty()) {
+                            proxyFactory.addAdvice(evictOnWrite(cacheNames));
+                        }
+                    }));
+        }
+        return bean;
+    }
+
+    private static boolean isWrite(String methodName) {
+        return methodName.startsWith("save") || methodName.startsWith("delete");
+    }
+
+    private static List<String> cacheNames(RepositoryInformation repository) {
+        CacheConfig cacheConfig = AnnotatedElementUtils.findMergedAnnotation(repository.getRepositoryInterface(), CacheConfig.class);
+        return cacheConfig != null ? List.of(cacheConfig.cacheNames()) : List.of();
+    }
+
+    private MethodInterceptor evictOnWrite(List<String> cacheNames) {
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (isWrite(invocation.getMethod().getName())) {
+                for (String cacheName : cacheNames) {
+                    Cache cache = cacheManager.getObject().getCache(cacheName);
+                    if (cache != null) {
+                        cache.clear();
+                    }
+                }
+            }
+            return result;
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.BookDTO;
 import com.technicalchallenge.mapper.BookMapper;
 import com.technicalchallenge.model.Book;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,8 @@ public class BookController {
 
     @Autowired
     private BookService bookService;
+    @Autowired
+    private PositionEngine positionEngine;
 
 
     @GetMapping
@@ -51,6 +54,7 @@ public class BookController {
             return ResponseEntity.badRequest().body("Cost center is required");
         }
         var saved = bookService.saveBook(bookDTO);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.ok(saved);
     }
 
@@ -58,6 +62,7 @@ public class BookController {
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         logger.warn("Deleting book with id: {}", id);
         bookService.deleteBook(id);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.noContent().build();
     }
 
@@ -2,10 +2,15 @@ package com.technicalchallenge.controller;
 
 import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.CashflowLadderDTO;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.LegSchedule;
+import com.technicalchallenge.schedule.ScheduleEngine;
 import com.technicalchallenge.service.CashflowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -25,8 +30,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +44,10 @@ public class CashflowController {
     private CashflowService cashflowService;
     @Autowired
     private CashflowMapper cashflowMapper;
+    @Autowired
+    private ScheduleEngine scheduleEngine;
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
 
     @GetMapping
     @Operation(summary = "Get all cashflows",
@@ -58,6 +65,33 @@ public class CashflowController {
                 .toList();
     }
 
+    @GetMapping("/ladder")
+    @Operation(summary = "Get cashflow ladder",
+               description = "Projected cashflows of live trades by currency and daily, weekly or monthly value date bucket. "
+                       + "Pay amounts are negative, receive amounts positive, with a running net per currency.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ladder returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowLadderDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown bucket or start date after end date")
+    })
+    public List<CashflowLadderDTO> getCashflowLadder(
+            @Parameter(description = "First value date, today if omitted", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last value date, a year after the first if omitted", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "daily, weekly or monthly", example = "monthly")
+            @RequestParam(defaultValue = "daily") String bucket,
+            @Parameter(description = "Only cashflows of trades in this book")
+            @RequestParam(required = false) String book,
+            @Parameter(description = "Only cashflows of trades with this counterparty")
+            @RequestParam(required = false) String counterparty) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusYears(1);
+        logger.info("Fetching {} cashflow ladder from {} to {}", bucket, start, end);
+        return cashflowService.getCashflowLadder(start, end, CashflowService.LadderBucket.from(bucket), book, counterparty);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get cashflow by ID",
                description = "Retrieves a specific cashflow by its unique identifier")
@@ -129,56 +163,32 @@ public class CashflowController {
     })
     public ResponseEntity<List<CashflowDTO>> generateCashflows(@RequestBody CashflowGenerationRequest request) {
         List<CashflowDTO> allCashflows = new ArrayList<>();
-        if (request.getLegs() == null || request.getLegs().isEmpty()) {
+        if (request.getLegs() == null || request.getLegs().isEmpty()
+                || request.getTradeStartDate() == null || request.getTradeMaturityDate() == null) {
             return ResponseEntity.badRequest().body(allCashflows);
         }
         for (CashflowGenerationRequest.TradeLegDTO leg : request.getLegs()) {
-            LocalDate startDate = request.getTradeStartDate();
-            LocalDate maturityDate = request.getTradeMaturityDate();
-            String schedule = leg.getCalculationPeriodSchedule();
-            int months = scheduleToMonths(schedule);
-            if (months <= 0) {
+            // Legs without a schedule have nothing to generate
+            if (leg.getCalculationPeriodSchedule() == null) {
                 continue;
             }
-            LocalDate valueDate = startDate;
-            while (valueDate.isBefore(maturityDate)) {
-                LocalDate nextValueDate = valueDate.plusMonths(months);
-                if (nextValueDate.isAfter(maturityDate)) {
-                    nextValueDate = maturityDate;
-                }
-                BigDecimal paymentValue = BigDecimal.ZERO;
-                if ("Fixed".equalsIgnoreCase(leg.getLegType())) {
-                    long days = java.time.temporal.ChronoUnit.DAYS.between(valueDate, nextValueDate);
-                    double rate = leg.getRate() != null ? leg.getRate() : 0.0;
-                    paymentValue = leg.getNotional().multiply(BigDecimal.valueOf(rate)).multiply(BigDecimal.valueOf(days)).divide(BigDecimal.valueOf(360), 2, BigDecimal.ROUND_HALF_UP);
-                }
-                // For floating, paymentValue remains 0
+            LegSchedule schedule = scheduleEngine.generate(request.getTradeStartDate(), request.getTradeMaturityDate(),
+                    scheduleEngine.parseFrequencyMonths(leg.getCalculationPeriodSchedule()),
+                    leg.getNotional(), leg.getRate(), "Fixed".equalsIgnoreCase(leg.getLegType()),
+                    ScheduleEngine.RollConvention.from(leg.getPaymentBusinessDayConvention()),
+                    holidayCalendarRegistry.calendar(leg.getHolidayCalendar()));
+            for (int period = 0; period < schedule.size(); period++) {
                 CashflowDTO cf = new CashflowDTO();
-                cf.setValueDate(nextValueDate);
-                cf.setPaymentValue(paymentValue);
+                cf.setValueDate(schedule.paymentDate(period));
+                cf.setPaymentValue(schedule.amount(period));
                 cf.setPayRec(leg.getPayReceiveFlag());
                 cf.setPaymentType(leg.getLegType());
                 cf.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
                 cf.setRate(leg.getRate());
                 allCashflows.add(cf);
-                valueDate = nextValueDate;
             }
         }
         return ResponseEntity.ok(allCashflows);
     }
 
-    private int scheduleToMonths(String schedule) {
-        if (schedule == null) return 0;
-        schedule = schedule.toLowerCase();
-        if (schedule.contains("month")) {
-            if (schedule.contains("3")) return 3;
-            if (schedule.contains("6")) return 6;
-            if (schedule.contains("12")) return 12;
-            return 1;
-        }
-        if (schedule.contains("quarter")) return 3;
-        if (schedule.contains("annual") || schedule.contains("year")) return 12;
-        return 0;
-    }
-
 }
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.CostCenterDTO;
 import com.technicalchallenge.mapper.CostCenterMapper;
 import com.technicalchallenge.model.CostCenter;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.CostCenterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,8 @@ public class CostCenterController {
     @Autowired
     private CostCenterService costCenterService;
     @Autowired
+    private PositionEngine positionEngine;
+    @Autowired
     private CostCenterMapper costCenterMapper;
 
     @GetMapping
@@ -56,6 +59,7 @@ public class CostCenterController {
         }
         var entity = costCenterMapper.toEntity(costCenterDTO);
         var saved = costCenterService.saveCostCenter(entity, costCenterDTO);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.ok(costCenterMapper.toDto(saved));
     }
 
@@ -63,6 +67,7 @@ public class CostCenterController {
     public ResponseEntity<Void> deleteCostCenter(@PathVariable Long id) {
         logger.warn("Deleting cost center with id: {}", id);
         costCenterService.deleteCostCenter(id);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.noContent().build();
     }
 
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.CounterpartyDTO;
 import com.technicalchallenge.mapper.CounterpartyMapper;
 import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.CounterpartyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +32,8 @@ public class CounterpartyController {
     private CounterpartyService counterpartyService;
     @Autowired
     private CounterpartyMapper counterpartyMapper;
+    @Autowired
+    private PositionEngine positionEngine;
 
     @GetMapping
     @Operation(summary = "Get all counterparties",
@@ -80,6 +83,7 @@ public class CounterpartyController {
         }
         var entity = counterpartyMapper.toEntity(counterpartyDTO);
         var saved = counterpartyService.saveCounterparty(entity);
+        positionEngine.refreshNames();
         return ResponseEntity.ok(counterpartyMapper.toDto(saved));
     }
 
@@ -93,6 +97,7 @@ public class CounterpartyController {
     })
     public ResponseEntity<Void> deleteCounterparty(@PathVariable(name = "id") Long id) {
         counterpartyService.deleteCounterparty(id);
+        positionEngine.refreshNames();
         return ResponseEntity.noContent().build();
     }
 
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.CurrencyDTO;
 import com.technicalchallenge.mapper.CurrencyMapper;
 import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.CurrencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +25,9 @@ public class CurrencyController {
     @Autowired
     private CurrencyMapper currencyMapper;
 
+    @Autowired
+    private PositionEngine positionEngine;
+
     @GetMapping
     public List<CurrencyDTO> getAll() {
         logger.info("Fetching all currencies");
@@ -45,7 +49,9 @@ public class CurrencyController {
     public CurrencyDTO create(@RequestBody CurrencyDTO currencyDTO) {
         logger.info("Creating new currency: {}", currencyDTO);
         Currency entity = currencyMapper.toEntity(currencyDTO);
-        return currencyMapper.toDto(currencyService.save(entity));
+        CurrencyDTO saved = currencyMapper.toDto(currencyService.save(entity));
+        positionEngine.refreshNames();
+        return saved;
     }
 
     @PutMapping("/{id}")
@@ -54,7 +60,9 @@ public class CurrencyController {
                 .map(existing -> {
                     Currency entity = currencyMapper.toEntity(currencyDTO);
                     entity.setId(id);
-                    return ResponseEntity.ok(currencyMapper.toDto(currencyService.save(entity)));
+                    CurrencyDTO saved = currencyMapper.toDto(currencyService.save(entity));
+                    positionEngine.refreshNames();
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -64,6 +72,7 @@ public class CurrencyController {
         logger.warn("Deleting currency with id: {}", id);
         if (currencyService.findById(id).isPresent()) {
             currencyService.deleteById(id);
+            positionEngine.refreshNames();
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.DeskDTO;
 import com.technicalchallenge.mapper.DeskMapper;
 import com.technicalchallenge.model.Desk;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.DeskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,8 @@ public class DeskController {
     @Autowired
     private DeskService deskService;
     @Autowired
+    private PositionEngine positionEngine;
+    @Autowired
     private DeskMapper deskMapper;
 
     @GetMapping
@@ -53,6 +56,7 @@ public class DeskController {
         }
         var entity = deskMapper.toEntity(deskDTO);
         var saved = deskService.saveDesk(entity);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.ok(deskMapper.toDto(saved));
     }
 
@@ -60,6 +64,7 @@ public class DeskController {
     public ResponseEntity<Void> deleteDesk(@PathVariable Long id) {
         logger.warn("Deleting desk with id: {}", id);
         deskService.deleteDesk(id);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.noContent().build();
     }
 
@@ -1,14 +1,22 @@
 package com.technicalchallenge.controller;
 
 import com.technicalchallenge.dto.HolidayCalendarDTO;
+import com.technicalchallenge.dto.HolidayDTO;
 import com.technicalchallenge.mapper.HolidayCalendarMapper;
 import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.ScheduleEngine;
 import com.technicalchallenge.service.HolidayCalendarService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +32,9 @@ public class HolidayCalendarController {
     @Autowired
     private HolidayCalendarMapper holidayCalendarMapper;
 
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
     @GetMapping
     public List<HolidayCalendarDTO> getAll() {
         logger.info("Fetching all holiday calendars");
@@ -45,7 +56,9 @@ public class HolidayCalendarController {
     public HolidayCalendarDTO create(@RequestBody HolidayCalendarDTO holidayCalendarDTO) {
         logger.info("Creating new holiday calendar: {}", holidayCalendarDTO);
         HolidayCalendar entity = holidayCalendarMapper.toEntity(holidayCalendarDTO);
-        return holidayCalendarMapper.toDto(holidayCalendarService.save(entity));
+        HolidayCalendarDTO saved = holidayCalendarMapper.toDto(holidayCalendarService.save(entity));
+        holidayCalendarRegistry.rebuild();
+        return saved;
     }
 
     @PutMapping("/{id}")
@@ -54,7 +67,9 @@ public class HolidayCalendarController {
                 .map(existing -> {
                     HolidayCalendar entity = holidayCalendarMapper.toEntity(holidayCalendarDTO);
                     entity.setId(id);
-                    return ResponseEntity.ok(holidayCalendarMapper.toDto(holidayCalendarService.save(entity)));
+                    HolidayCalendarDTO saved = holidayCalendarMapper.toDto(holidayCalendarService.save(entity));
+                    holidayCalendarRegistry.rebuild();
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -64,6 +79,7 @@ public class HolidayCalendarController {
         logger.warn("Deleting holiday calendar with id: {}", id);
         if (holidayCalendarService.findById(id).isPresent()) {
             holidayCalendarService.deleteById(id);
+            holidayCalendarRegistry.rebuild();
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -76,4 +92,52 @@ public class HolidayCalendarController {
                 .map(HolidayCalendar::getHolidayCalendar)
                 .toList();
     }
+
+    @GetMapping("/{id}/holidays")
+    public ResponseEntity<List<HolidayDTO>> getHolidays(@PathVariable Long id) {
+        if (holidayCalendarService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(holidayCalendarService.getHolidays(id).stream()
+                .map(holiday -> {
+                    HolidayDTO dto = new HolidayDTO();
+                    dto.setHolidayDate(holiday.getHolidayDate());
+                    dto.setDescription(holiday.getDescription());
+                    return dto;
+                })
+                .toList());
+    }
+
+    // Bulk load; dates the calendar already has are skipped, so the same file can be posted again
+    @PostMapping("/{id}/holidays")
+    public ResponseEntity<Map<String, Object>> loadHolidays(@PathVariable Long id, @RequestBody List<HolidayDTO> holidays) {
+        Optional<HolidayCalendar> calendar = holidayCalendarService.findById(id);
+        if (calendar.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.info("Bulk loading {} holidays into calendar id: {}", holidays.size(), id);
+        int inserted = holidayCalendarService.bulkLoadHolidays(calendar.get(), holidays);
+        holidayCalendarRegistry.rebuild();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("calendar", calendar.get().getHolidayCalendar());
+        body.put("received", holidays.size());
+        body.put("inserted", inserted);
+        return ResponseEntity.ok(body);
+    }
+
+    // calendar accepts joint calendars such as NY+LON; convention defaults to Modified Following
+    @GetMapping("/business-days")
+    public Map<String, Object> businessDay(@RequestParam String calendar,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                           @RequestParam(defaultValue = "Modified Following") String convention) {
+        ScheduleEngine.RollConvention rollConvention = ScheduleEngine.RollConvention.from(convention);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("calendar", calendar);
+        body.put("date", date);
+        body.put("businessDay", holidayCalendarRegistry.isBusinessDay(calendar, date));
+        body.put("convention", rollConvention);
+        body.put("adjustedDate", holidayCalendarRegistry.adjust(calendar, date, rollConvention));
+        return body;
+    }
 }
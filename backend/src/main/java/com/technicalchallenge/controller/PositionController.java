@@ -0,0 +1,102 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.CashflowTotalDTO;
+import com.technicalchallenge.dto.DailySummaryDTO;
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.TradeSummaryDTO;
+import com.technicalchallenge.position.PositionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/positions")
+@Validated
+@Tag(name = "Positions", description = "Running trade counts, notionals and cashflow totals kept up to date as trades are booked and amended")
+public class PositionController {
+    private static final Logger logger = LoggerFactory.getLogger(PositionController.class);
+
+    @Autowired
+    private PositionEngine positionEngine;
+
+    @GetMapping("/summary")
+    @Operation(summary = "Get trade summary",
+               description = "Active trades by status, and live notional by currency, counterparty and desk")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Summary returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeSummaryDTO.class)))
+    })
+    public ResponseEntity<TradeSummaryDTO> getSummary() {
+        logger.debug("Fetching trade summary");
+        return ResponseEntity.ok(positionEngine.summary());
+    }
+
+    @GetMapping("/daily-summary")
+    @Operation(summary = "Get daily summary",
+               description = "Live trades with the given trade date, their notional by currency and by book, and the cashflows due that day")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Daily summary returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = DailySummaryDTO.class)))
+    })
+    public ResponseEntity<DailySummaryDTO> getDailySummary(
+            @Parameter(description = "Trade date to summarise, today if omitted", example = "2024-06-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate summaryDate = date != null ? date : LocalDate.now();
+        logger.debug("Fetching daily summary for {}", summaryDate);
+        return ResponseEntity.ok(positionEngine.dailySummary(summaryDate));
+    }
+
+    @GetMapping("/cashflows")
+    @Operation(summary = "Get cashflow totals",
+               description = "Pay and receive totals of live cashflows for each value date and currency in the range, both ends inclusive")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cashflow totals returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = CashflowTotalDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Start date after end date")
+    })
+    public ResponseEntity<List<CashflowTotalDTO>> getCashflowTotals(
+            @Parameter(description = "First value date", required = true, example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last value date", required = true, example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.debug("Fetching cashflow totals from {} to {}", from, to);
+        return ResponseEntity.ok(positionEngine.cashflows(from, to));
+    }
+
+    @GetMapping("/{level}")
+    @Operation(summary = "Get positions at a level",
+               description = "Live notional per currency of every book, costCenter, subDesk, desk, counterparty or currency, or of one of them when a name is given")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Positions returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = PositionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown level")
+    })
+    public ResponseEntity<List<PositionDTO>> getPositions(
+            @Parameter(description = "book, costCenter, subDesk, desk, counterparty or currency", required = true)
+            @PathVariable String level,
+            @Parameter(description = "Only this book, desk, counterparty and so on")
+            @RequestParam(required = false) String name) {
+        logger.debug("Fetching {} positions for {}", level, name);
+        return ResponseEntity.ok(name != null ? positionEngine.positions(level, name) : positionEngine.positions(level));
+    }
+}
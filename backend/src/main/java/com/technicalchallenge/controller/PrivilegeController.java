@@ -1,5 +1,6 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.dto.PrivilegeDTO;
 import com.technicalchallenge.mapper.PrivilegeMapper;
 import com.technicalchallenge.model.Privilege;
@@ -28,6 +29,9 @@ public class PrivilegeController {
     @Autowired
     private PrivilegeMapper privilegeMapper;
 
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
     @GetMapping
     public List<PrivilegeDTO> getAllPrivileges() {
         logger.info("Fetching all privileges");
@@ -49,6 +53,7 @@ public class PrivilegeController {
     public ResponseEntity<PrivilegeDTO> createPrivilege(@Valid @RequestBody PrivilegeDTO privilegeDTO) {
         logger.info("Creating new privilege: {}", privilegeDTO);
         Privilege savedPrivilege = privilegeService.savePrivilege(privilegeMapper.toEntity(privilegeDTO));
+        authorizationEngine.rebuild();
         return ResponseEntity.created(URI.create("/api/privileges/" + savedPrivilege.getId())).body(privilegeMapper.toDto(savedPrivilege));
     }
 
@@ -56,6 +61,7 @@ public class PrivilegeController {
     public ResponseEntity<Void> deletePrivilege(@PathVariable Long id) {
         logger.warn("Deleting privilege with id: {}", id);
         privilegeService.deletePrivilege(id);
+        authorizationEngine.rebuild();
         return ResponseEntity.noContent().build();
     }
 }
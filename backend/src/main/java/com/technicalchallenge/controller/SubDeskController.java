@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.SubDeskDTO;
 import com.technicalchallenge.mapper.SubDeskMapper;
 import com.technicalchallenge.model.SubDesk;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.SubDeskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,8 @@ public class SubDeskController {
     @Autowired
     private SubDeskService subDeskService;
     @Autowired
+    private PositionEngine positionEngine;
+    @Autowired
     private SubDeskMapper subDeskMapper;
 
     @GetMapping
@@ -56,6 +59,7 @@ public class SubDeskController {
         }
         var entity = subDeskMapper.toEntity(subDeskDTO);
         var saved = subDeskService.saveSubDesk(entity, subDeskDTO);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.status(201).body(subDeskMapper.toDto(saved));
     }
 
@@ -63,6 +67,7 @@ public class SubDeskController {
     public ResponseEntity<Void> deleteSubDesk(@PathVariable Long id) {
         logger.warn("Deleting subdesk with id: {}", id);
         subDeskService.deleteSubDesk(id);
+        positionEngine.refreshHierarchy();
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,79 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.service.TradeBookingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/trades/async")
+@Tag(name = "Trades", description = "Trade management operations including booking, searching, and lifecycle management")
+public class TradeBookingController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBookingController.class);
+
+    @Autowired
+    private TradeBookingService tradeBookingService;
+
+    @PostMapping
+    @Operation(summary = "Book a trade asynchronously",
+               description = "Accepts a trade for booking and returns at once with a booking handle; validation, saving and cashflow generation run in the background. Poll the Location returned for the result. Resubmitting with the same Idempotency-Key returns the original booking instead of booking the trade again.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Booking accepted (or already known for this key)",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBookingStatusDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Missing Idempotency-Key or invalid trade data"),
+        @ApiResponse(responseCode = "403", description = "User may not book trades"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different trade"),
+        @ApiResponse(responseCode = "503", description = "Booking queue is full; retry later with the same key")
+    })
+    public ResponseEntity<TradeBookingStatusDTO> bookTradeAsync(
+            @Parameter(description = "Trade details for creation", required = true)
+            @Valid @RequestBody TradeDTO tradeDTO,
+            @Parameter(description = "Client chosen key identifying this booking across retries", required = true)
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader("X-User-Id") String userId) {
+        logger.info("Accepting asynchronous booking {} for {}", idempotencyKey, userId);
+        TradeBookingStatusDTO booking = tradeBookingService.submit(tradeDTO, userId, idempotencyKey);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{bookingId}")
+                .buildAndExpand(booking.getBookingId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(booking);
+    }
+
+    @GetMapping("/{bookingId}")
+    @Operation(summary = "Get asynchronous booking status",
+               description = "Returns the booking's stage (ACCEPTED, VALIDATING, BOOKING) or its outcome: COMPLETED with the trade ID, REJECTED with the validation errors, or FAILED.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Booking found",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBookingStatusDTO.class))),
+        @ApiResponse(responseCode = "404", description = "No such booking for this user")
+    })
+    public ResponseEntity<TradeBookingStatusDTO> getBookingStatus(
+            @Parameter(description = "Booking handle returned when the trade was submitted", required = true)
+            @PathVariable(name = "bookingId") UUID bookingId,
+            @RequestHeader("X-User-Id") String userId) {
+        return tradeBookingService.getStatus(bookingId, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,20 +1,38 @@
 package com.technicalchallenge.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.blotter.TradeBlotterStream;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.dto.SettlementInstructionsUpdateDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeGridRequestDTO;
+import com.technicalchallenge.dto.TradeGridResponseDTO;
 import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.TradeVersionConflictException;
 import com.technicalchallenge.mapper.TradeMapper;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeBatchService;
+import com.technicalchallenge.service.TradeExportService;
+import com.technicalchallenge.service.TradeGridService;
 import com.technicalchallenge.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,6 +43,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -42,6 +63,16 @@ public class TradeController {
     private TradeService tradeService;
     @Autowired
     private TradeMapper tradeMapper;
+    @Autowired
+    private TradeExportService tradeExportService;
+    @Autowired
+    private TradeBatchService tradeBatchService;
+    @Autowired
+    private TradeGridService tradeGridService;
+    @Autowired
+    private TradeBlotterStream tradeBlotterStream;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Get all trades",
@@ -54,10 +85,11 @@ public class TradeController {
     })
     public List<TradeDTO> getAllTrades(@RequestHeader("X-User-Id") String userId) {
         logger.info("Fetching all trades");
-        return tradeService.getAllTrades(userId).stream()
+        List<TradeDTO> trades = tradeService.getAllTrades(userId).stream()
                 .map(tradeMapper::toDto)
-                .map(tradeService::addAdditionalInfo)
                 .toList();
+        tradeService.addAdditionalInfoToAll(trades);
+        return trades;
     }
 
     @GetMapping("/{id}")
@@ -72,15 +104,40 @@ public class TradeController {
     })
     public ResponseEntity<TradeDTO> getTradeById(
             @Parameter(description = "Unique identifier of the trade", required = true)
-            @PathVariable(name = "id") Long id) {
-        logger.debug("Fetching trade by id: {}", id);
-        return tradeService.getTradeById(id)
+            @PathVariable(name = "id") Long id,
+            @Parameter(description = "Return the version that was active at this time (ISO date-time) instead of the current one", example = "2024-06-01T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        logger.debug("Fetching trade by id: {} as of {}", id, asOf);
+        return tradeService.getTradeById(id, asOf)
                 .map(tradeMapper::toDto)
                 .map(tradeService::addAdditionalInfo)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get trade version history",
+               description = "Lists every version of a trade, oldest first. Each version carries the period it was active for (createdDate to deactivatedDate).")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Versions returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Trade not found")
+    })
+    public ResponseEntity<List<TradeDTO>> getTradeHistory(
+            @Parameter(description = "Unique identifier of the trade", required = true)
+            @PathVariable(name = "id") Long id) {
+        logger.debug("Fetching version history of trade id: {}", id);
+        List<TradeDTO> versions = tradeService.getTradeHistory(id).stream()
+                .map(tradeMapper::toDto)
+                .toList();
+        if (versions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        tradeService.addAdditionalInfoToAll(versions);
+        return ResponseEntity.ok(versions);
+    }
+
     @PostMapping
     @Operation(summary = "Create new trade",
                description = "Creates a new trade with the provided details. Automatically generates cashflows and validates business rules.")
@@ -110,6 +167,43 @@ public class TradeController {
         }
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Book a batch of trades",
+               description = "Books a JSON array of trades. The user is authorized once and reference data is resolved once per distinct name; trades are validated in parallel and saved in chunks. Returns a result per trade - one invalid trade does not stop the rest.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-trade results",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBatchResultDTO.class))),
+        @ApiResponse(responseCode = "403", description = "User may not book trades"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<TradeBatchResultDTO> bookTradeBatch(
+            @Parameter(description = "Trades to book", required = true)
+            @RequestBody List<TradeDTO> tradeDTOs,
+            @RequestHeader("X-User-Id") String userId) {
+        logger.info("Booking batch of {} trades", tradeDTOs.size());
+        return ResponseEntity.ok(tradeBatchService.bookTrades(tradeDTOs.iterator(), userId));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Book a batch of trades from NDJSON",
+               description = "Same as the JSON batch, but reads one trade per line as the request streams in, so the whole load never has to be held in memory. Reading stops at the first malformed line, which is reported as rejected.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-trade results",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeBatchResultDTO.class))),
+        @ApiResponse(responseCode = "403", description = "User may not book trades"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<TradeBatchResultDTO> bookTradeBatchNdjson(
+            InputStream body,
+            @RequestHeader("X-User-Id") String userId) throws IOException {
+        logger.info("Booking NDJSON trade batch");
+        try (MappingIterator<TradeDTO> trades = objectMapper.readerFor(TradeDTO.class).readValues(body)) {
+            return ResponseEntity.ok(tradeBatchService.bookTrades(trades, userId));
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update existing trade",
                description = "Updates an existing trade with new information. Subject to business rule validation and user privileges.")
@@ -119,12 +213,13 @@ public class TradeController {
                                      schema = @Schema(implementation = TradeDTO.class))),
         @ApiResponse(responseCode = "404", description = "Trade not found"),
         @ApiResponse(responseCode = "400", description = "Invalid trade data or business rule violation"),
-        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade")
+        @ApiResponse(responseCode = "403", description = "Insufficient privileges to update trade"),
+        @ApiResponse(responseCode = "409", description = "The version in the request is no longer the trade's active version")
     })
     public ResponseEntity<?> updateTrade(
             @Parameter(description = "Unique identifier of the trade to update", required = true)
             @PathVariable Long id,
-            @Parameter(description = "Updated trade details", required = true)
+            @Parameter(description = "Updated trade details; version is the version being amended", required = true)
             @Valid @RequestBody TradeDTO tradeDTO,
             @RequestHeader("X-User-Id") String userId) {
         logger.info("Updating trade with id: {}", id);
@@ -142,6 +237,10 @@ public class TradeController {
             TradeDTO responseDTO = tradeMapper.toDto(savedTrade);
             responseDTO = tradeService.addAdditionalInfo(responseDTO);
             return ResponseEntity.ok(responseDTO);
+        } catch (TradeVersionConflictException e) {
+            // Answered with 409 and the current version by GlobalExceptionHandler
+            logger.info("Trade {} not updated: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error updating trade: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body("Error updating trade: " + e.getMessage());
@@ -227,7 +326,7 @@ public class TradeController {
 
 @GetMapping("/search")
     @Operation(summary = "Multi-criteria trade search",
-               description = "Search by counterparty, book, status, trader, and date ranges. Returns all trades that match the search criteria.")
+               description = "Search by counterparty, book, status, trader, and date ranges. Returns all trades that match the search criteria. Pass asOf to search the versions that were active at that time.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved all matching trades",
                     content = @Content(mediaType = "application/json",
@@ -240,10 +339,11 @@ public class TradeController {
     ) 
     {
         logger.info("Searching trade with criteria: {}", searchDTO);
-        return tradeService.searchTrade(searchDTO).stream()
+        List<TradeDTO> trades = tradeService.searchTrade(searchDTO).stream()
                 .map(tradeMapper::toDto)
-                .map(tradeService::addAdditionalInfo)
                 .toList();
+        tradeService.addAdditionalInfoToAll(trades);
+        return trades;
     }
 
 
@@ -251,7 +351,7 @@ public class TradeController {
 
     @GetMapping("/filter")
     @Operation(summary = "Paginated multi-criteria trade search",
-               description = "Search by counterparty, book, status, trader, and date ranges with pagination support. Ideal for high-volume result sets.")
+               description = "Search by counterparty, book, status, trader, and date ranges with pagination support. Pass asOf to search the versions that were active at that time. Ideal for high-volume result sets. Use paging=keyset and pass back nextCursor for seek pagination of deep result sets, and count=false to skip the total count query.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved paginated trades",
                     content = @Content(mediaType = "application/json",
@@ -259,7 +359,7 @@ public class TradeController {
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters"),                            
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Page<TradeDTO> filterTrade(
+    public ResponseEntity<?> filterTrade(
     @Parameter(description = "Search criteria - all fields are optional", required=false)    
       @ModelAttribute TradeSearchDTO searchDTO,
     @Parameter(description="Page number (0-indexed)", example="0")
@@ -269,28 +369,42 @@ public class TradeController {
     @Parameter(description="Sort by field", example="tradeDate")
      @RequestParam(defaultValue = "tradeDate") String sortBy,
     @Parameter(description="Sort direction(asc/desc)", example="desc")
-     @RequestParam(defaultValue = "desc") String sortDir
+     @RequestParam(defaultValue = "desc") String sortDir,
+    @Parameter(description="Pagination mode (offset/keyset)", example="offset")
+     @RequestParam(defaultValue = "offset") String paging,
+    @Parameter(description="Continuation token (nextCursor) from the previous keyset page")
+     @RequestParam(required = false) String cursor,
+    @Parameter(description="Run the total count query - defaults to true for offset and false for keyset paging")
+     @RequestParam(required = false) Boolean count
     ) 
     {
         logger.info("Filtering trades with pagination - criteria: {}, page: {}, size: {}, sort: {} {}", searchDTO, page, size, sortBy, sortDir);
 
-        //creating Pageable object
-        Sort sort = sortDir.equalsIgnoreCase("asc")
-          ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        Page<Trade> tradePage = tradeService.filterTradeWithPagination(searchDTO, pageable);
+        if(isKeysetPaging(paging, cursor)){
+            return ResponseEntity.ok(toDtoPage(
+                tradeService.filterTradeWithKeyset(searchDTO, sortBy, sortDir, cursor, size, Boolean.TRUE.equals(count))));
+        }
 
+        Pageable pageable = PageRequest.of(page, size, offsetSort(sortBy, sortDir));
 
-        return tradePage.map(tradeMapper::toDto).map(tradeService::addAdditionalInfo);
+        if(Boolean.FALSE.equals(count)){
+            Slice<TradeDTO> dtoSlice = tradeService.filterTradeWithoutCount(searchDTO, pageable).map(tradeMapper::toDto);
+            tradeService.addAdditionalInfoToAll(dtoSlice.getContent());
+            return ResponseEntity.ok(dtoSlice);
+        }
+
+        Page<Trade> tradePage = tradeService.filterTradeWithPagination(searchDTO, pageable);
+
+        Page<TradeDTO> dtoPage = tradePage.map(tradeMapper::toDto);
+        tradeService.addAdditionalInfoToAll(dtoPage.getContent());
+        return ResponseEntity.ok(dtoPage);
     }
 
 
 
     @GetMapping("/rsql")
     @Operation(summary = "RSQL based trade search",
-               description = "Search trades using RSQL query language for advanced filtering, book, status, trader, and date ranges with pagination support. Ideal for high-volume result sets.")
+               description = "Search trades using RSQL query language for advanced filtering, book, status, trader, and date ranges with pagination support. Ideal for high-volume result sets. Use paging=keyset and pass back nextCursor for seek pagination of deep result sets, and count=false to skip the total count query.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved trades matching RSQL query",
                     content = @Content(mediaType = "application/json",
@@ -298,9 +412,11 @@ public class TradeController {
         @ApiResponse(responseCode = "400", description = "Invalid RSQL query syntax"),                            
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Page<TradeDTO> searchTradeWithRSQL(
+    public ResponseEntity<?> searchTradeWithRSQL(
     @Parameter(description = "RSQL query string", required=true)    
       @RequestParam String query,
+    @Parameter(description="Search the trade versions active at this time (ISO date-time) instead of every version", example="2024-06-01T12:00:00")
+     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
     @Parameter(description="Page number (0-indexed)", example="0")
      @RequestParam(defaultValue = "0") int page,
     @Parameter(description="Page size", example="20")
@@ -308,23 +424,140 @@ public class TradeController {
     @Parameter(description="Sort by field", example="tradeDate")
      @RequestParam(defaultValue = "tradeDate") String sortBy,
     @Parameter(description="Sort direction(asc/desc)", example="desc")
-     @RequestParam(defaultValue = "desc") String sortDir
+     @RequestParam(defaultValue = "desc") String sortDir,
+    @Parameter(description="Pagination mode (offset/keyset)", example="offset")
+     @RequestParam(defaultValue = "offset") String paging,
+    @Parameter(description="Continuation token (nextCursor) from the previous keyset page")
+     @RequestParam(required = false) String cursor,
+    @Parameter(description="Run the total count query - defaults to true for offset and false for keyset paging")
+     @RequestParam(required = false) Boolean count
     ) 
     {
-        logger.info("RSQL search - query: {}, page: {}, size: {}, sort: {} {}", query, page, size, sortBy, sortDir);
+        logger.info("RSQL search - query: {}, as of: {}, page: {}, size: {}, sort: {} {}", query, asOf, page, size, sortBy, sortDir);
 
-        //creating Pageable object
+        if(isKeysetPaging(paging, cursor)){
+            return ResponseEntity.ok(toDtoPage(
+                tradeService.searchTradeWithRsqlKeyset(query, asOf, sortBy, sortDir, cursor, size, Boolean.TRUE.equals(count))));
+        }
+
+        Pageable pageable = PageRequest.of(page, size, offsetSort(sortBy, sortDir));
+
+        if(Boolean.FALSE.equals(count)){
+            Slice<TradeDTO> dtoSlice = tradeService.searchTradeWithRsqlWithoutCount(query, asOf, pageable).map(tradeMapper::toDto);
+            tradeService.addAdditionalInfoToAll(dtoSlice.getContent());
+            return ResponseEntity.ok(dtoSlice);
+        }
+
+        Page<Trade> tradePage = tradeService.searchTradeWithRsql(query, asOf, pageable);
+
+        Page<TradeDTO> dtoPage = tradePage.map(tradeMapper::toDto);
+        tradeService.addAdditionalInfoToAll(dtoPage.getContent());
+        return ResponseEntity.ok(dtoPage);
+    }
+
+    private boolean isKeysetPaging(String paging, String cursor){
+        if(!"offset".equalsIgnoreCase(paging) && !"keyset".equalsIgnoreCase(paging)){
+            throw new IllegalArgumentException("Unsupported paging mode: " + paging + ". Supported modes: offset, keyset");
+        }
+        return "keyset".equalsIgnoreCase(paging) || (cursor != null && !cursor.isBlank());
+    }
+
+    // id breaks ties so rows with equal sort keys keep their order from page to page
+    private Sort offsetSort(String sortBy, String sortDir){
         Sort sort = sortDir.equalsIgnoreCase("asc")
           ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        Page<Trade> tradePage = tradeService.searchTradeWithRsql(query, pageable);
+        if("id".equals(sortBy)){
+            return sort;
+        }
+        return sort.and(Sort.by(sort.iterator().next().getDirection(), "id"));
+    }
 
-        return tradePage.map(tradeMapper::toDto).map(tradeService::addAdditionalInfo);
+    private KeysetPageDTO<TradeDTO> toDtoPage(KeysetPageDTO<Trade> tradePage){
+        List<TradeDTO> content = tradePage.getContent().stream()
+                .map(tradeMapper::toDto)
+                .toList();
+        tradeService.addAdditionalInfoToAll(content);
+        return new KeysetPageDTO<>(content, tradePage.getSize(), tradePage.isHasNext(), tradePage.getNextCursor(), tradePage.getTotalElements());
     }
 
 
+    @GetMapping("/export")
+    @Operation(summary = "Stream trade blotter export",
+               description = "Streams every trade matching the search criteria and optional RSQL query as NDJSON (one trade per line, with legs and cashflows) or CSV (one trade per row). Rows are written as they are read, so the export size is not limited by server memory.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid format, date range or RSQL query"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+    @Parameter(description = "Search criteria - all fields are optional", required=false)
+      @ModelAttribute TradeSearchDTO searchDTO,
+    @Parameter(description = "Optional RSQL query applied on top of the search criteria", required=false)
+      @RequestParam(required = false) String query,
+    @Parameter(description = "Export format (ndjson/csv)", example = "ndjson")
+      @RequestParam(defaultValue = "ndjson") String format
+    )
+    {
+        logger.info("Exporting trades - criteria: {}, query: {}, format: {}", searchDTO, query, format);
+
+        // Resolved up front so bad input is a 400 rather than a half-written stream
+        TradeExportService.Format exportFormat = TradeExportService.Format.from(format);
+        Specification<Trade> spec = tradeService.buildExportSpecification(searchDTO, query);
+
+        StreamingResponseBody body = outputStream -> tradeExportService.exportTrades(spec, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trades." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+
+    @PostMapping(value = "/grid", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Trade blotter rows for the AG Grid server-side row model",
+               description = "Returns rows startRow to endRow of the requested group level. The grid's filterModel and sortModel apply on top of the search criteria and optional RSQL query; rowGroupCols and valueCols are computed with GROUP BY, so only group rows and the visible trades are sent. rowCount is set once the last row is reached.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rows returned successfully",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = TradeGridResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid block, column, filter or RSQL query"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<TradeGridResponseDTO> getGridRows(
+    @Parameter(description = "AG Grid getRows request", required=true)
+      @RequestBody TradeGridRequestDTO request,
+    @Parameter(description = "Search criteria - all fields are optional", required=false)
+      @ModelAttribute TradeSearchDTO searchDTO,
+    @Parameter(description = "Optional RSQL query applied on top of the search criteria", required=false)
+      @RequestParam(required = false) String query
+    )
+    {
+        logger.info("Grid rows {} to {} - group keys: {}, criteria: {}, query: {}",
+                request.getStartRow(), request.getEndRow(), request.getGroupKeys(), searchDTO, query);
+
+        Specification<Trade> spec = tradeService.buildExportSpecification(searchDTO, query);
+        return ResponseEntity.ok(tradeGridService.getRows(request, spec));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Live trade blotter feed",
+               description = "Server-Sent Events stream of trade bookings, amendments, terminations and cancellations matching the book, counterparty and trader criteria, as they commit. Each event is a trade event whose trade is a JSON merge patch for the row; its id is the stream offset. TRADER_SALES users only receive their own trades. A client that falls too far behind is disconnected and should reconnect.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Criteria other than book, counterparty and trader"),
+        @ApiResponse(responseCode = "403", description = "User may not view trades"),
+        @ApiResponse(responseCode = "503", description = "Too many open streams, retry later")
+    })
+    public SseEmitter streamTrades(
+    @Parameter(description = "Book, counterparty and trader criteria - all optional", required=false)
+      @ModelAttribute TradeSearchDTO searchDTO,
+    @RequestHeader("X-User-Id") String userId)
+    {
+        logger.info("Opening trade stream for user {} - book: {}, counterparty: {}, trader: {}",
+                userId, searchDTO.getBook(), searchDTO.getCounterparty(), searchDTO.getTrader());
+        return tradeBlotterStream.subscribe(searchDTO, userId);
+    }
+
     @GetMapping("/search/settlement-instructions")
      @Operation(summary = "Search trades by settlement instructions",
                description = "Retrieves a list of trades that contain the specified text in their settlement instructions.")
@@ -342,8 +575,8 @@ public class TradeController {
     
        List<TradeDTO> trades = tradeService.searchTradesBySettlementInstructions(instructions).stream()
                 .map(tradeMapper::toDto)
-                .map(tradeService::addAdditionalInfo)
                 .toList();
+       tradeService.addAdditionalInfoToAll(trades);
           return ResponseEntity.ok(trades);
         
     }
@@ -0,0 +1,44 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.outbox.TradeOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/trade-events")
+@Tag(name = "Trade Events", description = "The stream of trade bookings, amendments, terminations and cancellations, readable from any offset")
+public class TradeEventController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEventController.class);
+
+    @Autowired
+    private TradeOutbox tradeOutbox;
+
+    @GetMapping
+    @Operation(summary = "Read trade events",
+               description = "Events after the given offset in offset order. Pass the offset of the last event handled to resume without missing any; an empty list means the consumer is up to date")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Events returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Negative offset or limit outside 1 to 1000")
+    })
+    public ResponseEntity<List<TradeEventDTO>> getEvents(
+            @Parameter(description = "Offset of the last event already handled, 0 to read from the start", example = "0")
+            @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Maximum number of events to return", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        logger.debug("Fetching up to {} trade events after offset {}", limit, after);
+        return ResponseEntity.ok(tradeOutbox.eventsAfter(after, limit));
+    }
+}
@@ -1,5 +1,6 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.dto.UserDTO;
 import com.technicalchallenge.mapper.ApplicationUserMapper;
 import com.technicalchallenge.model.ApplicationUser;
@@ -38,6 +39,9 @@ public class UserController {
     @Autowired
     private ApplicationUserMapper applicationUserMapper;
 
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
     @GetMapping
     @Operation(summary = "Get all users",
                description = "Retrieves a list of all users in the system with their profile information and privileges")
@@ -109,6 +113,7 @@ public class UserController {
         logger.info("Creating new user: {}", userDto);
         ApplicationUser user = applicationUserMapper.toEntity(userDto);
         ApplicationUser savedUser = applicationUserService.saveUser(user);
+        authorizationEngine.rebuild();
         UserDTO savedUserDto = applicationUserMapper.toDto(savedUser);
         return ResponseEntity.created(URI.create("/api/users/" + savedUserDto.getId())).body(savedUserDto);
     }
@@ -127,6 +132,7 @@ public class UserController {
         logger.info("Updating user with id: {}", id);
         ApplicationUser user = applicationUserMapper.toEntity(userDto);
         ApplicationUser updatedUser = applicationUserService.updateUser(id, user);
+        authorizationEngine.rebuild();
         UserDTO updatedUserDto = applicationUserMapper.toDto(updatedUser);
         return ResponseEntity.ok(updatedUserDto);
     }
@@ -142,6 +148,7 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         logger.warn("Deleting user with id: {}", id);
         applicationUserService.deleteUser(id);
+        authorizationEngine.rebuild();
         return ResponseEntity.noContent().build();
     }
 
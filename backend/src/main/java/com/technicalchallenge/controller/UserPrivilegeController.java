@@ -1,5 +1,6 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.dto.UserPrivilegeDTO;
 import com.technicalchallenge.mapper.UserPrivilegeMapper;
 import com.technicalchallenge.model.UserPrivilege;
@@ -28,6 +29,9 @@ public class UserPrivilegeController {
     @Autowired
     private UserPrivilegeMapper userPrivilegeMapper;
 
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
     @GetMapping
     public List<UserPrivilegeDTO> getAllUserPrivileges() {
         logger.info("Fetching all user privileges");
@@ -49,6 +53,7 @@ public class UserPrivilegeController {
     public ResponseEntity<UserPrivilegeDTO> createUserPrivilege(@Valid @RequestBody UserPrivilegeDTO userPrivilegeDTO) {
         logger.info("Creating new user privilege: {}", userPrivilegeDTO);
         UserPrivilege createdUserPrivilege = userPrivilegeService.saveUserPrivilege(userPrivilegeMapper.toEntity(userPrivilegeDTO));
+        authorizationEngine.rebuild();
         return ResponseEntity.created(URI.create("/api/userPrivileges/" + createdUserPrivilege.getUserId()))
                 .body(userPrivilegeMapper.toDto(createdUserPrivilege));
     }
@@ -57,6 +62,7 @@ public class UserPrivilegeController {
     public ResponseEntity<Void> deleteUserPrivilege(@PathVariable Long userId, @PathVariable Long privilegeId) {
         // logger.warn("Deleting user privilege with id: {}", id);
         userPrivilegeService.deleteUserPrivilege(userId, privilegeId);
+        authorizationEngine.rebuild();
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,5 +1,6 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.dto.UserProfileDTO;
 import com.technicalchallenge.mapper.UserProfileMapper;
 import com.technicalchallenge.service.UserProfileService;
@@ -16,6 +17,8 @@ public class UserProfileController {
     private UserProfileService userProfileService;
     @Autowired
     private UserProfileMapper userProfileMapper;
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
 
     @GetMapping
     public List<UserProfileDTO> getAllUserProfiles() {
@@ -40,13 +43,17 @@ public class UserProfileController {
     @PutMapping("/{id}")
     public ResponseEntity<UserProfileDTO> updateUserProfile(@PathVariable Long id, @RequestBody UserProfileDTO userProfileDTO) {
         return userProfileService.updateUserProfile(id, userProfileMapper.toEntity(userProfileDTO))
-                .map(userProfile -> ResponseEntity.ok(userProfileMapper.toDto(userProfile)))
+                .map(userProfile -> {
+                    authorizationEngine.rebuild();
+                    return ResponseEntity.ok(userProfileMapper.toDto(userProfile));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUserProfile(@PathVariable Long id) {
         if (userProfileService.deleteUserProfile(id)) {
+            authorizationEngine.rebuild();
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
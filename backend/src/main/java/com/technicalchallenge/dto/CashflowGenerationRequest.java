@@ -15,10 +15,11 @@ public class CashflowGenerationRequest {
     public static class TradeLegDTO {
         private String legType; // "Fixed" or "Floating"
         private BigDecimal notional;
-        private Double rate; // for fixed
+        private Double rate; // for fixed, in percent (3.5 = 3.5%)
         private String index; // for floating
         private String calculationPeriodSchedule; // e.g. "Monthly", "Quarterly", "Annually"
         private String paymentBusinessDayConvention;
+        private String holidayCalendar; // e.g. "NY", or "NY+LON" for a joint calendar
         private String payReceiveFlag; // "Pay" or "Rec"
     }
 }
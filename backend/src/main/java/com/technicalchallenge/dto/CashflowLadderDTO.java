@@ -0,0 +1,29 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One rung of the cashflow ladder: projected cashflows in one currency with value dates from
+ * bucketStart to bucketEnd, both inclusive. Pay amounts are negative and receive amounts positive;
+ * cumulativeNetAmount runs over the currency's buckets from the start of the ladder.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashflowLadderDTO {
+    private String currency;
+    private LocalDate bucketStart;
+    private LocalDate bucketEnd;
+    private long cashflows;
+    private BigDecimal payAmount;
+    private BigDecimal receiveAmount;
+    private BigDecimal netAmount;
+    private BigDecimal cumulativeNetAmount;
+}
@@ -0,0 +1,23 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Cashflows of live trades falling on one value date in one currency; net is receive minus pay. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashflowTotalDTO {
+    private LocalDate valueDate;
+    private String currency;
+    private long cashflows;
+    private BigDecimal payAmount;
+    private BigDecimal receiveAmount;
+    private BigDecimal netAmount;
+}
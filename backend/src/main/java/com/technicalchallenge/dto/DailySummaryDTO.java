@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -17,8 +18,11 @@ import lombok.AllArgsConstructor;
 
 
 public class DailySummaryDTO {
-    private int totalTrades;
-    private int totalNotional;
-    private List<TradeDTO> bookLevelSummaries;
-    private String riskExposureSummaries;
+    private LocalDate date;
+    // Live trades with this trade date
+    private long totalTrades;
+    private List<PositionDTO> totalNotional;
+    private List<PositionDTO> bookLevelSummaries;
+    // Cashflows of live trades with this value date
+    private List<CashflowTotalDTO> cashflows;
 }
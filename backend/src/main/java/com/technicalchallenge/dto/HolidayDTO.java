@@ -0,0 +1,11 @@
+package com.technicalchallenge.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class HolidayDTO {
+    private LocalDate holidayDate;
+    private String description;
+}
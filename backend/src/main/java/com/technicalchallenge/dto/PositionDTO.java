@@ -0,0 +1,25 @@
+package com.technicalchallenge.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Live notional of one book, cost center, sub desk, desk, counterparty or currency in one currency.
+ * trades counts the trades with a leg in that currency; net is receive minus pay.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionDTO {
+    private String name;
+    private String currency;
+    private long trades;
+    private BigDecimal payNotional;
+    private BigDecimal receiveNotional;
+    private BigDecimal netNotional;
+}
@@ -0,0 +1,27 @@
+package com.technicalchallenge.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Result for one trade of a batch. index is the trade's position in the request (zero based).
+ * REJECTED means it failed validation; FAILED means it was valid but could not be saved.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBatchItemResultDTO {
+    public static final String BOOKED = "BOOKED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private String status;
+    private Long tradeId;
+    private List<String> errors;
+}
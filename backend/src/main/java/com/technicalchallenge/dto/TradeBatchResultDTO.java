@@ -0,0 +1,25 @@
+package com.technicalchallenge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a batch booking: one result per submitted trade, in submission order. A rejected or
+ * failed trade does not stop the others from being booked.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBatchResultDTO {
+    private int submitted;
+    private int booked;
+    private int rejected;
+    private int failed;
+    private List<TradeBatchItemResultDTO> results = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.technicalchallenge.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Progress of an asynchronous booking, as returned by /api/trades/async. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBookingStatusDTO {
+    private UUID bookingId;
+    private String idempotencyKey;
+    private String status;
+    private Long tradeId;
+    private List<String> errors;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,28 @@
+package com.technicalchallenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event of the trade event stream. offset is dense and increasing: a consumer that stores the
+ * last offset it handled and asks for the events after it misses nothing. Delivery is at least
+ * once, so the offset is also what to de-duplicate on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeEventDTO {
+    private Long offset;
+    private Long tradeId;
+    private Integer version;
+    private String eventType; // BOOKED, AMENDED, TERMINATED or CANCELLED
+    private LocalDateTime occurredAt;
+
+    // The TradeDTO of the version the event produced, as written to the outbox
+    @JsonRawValue
+    private String trade;
+}
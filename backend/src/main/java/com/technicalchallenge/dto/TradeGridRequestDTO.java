@@ -0,0 +1,50 @@
+package com.technicalchallenge.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The block of rows an AG Grid server-side row model asks for (IServerSideGetRowsRequest). Column
+ * ids are TradeDTO property names. Rows startRow to endRow (exclusive) of the level below
+ * groupKeys: group rows while there are more rowGroupCols than groupKeys, trades after that.
+ */
+@Data
+public class TradeGridRequestDTO {
+    private int startRow;
+    private int endRow;
+    private List<ColumnVO> rowGroupCols = List.of();
+    private List<ColumnVO> valueCols = List.of();
+    private List<String> groupKeys = List.of();
+    private Map<String, FilterModel> filterModel = Map.of();
+    private List<SortModelItem> sortModel = List.of();
+
+    @Data
+    public static class ColumnVO {
+        private String id;
+        private String field;
+        private String displayName;
+        private String aggFunc; // sum, avg, min, max or count
+    }
+
+    @Data
+    public static class SortModelItem {
+        private String colId;
+        private String sort; // asc or desc
+    }
+
+    // A column filter; a combined filter has an operator and conditions instead of a type
+    @Data
+    public static class FilterModel {
+        private String filterType; // text, number, date or set
+        private String type; // equals, contains, lessThan, inRange, blank...
+        private Object filter;
+        private Object filterTo;
+        private String dateFrom; // yyyy-MM-dd HH:mm:ss
+        private String dateTo;
+        private List<String> values;
+        private String operator; // AND or OR
+        private List<FilterModel> conditions;
+    }
+}
@@ -0,0 +1,20 @@
+package com.technicalchallenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One block of grid rows: TradeDTOs at the leaf level, otherwise one map per group holding the
+ * group column's key, childCount and the value column aggregates. rowCount is only set once the
+ * last row of the level is in this block; until then the grid keeps asking for more.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeGridResponseDTO {
+    private List<?> rowData;
+    private Integer rowCount;
+}
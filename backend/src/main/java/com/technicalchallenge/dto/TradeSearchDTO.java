@@ -1,6 +1,9 @@
 package com.technicalchallenge.dto;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -19,4 +22,7 @@ public class TradeSearchDTO {
     private String tradeStatus;
     private LocalDate startDate;
     private LocalDate endDate;
+    // Search the trade versions that were active at this time instead of every version
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime asOf;
 }
@@ -6,6 +6,7 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 
@@ -16,8 +17,9 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 
 public class TradeSummaryDTO {
-    private int totalTradesByStatus;
-    private int totalNotionalAmountsByCurrency;
-    private List<TradeDTO> tradesByTradeTypeAndCounterparty;
-    private String riskExposureSummaries;
+    private long totalTrades;
+    private Map<String, Long> totalTradesByStatus;
+    private List<PositionDTO> totalNotionalAmountsByCurrency;
+    private List<PositionDTO> notionalByCounterparty;
+    private List<PositionDTO> notionalByDesk;
 }
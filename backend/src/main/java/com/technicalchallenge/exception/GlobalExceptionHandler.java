@@ -3,7 +3,9 @@ package com.technicalchallenge.exception;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -57,4 +59,41 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     } 
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex){
+        Map<String, String> response = Map.of(
+            "error", "Idempotency key reused",
+            "message", ex.getMessage(),
+            "timestamp", LocalDateTime.now().toString()
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    // The client amended a version that is no longer the active one; it should reload and retry
+    @ExceptionHandler(TradeVersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleTradeVersionConflictException(TradeVersionConflictException ex){
+        // HashMap, as the current version may be null
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Version conflict");
+        response.put("message", ex.getMessage());
+        response.put("tradeId", ex.getTradeId());
+        response.put("expectedVersion", ex.getExpectedVersion());
+        response.put("currentVersion", ex.getCurrentVersion());
+        response.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    // A bounded pool (such as asynchronous booking) is full; the client should back off and retry
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecutionException(RejectedExecutionException ex){
+        Map<String, String> response = Map.of(
+            "error", "Service busy",
+            "message", "Too many requests in progress, please retry later",
+            "timestamp", LocalDateTime.now().toString()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
 }
@@ -0,0 +1,28 @@
+package com.technicalchallenge.exception;
+
+public class TradeVersionConflictException extends RuntimeException{
+    private final Long tradeId;
+    private final Integer expectedVersion;
+    private final Integer currentVersion;
+
+    public TradeVersionConflictException(Long tradeId, Integer expectedVersion, Integer currentVersion){
+       super("Trade " + tradeId + " was amended concurrently: expected version " + expectedVersion
+               + (currentVersion == null ? "" : ", current version is " + currentVersion));
+       this.tradeId = tradeId;
+       this.expectedVersion = expectedVersion;
+       this.currentVersion = currentVersion;
+    }
+
+    public Long getTradeId(){
+        return tradeId;
+    }
+
+    public Integer getExpectedVersion(){
+        return expectedVersion;
+    }
+
+    // Null when the current version could not be read
+    public Integer getCurrentVersion(){
+        return currentVersion;
+    }
+}
@@ -0,0 +1,28 @@
+package com.technicalchallenge.mapper;
+
+import com.technicalchallenge.dto.AdditionalInfoDTO;
+import com.technicalchallenge.model.AdditionalInfo;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AdditionalInfoMapper {
+
+    public AdditionalInfoDTO toDto(AdditionalInfo entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        AdditionalInfoDTO dto = new AdditionalInfoDTO();
+        dto.setId(entity.getId());
+        dto.setEntityType(entity.getEntityType());
+        dto.setEntityId(entity.getEntityId());
+        dto.setFieldName(entity.getFieldName());
+        dto.setFieldValue(entity.getFieldValue());
+        dto.setFieldType(entity.getFieldType());
+        dto.setActive(entity.getActive());
+        dto.setCreatedDate(entity.getCreatedDate());
+        dto.setLastModifiedDate(entity.getLastModifiedDate());
+        dto.setVersion(entity.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,154 @@
+package com.technicalchallenge.metrics;
+
+import com.technicalchallenge.exception.TradeVersionConflictException;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.ValidationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the trade lifecycle, tagged by trade type and outcome:
+ * - trade.lifecycle: create, amend, terminate and cancel, with outcome success, invalid,
+ *   unauthorized, conflict or error
+ * - trade.validation: each validation stage, with outcome valid or invalid, and
+ *   trade.validation.errors counting the errors each stage reports
+ * - trade.cashflows.generation: generating and saving one leg's cashflows, and
+ *   trade.cashflows.per.leg how many that leg got
+ * Timers and summaries publish percentile histograms. Trade authorization decisions are timed by
+ * AuthorizationEngine and SQL statements per request by SqlStatementMetricsFilter.
+ */
+@Component
+public class TradeMetrics {
+
+    public static final String CREATE = "create";
+    public static final String AMEND = "amend";
+    public static final String TERMINATE = "terminate";
+    public static final String CANCEL = "cancel";
+
+    public static final String REFERENCE_DATA = "reference_data";
+    public static final String BUSINESS_RULES = "business_rules";
+    public static final String LEG_CONSISTENCY = "leg_consistency";
+
+    static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    public TradeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a lifecycle operation. The trade type is read from the trade it returns; tradeType is
+     * the one to tag it with if it fails, null when it is not known up front.
+     */
+    public Trade lifecycle(String operation, String tradeType, Supplier<Trade> action) {
+        long start = System.nanoTime();
+        try {
+            Trade trade = action.get();
+            lifecycleTimer(operation, typeOf(trade, tradeType), "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return trade;
+        } catch (RuntimeException e) {
+            lifecycleTimer(operation, tradeType, outcome(e)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /** Times one validation stage and counts the errors it reports. */
+    public ValidationResult validation(String stage, String tradeType, Supplier<ValidationResult> check) {
+        long start = System.nanoTime();
+        ValidationResult result = check.get();
+        boolean valid = result.isValid();
+        Timer.builder("trade.validation")
+                .description("Latency of trade validation stages")
+                .tag("stage", stage)
+                .tag("trade.type", tag(tradeType))
+                .tag("outcome", valid ? "valid" : "invalid")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        List<String> errors = result.getErrors();
+        if (!valid && errors != null && !errors.isEmpty()) {
+            Counter.builder("trade.validation.errors")
+                    .description("Errors reported by trade validation stages")
+                    .tag("stage", stage)
+                    .tag("trade.type", tag(tradeType))
+                    .register(meterRegistry)
+                    .increment(errors.size());
+        }
+        return result;
+    }
+
+    /** Times generating one leg's cashflows and records how many it got. */
+    public <T extends List<?>> T cashflowGeneration(String tradeType, Supplier<T> generate) {
+        long start = System.nanoTime();
+        T cashflows;
+        try {
+            cashflows = generate.get();
+        } catch (RuntimeException e) {
+            cashflowTimer(tradeType, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        cashflowTimer(tradeType, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("trade.cashflows.per.leg")
+                .description("Cashflows generated per trade leg")
+                .baseUnit("cashflows")
+                .tag("trade.type", tag(tradeType))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(cashflows.size());
+        return cashflows;
+    }
+
+    private Timer lifecycleTimer(String operation, String tradeType, String outcome) {
+        return Timer.builder("trade.lifecycle")
+                .description("Latency of trade lifecycle operations")
+                .tag("operation", operation)
+                .tag("trade.type", tag(tradeType))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer cashflowTimer(String tradeType, String outcome) {
+        return Timer.builder("trade.cashflows.generation")
+                .description("Latency of generating and saving a trade leg's cashflows")
+                .tag("trade.type", tag(tradeType))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Validation failures are IllegalArgumentExceptions; anything unexpected is an error
+    static String outcome(RuntimeException e) {
+        if (e instanceof UnauthorizedAccessException) {
+            return "unauthorized";
+        }
+        if (e instanceof TradeVersionConflictException) {
+            return "conflict";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+
+    private static String typeOf(Trade trade, String fallback) {
+        if (trade == null || trade.getTradeType() == null || trade.getTradeType().getTradeType() == null) {
+            return fallback;
+        }
+        return trade.getTradeType().getTradeType();
+    }
+
+    private static String tag(String tradeType) {
+        return tradeType == null || tradeType.isBlank() ? UNKNOWN : tradeType.trim();
+    }
+}
@@ -0,0 +1,30 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "holiday")
+public class Holiday {
+    // Pooled sequence so bulk loads can batch their inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holiday_seq")
+    @SequenceGenerator(name = "holiday_seq", sequenceName = "holiday_seq", initialValue = 10000, allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "holiday_calendar_id", referencedColumnName = "id")
+    private HolidayCalendar holidayCalendar;
+
+    private LocalDate holidayDate;
+    private String description;
+}
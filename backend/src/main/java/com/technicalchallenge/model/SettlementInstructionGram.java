@@ -0,0 +1,25 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One posting of the settlement instruction trigram index: the additional_info row whose value
+// contains the gram. Maintained by SettlementInstructionIndex
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "settlement_instruction_gram")
+@IdClass(SettlementInstructionGramId.class)
+public class SettlementInstructionGram {
+    @Id
+    private String gram;
+
+    @Id
+    @Column(name = "additional_info_id")
+    private Long additionalInfoId;
+}
@@ -15,9 +15,48 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "trade")
+// Reference data TradeMapper.toDto reads on every trade. Legs and cashflows are collections and
+// are left to hibernate.default_batch_fetch_size so that paged queries stay paged in the database.
+@NamedEntityGraph(name = Trade.SUMMARY_GRAPH, attributeNodes = {
+        @NamedAttributeNode("book"),
+        @NamedAttributeNode("counterparty"),
+        @NamedAttributeNode(value = "traderUser", subgraph = "user"),
+        @NamedAttributeNode(value = "tradeInputterUser", subgraph = "user"),
+        @NamedAttributeNode("tradeType"),
+        @NamedAttributeNode("tradeSubType"),
+        @NamedAttributeNode("tradeStatus")
+}, subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("userProfile")))
+// Single trade read: the summary graph plus the legs and their reference data
+@NamedEntityGraph(name = Trade.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("book"),
+        @NamedAttributeNode("counterparty"),
+        @NamedAttributeNode(value = "traderUser", subgraph = "user"),
+        @NamedAttributeNode(value = "tradeInputterUser", subgraph = "user"),
+        @NamedAttributeNode("tradeType"),
+        @NamedAttributeNode("tradeSubType"),
+        @NamedAttributeNode("tradeStatus"),
+        @NamedAttributeNode(value = "tradeLegs", subgraph = "legs")
+}, subgraphs = {
+        @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("userProfile")),
+        @NamedSubgraph(name = "legs", attributeNodes = {
+                @NamedAttributeNode("currency"),
+                @NamedAttributeNode("legRateType"),
+                @NamedAttributeNode("index"),
+                @NamedAttributeNode("holidayCalendar"),
+                @NamedAttributeNode("calculationPeriodSchedule"),
+                @NamedAttributeNode("paymentBusinessDayConvention"),
+                @NamedAttributeNode("fixingBusinessDayConvention"),
+                @NamedAttributeNode("payReceiveFlag")
+        })
+})
 public class Trade {
+    public static final String SUMMARY_GRAPH = "Trade.summary";
+    public static final String DETAIL_GRAPH = "Trade.detail";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (not IDENTITY) so Hibernate can batch the inserts; starts above the seeded ids in V2__reference_and_sample_data.sql
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_seq")
+    @SequenceGenerator(name = "trade_seq", sequenceName = "trade_seq", initialValue = 10000, allocationSize = 50)
     private Long id;
 
     private Long tradeId;
@@ -0,0 +1,80 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An asynchronous trade booking, keyed by the requesting user and their Idempotency-Key. The id is
+ * the booking handle clients poll; status moves ACCEPTED -> VALIDATING -> BOOKING and ends as
+ * COMPLETED, REJECTED (failed validation) or FAILED (valid but could not be saved, or interrupted
+ * by a restart and not resumable). A FAILED booking booked nothing and may be submitted again.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_booking_request")
+public class TradeBookingRequest {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String VALIDATING = "VALIDATING";
+    public static final String BOOKING = "BOOKING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "requested_by", nullable = false)
+    private String requestedBy;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of the submitted trade, so a key reused for a different trade is refused
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+
+    // The submitted trade as JSON, so a booking interrupted by a restart can be run again
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "status", nullable = false)
+    private String status = ACCEPTED;
+
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    // One error per line
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    @Column(name = "last_modified_date", nullable = false)
+    private LocalDateTime lastModifiedDate = LocalDateTime.now();
+
+    @Column(name = "completed_date")
+    private LocalDateTime completedDate;
+
+    @PreUpdate
+    public void preUpdate() {
+        this.lastModifiedDate = LocalDateTime.now();
+    }
+
+    public static final List<String> UNFINISHED = List.of(ACCEPTED, VALIDATING, BOOKING);
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || REJECTED.equals(status) || FAILED.equals(status);
+    }
+}
@@ -0,0 +1,32 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// The last stream offset a trade event sink has taken; it resumes after it
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_event_sink_offset")
+public class TradeEventSinkOffset {
+    @Id
+    @Column(name = "sink_name")
+    private String sinkName;
+
+    @Column(name = "last_offset", nullable = false)
+    private Long lastOffset = 0L;
+
+    @Column(name = "last_modified_date", nullable = false)
+    private LocalDateTime lastModifiedDate = LocalDateTime.now();
+
+    public TradeEventSinkOffset(String sinkName) {
+        this.sinkName = sinkName;
+    }
+}
@@ -0,0 +1,25 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hi/lo high-water mark for business trade IDs. nextValue is the first ID that has not yet been
+ * handed to any TradeIdAllocator, so IDs reserved before a restart are never reused.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_id_block")
+public class TradeIdBlock {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
@@ -17,7 +17,8 @@ import lombok.Setter;
 @Table(name = "trade_leg")
 public class TradeLeg {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_leg_seq")
+    @SequenceGenerator(name = "trade_leg_seq", sequenceName = "trade_leg_seq", initialValue = 10000, allocationSize = 50)
     private Long legId;
 
     private BigDecimal notional;
@@ -0,0 +1,53 @@
+package com.technicalchallenge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A trade lifecycle event waiting in, or relayed from, the outbox. The payload is the TradeDTO of
+ * the version the event produced, as JSON. streamOffset stays null until the relay sequences the
+ * committed row; from then on it is the event's position in the trade event stream.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "trade_outbox_event")
+public class TradeOutboxEvent {
+    public static final String BOOKED = "BOOKED";
+    public static final String AMENDED = "AMENDED";
+    public static final String TERMINATED = "TERMINATED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_outbox_event_seq")
+    @SequenceGenerator(name = "trade_outbox_event_seq", sequenceName = "trade_outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "trade_id", nullable = false)
+    private Long tradeId;
+
+    @Column(name = "trade_version", nullable = false)
+    private Integer tradeVersion;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    @Column(name = "stream_offset")
+    private Long streamOffset;
+
+    @Column(name = "sequenced_date")
+    private LocalDateTime sequencedDate;
+}
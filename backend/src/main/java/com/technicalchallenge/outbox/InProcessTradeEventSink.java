@@ -0,0 +1,32 @@
+package com.technicalchallenge.outbox;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes each event as a Spring application event, for listeners in this application:
+ * an @EventListener method taking a TradeEventDTO receives every committed trade event, on the
+ * relay thread.
+ */
+@Component
+public class InProcessTradeEventSink implements TradeEventSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public InProcessTradeEventSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<TradeEventDTO> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,54 @@
+package com.technicalchallenge.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeEventDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to an NDJSON log, one TradeEventDTO per line, when trade.events.file.path is
+ * set. Each batch is forced to disk before the relay moves the sink's offset on; a crash in
+ * between repeats the batch, which readers skip by offset.
+ */
+@Component
+@ConditionalOnProperty("trade.events.file.path")
+public class NdjsonFileTradeEventSink implements TradeEventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonFileTradeEventSink(@Value("${trade.events.file.path}") Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void publish(List<TradeEventDTO> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (TradeEventDTO event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            channel.write(StandardCharsets.UTF_8.encode(lines.toString()));
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.technicalchallenge.outbox;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.model.TradeEventSinkOffset;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import com.technicalchallenge.repository.TradeEventSinkOffsetRepository;
+import com.technicalchallenge.repository.TradeOutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves committed outbox events to the sinks. Each run:
+ * - sequences: committed events without an offset get the next offsets, in the order they were
+ *   written. Changes to one trade commit one after another, so its events keep their order.
+ * - delivers: each sink is handed the events after its stored offset, a batch at a time, and the
+ *   offset moves on only once the sink has taken the batch. A failing sink is retried on the next
+ *   run from where it stopped and does not hold the other sinks back.
+ *
+ * Delivery is at least once. Offsets are handed out by this relay, so only one instance of the
+ * application should run it (trade.events.relay.enabled); the unique offset constraint fails a
+ * second one rather than let it reuse offsets.
+ */
+@Component
+public class TradeEventRelay {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEventRelay.class);
+
+    private final TradeOutboxEventRepository tradeOutboxEventRepository;
+    private final TradeEventSinkOffsetRepository tradeEventSinkOffsetRepository;
+    private final List<TradeEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public TradeEventRelay(TradeOutboxEventRepository tradeOutboxEventRepository,
+                           TradeEventSinkOffsetRepository tradeEventSinkOffsetRepository,
+                           List<TradeEventSink> sinks,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${trade.events.relay.enabled:true}") boolean enabled,
+                           @Value("${trade.events.relay.interval-ms:500}") long intervalMillis,
+                           @Value("${trade.events.relay.batch-size:200}") int batchSize) {
+        this.tradeOutboxEventRepository = tradeOutboxEventRepository;
+        this.tradeEventSinkOffsetRepository = tradeEventSinkOffsetRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-event-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relaySafely, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Relaying trade events to {} every {} ms",
+                sinks.stream().map(TradeEventSink::getName).toList(), intervalMillis);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /** One run: sequences what has been committed, then delivers it to every sink. */
+    public synchronized void relay() {
+        int sequenced;
+        do {
+            // A full batch means there may be more waiting
+            sequenced = sequence();
+        } while (sequenced == batchSize);
+        for (TradeEventSink sink : sinks) {
+            deliver(sink);
+        }
+    }
+
+    private void relaySafely() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            // Thrown out of the task, it would cancel every later run
+            logger.error("Trade event relay run failed", e);
+        }
+    }
+
+    private int sequence() {
+        Integer sequenced = transactionTemplate.execute(status -> {
+            List<TradeOutboxEvent> events = tradeOutboxEventRepository.findUnsequenced(PageRequest.of(0, batchSize));
+            long offset = events.isEmpty() ? 0 : tradeOutboxEventRepository.findLastStreamOffset();
+            LocalDateTime now = LocalDateTime.now();
+            for (TradeOutboxEvent event : events) {
+                event.setStreamOffset(++offset);
+                event.setSequencedDate(now);
+            }
+            tradeOutboxEventRepository.saveAll(events);
+            return events.size();
+        });
+        return sequenced == null ? 0 : sequenced;
+    }
+
+    private void deliver(TradeEventSink sink) {
+        TradeEventSinkOffset position = tradeEventSinkOffsetRepository.findById(sink.getName())
+                .orElseGet(() -> new TradeEventSinkOffset(sink.getName()));
+        while (true) {
+            List<TradeEventDTO> events = tradeOutboxEventRepository
+                    .findSequencedAfter(position.getLastOffset(), PageRequest.of(0, batchSize)).stream()
+                    .map(TradeOutbox::toDto)
+                    .toList();
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                logger.warn("Trade event sink {} failed after offset {}, retrying on the next run: {}",
+                        sink.getName(), position.getLastOffset(), e.toString());
+                return;
+            }
+            position.setLastOffset(events.get(events.size() - 1).getOffset());
+            position.setLastModifiedDate(LocalDateTime.now());
+            position = tradeEventSinkOffsetRepository.save(position);
+            logger.debug("Trade event sink {} took {} events up to offset {}", sink.getName(), events.size(),
+                    position.getLastOffset());
+        }
+    }
+}
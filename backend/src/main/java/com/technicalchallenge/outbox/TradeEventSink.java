@@ -0,0 +1,18 @@
+package com.technicalchallenge.outbox;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+
+import java.util.List;
+
+/**
+ * A destination for the trade event stream. TradeEventRelay hands each sink the events after the
+ * last offset it took, in offset order and so in order per trade, a batch at a time. A batch that
+ * throws is offered again on the next run, so a sink sees every event at least once.
+ */
+public interface TradeEventSink {
+
+    /** Stable name the sink's offset is stored under. */
+    String getName();
+
+    void publish(List<TradeEventDTO> events) throws Exception;
+}
@@ -0,0 +1,69 @@
+package com.technicalchallenge.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import com.technicalchallenge.repository.TradeOutboxEventRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The write side of the trade event stream. TradeService records an event for every booking,
+ * amendment, termination and cancellation in the transaction that makes the change, so the event
+ * is committed exactly when the trade is; TradeEventRelay then sequences and delivers it.
+ */
+@Component
+public class TradeOutbox {
+
+    static final int MAX_EVENTS = 1000;
+
+    private final TradeOutboxEventRepository tradeOutboxEventRepository;
+    private final TradeMapper tradeMapper;
+    private final ObjectMapper objectMapper;
+
+    public TradeOutbox(TradeOutboxEventRepository tradeOutboxEventRepository, TradeMapper tradeMapper,
+                       ObjectMapper objectMapper) {
+        this.tradeOutboxEventRepository = tradeOutboxEventRepository;
+        this.tradeMapper = tradeMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Writes the event with the saved trade version as its payload; only inside the caller's transaction. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String eventType, Trade trade) {
+        TradeOutboxEvent event = new TradeOutboxEvent();
+        event.setTradeId(trade.getTradeId());
+        event.setTradeVersion(trade.getVersion());
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(tradeMapper.toDto(trade)));
+        } catch (JsonProcessingException e) {
+            // Rolls the trade change back with it: an event that cannot be written must not be lost
+            throw new IllegalStateException("Could not serialise trade " + trade.getTradeId() + " for the outbox", e);
+        }
+        tradeOutboxEventRepository.save(event);
+    }
+
+    /** Up to limit sequenced events after the given offset, in offset order. */
+    @Transactional(readOnly = true)
+    public List<TradeEventDTO> eventsAfter(long after, int limit) {
+        if (after < 0 || limit < 1 || limit > MAX_EVENTS) {
+            throw new IllegalArgumentException("after must be 0 or more and limit 1 to " + MAX_EVENTS);
+        }
+        return tradeOutboxEventRepository.findSequencedAfter(after, PageRequest.of(0, limit)).stream()
+                .map(TradeOutbox::toDto)
+                .toList();
+    }
+
+    static TradeEventDTO toDto(TradeOutboxEvent event) {
+        return new TradeEventDTO(event.getStreamOffset(), event.getTradeId(), event.getTradeVersion(),
+                event.getEventType(), event.getCreatedDate(), event.getPayload());
+    }
+}
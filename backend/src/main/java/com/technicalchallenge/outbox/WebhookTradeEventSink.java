@@ -0,0 +1,43 @@
+package com.technicalchallenge.outbox;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array to trade.events.webhook.url when it is set. Anything but a 2xx
+ * response fails the batch, and the relay offers it again on its next run.
+ */
+@Component
+@ConditionalOnProperty("trade.events.webhook.url")
+public class WebhookTradeEventSink implements TradeEventSink {
+
+    private final String url;
+    private final RestTemplate restTemplate;
+
+    public WebhookTradeEventSink(@Value("${trade.events.webhook.url}") String url,
+                                 @Value("${trade.events.webhook.timeout-ms:5000}") long timeoutMillis,
+                                 RestTemplateBuilder restTemplateBuilder) {
+        this.url = url;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMillis))
+                .setReadTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void publish(List<TradeEventDTO> events) {
+        restTemplate.postForEntity(url, events, Void.class);
+    }
+}
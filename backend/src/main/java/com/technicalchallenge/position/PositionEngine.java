@@ -0,0 +1,482 @@
+package com.technicalchallenge.position;
+
+import com.technicalchallenge.dto.CashflowTotalDTO;
+import com.technicalchallenge.dto.DailySummaryDTO;
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.TradeSummaryDTO;
+import com.technicalchallenge.repository.TradePositionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Running position totals over the active trade versions:
+ * - trade counts by status
+ * - live notional by currency, counterparty and book, rolled up book -> cost center -> sub desk -> desk
+ * - live trades and notional by trade date and book
+ * - live cashflows by value date and currency
+ *
+ * The totals are loaded with a few GROUP BY queries at startup. After that TradeService reports
+ * every booking, amendment, cancellation and termination through record(), which takes the old
+ * TradePosition off and adds the new one once the transaction commits. A change costs one update
+ * per bucket it touches, and reading a summary never looks at trades.
+ *
+ * Totals are keyed by id and only turned into names when they are read, so renaming a book,
+ * counterparty or currency never moves a total. Book, cost center, sub desk and desk controllers
+ * call refreshHierarchy() after every write, which reloads the names and re-rolls the parent levels
+ * from the book totals; counterparty and currency controllers call refreshNames(). Neither touches
+ * the trades.
+ */
+@Component
+public class PositionEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PositionEngine.class);
+
+    public static final String BOOK = "book";
+    public static final String COST_CENTER = "costCenter";
+    public static final String SUB_DESK = "subDesk";
+    public static final String DESK = "desk";
+    public static final String COUNTERPARTY = "counterparty";
+    public static final String CURRENCY = "currency";
+    public static final List<String> LEVELS = List.of(BOOK, COST_CENTER, SUB_DESK, DESK, COUNTERPARTY, CURRENCY);
+
+    private record BookParents(Long costCenter, Long subDesk, Long desk) {}
+
+    private record Hierarchy(Map<Long, BookParents> parentsByBook, Map<String, Map<Long, String>> names) {}
+
+    private final TradePositionRepository tradePositionRepository;
+
+    // Held shared from just before a recorded change commits until it has been applied, and
+    // exclusively while rebuild() reads the database. A change is therefore either committed and
+    // applied before the reload, which then replaces it, or committed after the reload has read
+    // everything, so it is never counted twice or lost
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    // Not synchronized: a virtual thread waiting to enter a monitor stays pinned to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<String, Long> tradesByStatus = new TreeMap<>();
+    // level -> id -> currency id
+    private final Map<String, Map<Long, Map<Long, PositionTotals>>> levels = new HashMap<>();
+    // level -> id -> name; the currency level also names the currency of every bucket
+    private final Map<String, Map<Long, String>> names = new HashMap<>();
+    private final TreeMap<LocalDate, Long> tradesByTradeDate = new TreeMap<>();
+    // trade date -> book id -> currency id
+    private final TreeMap<LocalDate, Map<Long, Map<Long, PositionTotals>>> activity = new TreeMap<>();
+    // value date -> currency id
+    private final TreeMap<LocalDate, Map<Long, PositionTotals>> cashflows = new TreeMap<>();
+    private Map<Long, BookParents> parentsByBook = Map.of();
+    private boolean loaded;
+
+    public PositionEngine(TradePositionRepository tradePositionRepository) {
+        this.tradePositionRepository = tradePositionRepository;
+        LEVELS.forEach(level -> {
+            levels.put(level, new HashMap<>());
+            names.put(level, new HashMap<>());
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Reloads every total from the database. */
+    public void rebuild() {
+        commitGate.writeLock().lock();
+        try {
+            Hierarchy hierarchy = loadHierarchy();
+            Map<Long, String> counterparties = loadNames(tradePositionRepository.findCounterpartyNames());
+            Map<Long, String> currencies = loadNames(tradePositionRepository.findCurrencyNames());
+            List<Object[]> statuses = tradePositionRepository.countActiveTradesByStatus();
+            List<Object[]> tradeDates = tradePositionRepository.countLiveTradesByTradeDate();
+            List<Object[]> notionals = tradePositionRepository.sumLiveNotionals();
+            List<Object[]> flows = tradePositionRepository.sumLiveCashflows();
+
+            lock.lock();
+            try {
+                tradesByStatus.clear();
+                levels.values().forEach(Map::clear);
+                tradesByTradeDate.clear();
+                activity.clear();
+                cashflows.clear();
+                useHierarchy(hierarchy);
+                names.put(COUNTERPARTY, counterparties);
+                names.put(CURRENCY, currencies);
+
+                for (Object[] row : statuses) {
+                    tradesByStatus.put((String) row[0], count(row[1]));
+                }
+                for (Object[] row : tradeDates) {
+                    tradesByTradeDate.put((LocalDate) row[0], count(row[1]));
+                }
+                for (Object[] row : notionals) {
+                    addNotional(id(row[0]), id(row[1]), (LocalDate) row[2], id(row[3]),
+                            count(row[4]), amount(row[5]), amount(row[6]));
+                }
+                for (Object[] row : flows) {
+                    add(cashflows, (LocalDate) row[0], id(row[1]), count(row[2]), amount(row[3]), amount(row[4]));
+                }
+                loaded = true;
+                logger.info("Positions loaded: {} books, {} value dates", levels.get(BOOK).size(), cashflows.size());
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    /** Reloads the book, cost center, sub desk and desk names and rolls the book totals up the hierarchy again. */
+    public void refreshHierarchy() {
+        Hierarchy hierarchy = loadHierarchy();
+        lock.lock();
+        try {
+            useHierarchy(hierarchy);
+            levels.get(COST_CENTER).clear();
+            levels.get(SUB_DESK).clear();
+            levels.get(DESK).clear();
+            levels.get(BOOK).forEach((book, byCurrency) -> byCurrency.forEach((currency, totals) ->
+                    addToParents(book, currency, totals.count, totals.pay, totals.receive)));
+            logger.info("Position hierarchy refreshed for {} books", parentsByBook.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Reloads the counterparty and currency names. */
+    public void refreshNames() {
+        Map<Long, String> counterparties = loadNames(tradePositionRepository.findCounterpartyNames());
+        Map<Long, String> currencies = loadNames(tradePositionRepository.findCurrencyNames());
+        lock.lock();
+        try {
+            names.put(COUNTERPARTY, counterparties);
+            names.put(CURRENCY, currencies);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces what a trade contributes: before is taken off and after added, either may be null.
+     * Inside a transaction this waits for the commit, so a rolled back change never shows up.
+     */
+    public void record(TradePosition before, TradePosition after) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean gated;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitGate.readLock().lock();
+                    gated = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply(before, after);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (gated) {
+                        gated = false;
+                        commitGate.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            commitGate.readLock().lock();
+            try {
+                apply(before, after);
+            } finally {
+                commitGate.readLock().unlock();
+            }
+        }
+    }
+
+    private void apply(TradePosition before, TradePosition after) {
+        lock.lock();
+        try {
+            // Until the first load, the load itself picks up whatever has been committed
+            if (!loaded) {
+                return;
+            }
+            if (before != null) {
+                apply(before, -1);
+            }
+            if (after != null) {
+                apply(after, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(TradePosition position, int sign) {
+        if (position.status != null) {
+            adjust(tradesByStatus, position.status, sign);
+        }
+        if (!position.live) {
+            return;
+        }
+        if (position.tradeDate != null) {
+            adjust(tradesByTradeDate, position.tradeDate, sign);
+        }
+        // Only fills in what has not been loaded yet, such as a book created since
+        names.get(BOOK).putIfAbsent(position.bookId, position.book);
+        names.get(COUNTERPARTY).putIfAbsent(position.counterpartyId, position.counterparty);
+
+        // A trade counts once per currency it has legs in
+        Map<Long, PositionTotals> byCurrency = new HashMap<>();
+        for (TradePosition.Notional notional : position.notionals) {
+            names.get(CURRENCY).putIfAbsent(notional.currencyId(), notional.currency());
+            PositionTotals totals = byCurrency.computeIfAbsent(notional.currencyId(), currency -> new PositionTotals());
+            totals.add(0, notional.pay() ? notional.amount() : BigDecimal.ZERO, notional.pay() ? BigDecimal.ZERO : notional.amount());
+        }
+        byCurrency.forEach((currency, totals) -> addNotional(position.bookId, position.counterpartyId, position.tradeDate,
+                currency, sign, signed(totals.pay, sign), signed(totals.receive, sign)));
+
+        for (TradePosition.Flow flow : position.cashflows) {
+            add(cashflows, flow.valueDate(), flow.currencyId(), sign,
+                    flow.pay() ? signed(flow.amount(), sign) : BigDecimal.ZERO,
+                    flow.pay() ? BigDecimal.ZERO : signed(flow.amount(), sign));
+        }
+    }
+
+    private void addNotional(Long book, Long counterparty, LocalDate tradeDate, Long currency,
+                             long count, BigDecimal pay, BigDecimal receive) {
+        add(levels.get(BOOK), book, currency, count, pay, receive);
+        addToParents(book, currency, count, pay, receive);
+        add(levels.get(COUNTERPARTY), counterparty, currency, count, pay, receive);
+        add(levels.get(CURRENCY), currency, currency, count, pay, receive);
+        if (tradeDate != null) {
+            Map<Long, Map<Long, PositionTotals>> books = activity.computeIfAbsent(tradeDate, date -> new HashMap<>());
+            add(books, book, currency, count, pay, receive);
+            if (books.isEmpty()) {
+                activity.remove(tradeDate);
+            }
+        }
+    }
+
+    private void addToParents(Long book, Long currency, long count, BigDecimal pay, BigDecimal receive) {
+        BookParents parents = parentsByBook.get(book);
+        if (parents == null) {
+            return;
+        }
+        if (parents.costCenter() != null) {
+            add(levels.get(COST_CENTER), parents.costCenter(), currency, count, pay, receive);
+        }
+        if (parents.subDesk() != null) {
+            add(levels.get(SUB_DESK), parents.subDesk(), currency, count, pay, receive);
+        }
+        if (parents.desk() != null) {
+            add(levels.get(DESK), parents.desk(), currency, count, pay, receive);
+        }
+    }
+
+    private Hierarchy loadHierarchy() {
+        Map<Long, BookParents> parents = new HashMap<>();
+        Map<String, Map<Long, String>> hierarchyNames = new HashMap<>();
+        List.of(BOOK, COST_CENTER, SUB_DESK, DESK).forEach(level -> hierarchyNames.put(level, new HashMap<>()));
+        for (Object[] row : tradePositionRepository.findBookHierarchy()) {
+            parents.put(id(row[0]), new BookParents(id(row[2]), id(row[4]), id(row[6])));
+            putName(hierarchyNames.get(BOOK), row[0], row[1]);
+            putName(hierarchyNames.get(COST_CENTER), row[2], row[3]);
+            putName(hierarchyNames.get(SUB_DESK), row[4], row[5]);
+            putName(hierarchyNames.get(DESK), row[6], row[7]);
+        }
+        return new Hierarchy(parents, hierarchyNames);
+    }
+
+    private void useHierarchy(Hierarchy hierarchy) {
+        parentsByBook = hierarchy.parentsByBook();
+        names.putAll(hierarchy.names());
+    }
+
+    private static Map<Long, String> loadNames(List<Object[]> rows) {
+        Map<Long, String> loadedNames = new HashMap<>();
+        rows.forEach(row -> putName(loadedNames, row[0], row[1]));
+        return loadedNames;
+    }
+
+    private static void putName(Map<Long, String> levelNames, Object id, Object name) {
+        if (id != null) {
+            levelNames.put(id(id), (String) name);
+        }
+    }
+
+    public TradeSummaryDTO summary() {
+        lock.lock();
+        try {
+            long totalTrades = tradesByStatus.values().stream().mapToLong(Long::longValue).sum();
+            return new TradeSummaryDTO(totalTrades, new LinkedHashMap<>(tradesByStatus),
+                    positions(CURRENCY), positions(COUNTERPARTY), positions(DESK));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Every position at a level, by name and then currency. */
+    public List<PositionDTO> positions(String level) {
+        lock.lock();
+        try {
+            List<PositionDTO> positions = new ArrayList<>();
+            byName(level, level(level)).forEach((name, byCurrency) -> positions.addAll(toPositions(name, byCurrency)));
+            return positions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The positions of one book, desk, counterparty and so on; empty if it has none. */
+    public List<PositionDTO> positions(String level, String name) {
+        lock.lock();
+        try {
+            Map<Long, Map<Long, PositionTotals>> named = new HashMap<>();
+            level(level).forEach((id, byCurrency) -> {
+                if (name.equals(name(level, id))) {
+                    named.put(id, byCurrency);
+                }
+            });
+            return toPositions(name, byName(level, named).getOrDefault(name, Map.of()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Cashflow totals for each value date from from to to, both inclusive. */
+    public List<CashflowTotalDTO> cashflows(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        lock.lock();
+        try {
+            List<CashflowTotalDTO> totals = new ArrayList<>();
+            cashflows.subMap(from, true, to, true).forEach((valueDate, byCurrency) -> totals.addAll(toCashflows(valueDate, byCurrency)));
+            return totals;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Trades booked for a trade date, by currency and by book, and the cashflows due on it. */
+    public DailySummaryDTO dailySummary(LocalDate date) {
+        lock.lock();
+        try {
+            Map<String, Map<String, PositionTotals>> books = byName(BOOK, activity.getOrDefault(date, Map.of()));
+            Map<String, PositionTotals> byCurrency = new TreeMap<>();
+            List<PositionDTO> bookLevel = new ArrayList<>();
+            books.forEach((book, totalsByCurrency) -> {
+                bookLevel.addAll(toPositions(book, totalsByCurrency));
+                totalsByCurrency.forEach((currency, totals) ->
+                        byCurrency.computeIfAbsent(currency, key -> new PositionTotals()).add(totals));
+            });
+            List<PositionDTO> notional = new ArrayList<>();
+            byCurrency.forEach((currency, totals) -> notional.add(toPosition(currency, currency, totals)));
+
+            return new DailySummaryDTO(date, tradesByTradeDate.getOrDefault(date, 0L), notional, bookLevel,
+                    toCashflows(date, cashflows.getOrDefault(date, Map.of())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, Map<Long, PositionTotals>> level(String level) {
+        Map<Long, Map<Long, PositionTotals>> positions = levels.get(level);
+        if (positions == null) {
+            throw new IllegalArgumentException("Unknown position level " + level + ", expected one of " + LEVELS);
+        }
+        return positions;
+    }
+
+    // Totals by id turned into totals by name and currency code, sorted by both
+    private Map<String, Map<String, PositionTotals>> byName(String level, Map<Long, Map<Long, PositionTotals>> totalsById) {
+        Map<String, Map<String, PositionTotals>> totalsByName = new TreeMap<>();
+        totalsById.forEach((id, byCurrency) -> {
+            Map<String, PositionTotals> named = totalsByName.computeIfAbsent(name(level, id), key -> new TreeMap<>());
+            byCurrency.forEach((currency, totals) ->
+                    named.computeIfAbsent(name(CURRENCY, currency), key -> new PositionTotals()).add(totals));
+        });
+        return totalsByName;
+    }
+
+    private String name(String level, Long id) {
+        String name = names.get(level).get(id);
+        return name != null ? name : String.valueOf(id);
+    }
+
+    private static List<PositionDTO> toPositions(String name, Map<String, PositionTotals> byCurrency) {
+        List<PositionDTO> positions = new ArrayList<>(byCurrency.size());
+        byCurrency.forEach((currency, totals) -> positions.add(toPosition(name, currency, totals)));
+        return positions;
+    }
+
+    private static PositionDTO toPosition(String name, String currency, PositionTotals totals) {
+        return new PositionDTO(name, currency, totals.count, totals.pay, totals.receive, totals.net());
+    }
+
+    private List<CashflowTotalDTO> toCashflows(LocalDate valueDate, Map<Long, PositionTotals> byCurrencyId) {
+        Map<String, PositionTotals> byCurrency = new TreeMap<>();
+        byCurrencyId.forEach((currency, totals) ->
+                byCurrency.computeIfAbsent(name(CURRENCY, currency), key -> new PositionTotals()).add(totals));
+        List<CashflowTotalDTO> totals = new ArrayList<>(byCurrency.size());
+        byCurrency.forEach((currency, bucket) ->
+                totals.add(new CashflowTotalDTO(valueDate, currency, bucket.count, bucket.pay, bucket.receive, bucket.net())));
+        return totals;
+    }
+
+    // Buckets that drop back to nothing are removed, so the maps only hold open positions
+    private static <K> void add(Map<K, Map<Long, PositionTotals>> totals, K key, Long currency,
+                                long count, BigDecimal pay, BigDecimal receive) {
+        Map<Long, PositionTotals> byCurrency = totals.computeIfAbsent(key, k -> new HashMap<>());
+        PositionTotals bucket = byCurrency.computeIfAbsent(currency, c -> new PositionTotals());
+        bucket.add(count, pay, receive);
+        if (bucket.isEmpty()) {
+            byCurrency.remove(currency);
+            if (byCurrency.isEmpty()) {
+                totals.remove(key);
+            }
+        }
+    }
+
+    private static <K> void adjust(Map<K, Long> counts, K key, int delta) {
+        if (counts.merge(key, (long) delta, Long::sum) == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static BigDecimal signed(BigDecimal amount, int sign) {
+        return sign < 0 ? amount.negate() : amount;
+    }
+
+    private static Long id(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static long count(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
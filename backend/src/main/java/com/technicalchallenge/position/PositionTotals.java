@@ -0,0 +1,29 @@
+package com.technicalchallenge.position;
+
+import java.math.BigDecimal;
+
+/** Running count and pay/receive amounts of one position bucket. Guarded by PositionEngine. */
+final class PositionTotals {
+    long count;
+    BigDecimal pay = BigDecimal.ZERO;
+    BigDecimal receive = BigDecimal.ZERO;
+
+    void add(long count, BigDecimal pay, BigDecimal receive) {
+        this.count += count;
+        this.pay = this.pay.add(pay);
+        this.receive = this.receive.add(receive);
+    }
+
+    void add(PositionTotals other) {
+        add(other.count, other.pay, other.receive);
+    }
+
+    BigDecimal net() {
+        return receive.subtract(pay);
+    }
+
+    // Nothing left once everything that was added has been taken away again
+    boolean isEmpty() {
+        return count == 0 && pay.signum() == 0 && receive.signum() == 0;
+    }
+}
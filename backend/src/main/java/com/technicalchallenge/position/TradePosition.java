@@ -0,0 +1,107 @@
+package com.technicalchallenge.position;
+
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * What one trade version adds to the positions: its status and, while the trade is live, its leg
+ * notionals and cashflows. Taken from the entity while it is loaded, so TradeService can capture a
+ * trade before and after a change and PositionEngine can swap one for the other.
+ *
+ * Books, counterparties and currencies are held by id, which a rename does not change; the names
+ * only tell PositionEngine what to call an id it has not loaded yet.
+ */
+public final class TradePosition {
+    static final Set<String> CLOSED_STATUSES = Set.of("CANCELLED", "TERMINATED", "DEAD");
+
+    record Notional(Long currencyId, String currency, boolean pay, BigDecimal amount) {}
+
+    record Flow(LocalDate valueDate, Long currencyId, String currency, boolean pay, BigDecimal amount) {}
+
+    final String status;
+    final boolean live;
+    final Long bookId;
+    final String book;
+    final Long counterpartyId;
+    final String counterparty;
+    final LocalDate tradeDate;
+    final List<Notional> notionals;
+    final List<Flow> cashflows;
+
+    private TradePosition(String status, boolean live, Long bookId, String book, Long counterpartyId, String counterparty,
+                          LocalDate tradeDate, List<Notional> notionals, List<Flow> cashflows) {
+        this.status = status;
+        this.live = live;
+        this.bookId = bookId;
+        this.book = book;
+        this.counterpartyId = counterpartyId;
+        this.counterparty = counterparty;
+        this.tradeDate = tradeDate;
+        this.notionals = notionals;
+        this.cashflows = cashflows;
+    }
+
+    public static TradePosition of(Trade trade) {
+        String status = trade.getTradeStatus() != null ? trade.getTradeStatus().getTradeStatus() : null;
+        Long bookId = trade.getBook() != null ? trade.getBook().getId() : null;
+        String book = trade.getBook() != null ? trade.getBook().getBookName() : null;
+        Long counterpartyId = trade.getCounterparty() != null ? trade.getCounterparty().getId() : null;
+        String counterparty = trade.getCounterparty() != null ? trade.getCounterparty().getName() : null;
+        boolean live = bookId != null && counterpartyId != null
+                && (status == null || !CLOSED_STATUSES.contains(status.toUpperCase(Locale.ROOT)));
+        if (!live) {
+            return new TradePosition(status, false, bookId, book, counterpartyId, counterparty, trade.getTradeDate(),
+                    List.of(), List.of());
+        }
+
+        // Legs without a currency have no position to add to; the aggregate queries skip them too
+        List<Notional> notionals = new ArrayList<>();
+        List<Flow> cashflows = new ArrayList<>();
+        if (trade.getTradeLegs() != null) {
+            for (TradeLeg leg : trade.getTradeLegs()) {
+                if (leg.getCurrency() == null) {
+                    continue;
+                }
+                Long currencyId = leg.getCurrency().getId();
+                String currency = leg.getCurrency().getCurrency();
+                String legPayRec = payRec(leg.getPayReceiveFlag());
+                notionals.add(new Notional(currencyId, currency, isPay(legPayRec), orZero(leg.getNotional())));
+                if (leg.getCashflows() == null) {
+                    continue;
+                }
+                // The cashflow ladder's rule: active cashflows only, and a cashflow's own pay/receive
+                // flag wins over its leg's
+                for (Cashflow cashflow : leg.getCashflows()) {
+                    if (cashflow.getValueDate() != null && Boolean.TRUE.equals(cashflow.getActive())) {
+                        String cashflowPayRec = payRec(cashflow.getPayRec());
+                        cashflows.add(new Flow(cashflow.getValueDate(), currencyId, currency,
+                                isPay(cashflowPayRec != null ? cashflowPayRec : legPayRec), orZero(cashflow.getPaymentValue())));
+                    }
+                }
+            }
+        }
+        return new TradePosition(status, true, bookId, book, counterpartyId, counterparty, trade.getTradeDate(),
+                notionals, cashflows);
+    }
+
+    private static String payRec(PayRec flag) {
+        return flag != null ? flag.getPayRec() : null;
+    }
+
+    private static boolean isPay(String payRec) {
+        return "Pay".equalsIgnoreCase(payRec);
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
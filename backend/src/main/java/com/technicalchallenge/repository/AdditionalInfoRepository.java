@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,8 +19,8 @@ public interface AdditionalInfoRepository extends JpaRepository<AdditionalInfo,
     AdditionalInfo findActiveByEntityTypeAndEntityIdAndFieldName(@Param("entityType") String entityType, @Param("entityId") Long entityId, @Param("fieldName") String fieldName);
 
     List<AdditionalInfo> findByEntityTypeAndEntityIdAndActiveTrue(String entityType, Long entityId);
-    
 
-    @Query("SELECT a FROM AdditionalInfo a WHERE a.entityType = :entityType AND a.fieldName = :fieldName AND a.active = true AND LOWER(a.fieldValue) LIKE LOWER(CONCAT('%', :searchString, '%'))")
-    List<AdditionalInfo> findActiveByEntityTypeAndFieldNameAndFieldValue( @Param("entityType") String entityType, @Param("fieldName") String fieldName, @Param("searchString") String searchString);
+    @Query("SELECT a FROM AdditionalInfo a WHERE a.entityType = :entityType AND a.entityId IN :entityIds AND a.active = true")
+    List<AdditionalInfo> findActiveByEntityTypeAndEntityIdIn(@Param("entityType") String entityType, @Param("entityIds") Collection<Long> entityIds);
+
 }
@@ -1,12 +1,23 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Book;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "books")
 public interface BookRepository extends JpaRepository<Book, Long> {
+    @Cacheable(key = "'name:' + #p0")
+    @EntityGraph(attributePaths = "costCenter.subDesk.desk")
     Optional<Book> findByBookName(String bookName);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    @EntityGraph(attributePaths = "costCenter.subDesk.desk")
+    Optional<Book> findById(Long id);
 }
@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.BusinessDayConvention;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "businessDayConventions")
 public interface BusinessDayConventionRepository extends JpaRepository<BusinessDayConvention, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<BusinessDayConvention> findByBdc(String bdc);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<BusinessDayConvention> findById(Long id);
 }
@@ -2,9 +2,30 @@ package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Cashflow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface CashflowRepository extends JpaRepository<Cashflow, Long> {
-    // Custom query methods if needed
+
+    // Cashflow ladder: value date, currency, cashflows, pay amount, receive amount of the active
+    // cashflows of live trade versions, counted as PositionEngine counts them. The cashflow's own
+    // pay/receive flag wins over its leg's
+    @Query("SELECT cf.valueDate, c.currency, COUNT(cf), "
+            + "SUM(CASE WHEN LOWER(COALESCE(cpr.payRec, lpr.payRec)) = 'pay' THEN cf.paymentValue ELSE 0 END), "
+            + "SUM(CASE WHEN LOWER(COALESCE(cpr.payRec, lpr.payRec)) = 'pay' THEN 0 ELSE cf.paymentValue END) "
+            + "FROM Cashflow cf JOIN cf.tradeLeg l JOIN l.trade t JOIN l.currency c "
+            + "LEFT JOIN cf.payRec cpr LEFT JOIN l.payReceiveFlag lpr "
+            + "JOIN t.book b JOIN t.counterparty cp LEFT JOIN t.tradeStatus s "
+            + "WHERE cf.valueDate BETWEEN :from AND :to AND cf.active = true AND t.active = true "
+            + "AND (s IS NULL OR UPPER(s.tradeStatus) NOT IN ('CANCELLED', 'TERMINATED', 'DEAD')) "
+            + "AND (:book IS NULL OR b.bookName = :book) "
+            + "AND (:counterparty IS NULL OR cp.name = :counterparty) "
+            + "GROUP BY cf.valueDate, c.currency")
+    List<Object[]> sumByValueDateAndCurrency(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                             @Param("book") String book, @Param("counterparty") String counterparty);
 }
@@ -1,8 +1,11 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.CostCenter;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+// Cached books carry their cost center, sub desk and desk, so writes here evict the books cache
 @Repository
+@CacheConfig(cacheNames = "books")
 public interface CostCenterRepository extends JpaRepository<CostCenter, Long> {}
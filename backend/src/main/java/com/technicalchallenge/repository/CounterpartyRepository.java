@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Counterparty;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "counterparties")
 public interface CounterpartyRepository extends JpaRepository<Counterparty, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<Counterparty> findByName(String name);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<Counterparty> findById(Long id);
 }
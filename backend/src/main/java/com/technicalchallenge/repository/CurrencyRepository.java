@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Currency;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "currencies")
 public interface CurrencyRepository extends JpaRepository<Currency, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<Currency> findByCurrency(String currency);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<Currency> findById(Long id);
 }
@@ -1,8 +1,11 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Desk;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+// Cached books carry their cost center, sub desk and desk, so writes here evict the books cache
 @Repository
+@CacheConfig(cacheNames = "books")
 public interface DeskRepository extends JpaRepository<Desk, Long> {}
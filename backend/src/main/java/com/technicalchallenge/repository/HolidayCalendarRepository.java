@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.HolidayCalendar;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "holidayCalendars")
 public interface HolidayCalendarRepository extends JpaRepository<HolidayCalendar, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<HolidayCalendar> findByHolidayCalendar(String holidayCalendar);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<HolidayCalendar> findById(Long id);
 }
@@ -0,0 +1,22 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Holiday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+    List<Holiday> findByHolidayCalendarIdOrderByHolidayDate(Long holidayCalendarId);
+
+    @Query("SELECT h.holidayDate FROM Holiday h WHERE h.holidayCalendar.id = :holidayCalendarId")
+    List<LocalDate> findDatesByHolidayCalendarId(@Param("holidayCalendarId") Long holidayCalendarId);
+
+    // Calendar id and date of every holiday, for compiling the calendars
+    @Query("SELECT h.holidayCalendar.id, h.holidayDate FROM Holiday h")
+    List<Object[]> findAllCalendarDates();
+}
@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Index;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "indices")
 public interface IndexRepository extends JpaRepository<Index, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<Index> findByIndex(String index);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<Index> findById(Long id);
 }
@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.LegType;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "legTypes")
 public interface LegTypeRepository extends JpaRepository<LegType, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<LegType> findByType(String type);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<LegType> findById(Long id);
 }
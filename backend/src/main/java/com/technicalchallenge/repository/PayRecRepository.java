@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.PayRec;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "payRecs")
 public interface PayRecRepository extends JpaRepository<PayRec, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<PayRec> findByPayRec(String payRec);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<PayRec> findById(Long id);
 }
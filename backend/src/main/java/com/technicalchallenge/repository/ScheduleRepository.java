@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Schedule;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "schedules")
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<Schedule> findBySchedule(String schedule);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<Schedule> findById(Long id);
 }
@@ -0,0 +1,30 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeBookingRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TradeBookingRequestRepository extends JpaRepository<TradeBookingRequest, UUID> {
+
+    Optional<TradeBookingRequest> findByRequestedByAndIdempotencyKey(String requestedBy, String idempotencyKey);
+
+    List<TradeBookingRequest> findByStatusIn(Collection<String> statuses);
+
+    // Compare-and-set on the status, so only one of several concurrent retries re-runs a booking.
+    // Returns 0 when the booking is no longer in the expected status
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TradeBookingRequest r SET r.status = :status, r.errors = NULL, r.completedDate = NULL, "
+            + "r.lastModifiedDate = CURRENT_TIMESTAMP WHERE r.id = :id AND r.status = :expectedStatus")
+    int updateStatus(@Param("id") UUID id, @Param("expectedStatus") String expectedStatus, @Param("status") String status);
+}
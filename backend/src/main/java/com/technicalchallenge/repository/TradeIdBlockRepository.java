@@ -0,0 +1,19 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeIdBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TradeIdBlockRepository extends JpaRepository<TradeIdBlock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM TradeIdBlock b WHERE b.name = :name")
+    Optional<TradeIdBlock> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,24 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.TradeOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TradeOutboxEventRepository extends JpaRepository<TradeOutboxEvent, Long> {
+
+    // Committed events the relay has not sequenced yet, in the order they were written
+    @Query("SELECT e FROM TradeOutboxEvent e WHERE e.streamOffset IS NULL ORDER BY e.id")
+    List<TradeOutboxEvent> findUnsequenced(Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.streamOffset), 0) FROM TradeOutboxEvent e")
+    long findLastStreamOffset();
+
+    @Query("SELECT e FROM TradeOutboxEvent e WHERE e.streamOffset > :after ORDER BY e.streamOffset")
+    List<TradeOutboxEvent> findSequencedAfter(@Param("after") long after, Pageable pageable);
+}
@@ -0,0 +1,62 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Trade;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+/**
+ * Aggregate queries PositionEngine loads its totals from at startup. They count the active trade
+ * versions, and only live ones (not cancelled, terminated or dead) towards notionals and cashflows,
+ * the same rules TradePosition applies to a single trade. Totals are keyed by book, counterparty
+ * and currency id; the names come from the lookups at the bottom, so a rename only reloads those.
+ */
+public interface TradePositionRepository extends Repository<Trade, Long> {
+
+    // status, trades
+    @Query("SELECT s.tradeStatus, COUNT(t) FROM Trade t JOIN t.tradeStatus s WHERE t.active = true GROUP BY s.tradeStatus")
+    List<Object[]> countActiveTradesByStatus();
+
+    // trade date, trades
+    @Query("SELECT t.tradeDate, COUNT(t) FROM Trade t JOIN t.book b JOIN t.counterparty cp LEFT JOIN t.tradeStatus s "
+            + "WHERE t.active = true AND t.tradeDate IS NOT NULL "
+            + "AND (s IS NULL OR UPPER(s.tradeStatus) NOT IN ('CANCELLED', 'TERMINATED', 'DEAD')) "
+            + "GROUP BY t.tradeDate")
+    List<Object[]> countLiveTradesByTradeDate();
+
+    // book id, counterparty id, trade date, currency id, trades, pay notional, receive notional
+    @Query("SELECT b.id, cp.id, t.tradeDate, c.id, COUNT(DISTINCT t.id), "
+            + "SUM(CASE WHEN LOWER(pr.payRec) = 'pay' THEN l.notional ELSE 0 END), "
+            + "SUM(CASE WHEN LOWER(pr.payRec) = 'pay' THEN 0 ELSE l.notional END) "
+            + "FROM TradeLeg l JOIN l.trade t JOIN t.book b JOIN t.counterparty cp JOIN l.currency c "
+            + "LEFT JOIN l.payReceiveFlag pr LEFT JOIN t.tradeStatus s "
+            + "WHERE t.active = true AND (s IS NULL OR UPPER(s.tradeStatus) NOT IN ('CANCELLED', 'TERMINATED', 'DEAD')) "
+            + "GROUP BY b.id, cp.id, t.tradeDate, c.id")
+    List<Object[]> sumLiveNotionals();
+
+    // value date, currency id, cashflows, pay amount, receive amount of the active cashflows. As on
+    // the cashflow ladder, the cashflow's own pay/receive flag wins over its leg's
+    @Query("SELECT cf.valueDate, c.id, COUNT(cf), "
+            + "SUM(CASE WHEN LOWER(COALESCE(cpr.payRec, lpr.payRec)) = 'pay' THEN cf.paymentValue ELSE 0 END), "
+            + "SUM(CASE WHEN LOWER(COALESCE(cpr.payRec, lpr.payRec)) = 'pay' THEN 0 ELSE cf.paymentValue END) "
+            + "FROM Cashflow cf JOIN cf.tradeLeg l JOIN l.trade t JOIN t.book b JOIN t.counterparty cp JOIN l.currency c "
+            + "LEFT JOIN cf.payRec cpr LEFT JOIN l.payReceiveFlag lpr LEFT JOIN t.tradeStatus s "
+            + "WHERE t.active = true AND cf.active = true AND cf.valueDate IS NOT NULL "
+            + "AND (s IS NULL OR UPPER(s.tradeStatus) NOT IN ('CANCELLED', 'TERMINATED', 'DEAD')) "
+            + "GROUP BY cf.valueDate, c.id")
+    List<Object[]> sumLiveCashflows();
+
+    // book id and name, then the id and name of its cost center, sub desk and desk, which may be null
+    @Query("SELECT b.id, b.bookName, cc.id, cc.costCenterName, sd.id, sd.subdeskName, d.id, d.deskName FROM Book b "
+            + "LEFT JOIN b.costCenter cc LEFT JOIN cc.subDesk sd LEFT JOIN sd.desk d")
+    List<Object[]> findBookHierarchy();
+
+    // counterparty id, name
+    @Query("SELECT cp.id, cp.name FROM Counterparty cp")
+    List<Object[]> findCounterpartyNames();
+
+    // currency id, code
+    @Query("SELECT c.id, c.currency FROM Currency c")
+    List<Object[]> findCurrencyNames();
+}
@@ -1,16 +1,22 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.Trade;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TradeRepository extends JpaRepository<Trade, Long> , JpaSpecificationExecutor<Trade> {
+public interface TradeRepository extends JpaRepository<Trade, Long> , JpaSpecificationExecutor<Trade>, TradeStreamingRepository, TradeWindowRepository {
     // Existing methods
     List<Trade> findByTradeId(Long tradeId);
 
@@ -21,14 +27,52 @@ public interface TradeRepository extends JpaRepository<Trade, Long> , JpaSpecifi
     Optional<Integer> findMaxVersionByTradeId(@Param("tradeId") Long tradeId);
 
     // NEW METHODS for service layer compatibility
+    @EntityGraph(Trade.DETAIL_GRAPH)
     Optional<Trade> findByTradeIdAndActiveTrue(Long tradeId);
 
     List<Trade> findByActiveTrueOrderByTradeIdDesc();
 
+    // Every version of a trade, oldest first
+    @EntityGraph(Trade.SUMMARY_GRAPH)
+    List<Trade> findByTradeIdOrderByVersionAsc(Long tradeId);
+
+    // The version that was active at asOf: created at or before it and not yet deactivated
+    @EntityGraph(Trade.DETAIL_GRAPH)
+    @Query("SELECT t FROM Trade t WHERE t.tradeId = :tradeId AND t.createdDate <= :asOf "
+            + "AND (t.deactivatedDate IS NULL OR t.deactivatedDate > :asOf)")
+    Optional<Trade> findByTradeIdAsOf(@Param("tradeId") Long tradeId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT t.version FROM Trade t WHERE t.tradeId = :tradeId AND t.active = true")
+    Optional<Integer> findActiveVersion(@Param("tradeId") Long tradeId);
+
+    // Compare-and-set for amendments: deactivates the version only if it is still the active one.
+    // Returns 0 when another amendment got there first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Trade t SET t.active = false, t.deactivatedDate = :deactivatedDate "
+            + "WHERE t.tradeId = :tradeId AND t.version = :version AND t.active = true")
+    int deactivateVersion(@Param("tradeId") Long tradeId, @Param("version") Integer version,
+                          @Param("deactivatedDate") LocalDateTime deactivatedDate);
+
     @Query("SELECT t FROM Trade t WHERE t.tradeId = :tradeId AND t.active = true ORDER BY t.version DESC")
     Optional<Trade> findLatestActiveVersionByTradeId(@Param("tradeId") Long tradeId);
 
+    @EntityGraph(Trade.SUMMARY_GRAPH)
     List<Trade> findByTraderUserId(Long userId);
 
-   
+    // List reads feed TradeMapper.toDto, so load the trade's reference data with the trade
+    @Override
+    @EntityGraph(Trade.SUMMARY_GRAPH)
+    List<Trade> findAll();
+
+    @Override
+    @EntityGraph(Trade.SUMMARY_GRAPH)
+    List<Trade> findAllById(Iterable<Long> ids);
+
+    @Override
+    @EntityGraph(Trade.SUMMARY_GRAPH)
+    List<Trade> findAll(Specification<Trade> spec);
+
+    @Override
+    @EntityGraph(Trade.SUMMARY_GRAPH)
+    Page<Trade> findAll(Specification<Trade> spec, Pageable pageable);
 }
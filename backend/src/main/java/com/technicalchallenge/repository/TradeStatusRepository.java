@@ -1,12 +1,20 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.TradeStatus;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "tradeStatuses")
 public interface TradeStatusRepository extends JpaRepository<TradeStatus, Long> {
+    @Cacheable(key = "'name:' + #p0")
     Optional<TradeStatus> findByTradeStatus(String tradeStatus);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<TradeStatus> findById(Long id);
 }
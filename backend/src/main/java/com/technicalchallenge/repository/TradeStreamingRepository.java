@@ -0,0 +1,15 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Trade;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface TradeStreamingRepository {
+
+    /**
+     * Streams the trades matching the specification in id order over a database cursor, reading
+     * fetchSize rows per round trip. Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<Trade> streamAll(Specification<Trade> spec, int fetchSize);
+}
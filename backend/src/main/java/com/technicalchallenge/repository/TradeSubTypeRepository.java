@@ -1,13 +1,21 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.TradeSubType;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "tradeSubTypes")
 public interface TradeSubTypeRepository extends JpaRepository<TradeSubType, Long> {
     // Custom query methods
+    @Cacheable(key = "'name:' + #p0")
     Optional<TradeSubType> findByTradeSubType(String tradeSubType);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<TradeSubType> findById(Long id);
 }
@@ -1,13 +1,21 @@
 package com.technicalchallenge.repository;
 
 import com.technicalchallenge.model.TradeType;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
+@CacheConfig(cacheNames = "tradeTypes")
 public interface TradeTypeRepository extends JpaRepository<TradeType, Long> {
     // Custom query methods
+    @Cacheable(key = "'name:' + #p0")
     Optional<TradeType> findByTradeType(String tradeType);
+
+    @Override
+    @Cacheable(key = "'id:' + #p0")
+    Optional<TradeType> findById(Long id);
 }
@@ -0,0 +1,16 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Trade;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TradeWindowRepository {
+
+    /**
+     * Returns at most limit trades matching the specification in the given order, starting at
+     * offset, without the COUNT query a Page needs.
+     */
+    List<Trade> findWindow(Specification<Trade> spec, Sort sort, long offset, int limit);
+}
@@ -0,0 +1,60 @@
+package com.technicalchallenge.schedule;
+
+/**
+ * Business day lookup and adjustment by epoch day, so schedule generation never has to build a
+ * LocalDate. HolidayCalendarRegistry hands out compiled implementations for the configured
+ * calendars.
+ */
+@FunctionalInterface
+public interface BusinessCalendar {
+
+    // Saturdays and Sundays are the only non-business days
+    BusinessCalendar WEEKENDS_ONLY = epochDay -> !isWeekend(epochDay);
+
+    // Longest run of non-business days an adjustment will step over
+    int MAX_ADJUSTMENT_DAYS = 31;
+
+    boolean isBusinessDay(long epochDay);
+
+    default long following(long epochDay) {
+        for (int i = 0; i <= MAX_ADJUSTMENT_DAYS; i++) {
+            if (isBusinessDay(epochDay + i)) {
+                return epochDay + i;
+            }
+        }
+        throw new IllegalArgumentException("No business day within " + MAX_ADJUSTMENT_DAYS + " days after epoch day " + epochDay);
+    }
+
+    default long preceding(long epochDay) {
+        for (int i = 0; i <= MAX_ADJUSTMENT_DAYS; i++) {
+            if (isBusinessDay(epochDay - i)) {
+                return epochDay - i;
+            }
+        }
+        throw new IllegalArgumentException("No business day within " + MAX_ADJUSTMENT_DAYS + " days before epoch day " + epochDay);
+    }
+
+    default long adjust(long epochDay, ScheduleEngine.RollConvention convention) {
+        switch (convention) {
+            case FOLLOWING:
+                return following(epochDay);
+            case MODIFIED_FOLLOWING: {
+                // Rolling into the next month falls back to the preceding business day
+                long following = following(epochDay);
+                return EpochDays.monthIndex(following) != EpochDays.monthIndex(epochDay) ? preceding(epochDay) : following;
+            }
+            case PRECEDING:
+                return preceding(epochDay);
+            case MODIFIED_PRECEDING: {
+                long preceding = preceding(epochDay);
+                return EpochDays.monthIndex(preceding) != EpochDays.monthIndex(epochDay) ? following(epochDay) : preceding;
+            }
+            default:
+                return epochDay;
+        }
+    }
+
+    static boolean isWeekend(long epochDay) {
+        return EpochDays.isWeekend(epochDay);
+    }
+}
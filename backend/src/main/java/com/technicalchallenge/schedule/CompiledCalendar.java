@@ -0,0 +1,113 @@
+package com.technicalchallenge.schedule;
+
+import java.time.LocalDate;
+
+/**
+ * A holiday calendar compiled to one bit per day (set = weekend or holiday) over the whole years
+ * its holidays span, roughly 46 bytes per year. isBusinessDay is a single bit test and
+ * following/preceding scan a 64-day word at a time, so adjustment allocates nothing. Days outside
+ * the compiled years fall back to weekends only.
+ */
+public final class CompiledCalendar implements BusinessCalendar {
+
+    private final String name;
+    private final long firstDay;
+    private final long dayCount;
+    private final long[] closedDays;
+
+    private CompiledCalendar(String name, long firstDay, long dayCount, long[] closedDays) {
+        this.name = name;
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.closedDays = closedDays;
+    }
+
+    /** Compiles holidays given as epoch days; duplicates and weekend holidays are harmless. */
+    public static CompiledCalendar compile(String name, long[] holidayEpochDays) {
+        if (holidayEpochDays.length == 0) {
+            return new CompiledCalendar(name, 0, 0, new long[0]);
+        }
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long day : holidayEpochDays) {
+            min = Math.min(min, day);
+            max = Math.max(max, day);
+        }
+        long firstDay = LocalDate.ofEpochDay(min).withDayOfYear(1).toEpochDay();
+        long lastDay = LocalDate.ofEpochDay(max).withMonth(12).withDayOfMonth(31).toEpochDay();
+        long dayCount = lastDay - firstDay + 1;
+
+        long[] closedDays = new long[(int) ((dayCount + 63) >>> 6)];
+        for (long offset = 0; offset < dayCount; offset++) {
+            if (EpochDays.isWeekend(firstDay + offset)) {
+                closedDays[(int) (offset >>> 6)] |= 1L << offset;
+            }
+        }
+        for (long day : holidayEpochDays) {
+            long offset = day - firstDay;
+            closedDays[(int) (offset >>> 6)] |= 1L << offset;
+        }
+        return new CompiledCalendar(name, firstDay, dayCount, closedDays);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDate getFirstCompiledDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getLastCompiledDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(firstDay + dayCount - 1);
+    }
+
+    @Override
+    public boolean isBusinessDay(long epochDay) {
+        long offset = epochDay - firstDay;
+        if (offset < 0 || offset >= dayCount) {
+            return !EpochDays.isWeekend(epochDay);
+        }
+        return (closedDays[(int) (offset >>> 6)] & (1L << offset)) == 0;
+    }
+
+    @Override
+    public long following(long epochDay) {
+        long offset = epochDay - firstDay;
+        if (offset < 0 || offset >= dayCount) {
+            return BusinessCalendar.super.following(epochDay);
+        }
+        int word = (int) (offset >>> 6);
+        long open = ~closedDays[word] & (-1L << offset);
+        while (open == 0 && ++word < closedDays.length) {
+            open = ~closedDays[word];
+        }
+        if (open != 0) {
+            long found = ((long) word << 6) + Long.numberOfTrailingZeros(open);
+            if (found < dayCount) {
+                return firstDay + found;
+            }
+        }
+        // Ran off the end of the compiled years
+        return BusinessCalendar.super.following(firstDay + dayCount);
+    }
+
+    @Override
+    public long preceding(long epochDay) {
+        long offset = epochDay - firstDay;
+        if (offset < 0 || offset >= dayCount) {
+            return BusinessCalendar.super.preceding(epochDay);
+        }
+        int word = (int) (offset >>> 6);
+        long open = ~closedDays[word] & (-1L >>> (63 - (offset & 63)));
+        while (open == 0 && --word >= 0) {
+            open = ~closedDays[word];
+        }
+        if (open != 0) {
+            return firstDay + ((long) word << 6) + 63 - Long.numberOfLeadingZeros(open);
+        }
+        // Ran off the start of the compiled years
+        return BusinessCalendar.super.preceding(firstDay - 1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.technicalchallenge.schedule;
+
+/**
+ * Calendar arithmetic on epoch days (days since 1970-01-01), matching LocalDate without creating
+ * one. Keeps schedule generation and business day adjustment allocation free.
+ */
+final class EpochDays {
+
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long DAYS_PER_400_YEARS = 146_097L;
+
+    private EpochDays() {
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay
+    static long of(int year, int month, int dayOfMonth) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /** year * 12 + (month - 1) of the epoch day; two days share a month when these are equal. */
+    static long monthIndex(long epochDay) {
+        // Days counted from 0000-03-01 so the leap day is the last day of the year
+        long days = epochDay + DAYS_0000_TO_1970 - 60;
+        long era = Math.floorDiv(days, DAYS_PER_400_YEARS);
+        long dayOfEra = days - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long marchBasedMonth = (5 * dayOfYear + 2) / 153;
+        long month = marchBasedMonth < 10 ? marchBasedMonth + 3 : marchBasedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    static boolean isWeekend(long epochDay) {
+        // 1970-01-01 was a Thursday; 0 = Monday ... 6 = Sunday
+        return Math.floorMod(epochDay + 3, 7) >= 5;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
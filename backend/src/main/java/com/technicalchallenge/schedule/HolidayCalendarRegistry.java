@@ -0,0 +1,153 @@
+package com.technicalchallenge.schedule;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compiled business day calendars by name. Holidays are loaded at startup and swapped atomically
+ * by rebuild(), which the holiday calendar controller calls after every write. Joint calendars
+ * ("NY+LON" or "NY,LON") are closed on any member's holidays and are compiled on
+ * first use, then cached until the next rebuild.
+ */
+@Component
+public class HolidayCalendarRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(HolidayCalendarRegistry.class);
+
+    private static final String JOINT_SEPARATORS = "[+,]";
+
+    private final HolidayCalendarRepository holidayCalendarRepository;
+    private final HolidayRepository holidayRepository;
+
+    private volatile Snapshot snapshot;
+    // Not synchronized: a rebuild waits on JDBC, which would pin a virtual thread to its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public HolidayCalendarRegistry(HolidayCalendarRepository holidayCalendarRepository, HolidayRepository holidayRepository) {
+        this.holidayCalendarRepository = holidayCalendarRepository;
+        this.holidayRepository = holidayRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Reloads calendars and holidays; compiled calendars are rebuilt on next use. */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            Map<Long, String> namesById = new HashMap<>();
+            for (HolidayCalendar calendar : holidayCalendarRepository.findAll()) {
+                if (calendar.getHolidayCalendar() != null) {
+                    namesById.put(calendar.getId(), key(calendar.getHolidayCalendar()));
+                }
+            }
+
+            Map<String, List<Long>> daysByName = new HashMap<>();
+            namesById.values().forEach(name -> daysByName.put(name, new ArrayList<>()));
+            for (Object[] row : holidayRepository.findAllCalendarDates()) {
+                String name = namesById.get((Long) row[0]);
+                if (name != null) {
+                    daysByName.get(name).add(((LocalDate) row[1]).toEpochDay());
+                }
+            }
+
+            Map<String, long[]> holidays = new HashMap<>();
+            daysByName.forEach((name, days) -> holidays.put(name, days.stream().mapToLong(Long::longValue).toArray()));
+            snapshot = new Snapshot(holidays);
+            logger.info("Holiday calendars reloaded: {}", holidays.keySet());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /** Calendar for a name or joint name; no name means weekends only. */
+    public BusinessCalendar calendar(String names) {
+        if (names == null || names.isBlank()) {
+            return BusinessCalendar.WEEKENDS_ONLY;
+        }
+        Snapshot current = currentSnapshot();
+        String jointKey = jointKey(names);
+        CompiledCalendar compiled = current.compiled.get(jointKey);
+        if (compiled == null) {
+            compiled = current.compiled.computeIfAbsent(jointKey, key -> compile(current, key));
+        }
+        return compiled;
+    }
+
+    public BusinessCalendar calendarFor(HolidayCalendar holidayCalendar) {
+        return holidayCalendar == null ? BusinessCalendar.WEEKENDS_ONLY : calendar(holidayCalendar.getHolidayCalendar());
+    }
+
+    public boolean isBusinessDay(String names, LocalDate date) {
+        return calendar(names).isBusinessDay(date.toEpochDay());
+    }
+
+    public LocalDate adjust(String names, LocalDate date, ScheduleEngine.RollConvention convention) {
+        return LocalDate.ofEpochDay(calendar(names).adjust(date.toEpochDay(), convention));
+    }
+
+    private CompiledCalendar compile(Snapshot current, String jointKey) {
+        long[] union = new long[0];
+        for (String name : jointKey.split("\\+")) {
+            long[] days = current.holidays.get(name);
+            if (days == null) {
+                throw new IllegalArgumentException("Unknown holiday calendar: " + name);
+            }
+            long[] merged = Arrays.copyOf(union, union.length + days.length);
+            System.arraycopy(days, 0, merged, union.length, days.length);
+            union = merged;
+        }
+        return CompiledCalendar.compile(jointKey, union);
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // Member names upper-cased, de-duplicated and sorted, so "lon+NY" and "NY,LON" share one entry
+    private static String jointKey(String names) {
+        TreeSet<String> members = new TreeSet<>();
+        for (String name : names.split(JOINT_SEPARATORS)) {
+            if (!name.isBlank()) {
+                members.add(key(name));
+            }
+        }
+        return String.join("+", members);
+    }
+
+    private static String key(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, long[]> holidays;
+        private final Map<String, CompiledCalendar> compiled = new ConcurrentHashMap<>();
+
+        private Snapshot(Map<String, long[]> holidays) {
+            this.holidays = holidays;
+        }
+    }
+}
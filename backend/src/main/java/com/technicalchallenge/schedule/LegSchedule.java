@@ -0,0 +1,62 @@
+package com.technicalchallenge.schedule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A leg's generated schedule held column-wise in primitive arrays: accrual start/end and adjusted
+ * payment dates as epoch days, amounts as fixed-point longs with ScheduleEngine.AMOUNT_SCALE
+ * decimals. Objects are only created when a caller asks for a LocalDate or BigDecimal.
+ */
+public final class LegSchedule {
+
+    private final int size;
+    private final long[] accrualStartDays;
+    private final long[] accrualEndDays;
+    private final long[] paymentDays;
+    private final long[] amounts;
+
+    LegSchedule(int size, long[] accrualStartDays, long[] accrualEndDays, long[] paymentDays, long[] amounts) {
+        this.size = size;
+        this.accrualStartDays = accrualStartDays;
+        this.accrualEndDays = accrualEndDays;
+        this.paymentDays = paymentDays;
+        this.amounts = amounts;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long accrualStartDay(int period) {
+        return accrualStartDays[period];
+    }
+
+    public long accrualEndDay(int period) {
+        return accrualEndDays[period];
+    }
+
+    public long paymentDay(int period) {
+        return paymentDays[period];
+    }
+
+    public long amountUnscaled(int period) {
+        return amounts[period];
+    }
+
+    public LocalDate accrualStartDate(int period) {
+        return LocalDate.ofEpochDay(accrualStartDays[period]);
+    }
+
+    public LocalDate accrualEndDate(int period) {
+        return LocalDate.ofEpochDay(accrualEndDays[period]);
+    }
+
+    public LocalDate paymentDate(int period) {
+        return LocalDate.ofEpochDay(paymentDays[period]);
+    }
+
+    public BigDecimal amount(int period) {
+        return BigDecimal.valueOf(amounts[period], ScheduleEngine.AMOUNT_SCALE);
+    }
+}
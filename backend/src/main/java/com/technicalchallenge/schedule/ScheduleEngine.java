@@ -0,0 +1,189 @@
+package com.technicalchallenge.schedule;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Generates a leg's cashflow schedule into a LegSchedule. Used by trade booking and by the
+ * /api/cashflows/generate preview so both produce the same dates and amounts.
+ *
+ * Conventions:
+ * - periods roll every N months from the start date (day of month clamped to the month length),
+ *   with a final short stub when maturity is not on a roll date
+ * - fixed amounts are notional * rate% * months / 12 for regular periods and 30/360 for the stub,
+ *   rounded half-up to cents; floating and untyped legs pay zero until fixings exist
+ * - payment dates are the period end adjusted by the payment business day convention on the
+ *   leg's calendar; accrual uses the unadjusted dates
+ *
+ * Dates are handled as epoch days and amounts as unscaled longs, so generation allocates the
+ * four result arrays per leg and nothing per period.
+ */
+@Component
+public class ScheduleEngine {
+
+    public static final int AMOUNT_SCALE = 2;
+
+    private static final int DEFAULT_FREQUENCY_MONTHS = 3;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal TWELVE = BigDecimal.valueOf(12);
+    private static final BigDecimal THREE_SIXTY = BigDecimal.valueOf(360);
+
+    public enum RollConvention {
+        UNADJUSTED, FOLLOWING, MODIFIED_FOLLOWING, PRECEDING, MODIFIED_PRECEDING;
+
+        // Business day convention reference data name -> convention; no convention leaves dates as they are
+        public static RollConvention from(String businessDayConvention) {
+            if (businessDayConvention == null || businessDayConvention.isBlank()) {
+                return UNADJUSTED;
+            }
+            switch (businessDayConvention.trim().toLowerCase(Locale.ROOT)) {
+                case "none":
+                case "unadjusted":
+                    return UNADJUSTED;
+                case "following":
+                    return FOLLOWING;
+                case "modified following":
+                case "modified-following":
+                    return MODIFIED_FOLLOWING;
+                case "preceding":
+                    return PRECEDING;
+                case "modified preceding":
+                case "modified-preceding":
+                    return MODIFIED_PRECEDING;
+                default:
+                    throw new IllegalArgumentException("Unsupported business day convention: " + businessDayConvention);
+            }
+        }
+    }
+
+    public int parseFrequencyMonths(String schedule) {
+        if (schedule == null || schedule.trim().isEmpty()) {
+            return DEFAULT_FREQUENCY_MONTHS;
+        }
+
+        schedule = schedule.trim();
+
+        // Handle common schedule names
+        switch (schedule.toLowerCase(Locale.ROOT)) {
+            case "monthly":
+                return 1;
+            case "quarterly":
+                return 3;
+            case "semi-annually":
+            case "semiannually":
+            case "half-yearly":
+                return 6;
+            case "annually":
+            case "yearly":
+                return 12;
+            default:
+                // Parse "1M", "3M", "12M" format
+                if (schedule.endsWith("M") || schedule.endsWith("m")) {
+                    try {
+                        int months = Integer.parseInt(schedule.substring(0, schedule.length() - 1));
+                        if (months > 0) {
+                            return months;
+                        }
+                    } catch (NumberFormatException e) {
+                        // falls through to the error below
+                    }
+                }
+                throw new IllegalArgumentException("Invalid schedule format: " + schedule + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M");
+        }
+    }
+
+    public LegSchedule generate(LocalDate startDate, LocalDate maturityDate, int frequencyMonths,
+                                BigDecimal notional, Double ratePercent, boolean fixedRate,
+                                RollConvention paymentConvention, BusinessCalendar calendar) {
+        if (frequencyMonths <= 0) {
+            throw new IllegalArgumentException("Schedule frequency must be a positive number of months");
+        }
+
+        long startDay = startDate.toEpochDay();
+        long maturityDay = maturityDate.toEpochDay();
+        if (maturityDay <= startDay) {
+            return new LegSchedule(0, new long[0], new long[0], new long[0], new long[0]);
+        }
+
+        int startYear = startDate.getYear();
+        int startMonth = startDate.getMonthValue();
+        int startDayOfMonth = startDate.getDayOfMonth();
+
+        int totalMonths = (maturityDate.getYear() - startYear) * 12 + (maturityDate.getMonthValue() - startMonth);
+        int regularPeriods = totalMonths / frequencyMonths;
+        // The last roll overshoots maturity when its day of month is later than maturity's
+        if (regularPeriods > 0 && rollDay(startYear, startMonth, startDayOfMonth, regularPeriods * frequencyMonths) > maturityDay) {
+            regularPeriods--;
+        }
+        long lastRollDay = regularPeriods == 0 ? startDay
+                : rollDay(startYear, startMonth, startDayOfMonth, regularPeriods * frequencyMonths);
+        boolean stub = lastRollDay < maturityDay;
+
+        int size = regularPeriods + (stub ? 1 : 0);
+        long[] accrualStartDays = new long[size];
+        long[] accrualEndDays = new long[size];
+        long[] paymentDays = new long[size];
+        long[] amounts = new long[size];
+
+        BigDecimal annualAmount = fixedRate ? annualAmount(notional, ratePercent) : BigDecimal.ZERO;
+        long regularAmount = fixedRate
+                ? unscaled(annualAmount.multiply(BigDecimal.valueOf(frequencyMonths)).divide(TWELVE, AMOUNT_SCALE, RoundingMode.HALF_UP))
+                : 0L;
+
+        long periodStart = startDay;
+        for (int period = 0; period < regularPeriods; period++) {
+            int monthIndex = startMonth - 1 + (period + 1) * frequencyMonths;
+            int year = startYear + Math.floorDiv(monthIndex, 12);
+            int month = Math.floorMod(monthIndex, 12) + 1;
+            long periodEnd = EpochDays.of(year, month, Math.min(startDayOfMonth, EpochDays.lengthOfMonth(year, month)));
+
+            accrualStartDays[period] = periodStart;
+            accrualEndDays[period] = periodEnd;
+            paymentDays[period] = calendar.adjust(periodEnd, paymentConvention);
+            amounts[period] = regularAmount;
+            periodStart = periodEnd;
+        }
+
+        if (stub) {
+            int last = size - 1;
+            accrualStartDays[last] = periodStart;
+            accrualEndDays[last] = maturityDay;
+            paymentDays[last] = calendar.adjust(maturityDay, paymentConvention);
+            amounts[last] = fixedRate
+                    ? unscaled(annualAmount.multiply(BigDecimal.valueOf(days30360(LocalDate.ofEpochDay(periodStart), maturityDate)))
+                            .divide(THREE_SIXTY, AMOUNT_SCALE, RoundingMode.HALF_UP))
+                    : 0L;
+        }
+
+        return new LegSchedule(size, accrualStartDays, accrualEndDays, paymentDays, amounts);
+    }
+
+    private static BigDecimal annualAmount(BigDecimal notional, Double ratePercent) {
+        if (notional == null || ratePercent == null) {
+            return BigDecimal.ZERO;
+        }
+        return notional.multiply(BigDecimal.valueOf(ratePercent).divide(HUNDRED));
+    }
+
+    private static long unscaled(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // 30/360 bond basis day count
+    private static int days30360(LocalDate from, LocalDate to) {
+        int d1 = Math.min(from.getDayOfMonth(), 30);
+        int d2 = to.getDayOfMonth() == 31 && d1 == 30 ? 30 : to.getDayOfMonth();
+        return 360 * (to.getYear() - from.getYear()) + 30 * (to.getMonthValue() - from.getMonthValue()) + (d2 - d1);
+    }
+
+    private static long rollDay(int startYear, int startMonth, int startDayOfMonth, int monthsAhead) {
+        int monthIndex = startMonth - 1 + monthsAhead;
+        int year = startYear + Math.floorDiv(monthIndex, 12);
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        return EpochDays.of(year, month, Math.min(startDayOfMonth, EpochDays.lengthOfMonth(year, month)));
+    }
+}
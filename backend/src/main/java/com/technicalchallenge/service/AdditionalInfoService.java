@@ -1,6 +1,7 @@
 package com.technicalchallenge.service;
 
 import com.technicalchallenge.dto.AdditionalInfoDTO;
+import com.technicalchallenge.mapper.AdditionalInfoMapper;
 import com.technicalchallenge.model.AdditionalInfo;
 import com.technicalchallenge.repository.AdditionalInfoRepository;
 import org.modelmapper.ModelMapper;
@@ -9,7 +10,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,13 +27,39 @@ public class AdditionalInfoService {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private AdditionalInfoMapper additionalInfoMapper;
+
+    @Autowired
+    private SettlementInstructionIndex settlementInstructionIndex;
+
+    // Keeps each IN list well under the bind parameter limits of the supported databases
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     public List<AdditionalInfoDTO> getAdditionalInfoForEntity(String entityType, Long entityId) {
         List<AdditionalInfo> additionalInfoList = additionalInfoRepository.findActiveByEntityTypeAndEntityId(entityType, entityId);
         return additionalInfoList.stream()
-                .map(info -> modelMapper.map(info, AdditionalInfoDTO.class))
+                .map(additionalInfoMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    // Active fields for many entities of one type, grouped by entity id; ids without fields are absent
+    public Map<Long, List<AdditionalInfoDTO>> getAdditionalInfoForEntities(String entityType, Collection<Long> entityIds) {
+        Map<Long, List<AdditionalInfoDTO>> byEntityId = new HashMap<>();
+        if (entityIds == null || entityIds.isEmpty()) {
+            return byEntityId;
+        }
+
+        List<Long> ids = new ArrayList<>(entityIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            for (AdditionalInfo info : additionalInfoRepository.findActiveByEntityTypeAndEntityIdIn(entityType, chunk)) {
+                byEntityId.computeIfAbsent(info.getEntityId(), id -> new ArrayList<>()).add(additionalInfoMapper.toDto(info));
+            }
+        }
+        return byEntityId;
+    }
+
     public AdditionalInfoDTO addAdditionalInfo(AdditionalInfoDTO dto) {
         // Check if field already exists and deactivate old version
         AdditionalInfo existing = additionalInfoRepository.findActiveByEntityTypeAndEntityIdAndFieldName(
@@ -38,6 +69,7 @@ public class AdditionalInfoService {
             existing.setActive(false);
             existing.setDeactivatedDate(LocalDateTime.now());
             additionalInfoRepository.save(existing);
+            settlementInstructionIndex.remove(existing);
         }
 
         // Create new version
@@ -49,6 +81,7 @@ public class AdditionalInfoService {
         newInfo.setVersion(existing != null ? existing.getVersion() + 1 : 1);
 
         AdditionalInfo saved = additionalInfoRepository.save(newInfo);
+        settlementInstructionIndex.add(saved);
         return modelMapper.map(saved, AdditionalInfoDTO.class);
     }
 
@@ -60,6 +93,7 @@ public class AdditionalInfoService {
             existing.setActive(false);
             existing.setDeactivatedDate(LocalDateTime.now());
             additionalInfoRepository.save(existing);
+            settlementInstructionIndex.remove(existing);
         }
     }
 
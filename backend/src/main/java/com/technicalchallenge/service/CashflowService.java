@@ -1,6 +1,7 @@
 package com.technicalchallenge.service;
 
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.CashflowLadderDTO;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.repository.CashflowRepository;
 import com.technicalchallenge.repository.BusinessDayConventionRepository;
@@ -12,8 +13,16 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class CashflowService {
@@ -55,6 +64,89 @@ public class CashflowService {
         cashflowRepository.deleteById(id);
     }
 
+    public enum LadderBucket {
+        DAILY, WEEKLY, MONTHLY;
+
+        public static LadderBucket from(String bucket) {
+            if (bucket == null || bucket.isBlank()) {
+                return DAILY;
+            }
+            try {
+                return valueOf(bucket.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported ladder bucket: " + bucket + ", expected daily, weekly or monthly");
+            }
+        }
+
+        // Weeks start on Monday, months on the 1st
+        LocalDate start(LocalDate valueDate) {
+            return switch (this) {
+                case DAILY -> valueDate;
+                case WEEKLY -> valueDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTHLY -> valueDate.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate end(LocalDate start) {
+            return switch (this) {
+                case DAILY -> start;
+                case WEEKLY -> start.plusDays(6);
+                case MONTHLY -> start.with(TemporalAdjusters.lastDayOfMonth());
+            };
+        }
+    }
+
+    /**
+     * Projected cashflows from from to to by currency and bucket, optionally for one book or
+     * counterparty. The database sums the cashflows per value date and currency, so only those
+     * totals come back however many cashflows there are; they are then folded into buckets here.
+     * The first and last buckets are clipped to the requested range.
+     */
+    public List<CashflowLadderDTO> getCashflowLadder(LocalDate from, LocalDate to, LadderBucket bucket,
+                                                     String book, String counterparty) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        logger.debug("Building {} cashflow ladder from {} to {} for book {} counterparty {}", bucket, from, to, book, counterparty);
+
+        // currency -> bucket start -> rung
+        Map<String, TreeMap<LocalDate, CashflowLadderDTO>> rungs = new TreeMap<>();
+        for (Object[] row : cashflowRepository.sumByValueDateAndCurrency(from, to, book, counterparty)) {
+            String currency = (String) row[1];
+            LocalDate start = bucket.start((LocalDate) row[0]);
+            TreeMap<LocalDate, CashflowLadderDTO> byBucket = rungs.computeIfAbsent(currency, key -> new TreeMap<>());
+            CashflowLadderDTO rung = byBucket.get(start);
+            if (rung == null) {
+                LocalDate end = bucket.end(start);
+                rung = new CashflowLadderDTO(currency, start.isBefore(from) ? from : start, end.isAfter(to) ? to : end,
+                        0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+                byBucket.put(start, rung);
+            }
+            rung.setCashflows(rung.getCashflows() + ((Number) row[2]).longValue());
+            rung.setPayAmount(rung.getPayAmount().subtract(amount(row[3])));
+            rung.setReceiveAmount(rung.getReceiveAmount().add(amount(row[4])));
+        }
+
+        List<CashflowLadderDTO> ladder = new ArrayList<>();
+        for (TreeMap<LocalDate, CashflowLadderDTO> byBucket : rungs.values()) {
+            BigDecimal cumulative = BigDecimal.ZERO;
+            for (CashflowLadderDTO rung : byBucket.values()) {
+                rung.setNetAmount(rung.getReceiveAmount().add(rung.getPayAmount()));
+                cumulative = cumulative.add(rung.getNetAmount());
+                rung.setCumulativeNetAmount(cumulative);
+                ladder.add(rung);
+            }
+        }
+        return ladder;
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
     public void populateReferenceDataByName(Cashflow cashflow, CashflowDTO dto) {
         if (dto.getPayRec() != null) {
             cashflow.setPayRec(payRecRepository.findAll().stream()
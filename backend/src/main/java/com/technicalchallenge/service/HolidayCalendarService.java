@@ -1,15 +1,23 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.dto.HolidayDTO;
+import com.technicalchallenge.model.Holiday;
 import com.technicalchallenge.model.HolidayCalendar;
 import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class HolidayCalendarService {
@@ -18,6 +26,9 @@ public class HolidayCalendarService {
     @Autowired
     private HolidayCalendarRepository holidayCalendarRepository;
 
+    @Autowired
+    private HolidayRepository holidayRepository;
+
     public List<HolidayCalendar> findAll() {
         logger.info("Retrieving all holiday calendars");
         return holidayCalendarRepository.findAll();
@@ -37,4 +48,34 @@ public class HolidayCalendarService {
         logger.warn("Deleting holiday calendar with id: {}", id);
         holidayCalendarRepository.deleteById(id);
     }
+
+    public List<Holiday> getHolidays(Long calendarId) {
+        logger.debug("Retrieving holidays for calendar id: {}", calendarId);
+        return holidayRepository.findByHolidayCalendarIdOrderByHolidayDate(calendarId);
+    }
+
+    /**
+     * Adds the given dates to a calendar, skipping dates it already has so a holiday file can be
+     * reloaded safely. Returns the number of dates inserted.
+     */
+    @Transactional
+    public int bulkLoadHolidays(HolidayCalendar calendar, List<HolidayDTO> holidays) {
+        Set<LocalDate> known = new HashSet<>(holidayRepository.findDatesByHolidayCalendarId(calendar.getId()));
+        List<Holiday> toInsert = new ArrayList<>();
+        for (HolidayDTO dto : holidays) {
+            if (dto.getHolidayDate() == null) {
+                throw new IllegalArgumentException("Holiday date is required");
+            }
+            if (known.add(dto.getHolidayDate())) {
+                Holiday holiday = new Holiday();
+                holiday.setHolidayCalendar(calendar);
+                holiday.setHolidayDate(dto.getHolidayDate());
+                holiday.setDescription(dto.getDescription());
+                toInsert.add(holiday);
+            }
+        }
+        holidayRepository.saveAll(toInsert);
+        logger.info("Loaded {} of {} holidays into calendar {}", toInsert.size(), holidays.size(), calendar.getHolidayCalendar());
+        return toInsert.size();
+    }
 }
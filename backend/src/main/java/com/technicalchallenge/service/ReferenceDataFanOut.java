@@ -0,0 +1,55 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a trade's reference data lookups concurrently ahead of validation when virtual threads are
+ * enabled (see VirtualThreadConfig). Each lookup blocks on JDBC, and on a virtual thread that wait
+ * holds no platform thread. Otherwise this does nothing and validation looks the data up one by
+ * one as before; fanning out onto a platform thread pool would only move the wait.
+ *
+ * Each concurrent lookup takes its own pooled connection. Inside a transaction the caller already
+ * holds one, and enough such callers would leave their lookups waiting on the pool for good, so
+ * there the lookups run one by one on the caller's thread and connection instead.
+ */
+@Component
+public class ReferenceDataFanOut {
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ReferenceDataFanOut(@Value("${trade.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this(virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : null);
+    }
+
+    // Without an executor the fan-out is off
+    ReferenceDataFanOut(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void prefetch(TradeReferenceResolver references, TradeDTO tradeDTO) {
+        if (executor == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            references.prefetch(tradeDTO);
+        } else {
+            references.prefetch(tradeDTO, executor);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.AdditionalInfo;
+import com.technicalchallenge.model.SettlementInstructionGram;
+import com.technicalchallenge.model.Trade;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Trigram index over active trade settlement instructions, kept in settlement_instruction_gram.
+ * A search term of three or more characters narrows the candidates to instructions holding all of
+ * its trigrams; a shorter one to instructions with a trigram starting with it. Candidates are then
+ * checked with LIKE, so the index only decides which rows are read, never what matches.
+ */
+@Component
+public class SettlementInstructionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SettlementInstructionIndex.class);
+
+    public static final String ENTITY_TYPE = "TRADE";
+    public static final String FIELD_NAME = "SETTLEMENT_INSTRUCTIONS";
+
+    static final int GRAM_LENGTH = 3;
+    // Two trailing spaces, so the last characters of a value also start a trigram
+    private static final String PADDING = "  ";
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SettlementInstructionIndex(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        indexMissing();
+    }
+
+    public boolean indexes(AdditionalInfo info) {
+        return ENTITY_TYPE.equals(info.getEntityType()) && FIELD_NAME.equals(info.getFieldName());
+    }
+
+    /** Adds an active instruction's trigrams; joins the caller's transaction. */
+    public void add(AdditionalInfo info) {
+        if (!indexes(info) || !Boolean.TRUE.equals(info.getActive()) || info.getFieldValue() == null) {
+            return;
+        }
+        for (String gram : grams(info.getFieldValue())) {
+            entityManager.persist(new SettlementInstructionGram(gram, info.getId()));
+        }
+    }
+
+    /** Drops a deactivated instruction's trigrams; joins the caller's transaction. */
+    public void remove(AdditionalInfo info) {
+        if (!indexes(info)) {
+            return;
+        }
+        // Pending postings would otherwise be inserted after the bulk delete
+        entityManager.flush();
+        entityManager.createQuery("DELETE FROM SettlementInstructionGram g WHERE g.additionalInfoId = :id")
+                .setParameter("id", info.getId())
+                .executeUpdate();
+    }
+
+    /** Indexes active instructions without postings, such as rows written before the index existed. */
+    public int indexMissing() {
+        int indexed = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<AdditionalInfo> missing = entityManager.createQuery(
+                                "SELECT a FROM AdditionalInfo a WHERE a.entityType = :entityType AND a.fieldName = :fieldName"
+                                        + " AND a.active = true AND a.fieldValue IS NOT NULL AND NOT EXISTS"
+                                        + " (SELECT g FROM SettlementInstructionGram g WHERE g.additionalInfoId = a.id)"
+                                        + " ORDER BY a.id", AdditionalInfo.class)
+                        .setParameter("entityType", ENTITY_TYPE)
+                        .setParameter("fieldName", FIELD_NAME)
+                        .setMaxResults(BACKFILL_CHUNK_SIZE)
+                        .getResultList();
+                missing.forEach(this::add);
+                entityManager.flush();
+                entityManager.clear();
+                return missing.size();
+            });
+            indexed += chunk;
+            if (chunk < BACKFILL_CHUNK_SIZE) {
+                break;
+            }
+        }
+        if (indexed > 0) {
+            logger.info("Indexed {} settlement instructions", indexed);
+        }
+        return indexed;
+    }
+
+    /**
+     * Trades with an active settlement instruction containing every term of the query, ignoring
+     * case. Terms are separated by whitespace; a double-quoted phrase is one term.
+     */
+    public Specification<Trade> matching(String query) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Settlement instruction search text is required");
+        }
+
+        return (root, criteriaQuery, cb) -> {
+            Subquery<Long> instructions = criteriaQuery.subquery(Long.class);
+            Root<AdditionalInfo> info = instructions.from(AdditionalInfo.class);
+            List<Predicate> where = new ArrayList<>();
+            where.add(cb.equal(info.get("entityType"), ENTITY_TYPE));
+            where.add(cb.equal(info.get("fieldName"), FIELD_NAME));
+            where.add(cb.isTrue(info.get("active")));
+
+            Set<String> grams = new LinkedHashSet<>();
+            for (String term : terms) {
+                if (term.codePointCount(0, term.length()) >= GRAM_LENGTH) {
+                    grams.addAll(termGrams(term));
+                } else {
+                    Subquery<Long> prefixed = criteriaQuery.subquery(Long.class);
+                    Root<SettlementInstructionGram> gram = prefixed.from(SettlementInstructionGram.class);
+                    prefixed.select(gram.get("additionalInfoId"))
+                            .where(cb.like(gram.get("gram"), escape(term) + "%", '\\'));
+                    where.add(info.get("id").in(prefixed));
+                }
+                where.add(cb.like(cb.lower(info.get("fieldValue")), "%" + escape(term) + "%", '\\'));
+            }
+            if (!grams.isEmpty()) {
+                where.add(info.get("id").in(holdingAll(grams, criteriaQuery.subquery(Long.class), cb)));
+            }
+
+            instructions.select(info.get("entityId")).where(where.toArray(Predicate[]::new));
+            return root.get("id").in(instructions);
+        };
+    }
+
+    private static Subquery<Long> holdingAll(Set<String> grams, Subquery<Long> candidates, CriteriaBuilder cb) {
+        Root<SettlementInstructionGram> gram = candidates.from(SettlementInstructionGram.class);
+        return candidates.select(gram.get("additionalInfoId"))
+                .where(gram.get("gram").in(grams))
+                .groupBy(gram.get("additionalInfoId"))
+                .having(cb.equal(cb.count(gram.get("gram")), (long) grams.size()));
+    }
+
+    /** The distinct trigrams stored for a value: lower-cased and padded, one per character. */
+    public static Set<String> grams(String value) {
+        String padded = value.toLowerCase(Locale.ROOT) + PADDING;
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = padded.codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    // A term's own trigrams, unpadded: the term may sit anywhere in the value
+    private static Set<String> termGrams(String term) {
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = term.codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        String text = query.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < text.length()) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                i++;
+            } else if (text.charAt(i) == '"') {
+                int end = text.indexOf('"', i + 1);
+                addTerm(terms, text.substring(i + 1, end < 0 ? text.length() : end));
+                i = end < 0 ? text.length() : end + 1;
+            } else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                    end++;
+                }
+                addTerm(terms, text.substring(i, end));
+                i = end;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        if (!term.isBlank()) {
+            terms.add(term);
+        }
+    }
+
+    private static String escape(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,199 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeBatchItemResultDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.ValidationResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Books a batch of trades, such as an end of day load from the OMS. The user is authorized once,
+ * reference data is looked up once per distinct name for the whole batch, and trades are read,
+ * validated and saved in chunks:
+ * - each chunk's trades are validated in parallel; invalid ones are reported and skipped
+ * - the valid ones are saved in one transaction, so their inserts go out as JDBC batches
+ * - if that transaction fails, the chunk is retried one trade per transaction so only the bad
+ *   trade is reported as failed
+ */
+@Service
+public class TradeBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBatchService.class);
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Books the trades in the order given. Reading stops at the first trade that cannot be read
+     * (for example a malformed NDJSON line), which is reported as rejected; trades before it are
+     * still booked.
+     */
+    public TradeBatchResultDTO bookTrades(Iterator<TradeDTO> trades, String userId) {
+        // Booking needs no trade ownership, so one check covers every trade in the batch
+        if (!authorizationEngine.isAuthorized(userId, "createTrade", null)) {
+            throw new UnauthorizedAccessException("User does not have permission to create trades");
+        }
+
+        TradeReferenceResolver references = tradeService.newReferenceResolver();
+        TradeBatchResultDTO result = new TradeBatchResultDTO();
+        int size = Math.max(chunkSize, 1);
+        int nextIndex = 0;
+        boolean exhausted = false;
+        while (!exhausted) {
+            List<TradeDTO> chunk = new ArrayList<>(size);
+            String readError = null;
+            try {
+                while (chunk.size() < size && trades.hasNext()) {
+                    chunk.add(trades.next());
+                }
+                exhausted = chunk.size() < size;
+            } catch (RuntimeException e) {
+                readError = e.getMessage();
+                exhausted = true;
+            }
+
+            bookChunk(chunk, nextIndex, references, result);
+            nextIndex += chunk.size();
+
+            if (readError != null) {
+                logger.warn("Batch booking stopped at trade {}: {}", nextIndex, readError);
+                addResult(result, new TradeBatchItemResultDTO(nextIndex, TradeBatchItemResultDTO.REJECTED, null,
+                        List.of("Unreadable trade: " + readError)));
+            }
+        }
+
+        logger.info("Batch booking by {}: {} submitted, {} booked, {} rejected, {} failed",
+                userId, result.getSubmitted(), result.getBooked(), result.getRejected(), result.getFailed());
+        return result;
+    }
+
+    private void bookChunk(List<TradeDTO> chunk, int firstIndex, TradeReferenceResolver references, TradeBatchResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Look up the chunk's reference data on this thread, so validation below reads it from memory
+        chunk.forEach(references::prefetch);
+        List<List<String>> errors = IntStream.range(0, chunk.size())
+                .parallel()
+                .mapToObj(i -> validate(chunk.get(i), references))
+                .toList();
+
+        TradeBatchItemResultDTO[] items = new TradeBatchItemResultDTO[chunk.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors.get(i).isEmpty()) {
+                valid.add(i);
+            } else {
+                items[i] = new TradeBatchItemResultDTO(firstIndex + i, TradeBatchItemResultDTO.REJECTED,
+                        chunk.get(i).getTradeId(), errors.get(i));
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                // Before the transaction, as for a single booking (see TradeService.assignTradeId)
+                valid.forEach(i -> tradeService.assignTradeId(chunk.get(i)));
+                List<Long> tradeIds = transactionTemplate.execute(status -> valid.stream()
+                        .map(i -> tradeService.bookTrade(chunk.get(i), references).getTradeId())
+                        .toList());
+                for (int k = 0; k < valid.size(); k++) {
+                    int i = valid.get(k);
+                    items[i] = new TradeBatchItemResultDTO(firstIndex + i, TradeBatchItemResultDTO.BOOKED, tradeIds.get(k), List.of());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Chunk starting at trade {} failed to save ({}), retrying its trades one at a time",
+                        firstIndex, e.getMessage());
+                for (int i : valid) {
+                    items[i] = bookAlone(chunk.get(i), firstIndex + i, references);
+                }
+            }
+        }
+
+        // The chunk is committed; don't let its entities accumulate in a request scoped persistence context
+        entityManager.clear();
+
+        for (TradeBatchItemResultDTO item : items) {
+            addResult(result, item);
+        }
+    }
+
+    private TradeBatchItemResultDTO bookAlone(TradeDTO tradeDTO, int index, TradeReferenceResolver references) {
+        try {
+            Long tradeId = transactionTemplate.execute(status -> tradeService.bookTrade(tradeDTO, references).getTradeId());
+            return new TradeBatchItemResultDTO(index, TradeBatchItemResultDTO.BOOKED, tradeId, List.of());
+        } catch (RuntimeException e) {
+            logger.warn("Batch trade {} failed to save: {}", index, e.getMessage());
+            return new TradeBatchItemResultDTO(index, TradeBatchItemResultDTO.FAILED, tradeDTO.getTradeId(),
+                    List.of("Trade could not be saved: " + e.getMessage()));
+        }
+    }
+
+    // The same checks as a single booking: bean validation on the request, then the trade rules
+    private List<String> validate(TradeDTO tradeDTO, TradeReferenceResolver references) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<TradeDTO> violation : validator.validate(tradeDTO)) {
+            errors.add(violation.getMessage());
+        }
+        // The rule checks below assume these are present
+        if (tradeDTO.getTradeMaturityDate() == null) {
+            errors.add("Maturity date is required");
+        }
+        if (tradeDTO.getTraderUserName() == null || tradeDTO.getTraderUserName().isBlank()) {
+            errors.add("Trader is required");
+        }
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        try {
+            ValidationResult validationResult = tradeService.validateTradeAndLegs(tradeDTO, references);
+            if (!validationResult.isValid()) {
+                errors.addAll(validationResult.getErrors());
+            }
+        } catch (RuntimeException e) {
+            errors.add("Trade validation failed: " + e.getMessage());
+        }
+        return errors;
+    }
+
+    private static void addResult(TradeBatchResultDTO result, TradeBatchItemResultDTO item) {
+        result.getResults().add(item);
+        result.setSubmitted(result.getSubmitted() + 1);
+        switch (item.getStatus()) {
+            case TradeBatchItemResultDTO.BOOKED -> result.setBooked(result.getBooked() + 1);
+            case TradeBatchItemResultDTO.REJECTED -> result.setRejected(result.getRejected() + 1);
+            default -> result.setFailed(result.getFailed() + 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.technicalchallenge.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * The bounded pool asynchronous bookings run on. At most queue-capacity bookings wait for a
+ * worker; when the queue is full the rejection policy decides what happens to the next one:
+ * - abort: the booking is refused and the client is told to retry later (503)
+ * - caller-runs: the booking runs on the request thread, slowing that client down
+ *
+ * Deliberately not an Executor bean: one would replace the application task executor that
+ * async MVC requests such as the trade export run on.
+ */
+@Component
+public class TradeBookingExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBookingExecutor.class);
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public TradeBookingExecutor(@Value("${trade.booking.async.pool-size:4}") int poolSize,
+                                @Value("${trade.booking.async.queue-capacity:100}") int queueCapacity,
+                                @Value("${trade.booking.async.rejection-policy:abort}") String rejectionPolicy) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("trade-booking-");
+        executor.setRejectedExecutionHandler(rejectionHandler(rejectionPolicy));
+        // Let accepted bookings finish on shutdown rather than leave them half way
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        logger.info("Trade booking pool: {} threads, queue of {}, {} when full", poolSize, queueCapacity, rejectionPolicy);
+    }
+
+    /** Runs the booking on the pool; throws RejectedExecutionException if the abort policy refuses it. */
+    public void execute(Runnable booking) {
+        executor.execute(booking);
+    }
+
+    public int getQueueSize() {
+        return executor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(String policy) {
+        return switch (policy.trim().toLowerCase(Locale.ROOT)) {
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            default -> throw new IllegalArgumentException("Unknown trade.booking.async.rejection-policy: " + policy
+                    + " (expected abort or caller-runs)");
+        };
+    }
+}
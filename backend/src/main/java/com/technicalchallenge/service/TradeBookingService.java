@@ -0,0 +1,274 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.IdempotencyKeyReuseException;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeBookingRequest;
+import com.technicalchallenge.model.ValidationResult;
+import com.technicalchallenge.repository.TradeBookingRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous trade booking. submit() records the request under the client's Idempotency-Key and
+ * queues it on the TradeBookingExecutor; a worker then runs it through the booking stages:
+ * - VALIDATING: reference data and business rules, as for a single booking
+ * - BOOKING: the trade, its legs and cashflows are saved in one transaction, together with the
+ *   COMPLETED status, so a booked trade is never reported as anything else
+ *
+ * Submitting the same key again returns the original booking rather than booking a second trade,
+ * unless it FAILED, in which case nothing was booked and it is run again.
+ *
+ * The trade is stored with the request, and bookings the last run left unfinished are resumed on
+ * startup. The queue is in memory, so this assumes one instance works the table.
+ */
+@Service
+public class TradeBookingService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeBookingService.class);
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
+    @Autowired
+    private TradeBookingRequestRepository tradeBookingRequestRepository;
+
+    @Autowired
+    private TradeBookingExecutor tradeBookingExecutor;
+
+    @Autowired
+    private ReferenceDataFanOut referenceDataFanOut;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Accepts a trade for booking. Throws RejectedExecutionException when the booking queue is full;
+     * nothing is recorded in that case, so the client can retry with the same key.
+     */
+    public TradeBookingStatusDTO submit(TradeDTO tradeDTO, String userId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency-Key header is required");
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        if (!authorizationEngine.isAuthorized(userId, "createTrade", tradeDTO)) {
+            throw new UnauthorizedAccessException("User does not have permission to create trade");
+        }
+        // The validation stage assumes these are present
+        if (tradeDTO.getTradeMaturityDate() == null) {
+            throw new IllegalArgumentException("Maturity date is required");
+        }
+        if (tradeDTO.getTraderUserName() == null || tradeDTO.getTraderUserName().isBlank()) {
+            throw new IllegalArgumentException("Trader is required");
+        }
+
+        // Serialise before booking, which fills in the trade ID and status
+        String payload = toJson(tradeDTO);
+        String requestHash = requestHash(payload);
+        Optional<TradeBookingRequest> existing = tradeBookingRequestRepository.findByRequestedByAndIdempotencyKey(userId, idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(existing.get(), requestHash, tradeDTO);
+        }
+
+        TradeBookingRequest request = new TradeBookingRequest();
+        request.setRequestedBy(userId);
+        request.setIdempotencyKey(idempotencyKey);
+        request.setRequestHash(requestHash);
+        request.setPayload(payload);
+        try {
+            request = tradeBookingRequestRepository.saveAndFlush(request);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent retry with the same key got there first
+            TradeBookingRequest winner = tradeBookingRequestRepository.findByRequestedByAndIdempotencyKey(userId, idempotencyKey)
+                    .orElseThrow(() -> e);
+            return replay(winner, requestHash, tradeDTO);
+        }
+
+        UUID bookingId = request.getId();
+        try {
+            tradeBookingExecutor.execute(() -> process(bookingId, tradeDTO));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Trade booking queue full, refusing booking {} for {}", idempotencyKey, userId);
+            tradeBookingRequestRepository.deleteById(bookingId);
+            throw e;
+        }
+        logger.info("Accepted booking {} (key {}) for {}", bookingId, idempotencyKey, userId);
+
+        // With the caller-runs policy the booking may already have finished on this thread
+        return toStatus(tradeBookingRequestRepository.findById(bookingId).orElse(request));
+    }
+
+    /** The booking's progress, if it exists and was submitted by this user. */
+    public Optional<TradeBookingStatusDTO> getStatus(UUID bookingId, String userId) {
+        return tradeBookingRequestRepository.findById(bookingId)
+                .filter(request -> request.getRequestedBy().equals(userId))
+                .map(this::toStatus);
+    }
+
+    /**
+     * Runs the bookings the last run accepted but never finished. The trade is only booked in the
+     * transaction that marks the booking COMPLETED, so an unfinished booking booked nothing and
+     * starts again from validation. One whose trade was not stored, or that finds the queue full,
+     * is FAILED instead, which lets the client submit it again under the same key.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        int resumed = 0;
+        for (TradeBookingRequest request : tradeBookingRequestRepository.findByStatusIn(TradeBookingRequest.UNFINISHED)) {
+            TradeDTO tradeDTO = fromJson(request);
+            if (tradeDTO == null) {
+                update(request, TradeBookingRequest.FAILED, null, List.of("Booking was interrupted by a restart, submit it again"));
+                continue;
+            }
+            UUID bookingId = request.getId();
+            try {
+                tradeBookingExecutor.execute(() -> process(bookingId, tradeDTO));
+                resumed++;
+            } catch (RejectedExecutionException e) {
+                update(request, TradeBookingRequest.FAILED, null, List.of("Booking was interrupted by a restart, submit it again"));
+            }
+        }
+        if (resumed > 0) {
+            logger.info("Resumed {} unfinished bookings", resumed);
+        }
+    }
+
+    void process(UUID bookingId, TradeDTO tradeDTO) {
+        TradeBookingRequest request = tradeBookingRequestRepository.findById(bookingId).orElse(null);
+        if (request == null) {
+            logger.warn("Booking {} no longer exists, skipping", bookingId);
+            return;
+        }
+
+        try {
+            update(request, TradeBookingRequest.VALIDATING, null, List.of());
+            TradeReferenceResolver references = tradeService.newReferenceResolver();
+            referenceDataFanOut.prefetch(references, tradeDTO);
+            List<String> errors = validate(tradeDTO, references);
+            if (!errors.isEmpty()) {
+                logger.info("Booking {} rejected: {}", bookingId, errors);
+                update(request, TradeBookingRequest.REJECTED, null, errors);
+                return;
+            }
+
+            update(request, TradeBookingRequest.BOOKING, null, List.of());
+            tradeService.assignTradeId(tradeDTO);
+            transactionTemplate.executeWithoutResult(status -> {
+                Trade trade = tradeService.bookTrade(tradeDTO, references);
+                update(request, TradeBookingRequest.COMPLETED, trade.getTradeId(), List.of());
+            });
+            logger.info("Booking {} completed as trade {}", bookingId, request.getTradeId());
+        } catch (RuntimeException e) {
+            logger.error("Booking {} failed: {}", bookingId, e.getMessage(), e);
+            update(request, TradeBookingRequest.FAILED, null, List.of("Trade could not be booked: " + e.getMessage()));
+        }
+    }
+
+    private List<String> validate(TradeDTO tradeDTO, TradeReferenceResolver references) {
+        try {
+            ValidationResult validationResult = tradeService.validateTradeAndLegs(tradeDTO, references);
+            return validationResult.isValid() ? List.of() : validationResult.getErrors();
+        } catch (RuntimeException e) {
+            return List.of("Trade validation failed: " + e.getMessage());
+        }
+    }
+
+    private void update(TradeBookingRequest request, String status, Long tradeId, List<String> errors) {
+        request.setStatus(status);
+        request.setTradeId(tradeId);
+        request.setErrors(errors.isEmpty() ? null : String.join("\n", errors));
+        if (request.isFinished()) {
+            request.setCompletedDate(LocalDateTime.now());
+        }
+        tradeBookingRequestRepository.save(request);
+    }
+
+    private TradeBookingStatusDTO replay(TradeBookingRequest request, String requestHash, TradeDTO tradeDTO) {
+        if (!request.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key " + request.getIdempotencyKey()
+                    + " was already used for a different trade");
+        }
+        // A failed booking booked nothing; of several concurrent retries only one gets to run it again
+        UUID bookingId = request.getId();
+        if (TradeBookingRequest.FAILED.equals(request.getStatus())
+                && tradeBookingRequestRepository.updateStatus(bookingId, TradeBookingRequest.FAILED, TradeBookingRequest.ACCEPTED) == 1) {
+            try {
+                tradeBookingExecutor.execute(() -> process(bookingId, tradeDTO));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Trade booking queue full, refusing retry of booking {}", bookingId);
+                tradeBookingRequestRepository.updateStatus(bookingId, TradeBookingRequest.ACCEPTED, TradeBookingRequest.FAILED);
+                throw e;
+            }
+            logger.info("Retrying failed booking {} for key {}", bookingId, request.getIdempotencyKey());
+            return toStatus(tradeBookingRequestRepository.findById(bookingId).orElse(request));
+        }
+        logger.info("Replaying booking {} for key {}", bookingId, request.getIdempotencyKey());
+        return toStatus(request);
+    }
+
+    private String toJson(TradeDTO tradeDTO) {
+        try {
+            return objectMapper.writeValueAsString(tradeDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise trade booking request", e);
+        }
+    }
+
+    // Null when the booking has no stored trade, or one that no longer reads as a TradeDTO
+    private TradeDTO fromJson(TradeBookingRequest request) {
+        if (request.getPayload() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(request.getPayload(), TradeDTO.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Booking {} has an unreadable trade: {}", request.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String requestHash(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash trade booking request", e);
+        }
+    }
+
+    private TradeBookingStatusDTO toStatus(TradeBookingRequest request) {
+        List<String> errors = request.getErrors() == null ? List.of() : List.of(request.getErrors().split("\n"));
+        return new TradeBookingStatusDTO(request.getId(), request.getIdempotencyKey(), request.getStatus(),
+                request.getTradeId(), errors, request.getCreatedDate(), request.getCompletedDate());
+    }
+}
@@ -0,0 +1,187 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes the trade blotter to an output stream as NDJSON (one TradeDTO per line) or CSV (one
+ * trade per row). Trades are read over a cursor and written in chunks; the persistence context
+ * is cleared after every chunk, so memory use does not depend on how many trades match.
+ */
+@Service
+public class TradeExportService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeExportService.class);
+
+    // Matches hibernate.default_batch_fetch_size so a chunk's legs and cashflows load in one query each
+    private static final int CHUNK_SIZE = 100;
+
+    private static final String CSV_HEADER = "tradeId,version,tradeDate,tradeStartDate,tradeMaturityDate,tradeStatus,"
+            + "bookName,counterpartyName,traderUserName,inputterUserName,tradeType,tradeSubType,utiCode,active";
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            if (value != null) {
+                for (Format format : values()) {
+                    if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+                        return format;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + ". Supported formats: ndjson, csv");
+        }
+    }
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeMapper tradeMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trade.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportTrades(Specification<Trade> spec, Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long written = 0;
+        try (Stream<Trade> trades = tradeRepository.streamAll(spec, fetchSize)) {
+            List<Trade> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<Trade> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeChunk(chunk, format, writer);
+                    written += chunk.size();
+                    chunk.clear();
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+
+        logger.info("Exported {} trades as {}", written, format);
+        return written;
+    }
+
+    private void writeChunk(List<Trade> chunk, Format format, Writer writer) throws IOException {
+        if (format == Format.NDJSON) {
+            List<TradeDTO> dtos = chunk.stream().map(tradeMapper::toDto).toList();
+            tradeService.addAdditionalInfoToAll(dtos);
+            for (TradeDTO dto : dtos) {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        } else {
+            for (Trade trade : chunk) {
+                writeCsvRow(trade, writer);
+            }
+        }
+    }
+
+    private void writeCsvRow(Trade trade, Writer writer) throws IOException {
+        writer.write(csv(trade.getTradeId()));
+        writer.write(',');
+        writer.write(csv(trade.getVersion()));
+        writer.write(',');
+        writer.write(csv(trade.getTradeDate()));
+        writer.write(',');
+        writer.write(csv(trade.getTradeStartDate()));
+        writer.write(',');
+        writer.write(csv(trade.getTradeMaturityDate()));
+        writer.write(',');
+        writer.write(csv(trade.getTradeStatus() != null ? trade.getTradeStatus().getTradeStatus() : null));
+        writer.write(',');
+        writer.write(csv(trade.getBook() != null ? trade.getBook().getBookName() : null));
+        writer.write(',');
+        writer.write(csv(trade.getCounterparty() != null ? trade.getCounterparty().getName() : null));
+        writer.write(',');
+        writer.write(csv(fullName(trade.getTraderUser())));
+        writer.write(',');
+        writer.write(csv(fullName(trade.getTradeInputterUser())));
+        writer.write(',');
+        writer.write(csv(trade.getTradeType() != null ? trade.getTradeType().getTradeType() : null));
+        writer.write(',');
+        writer.write(csv(trade.getTradeSubType() != null ? trade.getTradeSubType().getTradeSubType() : null));
+        writer.write(',');
+        writer.write(csv(trade.getUtiCode()));
+        writer.write(',');
+        writer.write(csv(trade.getActive()));
+        writer.write('\n');
+    }
+
+    private static String fullName(ApplicationUser user) {
+        return user != null ? user.getFirstName() + " " + user.getLastName() : null;
+    }
+
+    // RFC 4180: quote values containing a delimiter, quote or line break, doubling embedded quotes
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,267 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeGridRequestDTO;
+import com.technicalchallenge.model.Trade;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The trade blotter columns the AG Grid server-side row model can filter, sort, group and
+ * aggregate on, by column id (the TradeDTO property), and the translation of its filter and sort
+ * models into criteria. Reference data columns are read over left joins, one per association
+ * however many filters, sorts and groups use it.
+ */
+final class TradeGridColumns {
+
+    enum Type { TEXT, NUMBER, DATE, DATE_TIME, BOOLEAN }
+
+    private record Column(Type type, BiFunction<Root<Trade>, CriteriaBuilder, Expression<?>> expression) {}
+
+    private static final Map<String, Column> COLUMNS = Map.ofEntries(
+            Map.entry("id", attribute(Type.NUMBER, "id")),
+            Map.entry("tradeId", attribute(Type.NUMBER, "tradeId")),
+            Map.entry("version", attribute(Type.NUMBER, "version")),
+            Map.entry("tradeDate", attribute(Type.DATE, "tradeDate")),
+            Map.entry("tradeStartDate", attribute(Type.DATE, "tradeStartDate")),
+            Map.entry("tradeMaturityDate", attribute(Type.DATE, "tradeMaturityDate")),
+            Map.entry("tradeExecutionDate", attribute(Type.DATE, "tradeExecutionDate")),
+            Map.entry("utiCode", attribute(Type.TEXT, "utiCode")),
+            Map.entry("lastTouchTimestamp", attribute(Type.DATE_TIME, "lastTouchTimestamp")),
+            Map.entry("createdDate", attribute(Type.DATE_TIME, "createdDate")),
+            Map.entry("deactivatedDate", attribute(Type.DATE_TIME, "deactivatedDate")),
+            Map.entry("active", attribute(Type.BOOLEAN, "active")),
+            Map.entry("bookName", attribute(Type.TEXT, "book", "bookName")),
+            Map.entry("counterpartyName", attribute(Type.TEXT, "counterparty", "name")),
+            Map.entry("traderUserName", userName("traderUser")),
+            Map.entry("inputterUserName", userName("tradeInputterUser")),
+            Map.entry("tradeType", attribute(Type.TEXT, "tradeType", "tradeType")),
+            Map.entry("tradeSubType", attribute(Type.TEXT, "tradeSubType", "tradeSubType")),
+            Map.entry("tradeStatus", attribute(Type.TEXT, "tradeStatus", "tradeStatus")));
+
+    // Value column summed over the trade's legs; only group rows carry it
+    static final String NOTIONAL = "notional";
+
+    private TradeGridColumns() {
+    }
+
+    static Expression<?> expression(String colId, Root<Trade> root, CriteriaBuilder cb) {
+        return column(colId).expression().apply(root, cb);
+    }
+
+    /** Trades in the group a row group key names; a null key is the group of trades without a value. */
+    static Specification<Trade> groupKey(String colId, String key) {
+        Column column = column(colId);
+        return (root, query, cb) -> {
+            Expression<?> expression = column.expression().apply(root, cb);
+            return key == null ? cb.isNull(expression) : cb.equal(expression, value(colId, column.type(), expression, key));
+        };
+    }
+
+    /** The grid's filter model; each column's filter must hold. */
+    static Specification<Trade> filter(Map<String, TradeGridRequestDTO.FilterModel> filterModel) {
+        Specification<Trade> spec = Specification.where(null);
+        if (filterModel == null) {
+            return spec;
+        }
+        for (Map.Entry<String, TradeGridRequestDTO.FilterModel> entry : filterModel.entrySet()) {
+            Column column = column(entry.getKey());
+            spec = spec.and((root, query, cb) -> predicate(entry.getKey(), column, entry.getValue(), root, cb));
+        }
+        return spec;
+    }
+
+    /** The sort model as orders; columns missing from COLUMNS are rejected. */
+    static List<Order> orders(List<TradeGridRequestDTO.SortModelItem> sortModel, Root<Trade> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        if (sortModel != null) {
+            for (TradeGridRequestDTO.SortModelItem item : sortModel) {
+                orders.add(order(expression(item.getColId(), root, cb), item.getSort(), cb));
+            }
+        }
+        return orders;
+    }
+
+    static Order order(Expression<?> expression, String sort, CriteriaBuilder cb) {
+        return "desc".equalsIgnoreCase(sort) ? cb.desc(expression) : cb.asc(expression);
+    }
+
+    /**
+     * A value column's aggregate over the trades of a group. count counts trades; notional is
+     * summed (or averaged, per leg) over legs; min and max work on any number or date column.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Expression<?> aggregate(TradeGridRequestDTO.ColumnVO valueCol, Root<Trade> root, CriteriaBuilder cb) {
+        String aggFunc = valueCol.getAggFunc() == null ? "sum" : valueCol.getAggFunc().toLowerCase(Locale.ROOT);
+        if ("count".equals(aggFunc)) {
+            return cb.countDistinct(root);
+        }
+        if (NOTIONAL.equals(valueCol.getId())) {
+            Expression<BigDecimal> notional = join(root, "tradeLegs").get("notional");
+            switch (aggFunc) {
+                case "sum": return cb.sum(notional);
+                case "avg": return cb.avg(notional);
+                case "min": return cb.min(notional);
+                case "max": return cb.max(notional);
+                default: throw new IllegalArgumentException("Unsupported aggregation " + aggFunc + " for " + NOTIONAL);
+            }
+        }
+        Column column = column(valueCol.getId());
+        if (column.type() == Type.TEXT || column.type() == Type.BOOLEAN || !("min".equals(aggFunc) || "max".equals(aggFunc))) {
+            throw new IllegalArgumentException("Unsupported aggregation " + aggFunc + " for " + valueCol.getId());
+        }
+        Expression expression = column.expression().apply(root, cb);
+        return "min".equals(aggFunc) ? cb.least(expression) : cb.greatest(expression);
+    }
+
+    private static Column column(String colId) {
+        Column column = COLUMNS.get(colId);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown grid column " + colId + ". Supported columns: " + COLUMNS.keySet());
+        }
+        return column;
+    }
+
+    private static Column attribute(Type type, String... path) {
+        return new Column(type, (root, cb) -> {
+            From<?, ?> from = root;
+            for (int i = 0; i < path.length - 1; i++) {
+                from = join(from, path[i]);
+            }
+            return from.get(path[path.length - 1]);
+        });
+    }
+
+    // Matches the "First Last" TradeMapper shows
+    private static Column userName(String user) {
+        return new Column(Type.TEXT, (root, cb) -> {
+            Join<?, ?> join = join(root, user);
+            return cb.concat(cb.concat(join.<String>get("firstName"), " "), join.<String>get("lastName"));
+        });
+    }
+
+    private static Join<?, ?> join(From<?, ?> from, String attribute) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == JoinType.LEFT) {
+                return join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate predicate(String colId, Column column, TradeGridRequestDTO.FilterModel model,
+                                       Root<Trade> root, CriteriaBuilder cb) {
+        if (model.getConditions() != null && !model.getConditions().isEmpty()) {
+            Predicate[] conditions = model.getConditions().stream()
+                    .map(condition -> predicate(colId, column, condition, root, cb))
+                    .toArray(Predicate[]::new);
+            return "OR".equalsIgnoreCase(model.getOperator()) ? cb.or(conditions) : cb.and(conditions);
+        }
+
+        Expression expression = column.expression().apply(root, cb);
+        if ("set".equals(model.getFilterType())) {
+            List<String> values = model.getValues() == null ? List.of() : model.getValues();
+            List<Predicate> matches = new ArrayList<>();
+            List<Object> keys = new ArrayList<>();
+            for (String value : values) {
+                if (value == null) {
+                    matches.add(cb.isNull(expression));
+                } else {
+                    keys.add(value(colId, column.type(), expression, value));
+                }
+            }
+            if (!keys.isEmpty()) {
+                matches.add(expression.in(keys));
+            }
+            return cb.or(matches.toArray(Predicate[]::new));
+        }
+
+        String type = model.getType() == null ? "equals" : model.getType();
+        if ("blank".equals(type)) {
+            return cb.isNull(expression);
+        }
+        if ("notBlank".equals(type)) {
+            return cb.isNotNull(expression);
+        }
+        if (column.type() == Type.TEXT) {
+            return text(colId, expression, type, model.getFilter(), cb);
+        }
+
+        boolean dates = column.type() == Type.DATE || column.type() == Type.DATE_TIME;
+        Comparable from = value(colId, column.type(), expression, dates ? model.getDateFrom() : model.getFilter());
+        switch (type) {
+            case "equals": return cb.equal(expression, from);
+            case "notEqual": return cb.notEqual(expression, from);
+            case "lessThan": return cb.lessThan(expression, from);
+            case "lessThanOrEqual": return cb.lessThanOrEqualTo(expression, from);
+            case "greaterThan": return cb.greaterThan(expression, from);
+            case "greaterThanOrEqual": return cb.greaterThanOrEqualTo(expression, from);
+            case "inRange":
+                Comparable to = value(colId, column.type(), expression, dates ? model.getDateTo() : model.getFilterTo());
+                return cb.between(expression, from, to);
+            default: throw new IllegalArgumentException("Unsupported filter " + type + " for column " + colId);
+        }
+    }
+
+    // Case-insensitive, like /search
+    private static Predicate text(String colId, Expression<String> expression, String type, Object filter, CriteriaBuilder cb) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Missing filter value for column " + colId);
+        }
+        String value = filter.toString().toLowerCase(Locale.ROOT);
+        Expression<String> lower = cb.lower(expression);
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        switch (type) {
+            case "equals": return cb.equal(lower, value);
+            case "notEqual": return cb.notEqual(lower, value);
+            case "contains": return cb.like(lower, "%" + escaped + "%", '\\');
+            case "notContains": return cb.notLike(lower, "%" + escaped + "%", '\\');
+            case "startsWith": return cb.like(lower, escaped + "%", '\\');
+            case "endsWith": return cb.like(lower, "%" + escaped, '\\');
+            default: throw new IllegalArgumentException("Unsupported filter " + type + " for column " + colId);
+        }
+    }
+
+    // A filter value or group key as the column's Java type
+    private static Comparable<?> value(String colId, Type type, Expression<?> expression, Object raw) {
+        if (raw == null) {
+            throw new IllegalArgumentException("Missing filter value for column " + colId);
+        }
+        String text = raw.toString().trim();
+        try {
+            switch (type) {
+                case NUMBER:
+                    BigDecimal number = new BigDecimal(text);
+                    return expression.getJavaType() == Integer.class ? Integer.valueOf(number.intValueExact()) : Long.valueOf(number.longValueExact());
+                case DATE:
+                    // The date filter sends yyyy-MM-dd HH:mm:ss
+                    return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text);
+                case DATE_TIME:
+                    return text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text.replace(' ', 'T'));
+                case BOOLEAN:
+                    return Boolean.valueOf(text);
+                default:
+                    return text;
+            }
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid value " + text + " for column " + colId);
+        }
+    }
+}
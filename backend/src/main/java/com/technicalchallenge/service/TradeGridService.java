@@ -0,0 +1,164 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeGridRequestDTO;
+import com.technicalchallenge.dto.TradeGridResponseDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Trade;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.SpecHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocks of rows for the AG Grid server-side row model. The grid's filter model narrows the same
+ * specification /search and /rsql use; while there are row group columns left to open, the block
+ * is one row per group with its child count and value column aggregates, computed with GROUP BY,
+ * otherwise it is a page of trades. Only the rows of the requested block are read.
+ */
+@Service
+public class TradeGridService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeGridService.class);
+
+    static final String CHILD_COUNT = "childCount";
+
+    // AG Grid asks for cacheBlockSize rows at a time, 100 by default
+    private static final int MAX_BLOCK_SIZE = 1000;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeMapper tradeMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public TradeGridResponseDTO getRows(TradeGridRequestDTO request, Specification<Trade> search) {
+        int blockSize = request.getEndRow() - request.getStartRow();
+        if (request.getStartRow() < 0 || blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Rows " + request.getStartRow() + " to " + request.getEndRow()
+                    + " are not a block of 1 to " + MAX_BLOCK_SIZE + " rows");
+        }
+        List<TradeGridRequestDTO.ColumnVO> groupCols = request.getRowGroupCols();
+        List<String> groupKeys = request.getGroupKeys();
+        if (groupKeys.size() > groupCols.size()) {
+            throw new IllegalArgumentException("More group keys than row group columns");
+        }
+
+        Specification<Trade> spec = search.and(TradeGridColumns.filter(request.getFilterModel()));
+        for (int level = 0; level < groupKeys.size(); level++) {
+            spec = spec.and(TradeGridColumns.groupKey(groupCols.get(level).getId(), groupKeys.get(level)));
+        }
+
+        // One row past the block tells whether it is the last
+        List<?> rows = groupKeys.size() < groupCols.size()
+                ? groupRows(spec, request, groupCols.get(groupKeys.size()).getId(), blockSize + 1)
+                : leafRows(spec, request, blockSize + 1);
+        boolean lastBlock = rows.size() <= blockSize;
+        List<?> block = lastBlock ? rows : rows.subList(0, blockSize);
+
+        logger.debug("Grid rows {} to {} at group level {}: {} rows", request.getStartRow(), request.getEndRow(),
+                groupKeys.size(), block.size());
+        return new TradeGridResponseDTO(block, lastBlock ? request.getStartRow() + block.size() : null);
+    }
+
+    private List<Map<String, Object>> groupRows(Specification<Trade> spec, TradeGridRequestDTO request, String groupCol, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Trade> root = query.from(Trade.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+
+        Expression<?> group = TradeGridColumns.expression(groupCol, root, cb);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(group.alias(groupCol));
+        selections.add(cb.countDistinct(root).alias(CHILD_COUNT));
+        Map<String, Expression<?>> aggregates = new LinkedHashMap<>();
+        for (TradeGridRequestDTO.ColumnVO valueCol : request.getValueCols()) {
+            Expression<?> aggregate = TradeGridColumns.aggregate(valueCol, root, cb);
+            aggregates.put(valueCol.getId(), aggregate);
+            selections.add(aggregate.alias(valueCol.getId()));
+        }
+
+        // Sorts on columns that are neither the group nor a value column mean nothing for group rows
+        List<Order> orders = new ArrayList<>();
+        boolean groupOrdered = false;
+        for (TradeGridRequestDTO.SortModelItem item : request.getSortModel()) {
+            if (groupCol.equals(item.getColId())) {
+                orders.add(TradeGridColumns.order(group, item.getSort(), cb));
+                groupOrdered = true;
+            } else if (aggregates.containsKey(item.getColId())) {
+                orders.add(TradeGridColumns.order(aggregates.get(item.getColId()), item.getSort(), cb));
+            }
+        }
+        if (!groupOrdered) {
+            orders.add(cb.asc(group));
+        }
+
+        query.multiselect(selections).groupBy(group).orderBy(orders);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult(request.getStartRow())
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(groupCol, tuple.get(groupCol));
+            row.put(CHILD_COUNT, tuple.get(CHILD_COUNT));
+            for (String valueCol : aggregates.keySet()) {
+                row.put(valueCol, tuple.get(valueCol));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<TradeDTO> leafRows(Specification<Trade> spec, TradeGridRequestDTO request, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Trade> query = cb.createQuery(Trade.class);
+        Root<Trade> root = query.from(Trade.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+
+        // id breaks ties so rows with equal sort keys keep their order from block to block
+        List<Order> orders = TradeGridColumns.orders(request.getSortModel(), root, cb);
+        orders.add(cb.asc(root.get("id")));
+        query.select(root).orderBy(orders);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Trade> trades = entityManager.createQuery(query)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Trade.SUMMARY_GRAPH))
+                .setFirstResult(request.getStartRow())
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<TradeDTO> rows = trades.stream().map(tradeMapper::toDto).toList();
+        tradeService.addAdditionalInfoToAll(rows);
+        return rows;
+    }
+}
@@ -0,0 +1,80 @@
+package com.technicalchallenge.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out business trade IDs from an in-memory range reserved in blocks through
+ * TradeIdBlockService. The common path is a single getAndIncrement with no allocation and no
+ * database access; only the thread that exhausts a range goes back to the database.
+ */
+@Component
+public class TradeIdAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdAllocator.class);
+
+    private final TradeIdBlockService tradeIdBlockService;
+    private final int blockSize;
+    // Not synchronized: the refill waits on JDBC, which would pin a virtual thread to its carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    private volatile IdRange range = new IdRange(0L, 0L);
+
+    public TradeIdAllocator(TradeIdBlockService tradeIdBlockService,
+                            @Value("${trade.id.block-size:1000}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Trade ID block size must be positive");
+        }
+        this.tradeIdBlockService = tradeIdBlockService;
+        this.blockSize = blockSize;
+    }
+
+    public long nextTradeId() {
+        while (true) {
+            IdRange current = range;
+            long id = current.next.getAndIncrement();
+            if (id < current.limit) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(IdRange exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may already have swapped in a fresh range
+            if (range != exhausted) {
+                return;
+            }
+            long start;
+            try {
+                start = tradeIdBlockService.reserveBlock(blockSize);
+            } catch (DataIntegrityViolationException e) {
+                // Lost the race to create the block row with another instance; the row exists now
+                logger.debug("Trade ID block row created concurrently, retrying reservation");
+                start = tradeIdBlockService.reserveBlock(blockSize);
+            }
+            range = new IdRange(start, start + blockSize);
+            logger.info("Trade ID allocator now serving {} to {}", start, start + blockSize - 1);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class IdRange {
+        private final AtomicLong next;
+        private final long limit;
+
+        private IdRange(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.TradeIdBlock;
+import com.technicalchallenge.repository.TradeIdBlockRepository;
+import com.technicalchallenge.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Service
+public class TradeIdBlockService {
+    private static final Logger logger = LoggerFactory.getLogger(TradeIdBlockService.class);
+
+    static final String TRADE_ID_BLOCK = "TRADE_ID";
+    private static final long FIRST_TRADE_ID = 10000L;
+
+    @Autowired
+    private TradeIdBlockRepository tradeIdBlockRepository;
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    /**
+     * Reserves blockSize consecutive trade IDs and returns the first one. Runs in its own
+     * transaction so the reservation is committed even if the booking that triggered it rolls back.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(int blockSize) {
+        TradeIdBlock block = tradeIdBlockRepository.findForUpdate(TRADE_ID_BLOCK)
+                .orElseGet(this::initialBlock);
+
+        long start = block.getNextValue();
+        block.setNextValue(start + blockSize);
+        tradeIdBlockRepository.save(block);
+
+        logger.debug("Reserved trade IDs {} to {}", start, start + blockSize - 1);
+        return start;
+    }
+
+    // First reservation against this database: continue after any trades already present
+    private TradeIdBlock initialBlock() {
+        long next = Math.max(FIRST_TRADE_ID, tradeRepository.findMaxTradeId().orElse(0L) + 1);
+        logger.info("Initialising trade ID block at {}", next);
+        return new TradeIdBlock(TRADE_ID_BLOCK, next);
+    }
+}
@@ -0,0 +1,122 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.model.Trade;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Continuation token for keyset pagination of trades: the sort field and direction of the query
+ * that issued it plus the sort key and id of the last row returned. The next page is everything
+ * strictly after that (sortKey, id) pair, so rows inserted meanwhile never shift or repeat rows.
+ *
+ * Nulls are treated as larger than any value, matching NULLS LAST for ascending and NULLS FIRST for
+ * descending order in both H2 (DEFAULT_NULL_ORDERING=HIGH) and PostgreSQL.
+ */
+final class TradeKeysetCursor {
+
+    // Trade attributes that can be used as a keyset sort key, with how to read them back from a token
+    private static final Map<String, Function<String, Comparable<?>>> SORT_FIELDS = Map.ofEntries(
+            Map.entry("id", Long::valueOf),
+            Map.entry("tradeId", Long::valueOf),
+            Map.entry("version", Integer::valueOf),
+            Map.entry("tradeDate", LocalDate::parse),
+            Map.entry("tradeStartDate", LocalDate::parse),
+            Map.entry("tradeMaturityDate", LocalDate::parse),
+            Map.entry("tradeExecutionDate", LocalDate::parse),
+            Map.entry("utiCode", value -> value),
+            Map.entry("lastTouchTimestamp", LocalDateTime::parse),
+            Map.entry("createdDate", LocalDateTime::parse));
+
+    private static final String SEPARATOR = "|";
+    private static final String VALUE_PREFIX = "=";
+    private static final String NULL_VALUE = "~";
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final long lastId;
+    private final Comparable<?> lastValue;
+
+    private TradeKeysetCursor(String sortBy, Sort.Direction direction, long lastId, Comparable<?> lastValue) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    static void requireSortable(String sortBy) {
+        if (!SORT_FIELDS.containsKey(sortBy)) {
+            throw new IllegalArgumentException("Keyset pagination cannot sort by " + sortBy + ". Supported fields: " + SORT_FIELDS.keySet());
+        }
+    }
+
+    // Sort key first, id as the tie-breaker so the order is total
+    static Sort sortFor(String sortBy, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    static String after(Trade last, String sortBy, Sort.Direction direction) {
+        Object value = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(sortBy);
+        String token = sortBy + SEPARATOR + direction.name() + SEPARATOR + last.getId() + SEPARATOR
+                + (value == null ? NULL_VALUE : VALUE_PREFIX + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TradeKeysetCursor decode(String cursor) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value goes last so it may itself contain the separator
+            String[] parts = token.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("malformed token");
+            }
+            String sortBy = parts[0];
+            requireSortable(sortBy);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            long lastId = Long.parseLong(parts[2]);
+            Comparable<?> lastValue = parts[3].equals(NULL_VALUE) ? null
+                    : SORT_FIELDS.get(sortBy).apply(parts[3].substring(VALUE_PREFIX.length()));
+            return new TradeKeysetCursor(sortBy, direction, lastId, lastValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor", e);
+        }
+    }
+
+    boolean matches(String sortBy, Sort.Direction direction) {
+        return this.sortBy.equals(sortBy) && this.direction == direction;
+    }
+
+    // Rows strictly after (lastValue, lastId) in sortFor(sortBy, direction) order
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Specification<Trade> toSpecification() {
+        return (root, query, cb) -> {
+            Path<Comparable> key = root.get(sortBy);
+            Path<Long> id = root.get("id");
+            boolean ascending = direction.isAscending();
+            Predicate idAfter = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+
+            if (lastValue == null) {
+                Predicate sameKey = cb.and(cb.isNull(key), idAfter);
+                // Ascending: nulls come last, only other nulls follow. Descending: every value follows.
+                return ascending ? sameKey : cb.or(cb.isNotNull(key), sameKey);
+            }
+
+            Comparable value = lastValue;
+            Predicate sameKey = cb.and(cb.equal(key, value), idAfter);
+            if (ascending) {
+                return cb.or(cb.greaterThan(key, value), cb.isNull(key), sameKey);
+            }
+            return cb.or(cb.lessThan(key, value), sameKey);
+        };
+    }
+}
@@ -0,0 +1,269 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.model.*;
+import com.technicalchallenge.repository.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Reference data lookups for trade booking, remembered for the life of the resolver. TradeService
+ * uses a fresh one per call; a batch shares one across all its trades, so each distinct name is
+ * looked up once. Lookups can be made from several threads.
+ */
+public class TradeReferenceResolver {
+
+    private final BookRepository bookRepository;
+    private final CounterpartyRepository counterpartyRepository;
+    private final TradeStatusRepository tradeStatusRepository;
+    private final ApplicationUserRepository applicationUserRepository;
+    private final TradeTypeRepository tradeTypeRepository;
+    private final TradeSubTypeRepository tradeSubTypeRepository;
+    private final CurrencyRepository currencyRepository;
+    private final LegTypeRepository legTypeRepository;
+    private final IndexRepository indexRepository;
+    private final HolidayCalendarRepository holidayCalendarRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final BusinessDayConventionRepository businessDayConventionRepository;
+    private final PayRecRepository payRecRepository;
+
+    private final Map<LookupKey, Optional<?>> lookups = new ConcurrentHashMap<>();
+    private volatile List<TradeSubType> allTradeSubTypes;
+
+    public TradeReferenceResolver(BookRepository bookRepository,
+                                  CounterpartyRepository counterpartyRepository,
+                                  TradeStatusRepository tradeStatusRepository,
+                                  ApplicationUserRepository applicationUserRepository,
+                                  TradeTypeRepository tradeTypeRepository,
+                                  TradeSubTypeRepository tradeSubTypeRepository,
+                                  CurrencyRepository currencyRepository,
+                                  LegTypeRepository legTypeRepository,
+                                  IndexRepository indexRepository,
+                                  HolidayCalendarRepository holidayCalendarRepository,
+                                  ScheduleRepository scheduleRepository,
+                                  BusinessDayConventionRepository businessDayConventionRepository,
+                                  PayRecRepository payRecRepository) {
+        this.bookRepository = bookRepository;
+        this.counterpartyRepository = counterpartyRepository;
+        this.tradeStatusRepository = tradeStatusRepository;
+        this.applicationUserRepository = applicationUserRepository;
+        this.tradeTypeRepository = tradeTypeRepository;
+        this.tradeSubTypeRepository = tradeSubTypeRepository;
+        this.currencyRepository = currencyRepository;
+        this.legTypeRepository = legTypeRepository;
+        this.indexRepository = indexRepository;
+        this.holidayCalendarRepository = holidayCalendarRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.businessDayConventionRepository = businessDayConventionRepository;
+        this.payRecRepository = payRecRepository;
+    }
+
+    public Optional<Book> book(String bookName) {
+        return lookup("book", bookName, bookRepository::findByBookName);
+    }
+
+    public Optional<Book> book(Long id) {
+        return lookup("book", id, bookRepository::findById);
+    }
+
+    public Optional<Counterparty> counterparty(String name) {
+        return lookup("counterparty", name, counterpartyRepository::findByName);
+    }
+
+    public Optional<Counterparty> counterparty(Long id) {
+        return lookup("counterparty", id, counterpartyRepository::findById);
+    }
+
+    public Optional<TradeStatus> tradeStatus(String tradeStatus) {
+        return lookup("tradeStatus", tradeStatus, tradeStatusRepository::findByTradeStatus);
+    }
+
+    public Optional<TradeStatus> tradeStatus(Long id) {
+        return lookup("tradeStatus", id, tradeStatusRepository::findById);
+    }
+
+    public Optional<ApplicationUser> userByFirstName(String firstName) {
+        return lookup("userFirstName", firstName, applicationUserRepository::findByFirstNameIgnoreCase);
+    }
+
+    public Optional<ApplicationUser> userByLoginId(String loginId) {
+        return lookup("userLoginId", loginId, applicationUserRepository::findByLoginIdIgnoreCase);
+    }
+
+    public Optional<ApplicationUser> user(Long id) {
+        return lookup("user", id, applicationUserRepository::findById);
+    }
+
+    public Optional<TradeType> tradeType(String tradeType) {
+        return lookup("tradeType", tradeType, tradeTypeRepository::findByTradeType);
+    }
+
+    public Optional<TradeType> tradeType(Long id) {
+        return lookup("tradeType", id, tradeTypeRepository::findById);
+    }
+
+    public Optional<TradeSubType> tradeSubType(String tradeSubType) {
+        return lookup("tradeSubType", tradeSubType, tradeSubTypeRepository::findByTradeSubType);
+    }
+
+    public Optional<TradeSubType> tradeSubType(Long id) {
+        return lookup("tradeSubType", id, tradeSubTypeRepository::findById);
+    }
+
+    public List<TradeSubType> allTradeSubTypes() {
+        List<TradeSubType> subTypes = allTradeSubTypes;
+        if (subTypes == null) {
+            subTypes = tradeSubTypeRepository.findAll();
+            allTradeSubTypes = subTypes;
+        }
+        return subTypes;
+    }
+
+    public Optional<Currency> currency(String currency) {
+        return lookup("currency", currency, currencyRepository::findByCurrency);
+    }
+
+    public Optional<Currency> currency(Long id) {
+        return lookup("currency", id, currencyRepository::findById);
+    }
+
+    public Optional<LegType> legType(String type) {
+        return lookup("legType", type, legTypeRepository::findByType);
+    }
+
+    public Optional<LegType> legType(Long id) {
+        return lookup("legType", id, legTypeRepository::findById);
+    }
+
+    public Optional<Index> index(String index) {
+        return lookup("index", index, indexRepository::findByIndex);
+    }
+
+    public Optional<Index> index(Long id) {
+        return lookup("index", id, indexRepository::findById);
+    }
+
+    public Optional<HolidayCalendar> holidayCalendar(String holidayCalendar) {
+        return lookup("holidayCalendar", holidayCalendar, holidayCalendarRepository::findByHolidayCalendar);
+    }
+
+    public Optional<HolidayCalendar> holidayCalendar(Long id) {
+        return lookup("holidayCalendar", id, holidayCalendarRepository::findById);
+    }
+
+    public Optional<Schedule> schedule(String schedule) {
+        return lookup("schedule", schedule, scheduleRepository::findBySchedule);
+    }
+
+    public Optional<Schedule> schedule(Long id) {
+        return lookup("schedule", id, scheduleRepository::findById);
+    }
+
+    public Optional<BusinessDayConvention> businessDayConvention(String bdc) {
+        return lookup("bdc", bdc, businessDayConventionRepository::findByBdc);
+    }
+
+    public Optional<BusinessDayConvention> businessDayConvention(Long id) {
+        return lookup("bdc", id, businessDayConventionRepository::findById);
+    }
+
+    public Optional<PayRec> payRec(String payRec) {
+        return lookup("payRec", payRec, payRecRepository::findByPayRec);
+    }
+
+    public Optional<PayRec> payRec(Long id) {
+        return lookup("payRec", id, payRecRepository::findById);
+    }
+
+    /**
+     * Looks up everything validating and booking the trade will ask for, so that later work
+     * (such as parallel validation) is answered from memory.
+     */
+    public void prefetch(TradeDTO tradeDTO) {
+        lookupsFor(tradeDTO).forEach(Runnable::run);
+    }
+
+    /** As prefetch(TradeDTO), with the lookups run concurrently on the executor; waits for them all. */
+    public void prefetch(TradeDTO tradeDTO, Executor executor) {
+        CompletableFuture<?>[] pending = lookupsFor(tradeDTO).stream()
+                .map(lookup -> CompletableFuture.runAsync(lookup, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(pending).join();
+    }
+
+    private List<Runnable> lookupsFor(TradeDTO tradeDTO) {
+        List<Runnable> pending = new ArrayList<>();
+        if (tradeDTO.getBookName() != null) {
+            pending.add(() -> book(tradeDTO.getBookName()));
+        } else {
+            pending.add(() -> book(tradeDTO.getBookId()));
+        }
+        if (tradeDTO.getCounterpartyName() != null) {
+            pending.add(() -> counterparty(tradeDTO.getCounterpartyName()));
+        } else {
+            pending.add(() -> counterparty(tradeDTO.getCounterpartyId()));
+        }
+        // Trades without a status are booked as NEW
+        String tradeStatus = tradeDTO.getTradeStatus() != null ? tradeDTO.getTradeStatus() : "NEW";
+        pending.add(() -> tradeStatus(tradeStatus));
+        pending.add(() -> tradeType(tradeDTO.getTradeType()));
+        pending.add(() -> tradeSubType(tradeDTO.getTradeSubType()));
+        pending.add(() -> prefetchUser(tradeDTO.getTraderUserName()));
+        pending.add(() -> prefetchUser(tradeDTO.getInputterUserName()));
+
+        if (tradeDTO.getTradeLegs() != null) {
+            for (TradeLegDTO leg : tradeDTO.getTradeLegs()) {
+                pending.add(() -> currency(leg.getCurrency()));
+                pending.add(() -> legType(leg.getLegType()));
+                pending.add(() -> index(leg.getIndexName()));
+                pending.add(() -> holidayCalendar(leg.getHolidayCalendar()));
+                pending.add(() -> schedule(leg.getCalculationPeriodSchedule()));
+                pending.add(() -> businessDayConvention(leg.getPaymentBusinessDayConvention()));
+                pending.add(() -> businessDayConvention(leg.getFixingBusinessDayConvention()));
+                pending.add(() -> payRec(leg.getPayReceiveFlag()));
+            }
+        }
+        return pending;
+    }
+
+    // Users are matched on the first word of the name, then on the whole name as a login id
+    private void prefetchUser(String userName) {
+        if (userName == null || userName.isBlank()) {
+            return;
+        }
+        String firstName = userName.trim().split("\\s+")[0];
+        if (userByFirstName(firstName).isEmpty()) {
+            userByLoginId(userName.toLowerCase());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, T> Optional<T> lookup(String type, K key, Function<K, Optional<T>> finder) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        // Not computeIfAbsent: that would hold a map lock across the query, blocking other keys and
+        // pinning a virtual thread to its carrier. Two threads may both look up a missing key.
+        LookupKey lookupKey = new LookupKey(type, key);
+        Optional<?> found = lookups.get(lookupKey);
+        if (found == null) {
+            found = finder.apply(key);
+            Optional<?> raced = lookups.putIfAbsent(lookupKey, found);
+            if (raced != null) {
+                found = raced;
+            }
+        }
+        return (Optional<T>) found;
+    }
+
+    private record LookupKey(String type, Object key) {
+    }
+}
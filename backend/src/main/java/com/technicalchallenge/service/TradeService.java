@@ -1,34 +1,50 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.authorization.AuthorizationSnapshot;
 import com.technicalchallenge.dto.AdditionalInfoDTO;
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.TradeVersionConflictException;
 import com.technicalchallenge.exception.UnauthorizedAccessException;
 import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.metrics.TradeMetrics;
 import com.technicalchallenge.model.*;
+import com.technicalchallenge.outbox.TradeOutbox;
+import com.technicalchallenge.position.PositionEngine;
+import com.technicalchallenge.position.TradePosition;
 import com.technicalchallenge.repository.*;
 import com.technicalchallenge.rsql.RsqlSpecificationBuilder;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.LegSchedule;
+import com.technicalchallenge.schedule.ScheduleEngine;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -71,16 +87,13 @@ public class TradeService {
     private PayRecRepository payRecRepository;
 
     @Autowired
-    private PrivilegeRepository privilegeRepository;
-
-    @Autowired
-    private UserPrivilegeRepository userPrivilegeRepository;
+    private AuthorizationEngine authorizationEngine;
 
     @Autowired
     private AdditionalInfoService additionalInfoService;
 
     @Autowired
-    private AdditionalInfoRepository additionalInfoRepository;
+    private SettlementInstructionIndex settlementInstructionIndex;
 
     @Autowired
     private RsqlSpecificationBuilder<Trade> rsqlSpecificationBuilder;
@@ -88,6 +101,30 @@ public class TradeService {
     @Autowired
     private TradeMapper tradeMapper;
 
+    @Autowired
+    private TradeIdAllocator tradeIdAllocator;
+
+    @Autowired
+    private ScheduleEngine scheduleEngine;
+
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @Autowired
+    private ReferenceDataFanOut referenceDataFanOut;
+
+    @Autowired
+    private PositionEngine positionEngine;
+
+    @Autowired
+    private TradeOutbox tradeOutbox;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
 
 
     public List<Trade> getAllTrades(String userId) {
@@ -97,16 +134,12 @@ public class TradeService {
               throw new UnauthorizedAccessException("User does not have permission to view trades");
         }
 
-        Optional<ApplicationUser> userOpt = applicationUserRepository.findByLoginIdIgnoreCase(userId);
-        if(userOpt.isEmpty()){
-            throw new RuntimeException("User not found " + userId);
-        }
-
-        ApplicationUser user = userOpt.get();
+        AuthorizationSnapshot.UserGrant user = authorizationEngine.findUser(userId)
+                .orElseThrow(() -> new RuntimeException("User not found " + userId));
 
-        if("TRADER_SALES".equalsIgnoreCase(user.getUserProfile().getUserType())){
+        if("TRADER_SALES".equalsIgnoreCase(user.getUserType())){
 
-            return tradeRepository.findByTraderUserId(user.getId());
+            return tradeRepository.findByTraderUserId(user.getUserId());
         }
 
         return tradeRepository.findAll();
@@ -117,29 +150,71 @@ public class TradeService {
         return tradeRepository.findByTradeIdAndActiveTrue(tradeId);
     }
 
-    @Transactional
+    // The version of the trade that was active at asOf; the active version when asOf is null
+    public Optional<Trade> getTradeById(Long tradeId, LocalDateTime asOf) {
+        if (asOf == null) {
+            return getTradeById(tradeId);
+        }
+        logger.debug("Retrieving trade by id: {} as of {}", tradeId, asOf);
+        return tradeRepository.findByTradeIdAsOf(tradeId, asOf);
+    }
+
+    // Every version of the trade, oldest first; empty if the trade does not exist
+    public List<Trade> getTradeHistory(Long tradeId) {
+        logger.debug("Retrieving version history of trade id: {}", tradeId);
+        return tradeRepository.findByTradeIdOrderByVersionAsc(tradeId);
+    }
+
+    // Reference data is looked up and validated before the transaction opens, so the concurrent
+    // lookups never wait for connections while this request holds one. Joins the caller's
+    // transaction if there is one
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Trade createTrade(TradeDTO tradeDTO, String userId) {
-        logger.info("Creating new trade with ID: {}", tradeDTO.getTradeId());
+        return tradeMetrics.lifecycle(TradeMetrics.CREATE, tradeDTO.getTradeType(), () -> {
+            logger.info("Creating new trade with ID: {}", tradeDTO.getTradeId());
 
 
-        if(!validateUserPrivileges(userId, "createTrade", tradeDTO)){
-           throw new UnauthorizedAccessException("User does not have permission to create trade");
-        }
+            if(!validateUserPrivileges(userId, "createTrade", tradeDTO)){
+               throw new UnauthorizedAccessException("User does not have permission to create trade");
+            }
 
-        ValidationResult validationResult = validateTradeAndLegs(tradeDTO);
+            TradeReferenceResolver references = newReferenceResolver();
+            referenceDataFanOut.prefetch(references, tradeDTO);
+            ValidationResult validationResult = validateTradeAndLegs(tradeDTO, references);
 
-        if(!validationResult.isValid()){
-            String errors = String.join(" ,", validationResult.getErrors());
-            throw new IllegalArgumentException("Trade validation failed " + errors);
-        }
+            if(!validationResult.isValid()){
+                String errors = String.join(" ,", validationResult.getErrors());
+                throw new IllegalArgumentException("Trade validation failed " + errors);
+            }
 
-        // Generate trade ID if not provided
+            assignTradeId(tradeDTO);
+            return transactionTemplate.execute(status -> bookTrade(tradeDTO, references));
+        });
+    }
+
+    /**
+     * Gives a new trade its trade ID. Callers do this before the booking transaction opens: when the
+     * allocator's block runs out, reserving the next one takes a second connection, and bookings
+     * that each hold a connection while waiting for that reservation can empty the pool for good.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void assignTradeId(TradeDTO tradeDTO) {
         if (tradeDTO.getTradeId() == null) {
-            // Generate sequential trade ID starting from 10000
             Long generatedTradeId = generateNextTradeId();
             tradeDTO.setTradeId(generatedTradeId);
             logger.info("Generated trade ID: {}", generatedTradeId);
         }
+    }
+
+    /**
+     * Books a trade that has already passed authorization and validation: allocates the trade ID,
+     * saves the trade, its legs and cashflows and any settlement instructions. Shared by single
+     * bookings and TradeBatchService.
+     */
+    @Transactional
+    public Trade bookTrade(TradeDTO tradeDTO, TradeReferenceResolver references) {
+        // Normally assigned before the transaction opened; see assignTradeId
+        assignTradeId(tradeDTO);
 
         // Validate business rules
         validateTradeCreation(tradeDTO);
@@ -157,7 +232,7 @@ public class TradeService {
         }
 
         // Populate reference data
-        populateReferenceDataByName(trade, tradeDTO);
+        populateReferenceDataByName(trade, tradeDTO, references);
 
         // Ensure we have essential reference data
         validateReferenceData(trade);
@@ -165,7 +240,7 @@ public class TradeService {
         Trade savedTrade = tradeRepository.save(trade);
 
         // Create trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+        createTradeLegsWithCashflows(tradeDTO, savedTrade, references);
 
         if(tradeDTO.getAdditionalFields() != null && !tradeDTO.getAdditionalFields().isEmpty()){
             for(AdditionalInfoDTO additionalInfo : tradeDTO.getAdditionalFields()){
@@ -180,18 +255,22 @@ public class TradeService {
             }
         }
 
+        positionEngine.record(null, TradePosition.of(savedTrade));
+        tradeOutbox.record(TradeOutboxEvent.BOOKED, savedTrade);
+
         logger.info("Successfully created trade with ID: {}", savedTrade.getTradeId());
         return savedTrade;
     }
 
     // NEW METHOD: For controller compatibility
-    @Transactional
+    // No transaction of its own, so a new trade's reference data is looked up before createTrade books it
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Trade saveTrade(Trade trade, TradeDTO tradeDTO, String userId) {
         logger.info("Saving trade with ID: {}", trade.getTradeId());
 
         // If this is an existing trade (has ID), handle as amendment
         if (trade.getId() != null) {
-            return amendTrade(trade.getTradeId(), tradeDTO, userId);
+            return transactionTemplate.execute(status -> amendTrade(trade.getTradeId(), tradeDTO, userId));
         } else {
             return createTrade(tradeDTO, userId);
         }
@@ -199,41 +278,53 @@ public class TradeService {
 
     // FIXED: Populate reference data by names from DTO
     public void populateReferenceDataByName(Trade trade, TradeDTO tradeDTO) {
+        populateReferenceDataByName(trade, tradeDTO, newReferenceResolver());
+    }
+
+    public void populateReferenceDataByName(Trade trade, TradeDTO tradeDTO, TradeReferenceResolver references) {
         logger.debug("Populating reference data for trade");
 
         // Populate Book
         if (tradeDTO.getBookName() != null) {
-            bookRepository.findByBookName(tradeDTO.getBookName())
+            references.book(tradeDTO.getBookName())
                     .ifPresent(trade::setBook);
         } else if (tradeDTO.getBookId() != null) {
-            bookRepository.findById(tradeDTO.getBookId())
+            references.book(tradeDTO.getBookId())
                     .ifPresent(trade::setBook);
         }
 
         // Populate Counterparty
         if (tradeDTO.getCounterpartyName() != null) {
-            counterpartyRepository.findByName(tradeDTO.getCounterpartyName())
+            references.counterparty(tradeDTO.getCounterpartyName())
                     .ifPresent(trade::setCounterparty);
         } else if (tradeDTO.getCounterpartyId() != null) {
-            counterpartyRepository.findById(tradeDTO.getCounterpartyId())
+            references.counterparty(tradeDTO.getCounterpartyId())
                     .ifPresent(trade::setCounterparty);
         }
 
         // Populate TradeStatus
         if (tradeDTO.getTradeStatus() != null) {
-            tradeStatusRepository.findByTradeStatus(tradeDTO.getTradeStatus())
+            references.tradeStatus(tradeDTO.getTradeStatus())
                     .ifPresent(trade::setTradeStatus);
         } else if (tradeDTO.getTradeStatusId() != null) {
-            tradeStatusRepository.findById(tradeDTO.getTradeStatusId())
+            references.tradeStatus(tradeDTO.getTradeStatusId())
                     .ifPresent(trade::setTradeStatus);
         }
 
         // Populate other reference data
-        populateUserReferences(trade, tradeDTO);
-        populateTradeTypeReferences(trade, tradeDTO);
+        populateUserReferences(trade, tradeDTO, references);
+        populateTradeTypeReferences(trade, tradeDTO, references);
+    }
+
+    /** Reference lookups remembered for one booking, or for a whole batch. */
+    public TradeReferenceResolver newReferenceResolver() {
+        return new TradeReferenceResolver(bookRepository, counterpartyRepository, tradeStatusRepository,
+                applicationUserRepository, tradeTypeRepository, tradeSubTypeRepository, currencyRepository,
+                legTypeRepository, indexRepository, holidayCalendarRepository, scheduleRepository,
+                businessDayConventionRepository, payRecRepository);
     }
 
-    private void populateUserReferences(Trade trade, TradeDTO tradeDTO) {
+    private void populateUserReferences(Trade trade, TradeDTO tradeDTO, TradeReferenceResolver references) {
         // Handle trader user by name or ID with enhanced logging
         if (tradeDTO.getTraderUserName() != null) {
             logger.debug("Looking up trader user by name: {}", tradeDTO.getTraderUserName());
@@ -241,14 +332,14 @@ public class TradeService {
             if (nameParts.length >= 1) {
                 String firstName = nameParts[0];
                 logger.debug("Searching for user with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstNameIgnoreCase(firstName);
+                Optional<ApplicationUser> userOpt = references.userByFirstName(firstName);
                 if (userOpt.isPresent()) {
                     trade.setTraderUser(userOpt.get());
                     logger.debug("Found trader user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
                 } else {
                     logger.warn("Trader user not found with firstName: {}", firstName);
                     // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginIdIgnoreCase(tradeDTO.getTraderUserName().toLowerCase());
+                    Optional<ApplicationUser> byLoginId = references.userByLoginId(tradeDTO.getTraderUserName().toLowerCase());
                     if (byLoginId.isPresent()) {
                         trade.setTraderUser(byLoginId.get());
                         logger.debug("Found trader user by loginId: {}", tradeDTO.getTraderUserName());
@@ -258,7 +349,7 @@ public class TradeService {
                 }
             }
         } else if (tradeDTO.getTraderUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTraderUserId())
+            references.user(tradeDTO.getTraderUserId())
                     .ifPresent(trade::setTraderUser);
         }
 
@@ -269,14 +360,14 @@ public class TradeService {
             if (nameParts.length >= 1) {
                 String firstName = nameParts[0];
                 logger.debug("Searching for inputter with firstName: {}", firstName);
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstNameIgnoreCase(firstName);
+                Optional<ApplicationUser> userOpt = references.userByFirstName(firstName);
                 if (userOpt.isPresent()) {
                     trade.setTradeInputterUser(userOpt.get());
                     logger.debug("Found inputter user: {} {}", userOpt.get().getFirstName(), userOpt.get().getLastName());
                 } else {
                     logger.warn("Inputter user not found with firstName: {}", firstName);
                     // Try with loginId as fallback
-                    Optional<ApplicationUser> byLoginId = applicationUserRepository.findByLoginIdIgnoreCase(tradeDTO.getInputterUserName().toLowerCase());
+                    Optional<ApplicationUser> byLoginId = references.userByLoginId(tradeDTO.getInputterUserName().toLowerCase());
                     if (byLoginId.isPresent()) {
                         trade.setTradeInputterUser(byLoginId.get());
                         logger.debug("Found inputter user by loginId: {}", tradeDTO.getInputterUserName());
@@ -286,15 +377,15 @@ public class TradeService {
                 }
             }
         } else if (tradeDTO.getTradeInputterUserId() != null) {
-            applicationUserRepository.findById(tradeDTO.getTradeInputterUserId())
+            references.user(tradeDTO.getTradeInputterUserId())
                     .ifPresent(trade::setTradeInputterUser);
         }
     }
 
-    private void populateTradeTypeReferences(Trade trade, TradeDTO tradeDTO) {
+    private void populateTradeTypeReferences(Trade trade, TradeDTO tradeDTO, TradeReferenceResolver references) {
         if (tradeDTO.getTradeType() != null) {
             logger.debug("Looking up trade type: {}", tradeDTO.getTradeType());
-            Optional<TradeType> tradeTypeOpt = tradeTypeRepository.findByTradeType(tradeDTO.getTradeType());
+            Optional<TradeType> tradeTypeOpt = references.tradeType(tradeDTO.getTradeType());
             if (tradeTypeOpt.isPresent()) {
                 trade.setTradeType(tradeTypeOpt.get());
                 logger.debug("Found trade type: {} with ID: {}", tradeTypeOpt.get().getTradeType(), tradeTypeOpt.get().getId());
@@ -302,16 +393,16 @@ public class TradeService {
                 logger.warn("Trade type not found: {}", tradeDTO.getTradeType());
             }
         } else if (tradeDTO.getTradeTypeId() != null) {
-            tradeTypeRepository.findById(tradeDTO.getTradeTypeId())
+            references.tradeType(tradeDTO.getTradeTypeId())
                     .ifPresent(trade::setTradeType);
         }
 
         if (tradeDTO.getTradeSubType() != null) {
-            Optional<TradeSubType> tradeSubTypeOpt = tradeSubTypeRepository.findByTradeSubType(tradeDTO.getTradeSubType());
+            Optional<TradeSubType> tradeSubTypeOpt = references.tradeSubType(tradeDTO.getTradeSubType());
             if (tradeSubTypeOpt.isPresent()) {
                 trade.setTradeSubType(tradeSubTypeOpt.get());
             } else {
-                List<TradeSubType> allSubTypes = tradeSubTypeRepository.findAll();
+                List<TradeSubType> allSubTypes = references.allTradeSubTypes();
                 for (TradeSubType subType : allSubTypes) {
                     if (subType.getTradeSubType().equalsIgnoreCase(tradeDTO.getTradeSubType())) {
                         trade.setTradeSubType(subType);
@@ -320,7 +411,7 @@ public class TradeService {
                 }
             }
         } else if (tradeDTO.getTradeSubTypeId() != null) {
-            tradeSubTypeRepository.findById(tradeDTO.getTradeSubTypeId())
+            references.tradeSubType(tradeDTO.getTradeSubTypeId())
                     .ifPresent(trade::setTradeSubType);
         }
     }
@@ -334,107 +425,218 @@ public class TradeService {
 
     @Transactional
     public Trade amendTrade(Long tradeId, TradeDTO tradeDTO, String userId) {
-        logger.info("Amending trade with ID: {}", tradeId);
+        return tradeMetrics.lifecycle(TradeMetrics.AMEND, tradeDTO.getTradeType(), () -> {
+            logger.info("Amending trade with ID: {}", tradeId);
 
-        Optional<Trade> existingTradeOpt = getTradeById(tradeId);
-        if (existingTradeOpt.isEmpty()) {
-            throw new RuntimeException("Trade not found: " + tradeId);
-        }
+            Optional<Trade> existingTradeOpt = getTradeById(tradeId);
+            if (existingTradeOpt.isEmpty()) {
+                throw new RuntimeException("Trade not found: " + tradeId);
+            }
 
-        Trade existingTrade = existingTradeOpt.get();
-        TradeDTO existingTradeDTO = tradeMapper.toDto(existingTrade);
+            Trade existingTrade = existingTradeOpt.get();
+            TradeDTO existingTradeDTO = tradeMapper.toDto(existingTrade);
 
-        logger.info("Trade with trader {} to be amended", existingTradeDTO.getTraderUserName());
+            logger.info("Trade with trader {} to be amended", existingTradeDTO.getTraderUserName());
 
-        if(!validateUserPrivileges(userId, "amendTrade", existingTradeDTO)){
-           throw new UnauthorizedAccessException("User does not have permission to amend this trade");
-        }
+            if(!validateUserPrivileges(userId, "amendTrade", existingTradeDTO)){
+               throw new UnauthorizedAccessException("User does not have permission to amend this trade");
+            }
+
+            // The version the client read; without one, the version just loaded
+            Integer expectedVersion = tradeDTO.getVersion() != null ? tradeDTO.getVersion() : existingTrade.getVersion();
+            if (!expectedVersion.equals(existingTrade.getVersion())) {
+                throw new TradeVersionConflictException(tradeId, expectedVersion, existingTrade.getVersion());
+            }
            
-        ValidationResult tradeValidationResult = validateTradeAndLegs(tradeDTO);
-        if(!tradeValidationResult.isValid()){
-            String errors = String.join(" ,", tradeValidationResult.getErrors());
-            throw new IllegalArgumentException("Trade validation failed " + errors);
-        }
+            TradeReferenceResolver references = newReferenceResolver();
+            referenceDataFanOut.prefetch(references, tradeDTO);
+            ValidationResult tradeValidationResult = validateTradeAndLegs(tradeDTO, references);
+            if(!tradeValidationResult.isValid()){
+                String errors = String.join(" ,", tradeValidationResult.getErrors());
+                throw new IllegalArgumentException("Trade validation failed " + errors);
+            }
 
-        // Deactivate existing trade
-        existingTrade.setActive(false);
-        existingTrade.setDeactivatedDate(LocalDateTime.now());
-        tradeRepository.save(existingTrade);
+            // Deactivate the version the client amended, but only if it is still the active one
+            // The old version ends exactly when the new one starts, so as-of reads always find one of them
+            LocalDateTime amendedAt = LocalDateTime.now();
+            TradePosition before = TradePosition.of(existingTrade);
+            deactivateVersion(tradeId, expectedVersion, amendedAt);
+
+            // Create new version
+            Trade amendedTrade = mapDTOToEntity(tradeDTO);
+            amendedTrade.setTradeId(tradeId);
+            amendedTrade.setVersion(expectedVersion + 1);
+            amendedTrade.setActive(true);
+            amendedTrade.setCreatedDate(amendedAt);
+            amendedTrade.setLastTouchTimestamp(LocalDateTime.now());
+
+            // Populate reference data
+            populateReferenceDataByName(amendedTrade, tradeDTO, references);
+
+            // Set status to AMENDED
+            TradeStatus amendedStatus = tradeStatusRepository.findByTradeStatus("AMENDED")
+                    .orElseThrow(() -> new RuntimeException("AMENDED status not found"));
+            amendedTrade.setTradeStatus(amendedStatus);
+
+            Trade savedTrade = tradeRepository.save(amendedTrade);
+
+            // Create new trade legs and cashflows
+            createTradeLegsWithCashflows(tradeDTO, savedTrade, references);
+            positionEngine.record(before, TradePosition.of(savedTrade));
+            tradeOutbox.record(TradeOutboxEvent.AMENDED, savedTrade);
+
+            logger.info("Successfully amended trade with ID: {}", savedTrade.getTradeId());
+            return savedTrade;
+        });
+    }
 
-        // Create new version
-        Trade amendedTrade = mapDTOToEntity(tradeDTO);
-        amendedTrade.setTradeId(tradeId);
-        amendedTrade.setVersion(existingTrade.getVersion() + 1);
-        amendedTrade.setActive(true);
-        amendedTrade.setCreatedDate(LocalDateTime.now());
-        amendedTrade.setLastTouchTimestamp(LocalDateTime.now());
+    @Transactional
+    public Trade terminateTrade(Long tradeId, String userId) {
+        return tradeMetrics.lifecycle(TradeMetrics.TERMINATE, null, () -> {
+            logger.info("Terminating trade with ID: {}", tradeId);
 
-        // Populate reference data
-        populateReferenceDataByName(amendedTrade, tradeDTO);
+            Optional<Trade> tradeOpt = getTradeById(tradeId);
+            if (tradeOpt.isEmpty()) {
+                throw new RuntimeException("Trade not found: " + tradeId);
+            }
 
-        // Set status to AMENDED
-        TradeStatus amendedStatus = tradeStatusRepository.findByTradeStatus("AMENDED")
-                .orElseThrow(() -> new RuntimeException("AMENDED status not found"));
-        amendedTrade.setTradeStatus(amendedStatus);
+            Trade trade = tradeOpt.get();
+            TradeDTO tradeDTO = tradeMapper.toDto(trade);
 
-        Trade savedTrade = tradeRepository.save(amendedTrade);
+            if(!validateUserPrivileges(userId, "terminateTrade", tradeDTO)){
+                  throw new UnauthorizedAccessException("User does not have permission to terminate this trade");
+            }
 
-        // Create new trade legs and cashflows
-        createTradeLegsWithCashflows(tradeDTO, savedTrade);
+            TradePosition before = TradePosition.of(trade);
+            TradeStatus terminatedStatus = tradeStatusRepository.findByTradeStatus("TERMINATED")
+                    .orElseThrow(() -> new RuntimeException("TERMINATED status not found"));
 
-        logger.info("Successfully amended trade with ID: {}", savedTrade.getTradeId());
-        return savedTrade;
+            Trade savedTrade = saveStatusVersion(trade, terminatedStatus);
+            positionEngine.record(before, TradePosition.of(savedTrade));
+            tradeOutbox.record(TradeOutboxEvent.TERMINATED, savedTrade);
+            return savedTrade;
+        });
     }
 
     @Transactional
-    public Trade terminateTrade(Long tradeId, String userId) {
-        logger.info("Terminating trade with ID: {}", tradeId);
+    public Trade cancelTrade(Long tradeId, String userId) {
+        return tradeMetrics.lifecycle(TradeMetrics.CANCEL, null, () -> {
+            logger.info("Cancelling trade with ID: {}", tradeId);
 
-        Optional<Trade> tradeOpt = getTradeById(tradeId);
-        if (tradeOpt.isEmpty()) {
-            throw new RuntimeException("Trade not found: " + tradeId);
-        }
+            Optional<Trade> tradeOpt = getTradeById(tradeId);
+            if (tradeOpt.isEmpty()) {
+                throw new RuntimeException("Trade not found: " + tradeId);
+            }
 
-        Trade trade = tradeOpt.get();
-        TradeDTO tradeDTO = tradeMapper.toDto(trade);
+            Trade trade = tradeOpt.get();
 
-        if(!validateUserPrivileges(userId, "terminateTrade", tradeDTO)){
-              throw new UnauthorizedAccessException("User does not have permission to terminate this trade");
-        }
+            TradeDTO tradeDTO = tradeMapper.toDto(trade);
 
-        TradeStatus terminatedStatus = tradeStatusRepository.findByTradeStatus("TERMINATED")
-                .orElseThrow(() -> new RuntimeException("TERMINATED status not found"));
+            if(!validateUserPrivileges(userId, "cancelTrade", tradeDTO)){
+                  throw new UnauthorizedAccessException("User does not have permission to cancel this trade");
+            }
 
-        trade.setTradeStatus(terminatedStatus);
-        trade.setLastTouchTimestamp(LocalDateTime.now());
+            TradePosition before = TradePosition.of(trade);
+            TradeStatus cancelledStatus = tradeStatusRepository.findByTradeStatus("CANCELLED")
+                    .orElseThrow(() -> new RuntimeException("CANCELLED status not found"));
 
-        return tradeRepository.save(trade);
+            Trade savedTrade = saveStatusVersion(trade, cancelledStatus);
+            positionEngine.record(before, TradePosition.of(savedTrade));
+            tradeOutbox.record(TradeOutboxEvent.CANCELLED, savedTrade);
+            return savedTrade;
+        });
     }
 
-    @Transactional
-    public Trade cancelTrade(Long tradeId, String userId) {
-        logger.info("Cancelling trade with ID: {}", tradeId);
-
-        Optional<Trade> tradeOpt = getTradeById(tradeId);
-        if (tradeOpt.isEmpty()) {
-            throw new RuntimeException("Trade not found: " + tradeId);
+    // Compare-and-set: deactivates the version only if it is still the active one. The update runs
+    // straight away, before the next version is inserted, so the one-active-version unique index
+    // never sees two active rows
+    private void deactivateVersion(Long tradeId, Integer expectedVersion, LocalDateTime deactivatedAt) {
+        try {
+            if (tradeRepository.deactivateVersion(tradeId, expectedVersion, deactivatedAt) == 0) {
+                throw new TradeVersionConflictException(tradeId, expectedVersion,
+                        tradeRepository.findActiveVersion(tradeId).orElse(null));
+            }
+        } catch (ConcurrencyFailureException e) {
+            // Lost a lock or serialization race with another amendment
+            throw new TradeVersionConflictException(tradeId, expectedVersion, null);
         }
+    }
 
-        Trade trade = tradeOpt.get();
-
-        TradeDTO tradeDTO = tradeMapper.toDto(trade);
-
-        if(!validateUserPrivileges(userId, "cancelTrade", tradeDTO)){
-              throw new UnauthorizedAccessException("User does not have permission to cancel this trade");
+    // Cancel and terminate change only the status, so the next version copies the active one with its
+    // legs and cashflows, and as-of reads still see the trade as it was before
+    private Trade saveStatusVersion(Trade trade, TradeStatus status) {
+        LocalDateTime changedAt = LocalDateTime.now();
+        deactivateVersion(trade.getTradeId(), trade.getVersion(), changedAt);
+
+        Trade next = new Trade();
+        next.setTradeId(trade.getTradeId());
+        next.setVersion(trade.getVersion() + 1);
+        next.setBook(trade.getBook());
+        next.setCounterparty(trade.getCounterparty());
+        next.setTraderUser(trade.getTraderUser());
+        next.setTradeInputterUser(trade.getTradeInputterUser());
+        next.setTradeType(trade.getTradeType());
+        next.setTradeSubType(trade.getTradeSubType());
+        next.setTradeStatus(status);
+        next.setUtiCode(trade.getUtiCode());
+        next.setTradeDate(trade.getTradeDate());
+        next.setTradeStartDate(trade.getTradeStartDate());
+        next.setTradeMaturityDate(trade.getTradeMaturityDate());
+        next.setTradeExecutionDate(trade.getTradeExecutionDate());
+        next.setAdditionalFieldsId(trade.getAdditionalFieldsId());
+        next.setValidityStartDate(trade.getValidityStartDate());
+        next.setValidityEndDate(trade.getValidityEndDate());
+        next.setActive(true);
+        next.setCreatedDate(changedAt);
+        next.setLastTouchTimestamp(changedAt);
+
+        // Saved with the trade through the cascades, so the inserts are batched
+        List<TradeLeg> legs = new ArrayList<>();
+        if (trade.getTradeLegs() != null) {
+            for (TradeLeg leg : trade.getTradeLegs()) {
+                legs.add(copyLeg(leg, next, changedAt));
+            }
         }
+        next.setTradeLegs(legs);
+        return tradeRepository.save(next);
+    }
 
-        TradeStatus cancelledStatus = tradeStatusRepository.findByTradeStatus("CANCELLED")
-                .orElseThrow(() -> new RuntimeException("CANCELLED status not found"));
-
-        trade.setTradeStatus(cancelledStatus);
-        trade.setLastTouchTimestamp(LocalDateTime.now());
-
-        return tradeRepository.save(trade);
+    private TradeLeg copyLeg(TradeLeg leg, Trade trade, LocalDateTime createdDate) {
+        TradeLeg copy = new TradeLeg();
+        copy.setTrade(trade);
+        copy.setNotional(leg.getNotional());
+        copy.setRate(leg.getRate());
+        copy.setCurrency(leg.getCurrency());
+        copy.setLegRateType(leg.getLegRateType());
+        copy.setIndex(leg.getIndex());
+        copy.setHolidayCalendar(leg.getHolidayCalendar());
+        copy.setCalculationPeriodSchedule(leg.getCalculationPeriodSchedule());
+        copy.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+        copy.setFixingBusinessDayConvention(leg.getFixingBusinessDayConvention());
+        copy.setPayReceiveFlag(leg.getPayReceiveFlag());
+        copy.setActive(true);
+        copy.setCreatedDate(createdDate);
+
+        List<Cashflow> cashflows = new ArrayList<>();
+        if (leg.getCashflows() != null) {
+            for (Cashflow cashflow : leg.getCashflows()) {
+                Cashflow cashflowCopy = new Cashflow();
+                cashflowCopy.setTradeLeg(copy);
+                cashflowCopy.setPaymentValue(cashflow.getPaymentValue());
+                cashflowCopy.setValueDate(cashflow.getValueDate());
+                cashflowCopy.setRate(cashflow.getRate());
+                cashflowCopy.setPayRec(cashflow.getPayRec());
+                cashflowCopy.setPaymentType(cashflow.getPaymentType());
+                cashflowCopy.setPaymentBusinessDayConvention(cashflow.getPaymentBusinessDayConvention());
+                cashflowCopy.setActive(cashflow.getActive());
+                cashflowCopy.setCreatedDate(createdDate);
+                cashflowCopy.setValidityStartDate(cashflow.getValidityStartDate());
+                cashflowCopy.setValidityEndDate(cashflow.getValidityEndDate());
+                cashflows.add(cashflowCopy);
+            }
+        }
+        copy.setCashflows(cashflows);
+        return copy;
     }
 
     private void validateTradeCreation(TradeDTO tradeDTO) {
@@ -469,7 +671,7 @@ public class TradeService {
         return trade;
     }
 
-    private void createTradeLegsWithCashflows(TradeDTO tradeDTO, Trade savedTrade) {
+    private void createTradeLegsWithCashflows(TradeDTO tradeDTO, Trade savedTrade, TradeReferenceResolver references) {
         
         //added code to make cashflow generation test pass
         List<TradeLeg> legs = new ArrayList<>();
@@ -485,7 +687,7 @@ public class TradeService {
             tradeLeg.setCreatedDate(LocalDateTime.now());
 
             // Populate reference data for leg
-            populateLegReferenceData(tradeLeg, legDTO);
+            populateLegReferenceData(tradeLeg, legDTO, references);
 
             TradeLeg savedLeg = tradeLegRepository.save(tradeLeg);
             
@@ -501,76 +703,76 @@ public class TradeService {
         savedTrade.setTradeLegs(legs);
     }
 
-    private void populateLegReferenceData(TradeLeg leg, TradeLegDTO legDTO) {
+    private void populateLegReferenceData(TradeLeg leg, TradeLegDTO legDTO, TradeReferenceResolver references) {
         // Populate currency by name or ID
         if (legDTO.getCurrency() != null) {
-            currencyRepository.findByCurrency(legDTO.getCurrency())
+            references.currency(legDTO.getCurrency())
                     .ifPresent(leg::setCurrency);
         } else if (legDTO.getCurrencyId() != null) {
-            currencyRepository.findById(legDTO.getCurrencyId())
+            references.currency(legDTO.getCurrencyId())
                     .ifPresent(leg::setCurrency);
         }
 
         // Populate leg type by name or ID
         if (legDTO.getLegType() != null) {
-            legTypeRepository.findByType(legDTO.getLegType())
+            references.legType(legDTO.getLegType())
                     .ifPresent(leg::setLegRateType);
         } else if (legDTO.getLegTypeId() != null) {
-            legTypeRepository.findById(legDTO.getLegTypeId())
+            references.legType(legDTO.getLegTypeId())
                     .ifPresent(leg::setLegRateType);
         }
 
         // Populate index by name or ID
         if (legDTO.getIndexName() != null) {
-            indexRepository.findByIndex(legDTO.getIndexName())
+            references.index(legDTO.getIndexName())
                     .ifPresent(leg::setIndex);
         } else if (legDTO.getIndexId() != null) {
-            indexRepository.findById(legDTO.getIndexId())
+            references.index(legDTO.getIndexId())
                     .ifPresent(leg::setIndex);
         }
 
         // Populate holiday calendar by name or ID
         if (legDTO.getHolidayCalendar() != null) {
-            holidayCalendarRepository.findByHolidayCalendar(legDTO.getHolidayCalendar())
+            references.holidayCalendar(legDTO.getHolidayCalendar())
                     .ifPresent(leg::setHolidayCalendar);
         } else if (legDTO.getHolidayCalendarId() != null) {
-            holidayCalendarRepository.findById(legDTO.getHolidayCalendarId())
+            references.holidayCalendar(legDTO.getHolidayCalendarId())
                     .ifPresent(leg::setHolidayCalendar);
         }
 
         // Populate schedule by name or ID
         if (legDTO.getCalculationPeriodSchedule() != null) {
-            scheduleRepository.findBySchedule(legDTO.getCalculationPeriodSchedule())
+            references.schedule(legDTO.getCalculationPeriodSchedule())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         } else if (legDTO.getScheduleId() != null) {
-            scheduleRepository.findById(legDTO.getScheduleId())
+            references.schedule(legDTO.getScheduleId())
                     .ifPresent(leg::setCalculationPeriodSchedule);
         }
 
         // Populate payment business day convention by name or ID
         if (legDTO.getPaymentBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getPaymentBusinessDayConvention())
+            references.businessDayConvention(legDTO.getPaymentBusinessDayConvention())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         } else if (legDTO.getPaymentBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getPaymentBdcId())
+            references.businessDayConvention(legDTO.getPaymentBdcId())
                     .ifPresent(leg::setPaymentBusinessDayConvention);
         }
 
         // Populate fixing business day convention by name or ID
         if (legDTO.getFixingBusinessDayConvention() != null) {
-            businessDayConventionRepository.findByBdc(legDTO.getFixingBusinessDayConvention())
+            references.businessDayConvention(legDTO.getFixingBusinessDayConvention())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         } else if (legDTO.getFixingBdcId() != null) {
-            businessDayConventionRepository.findById(legDTO.getFixingBdcId())
+            references.businessDayConvention(legDTO.getFixingBdcId())
                     .ifPresent(leg::setFixingBusinessDayConvention);
         }
 
         // Populate pay/receive flag by name or ID
         if (legDTO.getPayReceiveFlag() != null) {
-            payRecRepository.findByPayRec(legDTO.getPayReceiveFlag())
+            references.payRec(legDTO.getPayReceiveFlag())
                     .ifPresent(leg::setPayReceiveFlag);
         } else if (legDTO.getPayRecId() != null) {
-            payRecRepository.findById(legDTO.getPayRecId())
+            references.payRec(legDTO.getPayRecId())
                     .ifPresent(leg::setPayReceiveFlag);
         }
     }
@@ -581,109 +783,41 @@ public class TradeService {
     private void generateCashflows(TradeLeg leg, LocalDate startDate, LocalDate maturityDate) {
         logger.info("Generating cashflows for leg {} from {} to {}", leg.getLegId(), startDate, maturityDate);
 
-        //added code to make cashflow generation test pass
-        ArrayList<Cashflow> cashFlows = new ArrayList<Cashflow>();
-        leg.setCashflows(cashFlows);
-
-        // Use default schedule if not set
-        String schedule = "3M"; // Default to quarterly
-        if (leg.getCalculationPeriodSchedule() != null) {
-            schedule = leg.getCalculationPeriodSchedule().getSchedule();
-        }
-
-        int monthsInterval = parseSchedule(schedule);
-        List<LocalDate> paymentDates = calculatePaymentDates(startDate, maturityDate, monthsInterval);
-
-        for (LocalDate paymentDate : paymentDates) {
-            Cashflow cashflow = new Cashflow();
-            cashflow.setTradeLeg(leg); // Fixed field name
-            cashflow.setValueDate(paymentDate);
-            cashflow.setRate(leg.getRate());
-
-            // Calculate value based on leg type
-            BigDecimal cashflowValue = calculateCashflowValue(leg, monthsInterval);
-            cashflow.setPaymentValue(cashflowValue);
-
-            cashflow.setPayRec(leg.getPayReceiveFlag());
-            cashflow.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
-            cashflow.setCreatedDate(LocalDateTime.now());
-            cashflow.setActive(true);
+        String tradeType = leg.getTrade() != null && leg.getTrade().getTradeType() != null
+                ? leg.getTrade().getTradeType().getTradeType() : null;
+        List<Cashflow> generated = tradeMetrics.cashflowGeneration(tradeType, () -> {
+            // Default schedule (quarterly) applies when the leg has none
+            String schedule = leg.getCalculationPeriodSchedule() != null ? leg.getCalculationPeriodSchedule().getSchedule() : null;
+            String paymentBdc = leg.getPaymentBusinessDayConvention() != null ? leg.getPaymentBusinessDayConvention().getBdc() : null;
+            boolean fixedRate = leg.getLegRateType() != null && "Fixed".equalsIgnoreCase(leg.getLegRateType().getType());
+
+            LegSchedule legSchedule = scheduleEngine.generate(startDate, maturityDate,
+                    scheduleEngine.parseFrequencyMonths(schedule), leg.getNotional(), leg.getRate(), fixedRate,
+                    ScheduleEngine.RollConvention.from(paymentBdc), holidayCalendarRegistry.calendarFor(leg.getHolidayCalendar()));
+
+            // Build the whole schedule first and persist it in one saveAll so the inserts are batched
+            List<Cashflow> cashFlows = new ArrayList<>(legSchedule.size());
+            LocalDateTime createdDate = LocalDateTime.now();
+            for (int period = 0; period < legSchedule.size(); period++) {
+                Cashflow cashflow = new Cashflow();
+                cashflow.setTradeLeg(leg); // Fixed field name
+                cashflow.setValueDate(legSchedule.paymentDate(period));
+                cashflow.setRate(leg.getRate());
+                cashflow.setPaymentValue(legSchedule.amount(period));
+                cashflow.setPayRec(leg.getPayReceiveFlag());
+                cashflow.setPaymentBusinessDayConvention(leg.getPaymentBusinessDayConvention());
+                cashflow.setCreatedDate(createdDate);
+                cashflow.setActive(true);
+                cashFlows.add(cashflow);
+            }
 
-            cashflowRepository.save(cashflow);
-            
             //added code to make cashflow generation test pass
-            leg.getCashflows().add(cashflow);
-        }
+            leg.setCashflows(cashFlows);
+            cashflowRepository.saveAll(cashFlows);
+            return cashFlows;
+        });
 
-        logger.info("Generated {} cashflows for leg {}", paymentDates.size(), leg.getLegId());
-    }
-
-    private int parseSchedule(String schedule) {
-        if (schedule == null || schedule.trim().isEmpty()) {
-            return 3; // Default to quarterly
-        }
-
-        schedule = schedule.trim();
-
-        // Handle common schedule names
-        switch (schedule.toLowerCase()) {
-            case "monthly":
-                return 1;
-            case "quarterly":
-                return 3;
-            case "semi-annually":
-            case "semiannually":
-            case "half-yearly":
-                return 6;
-            case "annually":
-            case "yearly":
-                return 12;
-            default:
-                // Parse "1M", "3M", "12M" format
-                if (schedule.endsWith("M") || schedule.endsWith("m")) {
-                    try {
-                        return Integer.parseInt(schedule.substring(0, schedule.length() - 1));
-                    } catch (NumberFormatException e) {
-                        throw new RuntimeException("Invalid schedule format: " + schedule);
-                    }
-                }
-                throw new RuntimeException("Invalid schedule format: " + schedule + ". Supported formats: Monthly, Quarterly, Semi-annually, Annually, or 1M, 3M, 6M, 12M");
-        }
-    }
-
-    private List<LocalDate> calculatePaymentDates(LocalDate startDate, LocalDate maturityDate, int monthsInterval) {
-        List<LocalDate> dates = new ArrayList<>();
-        LocalDate currentDate = startDate.plusMonths(monthsInterval);
-
-        while (!currentDate.isAfter(maturityDate)) {
-            dates.add(currentDate);
-            currentDate = currentDate.plusMonths(monthsInterval);
-        }
-
-        return dates;
-    }
-
-    private BigDecimal calculateCashflowValue(TradeLeg leg, int monthsInterval) {
-        if (leg.getLegRateType() == null) {
-            return BigDecimal.ZERO;
-        }
-
-        String legType = leg.getLegRateType().getType();
-
-        if ("Fixed".equals(legType)) {
-            BigDecimal notional = leg.getNotional();
-            BigDecimal rate = BigDecimal.valueOf(leg.getRate()).divide(BigDecimal.valueOf(100));
-            BigDecimal months = BigDecimal.valueOf(monthsInterval);
-            BigDecimal twelve = BigDecimal.valueOf(12);
-
-            BigDecimal result = notional.multiply(rate).multiply(months).divide(twelve,2, RoundingMode.HALF_UP);
-
-            return result;
-        } else if ("Floating".equals(legType)) {
-            return BigDecimal.ZERO;
-        }
-
-        return BigDecimal.ZERO;
+        logger.info("Generated {} cashflows for leg {}", generated.size(), leg.getLegId());
     }
 
     private void validateReferenceData(Trade trade) {
@@ -701,10 +835,9 @@ public class TradeService {
         logger.debug("Reference data validation passed for trade");
     }
 
-    // NEW METHOD: Generate the next trade ID (sequential)
+    // Generate the next trade ID from the block allocator (sequential within a block, never reused)
     private Long generateNextTradeId() {
-        // For simplicity, using a static variable. In real scenario, this should be atomic and thread-safe.
-        return 10000L + tradeRepository.count();
+        return tradeIdAllocator.nextTradeId();
     }
 
     //New method of searching trades -/search
@@ -761,6 +894,36 @@ public class TradeService {
                 cb.lessThanOrEqualTo((root.get("tradeDate")), searchDTO.getEndDate())
             );    
         }
+
+        if (searchDTO.getAsOf() != null){
+            spec = spec.and(activeAt(searchDTO.getAsOf()));
+        }
+        return spec;
+    }
+
+    // Trade versions active at asOf: created at or before it and not deactivated until after it.
+    // Served by the (trade_id | book_id, created_date, deactivated_date) indexes
+    private static Specification<Trade> activeAt(LocalDateTime asOf){
+        return (root, query, cb) -> cb.and(
+            cb.lessThanOrEqualTo(root.get("createdDate"), asOf),
+            cb.or(
+                cb.isNull(root.get("deactivatedDate")),
+                cb.greaterThan(root.get("deactivatedDate"), asOf)));
+    }
+
+    private Specification<Trade> rsqlSpecification(String rsqlQuery, LocalDateTime asOf){
+        Specification<Trade> spec = rsqlSpecificationBuilder.createSpecification(rsqlQuery);
+        return asOf == null ? spec : spec.and(activeAt(asOf));
+    }
+
+    // /search criteria and an optional RSQL query combined, for the streaming export
+    public Specification<Trade> buildExportSpecification(TradeSearchDTO searchDTO, String rsqlQuery){
+        validateDateRange(searchDTO);
+
+        Specification<Trade> spec = buildTradeSearchSpecification(searchDTO);
+        if(rsqlQuery != null && !rsqlQuery.trim().isEmpty()){
+            spec = spec.and(rsqlSpecificationBuilder.createSpecification(rsqlQuery));
+        }
         return spec;
     }
 
@@ -791,12 +954,12 @@ public class TradeService {
     }
 
     //New method of searching trades - /rsql 
-    public Page<Trade> searchTradeWithRsql(String rsqlQuery, Pageable pageable){
-         logger.info("Searching trades with RSQL query: {}, page: {}, size:{}", 
-          rsqlQuery, pageable.getPageNumber(), pageable.getPageSize());
+    public Page<Trade> searchTradeWithRsql(String rsqlQuery, LocalDateTime asOf, Pageable pageable){
+         logger.info("Searching trades with RSQL query: {}, as of: {}, page: {}, size:{}", 
+          rsqlQuery, asOf, pageable.getPageNumber(), pageable.getPageSize());
 
         try{
-            Specification<Trade> spec = rsqlSpecificationBuilder.createSpecification(rsqlQuery);
+            Specification<Trade> spec = rsqlSpecification(rsqlQuery, asOf);
             Page<Trade> result = tradeRepository.findAll(spec, pageable);
 
             logger.info("Found {} trades matching RSQL query (page {} of {})", 
@@ -809,6 +972,63 @@ public class TradeService {
         }
     }
 
+    // /filter and /rsql without the COUNT query: fetches one extra row to know whether a next page exists
+    public Slice<Trade> filterTradeWithoutCount(TradeSearchDTO searchDTO, Pageable pageable){
+        validateDateRange(searchDTO);
+        return findTradeSlice(buildTradeSearchSpecification(searchDTO), pageable);
+    }
+
+    public Slice<Trade> searchTradeWithRsqlWithoutCount(String rsqlQuery, LocalDateTime asOf, Pageable pageable){
+        return findTradeSlice(rsqlSpecification(rsqlQuery, asOf), pageable);
+    }
+
+    // Keyset (seek) pagination: the cursor replaces the page number, so deep pages cost the same as the first
+    public KeysetPageDTO<Trade> filterTradeWithKeyset(TradeSearchDTO searchDTO, String sortBy, String sortDir, String cursor, int size, boolean includeTotal){
+        logger.info("Keyset search - criteria: {}, sort: {} {}, size: {}", searchDTO, sortBy, sortDir, size);
+
+        validateDateRange(searchDTO);
+        return findTradeKeysetPage(buildTradeSearchSpecification(searchDTO), sortBy, sortDir, cursor, size, includeTotal);
+    }
+
+    public KeysetPageDTO<Trade> searchTradeWithRsqlKeyset(String rsqlQuery, LocalDateTime asOf, String sortBy, String sortDir, String cursor, int size, boolean includeTotal){
+        logger.info("Keyset RSQL search - query: {}, as of: {}, sort: {} {}, size: {}", rsqlQuery, asOf, sortBy, sortDir, size);
+
+        return findTradeKeysetPage(rsqlSpecification(rsqlQuery, asOf), sortBy, sortDir, cursor, size, includeTotal);
+    }
+
+    private Slice<Trade> findTradeSlice(Specification<Trade> spec, Pageable pageable){
+        int size = pageable.getPageSize();
+        List<Trade> window = tradeRepository.findWindow(spec, pageable.getSort(), pageable.getOffset(), size + 1);
+        boolean hasNext = window.size() > size;
+        return new SliceImpl<>(hasNext ? window.subList(0, size) : window, pageable, hasNext);
+    }
+
+    private KeysetPageDTO<Trade> findTradeKeysetPage(Specification<Trade> spec, String sortBy, String sortDir, String cursor, int size, boolean includeTotal){
+        if(size < 1){
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        TradeKeysetCursor.requireSortable(sortBy);
+        Sort.Direction direction = Sort.Direction.fromString(sortDir);
+
+        Specification<Trade> pageSpec = spec;
+        if(cursor != null && !cursor.isBlank()){
+            TradeKeysetCursor after = TradeKeysetCursor.decode(cursor);
+            if(!after.matches(sortBy, direction)){
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            pageSpec = spec.and(after.toSpecification());
+        }
+
+        List<Trade> window = tradeRepository.findWindow(pageSpec, TradeKeysetCursor.sortFor(sortBy, direction), 0, size + 1);
+        boolean hasNext = window.size() > size;
+        List<Trade> content = hasNext ? window.subList(0, size) : window;
+
+        String nextCursor = hasNext ? TradeKeysetCursor.after(content.get(content.size() - 1), sortBy, direction) : null;
+        Long totalElements = includeTotal ? tradeRepository.count(spec) : null;
+
+        return new KeysetPageDTO<>(content, size, hasNext, nextCursor, totalElements);
+    }
+
 //new business rules validation methods
     public ValidationResult validateTradeBusinessRules(TradeDTO tradeDTO){
         LocalDate startDate = tradeDTO.getTradeStartDate();
@@ -938,112 +1158,22 @@ public class TradeService {
     }
 
     public boolean validateUserPrivileges(String userId, String operation, TradeDTO tradeDTO){
-
-         logger.info("User id: {}", userId);
-
-        Optional<ApplicationUser> userOpt = applicationUserRepository.findByLoginIdIgnoreCase(userId);
-        
-        System.out.println(userId);
-        System.out.println(userOpt);
-
-
-        logger.info("User optional: {}", userOpt);
-
-         if(userOpt.isEmpty()){
-           return false;
-        }
-        
-        ApplicationUser user = userOpt.get();
-
-        //check if user is active
-        if(!user.isActive()){
-            return false;
-        }
-
-         logger.info("User active: {}", user.isActive());
-
-        String privilegeName = mapOperationToPrivilege(operation);
-        
-        if(privilegeName == null){
-            return false;
-        }
-
-        logger.info("Privilege name: {}", privilegeName);
-
-        Optional<Privilege> privilegeOpt = privilegeRepository.findByName(privilegeName);
-
-        logger.info("All Privileges: {}", privilegeRepository.findAll());
-
-        logger.info("All User Privileges: {}", userPrivilegeRepository.findAll());
-       
-        logger.info("Privilege opt: {}", privilegeOpt);
-
-        if(privilegeOpt.isEmpty()){
-            return false;
-        }
-
-        Privilege privilege = privilegeOpt.get();
-
-        boolean hasPrivilege = userPrivilegeRepository.existsByUserIdAndPrivilegeId(user.getId(), privilege.getId());
-
-        logger.info("User valid: {}", hasPrivilege);
-
-        if(!hasPrivilege){
-            return false;
-        }
-        
-        logger.info("User valid: {}", "TRADER_SALES".equalsIgnoreCase(user.getUserProfile().getUserType()));
-
-        //check if trader owns the trade
-        if("TRADER_SALES".equalsIgnoreCase(user.getUserProfile().getUserType()) && !operation.equalsIgnoreCase("getAllTrades")){
-            return verifyTraderOwnership(user, operation, tradeDTO);
-        };
-
-        return true;
+        return authorizationEngine.isAuthorized(userId, operation, tradeDTO);
     }
 
-    private String mapOperationToPrivilege(String operation){
-        return switch(operation) {
-            case "createTrade" -> "BOOK_TRADE";
-            case "amendTrade" -> "AMEND_TRADE";
-            case "getAllTrades" -> "READ_TRADE";
-            case "terminateTrade" -> "TERMINATE_TRADE";
-            case "cancelTrade" -> "CANCEL_TRADE";
-            default -> null;
-        };
-    }
-
-    private boolean verifyTraderOwnership(ApplicationUser user, String operation, TradeDTO tradeDTO){
-        //createTrade does not require ownership check
-        if(("createTrade").equals(operation)){
-            return true;
-        }
-
-       if(tradeDTO == null){
-            return false;
-        }
-
-        String tradeOwner = tradeDTO.getTraderUserName();
-        // String currentUserName = user.getFirstName() + " " + user.getLastName();
-
-        logger.info("Trade owner: {}", tradeOwner);
-        
-        String[] nameParts = tradeOwner.split("\\s+");
-        String firstName = "";
-            if(nameParts.length >= 1){
-                firstName = nameParts[0];
-            }
-
-        return tradeOwner == null || firstName.equalsIgnoreCase(user.getLoginId());
+    public ValidationResult validateReferenceDataStatus(TradeDTO tradeDTO){
+        TradeReferenceResolver references = newReferenceResolver();
+        referenceDataFanOut.prefetch(references, tradeDTO);
+        return validateReferenceDataStatus(tradeDTO, references);
     }
 
-    public ValidationResult validateReferenceDataStatus(TradeDTO tradeDTO){
+    public ValidationResult validateReferenceDataStatus(TradeDTO tradeDTO, TradeReferenceResolver references){
         ValidationResult validationResult = new ValidationResult();
         List<String> errorMessages = new ArrayList<>();
 
         //1. Validate book exists and check if it is active
         if(tradeDTO.getBookName() != null){
-            Optional<Book> bookOpt = bookRepository.findByBookName(tradeDTO.getBookName());
+            Optional<Book> bookOpt = references.book(tradeDTO.getBookName());
             if(bookOpt.isEmpty()){
                 errorMessages.add("Book " + tradeDTO.getBookName() + " does not exist");
             }
@@ -1057,7 +1187,7 @@ public class TradeService {
 
         //2. Validate counterparty exists and check if it is active
         if(tradeDTO.getCounterpartyName() != null){
-            Optional<Counterparty> counterpartyOpt = counterpartyRepository.findByName(tradeDTO.getCounterpartyName());
+            Optional<Counterparty> counterpartyOpt = references.counterparty(tradeDTO.getCounterpartyName());
             if(counterpartyOpt.isEmpty()){
                 errorMessages.add("Counterparty " + tradeDTO.getCounterpartyName() + " does not exist");
             }
@@ -1074,7 +1204,7 @@ public class TradeService {
             String[] nameParts = tradeDTO.getTraderUserName().split("\\s+");
             if(nameParts.length >= 1 && !nameParts[0].isEmpty()){
                 String firstName = nameParts[0];
-                Optional<ApplicationUser> userOpt = applicationUserRepository.findByFirstNameIgnoreCase(firstName);
+                Optional<ApplicationUser> userOpt = references.userByFirstName(firstName);
                 if(userOpt.isEmpty()){
                     errorMessages.add("Trader: " + tradeDTO.getTraderUserName() + " does not exist");
                 }
@@ -1089,7 +1219,7 @@ public class TradeService {
         //4. Validate trade status
         if(tradeDTO.getTradeStatus() != null){
              
-        Optional<TradeStatus> statusOpt = tradeStatusRepository.findByTradeStatus(tradeDTO.getTradeStatus());
+        Optional<TradeStatus> statusOpt = references.tradeStatus(tradeDTO.getTradeStatus());
 
         if(statusOpt.isEmpty()){
                 errorMessages.add("Trade status " + tradeDTO.getTradeStatus() + "does not exist");
@@ -1099,7 +1229,7 @@ public class TradeService {
          //5. Validate trade type exists
         if(tradeDTO.getTradeType() != null){ 
         
-        Optional<TradeType> tradeTypeOpt = tradeTypeRepository.findByTradeType(tradeDTO.getTradeType());
+        Optional<TradeType> tradeTypeOpt = references.tradeType(tradeDTO.getTradeType());
 
         if(tradeTypeOpt.isEmpty()){
                 errorMessages.add("Trade type " + tradeDTO.getTradeType() + "does not exist");
@@ -1109,7 +1239,7 @@ public class TradeService {
        //6. Validate trade sub type exists
         if(tradeDTO.getTradeSubType() != null){ 
         
-        Optional<TradeSubType> tradeSubTypeOpt = tradeSubTypeRepository.findByTradeSubType(tradeDTO.getTradeSubType());
+        Optional<TradeSubType> tradeSubTypeOpt = references.tradeSubType(tradeDTO.getTradeSubType());
 
         if(tradeSubTypeOpt.isEmpty()){
                 errorMessages.add("Trade sub type " + tradeDTO.getTradeSubType() + " does not exist");
@@ -1123,21 +1253,21 @@ public class TradeService {
             String legNumber = "Leg " + (i + 1);
 
             if(leg.getCurrency() != null){
-                Optional<Currency> currencyOpt = currencyRepository.findByCurrency(leg.getCurrency());
+                Optional<Currency> currencyOpt = references.currency(leg.getCurrency());
                 if(currencyOpt.isEmpty()){
                 errorMessages.add("Currency " + leg.getCurrency() + " does not exist");
                 }
             }
 
             if(leg.getLegType() != null){
-                Optional<LegType> legTypeOpt = legTypeRepository.findByType(leg.getLegType());
+                Optional<LegType> legTypeOpt = references.legType(leg.getLegType());
                 if(legTypeOpt.isEmpty()){
                 errorMessages.add(legNumber + " Leg type " + leg.getLegType() + " does not exist");
                 }
             }
 
             if("floating".equalsIgnoreCase(leg.getLegType()) && leg.getIndexName() != null){
-                Optional<Index> indexOpt = indexRepository.findByIndex(leg.getIndexName());
+                Optional<Index> indexOpt = references.index(leg.getIndexName());
                 if(indexOpt.isEmpty()){
                 errorMessages.add(legNumber + " Index " + leg.getIndexName() + " does not exist");
                 }
@@ -1151,21 +1281,21 @@ public class TradeService {
             // }
 
             if(leg.getHolidayCalendar() != null){
-                 Optional<HolidayCalendar> holidayCalendarOpt = holidayCalendarRepository.findByHolidayCalendar(leg.getHolidayCalendar());
+                 Optional<HolidayCalendar> holidayCalendarOpt = references.holidayCalendar(leg.getHolidayCalendar());
                 if(holidayCalendarOpt.isEmpty()){
                 errorMessages.add(legNumber + " Holiday calendar " + leg.getHolidayCalendar() + " does not exist");
                 }
             }
 
             if(leg.getPayReceiveFlag() != null){
-                 Optional<PayRec> payRecOpt = payRecRepository.findByPayRec(leg.getPayReceiveFlag());
+                 Optional<PayRec> payRecOpt = references.payRec(leg.getPayReceiveFlag());
                 if(payRecOpt.isEmpty()){
                 errorMessages.add(legNumber + " Pay Receive flag " + leg.getPayReceiveFlag() + " does not exist");
                 }
             }
 
             if(leg.getPaymentBusinessDayConvention() != null){
-                 Optional<BusinessDayConvention> payBusinessOpt = businessDayConventionRepository.findByBdc(leg.getPaymentBusinessDayConvention());
+                 Optional<BusinessDayConvention> payBusinessOpt = references.businessDayConvention(leg.getPaymentBusinessDayConvention());
                 if(payBusinessOpt.isEmpty()){
                 errorMessages.add(legNumber + " Payment Business Day Convention " + leg.getPaymentBusinessDayConvention() + " does not exist");
                 }
@@ -1185,18 +1315,24 @@ public class TradeService {
        
    }
 
-   private ValidationResult validateTradeAndLegs(TradeDTO tradeDTO){
+   // Pure once the resolver holds the trade's reference data, so TradeBatchService runs it on
+   // worker threads; SUPPORTS keeps those calls from each opening a transaction
+   @Transactional(propagation = Propagation.SUPPORTS)
+   public ValidationResult validateTradeAndLegs(TradeDTO tradeDTO, TradeReferenceResolver references){
        ValidationResult cummulativeResult = new ValidationResult();
 
        List<String> allErrorMessages = new ArrayList<>();
 
-       ValidationResult referenceDataResult = validateReferenceDataStatus(tradeDTO);
+       String tradeType = tradeDTO.getTradeType();
+       ValidationResult referenceDataResult = tradeMetrics.validation(TradeMetrics.REFERENCE_DATA, tradeType,
+               () -> validateReferenceDataStatus(tradeDTO, references));
 
        if(!referenceDataResult.isValid()){
          allErrorMessages.addAll(referenceDataResult.getErrors());
        }
         
-       ValidationResult businessRulesResult = validateTradeBusinessRules(tradeDTO);
+       ValidationResult businessRulesResult = tradeMetrics.validation(TradeMetrics.BUSINESS_RULES, tradeType,
+               () -> validateTradeBusinessRules(tradeDTO));
 
        if(!businessRulesResult.isValid()){
          allErrorMessages.addAll(businessRulesResult.getErrors());
@@ -1208,7 +1344,8 @@ public class TradeService {
 
          List<TradeLegDTO> legs = Arrays.asList(leg1, leg2);
 
-        ValidationResult tradeLegConsistencyResult = validateTradeLegConsistency(legs);
+        ValidationResult tradeLegConsistencyResult = tradeMetrics.validation(TradeMetrics.LEG_CONSISTENCY, tradeType,
+                () -> validateTradeLegConsistency(legs));
 
           if(!tradeLegConsistencyResult.isValid()){
             allErrorMessages.addAll(tradeLegConsistencyResult.getErrors());
@@ -1232,16 +1369,9 @@ public class TradeService {
 
 
     //settlement instructions logic
+   // One query: the trigram index picks the candidate instructions and the trades come back with them
    public List<Trade> searchTradesBySettlementInstructions(String searchString){
-    //Additional infos that match the search parameter
-       List<AdditionalInfo> additionalInfoSearchResult = additionalInfoRepository.findActiveByEntityTypeAndFieldNameAndFieldValue( "TRADE", "SETTLEMENT_INSTRUCTIONS", searchString);
-
-       List<Long> tradeIds = additionalInfoSearchResult.stream()
-       .map(AdditionalInfo::getEntityId)
-       .distinct()
-       .collect(Collectors.toList());
-
-       return tradeRepository.findAllById(tradeIds);
+       return tradeRepository.findAll(settlementInstructionIndex.matching(searchString));
    }
 
    public Trade updateSettlementInstructions(Long tradeId, String settlementInstructions){
@@ -1278,5 +1408,21 @@ public class TradeService {
      }
      return tradeDTO;
    }
+
+   // List endpoints: loads the additional fields for every trade in one query instead of one per trade
+   public void addAdditionalInfoToAll(List<TradeDTO> tradeDTOs){
+     List<Long> ids = tradeDTOs.stream()
+             .map(TradeDTO::getId)
+             .filter(Objects::nonNull)
+             .distinct()
+             .toList();
+     Map<Long, List<AdditionalInfoDTO>> fieldsById = additionalInfoService.getAdditionalInfoForEntities("TRADE", ids);
+
+     for(TradeDTO tradeDTO : tradeDTOs){
+        if(tradeDTO.getId() != null){
+            tradeDTO.setAdditionalFields(fieldsById.getOrDefault(tradeDTO.getId(), new ArrayList<>()));
+        }
+     }
+   }
   
 }
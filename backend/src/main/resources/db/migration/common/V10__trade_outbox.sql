@@ -0,0 +1,23 @@
+-- Transactional outbox for trade lifecycle events. TradeService writes one row in the same
+-- transaction as the booking, amendment, termination or cancellation. The relay gives each
+-- committed row the next stream_offset, which is what consumers resume from
+CREATE SEQUENCE trade_outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE trade_outbox_event (
+    id BIGINT PRIMARY KEY,
+    trade_id BIGINT NOT NULL,
+    trade_version INTEGER NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    created_date TIMESTAMP(6) NOT NULL,
+    stream_offset BIGINT,
+    sequenced_date TIMESTAMP(6),
+    CONSTRAINT uk_trade_outbox_event_offset UNIQUE (stream_offset)
+);
+
+-- How far each sink has been delivered
+CREATE TABLE trade_event_sink_offset (
+    sink_name VARCHAR(100) PRIMARY KEY,
+    last_offset BIGINT NOT NULL,
+    last_modified_date TIMESTAMP(6) NOT NULL
+);
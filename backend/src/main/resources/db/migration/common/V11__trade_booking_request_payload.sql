@@ -0,0 +1,6 @@
+-- The submitted trade as JSON, so bookings still queued or running when the application stopped
+-- are resumed on the next start. Rows written before this column have none and are failed instead
+ALTER TABLE trade_booking_request ADD COLUMN payload TEXT;
+
+-- Startup looks for the bookings that never finished
+CREATE INDEX idx_trade_booking_request_status ON trade_booking_request (status);
@@ -0,0 +1,20 @@
+-- Indexes for the hot trade lookup paths
+
+-- findByTradeIdAndActiveTrue and version history; a trade id never repeats a version
+ALTER TABLE trade ADD CONSTRAINT uk_trade_trade_id_version UNIQUE (trade_id, version);
+
+-- findByTraderUserId (trader blotter and TRADER_SALES scoping)
+CREATE INDEX ix_trade_trader_user_id ON trade (trader_user_id);
+
+-- Search/filter predicates; (trade_date, id) also serves trade date keyset paging
+CREATE INDEX ix_trade_counterparty_id ON trade (counterparty_id);
+CREATE INDEX ix_trade_book_id ON trade (book_id);
+CREATE INDEX ix_trade_trade_status_id ON trade (trade_status_id);
+CREATE INDEX ix_trade_trade_date_id ON trade (trade_date, id);
+
+-- Batch fetching of legs per trade and cashflows per leg
+CREATE INDEX ix_trade_leg_trade_id ON trade_leg (trade_id);
+CREATE INDEX ix_cashflow_leg_id ON cashflow (leg_id);
+
+-- Additional info lookups by entity (single and IN list), optionally narrowed to one field
+CREATE INDEX ix_additional_info_entity ON additional_info (entity_type, entity_id, field_name, active);
@@ -0,0 +1,54 @@
+-- Holiday dates per calendar, compiled into business day bitmaps by HolidayCalendarRegistry
+CREATE SEQUENCE holiday_seq START WITH 10000 INCREMENT BY 50;
+
+CREATE TABLE holiday (
+    id BIGINT PRIMARY KEY,
+    holiday_calendar_id BIGINT NOT NULL REFERENCES holiday_calendar (id) ON DELETE CASCADE,
+    holiday_date DATE NOT NULL,
+    description VARCHAR(255),
+    CONSTRAINT uk_holiday_calendar_date UNIQUE (holiday_calendar_id, holiday_date)
+);
+
+-- NY: US federal holidays 2025-2026
+INSERT INTO holiday (id, holiday_calendar_id, holiday_date, description) VALUES
+  (1000, 1000, '2025-01-01', 'New Year''s Day'),
+  (1001, 1000, '2025-01-20', 'Martin Luther King Jr. Day'),
+  (1002, 1000, '2025-02-17', 'Presidents'' Day'),
+  (1003, 1000, '2025-05-26', 'Memorial Day'),
+  (1004, 1000, '2025-06-19', 'Juneteenth'),
+  (1005, 1000, '2025-07-04', 'Independence Day'),
+  (1006, 1000, '2025-09-01', 'Labor Day'),
+  (1007, 1000, '2025-10-13', 'Columbus Day'),
+  (1008, 1000, '2025-11-11', 'Veterans Day'),
+  (1009, 1000, '2025-11-27', 'Thanksgiving Day'),
+  (1010, 1000, '2025-12-25', 'Christmas Day'),
+  (1011, 1000, '2026-01-01', 'New Year''s Day'),
+  (1012, 1000, '2026-01-19', 'Martin Luther King Jr. Day'),
+  (1013, 1000, '2026-02-16', 'Presidents'' Day'),
+  (1014, 1000, '2026-05-25', 'Memorial Day'),
+  (1015, 1000, '2026-06-19', 'Juneteenth'),
+  (1016, 1000, '2026-07-03', 'Independence Day (observed)'),
+  (1017, 1000, '2026-09-07', 'Labor Day'),
+  (1018, 1000, '2026-10-12', 'Columbus Day'),
+  (1019, 1000, '2026-11-11', 'Veterans Day'),
+  (1020, 1000, '2026-11-26', 'Thanksgiving Day'),
+  (1021, 1000, '2026-12-25', 'Christmas Day');
+
+-- LON: England and Wales bank holidays 2025-2026
+INSERT INTO holiday (id, holiday_calendar_id, holiday_date, description) VALUES
+  (1100, 1001, '2025-01-01', 'New Year''s Day'),
+  (1101, 1001, '2025-04-18', 'Good Friday'),
+  (1102, 1001, '2025-04-21', 'Easter Monday'),
+  (1103, 1001, '2025-05-05', 'Early May bank holiday'),
+  (1104, 1001, '2025-05-26', 'Spring bank holiday'),
+  (1105, 1001, '2025-08-25', 'Summer bank holiday'),
+  (1106, 1001, '2025-12-25', 'Christmas Day'),
+  (1107, 1001, '2025-12-26', 'Boxing Day'),
+  (1108, 1001, '2026-01-01', 'New Year''s Day'),
+  (1109, 1001, '2026-04-03', 'Good Friday'),
+  (1110, 1001, '2026-04-06', 'Easter Monday'),
+  (1111, 1001, '2026-05-04', 'Early May bank holiday'),
+  (1112, 1001, '2026-05-25', 'Spring bank holiday'),
+  (1113, 1001, '2026-08-31', 'Summer bank holiday'),
+  (1114, 1001, '2026-12-25', 'Christmas Day'),
+  (1115, 1001, '2026-12-28', 'Boxing Day (substitute day)');
@@ -0,0 +1,16 @@
+-- Asynchronous trade bookings (/api/trades/async), one row per user and Idempotency-Key.
+-- The row is polled for the booking's progress; the unique key is what stops a retried request
+-- from booking the trade twice.
+CREATE TABLE trade_booking_request (
+    id UUID PRIMARY KEY,
+    requested_by VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    trade_id BIGINT,
+    errors TEXT,
+    created_date TIMESTAMP(6) NOT NULL,
+    last_modified_date TIMESTAMP(6) NOT NULL,
+    completed_date TIMESTAMP(6),
+    CONSTRAINT uk_trade_booking_request_key UNIQUE (requested_by, idempotency_key)
+);
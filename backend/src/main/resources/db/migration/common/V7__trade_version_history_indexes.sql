@@ -0,0 +1,8 @@
+-- Indexes for version history and as-of reads. A trade version is valid from created_date until
+-- deactivated_date, which stays null while the version is active
+
+-- One trade as of a timestamp, and its version history
+CREATE INDEX ix_trade_trade_id_validity ON trade (trade_id, created_date, deactivated_date);
+
+-- A book as of a timestamp. ix_trade_book_id stays: the book foreign key is bound to it
+CREATE INDEX ix_trade_book_id_validity ON trade (book_id, created_date, deactivated_date);
@@ -0,0 +1,3 @@
+-- Cashflow ladder: range scan on value date. Carrying leg_id lets the join to trade_leg start
+-- from the index entry
+CREATE INDEX ix_cashflow_value_date_leg_id ON cashflow (value_date, leg_id);
@@ -0,0 +1,10 @@
+-- Trigram index over settlement instructions. One row per distinct lower-cased trigram of each
+-- additional_info value, padded with two trailing spaces so every character starts a trigram.
+-- The primary key serves gram lookups and prefix scans; the second index serves re-indexing
+CREATE TABLE settlement_instruction_gram (
+    gram VARCHAR(12) NOT NULL,
+    additional_info_id BIGINT NOT NULL REFERENCES additional_info (id),
+    PRIMARY KEY (gram, additional_info_id)
+);
+
+CREATE INDEX ix_settlement_instruction_gram_info ON settlement_instruction_gram (additional_info_id);
@@ -0,0 +1,4 @@
+-- At most one active version per trade id. H2 has no partial indexes, so the unique index sits
+-- on a generated column that is null for inactive versions (nulls never collide)
+ALTER TABLE trade ADD COLUMN active_trade_id BIGINT GENERATED ALWAYS AS (CASE WHEN active THEN trade_id END);
+CREATE UNIQUE INDEX ux_trade_one_active_version ON trade (active_trade_id);
@@ -0,0 +1,2 @@
+-- At most one active version per trade id; also the index behind findByTradeIdAndActiveTrue
+CREATE UNIQUE INDEX ux_trade_one_active_version ON trade (trade_id) WHERE active;
@@ -0,0 +1,161 @@
+package com.technicalchallenge.authorization;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Privilege;
+import com.technicalchallenge.model.UserPrivilege;
+import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.repository.ApplicationUserRepository;
+import com.technicalchallenge.repository.PrivilegeRepository;
+import com.technicalchallenge.repository.UserPrivilegeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationEngineTest {
+
+    @Mock
+    private ApplicationUserRepository applicationUserRepository;
+
+    @Mock
+    private PrivilegeRepository privilegeRepository;
+
+    @Mock
+    private UserPrivilegeRepository userPrivilegeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthorizationEngine authorizationEngine;
+
+    private final List<ApplicationUser> users = new ArrayList<>();
+    private final List<Privilege> privileges = new ArrayList<>();
+    private final List<UserPrivilege> userPrivileges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        privileges.add(privilege(1L, "BOOK_TRADE"));
+        privileges.add(privilege(2L, "AMEND_TRADE"));
+        privileges.add(privilege(3L, "READ_TRADE"));
+
+        users.add(user(10L, "alice", "SUPPORT", true));
+        users.add(user(11L, "simon", "TRADER_SALES", true));
+        users.add(user(12L, "inactive", "SUPPORT", false));
+
+        userPrivileges.add(new UserPrivilege(10L, 3L));
+        userPrivileges.add(new UserPrivilege(11L, 1L));
+        userPrivileges.add(new UserPrivilege(11L, 2L));
+        userPrivileges.add(new UserPrivilege(12L, 3L));
+
+        when(applicationUserRepository.findAll()).thenReturn(users);
+        when(privilegeRepository.findAll()).thenReturn(privileges);
+        when(userPrivilegeRepository.findAll()).thenReturn(userPrivileges);
+
+        meterRegistry = new SimpleMeterRegistry();
+        authorizationEngine = new AuthorizationEngine(applicationUserRepository, privilegeRepository,
+                userPrivilegeRepository, meterRegistry);
+        authorizationEngine.rebuild();
+    }
+
+    @Test
+    void testIsAuthorized_GrantedPrivilegeAllowsOperation() {
+        assertTrue(authorizationEngine.isAuthorized("alice", "getAllTrades", null));
+        assertTrue(authorizationEngine.isAuthorized("ALICE", "getAllTrades", null));
+        assertFalse(authorizationEngine.isAuthorized("alice", "createTrade", null));
+    }
+
+    @Test
+    void testIsAuthorized_UnknownUserOrOperationIsDenied() {
+        assertFalse(authorizationEngine.isAuthorized("nobody", "getAllTrades", null));
+        assertFalse(authorizationEngine.isAuthorized("alice", "deleteEverything", null));
+        assertFalse(authorizationEngine.isAuthorized(null, "getAllTrades", null));
+    }
+
+    @Test
+    void testIsAuthorized_InactiveUserIsDenied() {
+        assertFalse(authorizationEngine.isAuthorized("inactive", "getAllTrades", null));
+    }
+
+    @Test
+    void testIsAuthorized_TraderSalesMustOwnTradeToAmend() {
+        TradeDTO ownTrade = new TradeDTO();
+        ownTrade.setTraderUserName("Simon King");
+        TradeDTO otherTrade = new TradeDTO();
+        otherTrade.setTraderUserName("Ashley Smith");
+
+        assertTrue(authorizationEngine.isAuthorized("simon", "createTrade", otherTrade));
+        assertTrue(authorizationEngine.isAuthorized("simon", "amendTrade", ownTrade));
+        assertFalse(authorizationEngine.isAuthorized("simon", "amendTrade", otherTrade));
+        assertFalse(authorizationEngine.isAuthorized("simon", "amendTrade", null));
+    }
+
+    @Test
+    void testIsAuthorized_RunsNoQueriesAfterSnapshotIsBuilt() {
+        clearInvocations(applicationUserRepository, privilegeRepository, userPrivilegeRepository);
+
+        for (int i = 0; i < 100; i++) {
+            authorizationEngine.isAuthorized("alice", "getAllTrades", null);
+        }
+
+        verifyNoInteractions(applicationUserRepository, privilegeRepository, userPrivilegeRepository);
+    }
+
+    @Test
+    void testRebuild_PicksUpGrantChanges() {
+        assertFalse(authorizationEngine.isAuthorized("alice", "createTrade", null));
+
+        userPrivileges.add(new UserPrivilege(10L, 1L));
+        authorizationEngine.rebuild();
+        assertTrue(authorizationEngine.isAuthorized("alice", "createTrade", null));
+
+        userPrivileges.removeIf(grant -> grant.getUserId() == 10L);
+        authorizationEngine.rebuild();
+        assertFalse(authorizationEngine.isAuthorized("alice", "getAllTrades", null));
+    }
+
+    @Test
+    void testFindUser_ReturnsTypeAndIdFromSnapshot() {
+        AuthorizationSnapshot.UserGrant grant = authorizationEngine.findUser("Simon").orElseThrow();
+
+        assertEquals(11L, grant.getUserId());
+        assertEquals("TRADER_SALES", grant.getUserType());
+        assertTrue(authorizationEngine.findUser("nobody").isEmpty());
+    }
+
+    @Test
+    void testIsAuthorized_RecordsDecisionLatency() {
+        authorizationEngine.isAuthorized("alice", "getAllTrades", null);
+        authorizationEngine.isAuthorized("alice", "createTrade", null);
+
+        assertEquals(1, meterRegistry.get("trade.authorization.decision")
+                .tag("operation", "getAllTrades").tag("outcome", "allowed").timer().count());
+        assertEquals(1, meterRegistry.get("trade.authorization.decision")
+                .tag("operation", "createTrade").tag("outcome", "denied").timer().count());
+    }
+
+    private static Privilege privilege(Long id, String name) {
+        Privilege privilege = new Privilege();
+        privilege.setId(id);
+        privilege.setName(name);
+        return privilege;
+    }
+
+    private static ApplicationUser user(Long id, String loginId, String userType, boolean active) {
+        UserProfile profile = new UserProfile();
+        profile.setUserType(userType);
+        ApplicationUser user = new ApplicationUser();
+        user.setId(id);
+        user.setLoginId(loginId);
+        user.setActive(active);
+        user.setUserProfile(profile);
+        return user;
+    }
+}
@@ -0,0 +1,103 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Privilege;
+import com.technicalchallenge.model.UserPrivilege;
+import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.repository.ApplicationUserRepository;
+import com.technicalchallenge.repository.PrivilegeRepository;
+import com.technicalchallenge.repository.UserPrivilegeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JMH benchmark of a single trade authorization decision against a populated snapshot, including
+ * the TRADER_SALES ownership check and the latency timer.
+ *
+ * Run with mvn -Pbenchmarks verify -Dbenchmark.include=AuthorizationCheckBenchmark, which writes
+ * target/jmh-result.json; see BenchmarkRunner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationCheckBenchmark {
+
+    private static final String[] PRIVILEGES = {"BOOK_TRADE", "AMEND_TRADE", "READ_TRADE", "TERMINATE_TRADE", "CANCEL_TRADE"};
+
+    @Param({"100", "10000"})
+    public int userCount;
+
+    private AuthorizationEngine authorizationEngine;
+    private TradeDTO ownTrade;
+    private String traderLogin;
+    private String supportLogin;
+
+    @Setup
+    public void setUp() {
+        List<Privilege> privileges = new ArrayList<>();
+        for (int i = 0; i < PRIVILEGES.length; i++) {
+            Privilege privilege = new Privilege();
+            privilege.setId((long) i);
+            privilege.setName(PRIVILEGES[i]);
+            privileges.add(privilege);
+        }
+
+        UserProfile traderProfile = new UserProfile();
+        traderProfile.setUserType("TRADER_SALES");
+        UserProfile supportProfile = new UserProfile();
+        supportProfile.setUserType("SUPPORT");
+
+        List<ApplicationUser> users = new ArrayList<>();
+        List<UserPrivilege> userPrivileges = new ArrayList<>();
+        for (long id = 0; id < userCount; id++) {
+            ApplicationUser user = new ApplicationUser();
+            user.setId(id);
+            user.setLoginId("user" + id);
+            user.setActive(true);
+            user.setUserProfile(id % 2 == 0 ? traderProfile : supportProfile);
+            users.add(user);
+            for (long privilegeId = 0; privilegeId < PRIVILEGES.length; privilegeId++) {
+                userPrivileges.add(new UserPrivilege(id, privilegeId));
+            }
+        }
+
+        ApplicationUserRepository applicationUserRepository = mock(ApplicationUserRepository.class);
+        PrivilegeRepository privilegeRepository = mock(PrivilegeRepository.class);
+        UserPrivilegeRepository userPrivilegeRepository = mock(UserPrivilegeRepository.class);
+        when(applicationUserRepository.findAll()).thenReturn(users);
+        when(privilegeRepository.findAll()).thenReturn(privileges);
+        when(userPrivilegeRepository.findAll()).thenReturn(userPrivileges);
+
+        authorizationEngine = new AuthorizationEngine(applicationUserRepository, privilegeRepository,
+                userPrivilegeRepository, new SimpleMeterRegistry());
+        authorizationEngine.rebuild();
+
+        // Even ids are TRADER_SALES, odd ids are SUPPORT
+        traderLogin = "user" + (userCount - 2);
+        supportLogin = "user" + (userCount - 1);
+        ownTrade = new TradeDTO();
+        ownTrade.setTraderUserName(traderLogin + " Trader");
+    }
+
+    @Benchmark
+    public boolean readTrades() {
+        return authorizationEngine.isAuthorized(supportLogin, "getAllTrades", null);
+    }
+
+    @Benchmark
+    public boolean amendOwnTrade() {
+        return authorizationEngine.isAuthorized(traderLogin, "amendTrade", ownTrade);
+    }
+}
@@ -0,0 +1,114 @@
+package com.technicalchallenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of the benchmarks that run as JUnit tests (they need a loaded database or a running
+ * server, which JMH forks would rebuild for every benchmark), written in the layout of JMH's JSON
+ * results so both can be read by the same tooling: one entry per measurement, with its parameters,
+ * a primary metric and optional secondary ones. Latencies are recorded like JMH's sample mode, the
+ * mean as the score plus percentiles.
+ *
+ * The benchmarks profile writes the file named by -Dbenchmark.report (target/benchmark-report.json);
+ * without it nothing is written. Each result rewrites the whole file, so it is complete whichever
+ * benchmark runs last or fails.
+ */
+final class BenchmarkReport {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final double[] PERCENTILES = {0, 50, 90, 99, 99.9, 100};
+    private static final List<Map<String, Object>> RESULTS = new ArrayList<>();
+
+    private BenchmarkReport() {
+    }
+
+    record Metric(double score, String unit) {
+    }
+
+    static void latency(Class<?> benchmark, String name, Map<String, ?> params, long[] sortedNanos, TimeUnit unit) {
+        latency(benchmark, name, params, sortedNanos, unit, Map.of());
+    }
+
+    static void latency(Class<?> benchmark, String name, Map<String, ?> params, long[] sortedNanos, TimeUnit unit,
+                        Map<String, Metric> secondary) {
+        double nanosPerUnit = unit.toNanos(1);
+        double total = 0;
+        for (long nanos : sortedNanos) {
+            total += nanos;
+        }
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put(String.valueOf(percentile), percentile(sortedNanos, percentile) / nanosPerUnit);
+        }
+        Map<String, Object> primary = metric(sortedNanos.length == 0 ? 0 : total / sortedNanos.length / nanosPerUnit,
+                unitName(unit) + "/op");
+        primary.put("scorePercentiles", percentiles);
+        primary.put("samples", sortedNanos.length);
+        record(benchmark, name, "sample", params, primary, secondary);
+    }
+
+    static void throughput(Class<?> benchmark, String name, Map<String, ?> params, Metric score, Map<String, Metric> secondary) {
+        record(benchmark, name, "thrpt", params, metric(score.score(), score.unit()), secondary);
+    }
+
+    private static synchronized void record(Class<?> benchmark, String name, String mode, Map<String, ?> params,
+                                            Map<String, Object> primary, Map<String, Metric> secondary) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", benchmark.getName() + "." + name);
+        result.put("mode", mode);
+        Map<String, String> paramValues = new LinkedHashMap<>();
+        params.forEach((key, value) -> paramValues.put(key, String.valueOf(value)));
+        result.put("params", paramValues);
+        result.put("primaryMetric", primary);
+        Map<String, Object> secondaryMetrics = new LinkedHashMap<>();
+        secondary.forEach((key, metric) -> secondaryMetrics.put(key, metric(metric.score(), metric.unit())));
+        result.put("secondaryMetrics", secondaryMetrics);
+        RESULTS.add(result);
+
+        String file = System.getProperty("benchmark.report");
+        if (file == null) {
+            return;
+        }
+        try {
+            JSON.writeValue(new File(file), RESULTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the benchmark report to " + file, e);
+        }
+    }
+
+    private static Map<String, Object> metric(double score, String unit) {
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("score", score);
+        metric.put("scoreUnit", unit);
+        return metric;
+    }
+
+    // Nearest rank, as the benchmarks' own percentiles
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static String unitName(TimeUnit unit) {
+        return switch (unit) {
+            case NANOSECONDS -> "ns";
+            case MICROSECONDS -> "us";
+            case MILLISECONDS -> "ms";
+            case SECONDS -> "s";
+            default -> unit.name().toLowerCase();
+        };
+    }
+}
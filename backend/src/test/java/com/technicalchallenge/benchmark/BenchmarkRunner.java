@@ -0,0 +1,34 @@
+package com.technicalchallenge.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks Maven profile: runs the JMH benchmarks matching the first
+ * argument and writes their results as JSON to the second, so runs can be compared over time.
+ * The profile runs the JUnit-timed benchmarks after these with the same pattern (see
+ * BenchmarkReport), so a pattern that only picks one of those matches no JMH benchmark here.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: BenchmarkRunner <include regex> <result file>");
+        }
+        try {
+            new Runner(new OptionsBuilder()
+                    .include(args[0])
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(args[1])
+                    .build()).run();
+        } catch (NoBenchmarksException e) {
+            System.out.println("No JMH benchmarks match " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.dto.CashflowLadderDTO;
+import com.technicalchallenge.service.CashflowService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cashflow ladder latency over 1M cashflows: loads two-leg quarterly swaps with 20 cashflows per
+ * leg straight through JDBC into an in-memory H2 database, then times the ladder for the whole
+ * five years by month, one book by week and one counterparty by day. Fails if any median is a
+ * second or more.
+ *
+ * Not part of the default surefire run (the class name does not end in Test). Runs in the
+ * benchmarks profile, which records each ladder's latencies in target/benchmark-report.json (see
+ * BenchmarkReport): mvn -Pbenchmarks verify -Dbenchmark.include=CashflowLadderBenchmark. Pass
+ * -Dbenchmark.cashflows to change the table size.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=ladder-benchmark")
+class CashflowLadderBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(CashflowLadderBenchmark.class);
+
+    private static final int CASHFLOWS = Integer.getInteger("benchmark.cashflows", 1_000_000);
+    private static final int CASHFLOWS_PER_LEG = 20;
+    private static final int TRADES = CASHFLOWS / (2 * CASHFLOWS_PER_LEG);
+    private static final int TRADE_DATE_DAYS = 250;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    // Clear of the seeded rows and the ids handed out by the pooled sequences
+    private static final long FIRST_ROW_ID = 50_000_000;
+    private static final long FIRST_TRADE_ID = 50_000_000;
+
+    private static final long[] BOOK_IDS = {1000, 1001};
+    private static final long[] COUNTERPARTY_IDS = {1000, 1001};
+    private static final long[] CURRENCY_IDS = {1000, 1001, 1002};
+    private static final long PAY_ID = 1000;
+    private static final long RECEIVE_ID = 1001;
+    private static final long NEW_STATUS_ID = 1000;
+    private static final LocalDate FIRST_TRADE_DATE = LocalDate.of(2025, 1, 2);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CashflowService cashflowService;
+
+    @Test
+    void ladderLatencyAtOneMillionCashflows() {
+        long loadStart = System.nanoTime();
+        loadTrades();
+        jdbcTemplate.execute("ANALYZE");
+        logger.warn("Loaded {} cashflows ({} trades) in {} ms",
+                TRADES * 2L * CASHFLOWS_PER_LEG, TRADES, (System.nanoTime() - loadStart) / 1_000_000);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT leg_id FROM cashflow"
+                + " WHERE value_date BETWEEN DATE '2026-01-01' AND DATE '2026-12-31'", String.class));
+        logger.warn("Plan for the value date range:\n{}", plan);
+        assertFalse(plan.contains("tableScan"), "value date range scans the whole table:\n" + plan);
+
+        LocalDate start = FIRST_TRADE_DATE;
+        measure("five years by month", () -> cashflowService.getCashflowLadder(start, start.plusYears(6),
+                CashflowService.LadderBucket.MONTHLY, null, null));
+        measure("one book for a year by week", () -> cashflowService.getCashflowLadder(start.plusYears(1), start.plusYears(2),
+                CashflowService.LadderBucket.WEEKLY, "RATES-BOOK-1", null));
+        measure("one counterparty for a quarter by day", () -> cashflowService.getCashflowLadder(start.plusYears(1),
+                start.plusYears(1).plusMonths(3), CashflowService.LadderBucket.DAILY, null, "BigBank"));
+    }
+
+    private void measure(String name, Supplier<List<CashflowLadderDTO>> ladder) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            ladder.get();
+        }
+
+        long[] nanos = new long[MEASURED_ITERATIONS];
+        int rungs = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            rungs = ladder.get().size();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        BenchmarkReport.latency(CashflowLadderBenchmark.class, name, Map.of("cashflows", CASHFLOWS, "rungs", rungs),
+                nanos, TimeUnit.MILLISECONDS);
+        long medianMillis = nanos[MEASURED_ITERATIONS / 2] / 1_000_000;
+        logger.warn("{}: {} rungs, p50 {} ms, max {} ms over {} ladders", name, rungs, medianMillis,
+                nanos[MEASURED_ITERATIONS - 1] / 1_000_000, MEASURED_ITERATIONS);
+        assertTrue(medianMillis < 1_000, name + " took " + medianMillis + " ms");
+    }
+
+    private void loadTrades() {
+        String tradeSql = "INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id,"
+                + " trade_type_id, trade_sub_type_id, trade_status_id, trade_date, trade_start_date, trade_maturity_date,"
+                + " active, created_date) VALUES (?, ?, 1, ?, ?, 1003, 1003, 1001, 1003, ?, ?, ?, ?, TRUE, CURRENT_TIMESTAMP)";
+        String legSql = "INSERT INTO trade_leg (leg_id, notional, trade_id, currency_id, pay_rec_id, active, created_date)"
+                + " VALUES (?, 10000000, ?, ?, ?, TRUE, CURRENT_TIMESTAMP)";
+        String cashflowSql = "INSERT INTO cashflow (id, payment_value, value_date, leg_id, pay_rec_id, active, created_date)"
+                + " VALUES (?, ?, ?, ?, ?, TRUE, CURRENT_TIMESTAMP)";
+
+        List<Object[]> trades = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> legs = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> cashflows = new ArrayList<>(INSERT_BATCH);
+        long legId = FIRST_ROW_ID;
+        long cashflowId = FIRST_ROW_ID;
+        for (int t = 0; t < TRADES; t++) {
+            long tradeRowId = FIRST_ROW_ID + t;
+            LocalDate tradeDate = FIRST_TRADE_DATE.plusDays(t % TRADE_DATE_DAYS);
+            LocalDate startDate = tradeDate.plusDays(2);
+            trades.add(new Object[]{tradeRowId, FIRST_TRADE_ID + t, BOOK_IDS[t % BOOK_IDS.length],
+                    COUNTERPARTY_IDS[t / BOOK_IDS.length % COUNTERPARTY_IDS.length], NEW_STATUS_ID,
+                    Date.valueOf(tradeDate), Date.valueOf(startDate), Date.valueOf(startDate.plusMonths(3L * CASHFLOWS_PER_LEG))});
+            long currencyId = CURRENCY_IDS[t % CURRENCY_IDS.length];
+            for (long payRec : new long[]{PAY_ID, RECEIVE_ID}) {
+                legs.add(new Object[]{legId, tradeRowId, currencyId, payRec});
+                for (int period = 1; period <= CASHFLOWS_PER_LEG; period++) {
+                    cashflows.add(new Object[]{cashflowId++, BigDecimal.valueOf(87_500 + t % 1_000, 2),
+                            Date.valueOf(startDate.plusMonths(3L * period)), legId, payRec});
+                }
+                legId++;
+            }
+            if (cashflows.size() >= INSERT_BATCH) {
+                flush(tradeSql, trades, legSql, legs, cashflowSql, cashflows);
+            }
+        }
+        flush(tradeSql, trades, legSql, legs, cashflowSql, cashflows);
+    }
+
+    // Parents first, so the foreign keys hold at every batch
+    private void flush(String tradeSql, List<Object[]> trades, String legSql, List<Object[]> legs,
+                       String cashflowSql, List<Object[]> cashflows) {
+        if (!trades.isEmpty()) {
+            jdbcTemplate.batchUpdate(tradeSql, trades);
+            jdbcTemplate.batchUpdate(legSql, legs);
+            jdbcTemplate.batchUpdate(cashflowSql, cashflows);
+        }
+        trades.clear();
+        legs.clear();
+        cashflows.clear();
+    }
+}
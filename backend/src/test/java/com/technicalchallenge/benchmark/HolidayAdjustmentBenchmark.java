@@ -0,0 +1,94 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.schedule.CompiledCalendar;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark adjusting 1M payment dates with Modified Following on a joint NY+LON calendar
+ * spanning 2025-2074: the compiled bitmap calendar against a LocalDate walk over a
+ * HashSet<LocalDate> of holidays.
+ *
+ * Run with mvn -Pbenchmarks verify -Dbenchmark.include=HolidayAdjustmentBenchmark, which writes
+ * target/jmh-result.json; see BenchmarkRunner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HolidayAdjustmentBenchmark {
+
+    private static final int DATES = 1_000_000;
+    private static final int YEARS = 50;
+
+    private CompiledCalendar compiled;
+    private Set<LocalDate> holidaySet;
+    private long[] epochDays;
+    private LocalDate[] dates;
+
+    @Setup
+    public void setUp() {
+        // Roughly the NY and LON holiday counts: ~10 and ~8 fixed-ish weekdays per year each
+        Random random = new Random(7);
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        holidaySet = new HashSet<>();
+        for (int year = 0; year < YEARS; year++) {
+            for (int holiday = 0; holiday < 18; holiday++) {
+                holidaySet.add(first.plusYears(year).plusDays(random.nextInt(365)));
+            }
+        }
+        compiled = CompiledCalendar.compile("LON+NY", holidaySet.stream().mapToLong(LocalDate::toEpochDay).toArray());
+
+        int span = (int) ChronoUnit.DAYS.between(first, first.plusYears(YEARS));
+        epochDays = new long[DATES];
+        dates = new LocalDate[DATES];
+        for (int i = 0; i < DATES; i++) {
+            dates[i] = first.plusDays(random.nextInt(span));
+            epochDays[i] = dates[i].toEpochDay();
+        }
+    }
+
+    @Benchmark
+    public long compiledBitmap() {
+        long checksum = 0;
+        for (long epochDay : epochDays) {
+            checksum += compiled.adjust(epochDay, ScheduleEngine.RollConvention.MODIFIED_FOLLOWING);
+        }
+        return checksum;
+    }
+
+    // Day by day walk over LocalDate and a holiday set, as a typical calendar lookup does
+    @Benchmark
+    public long localDateHashSet() {
+        long checksum = 0;
+        for (LocalDate date : dates) {
+            LocalDate adjusted = date;
+            while (!isBusinessDay(adjusted)) {
+                adjusted = adjusted.plusDays(1);
+            }
+            if (adjusted.getMonthValue() != date.getMonthValue()) {
+                adjusted = date;
+                while (!isBusinessDay(adjusted)) {
+                    adjusted = adjusted.minusDays(1);
+                }
+            }
+            checksum += adjusted.toEpochDay();
+        }
+        return checksum;
+    }
+
+    private boolean isBusinessDay(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY && !holidaySet.contains(date);
+    }
+}
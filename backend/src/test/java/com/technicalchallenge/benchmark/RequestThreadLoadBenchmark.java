@@ -0,0 +1,217 @@
+package com.technicalchallenge.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.BackendApplication;
+import com.technicalchallenge.fixture.TradeFixtures;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves GET /api/trades/{id} and then POST /api/trades to 100, 1,000 and 10,000 concurrent
+ * clients, first on Tomcat's platform thread pool and then under the virtual-threads profile, and
+ * logs throughput, latency percentiles and errors for each. Bookings exercise the reference data
+ * fan-out and then hold a database connection for their transaction, so they show whether the
+ * pool copes. Every client sends its next request as soon as the last one is
+ * answered. Clients are asynchronous HttpClient calls, so the driver needs no thread per client.
+ * Both runs get the same connection limits and database pool, so only the request threads differ.
+ *
+ * Not part of the default surefire run (the class name does not end in Test). Needs Java 21 and
+ * file descriptors for 10,000 connections (ulimit -n 32768). Runs in the benchmarks profile, which
+ * records each level's latencies, throughput and errors in target/benchmark-report.json (see
+ * BenchmarkReport): mvn -Pbenchmarks verify -Dbenchmark.include=RequestThreadLoadBenchmark. Pass
+ * -Dbenchmark.seconds to change how long each level runs.
+ *
+ * <p>Platform threads, 10 s per level, on a 1-CPU container with a 20,000 file descriptor limit:
+ * <pre>
+ * GET  platform threads     100 clients:   81 req/s  p50  1015.69 ms  p99  3768.07 ms  errors 0
+ * GET  platform threads   1,000 clients:  155 req/s  p50  6377.08 ms  p99 10695.51 ms  errors 0
+ * GET  platform threads  10,000 clients:  555 req/s  p50 23902.39 ms  p99 31241.30 ms  errors 0
+ * POST platform threads     100 clients:   58 req/s  p50  1783.69 ms  p99  3961.09 ms  errors 0
+ * POST platform threads   1,000 clients:  137 req/s  p50 12539.76 ms  p99 17377.32 ms  errors 0
+ * POST platform threads  10,000 clients:  345 req/s  p50 30639.73 ms  p99 34742.84 ms  errors 0
+ * </pre>
+ * The virtual-threads half has not been run there (the container has Java 17 only), so these are a
+ * baseline to compare it against, not the comparison. The first run failed every booking with
+ * "Connection is not available": each request's session kept the connection of its first
+ * transaction and then waited for a trade ID block reservation that needs a second one. Trade IDs
+ * are now assigned before the booking transaction opens and the session releases its connection
+ * after each transaction.
+ */
+class RequestThreadLoadBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(RequestThreadLoadBenchmark.class);
+
+    private static final int[] CLIENTS = {100, 1_000, 10_000};
+    // platform, virtual or both; -Dbenchmark.threads=platform runs without Java 21
+    private static final List<String> THREADS = List.of(System.getProperty("benchmark.threads", "platform,virtual").split(","));
+    private static final Duration LEVEL_DURATION = Duration.ofSeconds(Long.getLong("benchmark.seconds", 20));
+    private static final Duration WARMUP_DURATION = Duration.ofSeconds(5);
+    // A seeded trade: one lookup plus its legs, cashflows and additional info
+    private static final String READ_PATH = "/api/trades/100001";
+    // A new swap on every request, booked by the trader it names
+    private static final String BOOK_PATH = "/api/trades";
+
+    @Test
+    void platformThreadsAgainstVirtualThreads() throws JsonProcessingException {
+        List<String> report = new ArrayList<>();
+        for (String mode : THREADS) {
+            boolean virtualThreads = mode.equals("virtual");
+            try (ConfigurableApplicationContext app = start(virtualThreads)) {
+                URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+                HttpRequest read = HttpRequest.newBuilder(base.resolve(READ_PATH)).timeout(Duration.ofSeconds(60)).GET().build();
+                HttpRequest book = HttpRequest.newBuilder(base.resolve(BOOK_PATH)).timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .header("X-User-Id", "simon")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                app.getBean(ObjectMapper.class).writeValueAsBytes(TradeFixtures.oneYearQuarterlySwap())))
+                        .build();
+                for (HttpRequest request : List.of(read, book)) {
+                    drive(request, CLIENTS[0], WARMUP_DURATION);
+                    for (int clients : CLIENTS) {
+                        Result result = drive(request, clients, LEVEL_DURATION);
+                        report.add(String.format("%-4s %-8s threads %,7d clients: %s", request.method(), mode, clients, result));
+                        BenchmarkReport.latency(RequestThreadLoadBenchmark.class, request.method() + " " + request.uri().getPath(),
+                                Map.of("threads", mode, "clients", clients, "seconds", LEVEL_DURATION.toSeconds()),
+                                result.sortedLatencies(), TimeUnit.MILLISECONDS,
+                                Map.of("throughput", new BenchmarkReport.Metric(result.throughput(), "req/s"),
+                                        "errors", new BenchmarkReport.Metric(result.errors(), "requests")));
+                    }
+                }
+            }
+        }
+        logger.warn("GET {} and POST {} for {} s per level:\n{}", READ_PATH, BOOK_PATH, LEVEL_DURATION.toSeconds(),
+                String.join("\n", report));
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        // Command line arguments, since default properties lose to application.properties
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("integration");
+        if (virtualThreads) {
+            builder.profiles("virtual-threads");
+        }
+        return builder.run(
+                "--server.port=0",
+                "--spring.datasource.name=load-" + (virtualThreads ? "virtual" : "platform"),
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=10000");
+    }
+
+    private static Result drive(HttpRequest request, int clients, Duration duration) {
+        ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(callbacks)
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        Client[] running = new Client[clients];
+        CompletableFuture<?>[] finished = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            running[i] = new Client(httpClient, request, deadline);
+            finished[i] = running[i].start();
+        }
+        CompletableFuture.allOf(finished).join();
+        callbacks.shutdown();
+
+        int requests = 0;
+        int errors = 0;
+        for (Client client : running) {
+            requests += client.count;
+            errors += client.errors;
+        }
+        long[] latencies = new long[requests];
+        int next = 0;
+        for (Client client : running) {
+            System.arraycopy(client.latencies, 0, latencies, next, client.count);
+            next += client.count;
+        }
+        Arrays.sort(latencies);
+        return new Result(requests / (double) duration.toSeconds(), latencies, errors);
+    }
+
+    // One client: a request at a time until the deadline; callbacks are chained, so no locking needed
+    private static final class Client {
+        private final HttpClient httpClient;
+        private final HttpRequest request;
+        private final long deadline;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+
+        private Client(HttpClient httpClient, HttpRequest request, long deadline) {
+            this.httpClient = httpClient;
+            this.request = request;
+            this.deadline = deadline;
+        }
+
+        private CompletableFuture<Void> start() {
+            next();
+            return done;
+        }
+
+        private void next() {
+            if (System.nanoTime() >= deadline) {
+                done.complete(null);
+                return;
+            }
+            long start = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        // 200 for reads, 201 for bookings
+                        if (failure == null && response.statusCode() / 100 == 2) {
+                            record(System.nanoTime() - start);
+                        } else {
+                            errors++;
+                        }
+                        next();
+                    });
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private record Result(double throughput, long[] sortedLatencies, int errors) {
+
+        private double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,10.0f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %,d",
+                    throughput, percentileMillis(50), percentileMillis(99), percentileMillis(100), errors);
+        }
+    }
+}
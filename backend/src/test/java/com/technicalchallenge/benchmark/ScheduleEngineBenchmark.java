@@ -0,0 +1,88 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.schedule.BusinessCalendar;
+import com.technicalchallenge.schedule.LegSchedule;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark generating 1M schedule periods: 2,778 thirty year monthly fixed legs (360 periods
+ * each) through ScheduleEngine, against the LocalDate/BigDecimal-per-period loop it replaced.
+ *
+ * Run with mvn -Pbenchmarks verify -Dbenchmark.include=ScheduleEngineBenchmark, which writes
+ * target/jmh-result.json; see BenchmarkRunner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleEngineBenchmark {
+
+    private static final int LEGS = 2_778;
+    private static final int TENOR_YEARS = 30;
+    private static final int FREQUENCY_MONTHS = 1;
+
+    private final ScheduleEngine scheduleEngine = new ScheduleEngine();
+    private final BigDecimal notional = BigDecimal.valueOf(10_000_000);
+    private final double ratePercent = 3.5;
+
+    private LocalDate[] startDates;
+    private LocalDate[] maturityDates;
+
+    @Setup
+    public void setUp() {
+        startDates = new LocalDate[LEGS];
+        maturityDates = new LocalDate[LEGS];
+        LocalDate first = LocalDate.of(2025, 1, 2);
+        for (int leg = 0; leg < LEGS; leg++) {
+            startDates[leg] = first.plusDays(leg % 365);
+            maturityDates[leg] = startDates[leg].plusYears(TENOR_YEARS);
+        }
+    }
+
+    @Benchmark
+    public long scheduleEngine(Blackhole blackhole) {
+        long periods = 0;
+        for (int leg = 0; leg < LEGS; leg++) {
+            LegSchedule schedule = scheduleEngine.generate(startDates[leg], maturityDates[leg], FREQUENCY_MONTHS,
+                    notional, ratePercent, true, ScheduleEngine.RollConvention.MODIFIED_FOLLOWING,
+                    BusinessCalendar.WEEKENDS_ONLY);
+            blackhole.consume(schedule);
+            periods += schedule.size();
+        }
+        return periods;
+    }
+
+    // The previous TradeService approach: a LocalDate list and a BigDecimal calculation per period
+    @Benchmark
+    public long localDateAndBigDecimalPerPeriod(Blackhole blackhole) {
+        long periods = 0;
+        for (int leg = 0; leg < LEGS; leg++) {
+            List<LocalDate> dates = new ArrayList<>();
+            LocalDate current = startDates[leg].plusMonths(FREQUENCY_MONTHS);
+            while (!current.isAfter(maturityDates[leg])) {
+                dates.add(current);
+                current = current.plusMonths(FREQUENCY_MONTHS);
+            }
+            for (LocalDate date : dates) {
+                BigDecimal rate = BigDecimal.valueOf(ratePercent).divide(BigDecimal.valueOf(100));
+                BigDecimal amount = notional.multiply(rate).multiply(BigDecimal.valueOf(FREQUENCY_MONTHS))
+                        .divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
+                blackhole.consume(date);
+                blackhole.consume(amount);
+            }
+            periods += dates.size();
+        }
+        return periods;
+    }
+}
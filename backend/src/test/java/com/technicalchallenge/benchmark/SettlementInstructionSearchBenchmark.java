@@ -0,0 +1,174 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.SettlementInstructionIndex;
+import com.technicalchallenge.service.TradeService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Settlement instruction search latency over 1M instructions, one per trade. Trades,
+ * instructions and their trigram postings are written straight through JDBC, then each search
+ * is timed through TradeService. Fails if the median for a selective search is a second or
+ * more. Broad searches (a two-character term, a bank and city, a word as common as "settle")
+ * return thousands of trades and read long posting lists; they are logged but not held to the
+ * limit.
+ *
+ * The postings run to tens of millions of rows, so the database is an H2 file under target
+ * rather than in memory. Not part of the default surefire run (the class name does not end in
+ * Test). Runs in the benchmarks profile, which records each search's latencies in
+ * target/benchmark-report.json (see BenchmarkReport):
+ * mvn -Pbenchmarks verify -Dbenchmark.include=SettlementInstructionSearchBenchmark. Pass
+ * -Dbenchmark.instructions to change the table size.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+class SettlementInstructionSearchBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SettlementInstructionSearchBenchmark.class);
+
+    private static final int INSTRUCTIONS = Integer.getInteger("benchmark.instructions", 1_000_000);
+    private static final int INSERT_BATCH = 5_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    // Clear of the seeded rows and the ids handed out by the pooled sequences
+    private static final long FIRST_ROW_ID = 50_000_000;
+    private static final long FIRST_TRADE_ID = 50_000_000;
+
+    private static final String[] BANKS = {"JPM", "Citi", "HSBC", "BNP", "Barclays", "Deutsche", "UBS", "Nomura"};
+    private static final String[] CITIES = {"New York", "London", "Paris", "Frankfurt", "Zurich", "Tokyo", "Singapore", "Hong Kong"};
+    private static final String[] CLIENTS = {"ABC Corp", "Northwind", "Contoso", "Globex", "Initech", "Umbrella", "Acme", "Hooli"};
+    private static final long[] BOOK_IDS = {1000, 1001};
+    private static final long[] COUNTERPARTY_IDS = {1000, 1001};
+    private static final LocalDate TRADE_DATE = LocalDate.of(2025, 1, 2);
+
+    // A new file per run, so the load never meets rows from an earlier one
+    private static final String DATABASE_URL = "jdbc:h2:file:./target/settlement-search-benchmark-" + System.currentTimeMillis()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATABASE_URL);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Test
+    void searchLatencyAtOneMillionInstructions() {
+        long loadStart = System.nanoTime();
+        long postings = loadInstructions();
+        jdbcTemplate.execute("ANALYZE");
+        logger.warn("Loaded {} instructions with {} trigram postings in {} ms",
+                INSTRUCTIONS, postings, (System.nanoTime() - loadStart) / 1_000_000);
+
+        int reference = INSTRUCTIONS / 2;
+        assertTrue(measure("unique reference", "si" + reference, true) >= 1);
+        measure("account number fragment", account(reference).substring(2, 7), true);
+        measure("reference and bank", "\"" + BANKS[bank(reference)] + "\" si" + reference, true);
+        measure("short term", "x" + reference % 10, false);
+        measure("bank and city phrase", "\"" + BANKS[0] + " " + CITIES[0] + "\"", false);
+        measure("common word", "settle", false);
+    }
+
+    private int measure(String name, String query, boolean limited) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            tradeService.searchTradesBySettlementInstructions(query);
+        }
+
+        long[] nanos = new long[MEASURED_ITERATIONS];
+        int trades = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<Trade> result = tradeService.searchTradesBySettlementInstructions(query);
+            nanos[i] = System.nanoTime() - start;
+            trades = result.size();
+        }
+        Arrays.sort(nanos);
+
+        BenchmarkReport.latency(SettlementInstructionSearchBenchmark.class, name,
+                Map.of("instructions", INSTRUCTIONS, "query", query, "trades", trades), nanos, TimeUnit.MILLISECONDS);
+        long medianMillis = nanos[MEASURED_ITERATIONS / 2] / 1_000_000;
+        logger.warn("{} ({}): {} trades, p50 {} ms, max {} ms over {} searches", name, query, trades, medianMillis,
+                nanos[MEASURED_ITERATIONS - 1] / 1_000_000, MEASURED_ITERATIONS);
+        if (limited) {
+            assertTrue(medianMillis < 1_000, name + " took " + medianMillis + " ms");
+        }
+        return trades;
+    }
+
+    private long loadInstructions() {
+        String tradeSql = "INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id,"
+                + " trade_type_id, trade_sub_type_id, trade_status_id, trade_date, trade_start_date, trade_maturity_date,"
+                + " active, created_date) VALUES (?, ?, 1, ?, ?, 1003, 1003, 1001, 1003, 1000, ?, ?, ?, TRUE, CURRENT_TIMESTAMP)";
+        String instructionSql = "INSERT INTO additional_info (id, entity_type, entity_id, field_name, field_value, field_type,"
+                + " active, created_date, version) VALUES (?, 'TRADE', ?, 'SETTLEMENT_INSTRUCTIONS', ?, 'STRING', TRUE, CURRENT_TIMESTAMP, 1)";
+        String gramSql = "INSERT INTO settlement_instruction_gram (gram, additional_info_id) VALUES (?, ?)";
+
+        List<Object[]> trades = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> instructions = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> grams = new ArrayList<>(INSERT_BATCH * 50);
+        long postings = 0;
+        for (int i = 0; i < INSTRUCTIONS; i++) {
+            long rowId = FIRST_ROW_ID + i;
+            trades.add(new Object[]{rowId, FIRST_TRADE_ID + i, BOOK_IDS[i % BOOK_IDS.length],
+                    COUNTERPARTY_IDS[i / BOOK_IDS.length % COUNTERPARTY_IDS.length], Date.valueOf(TRADE_DATE),
+                    Date.valueOf(TRADE_DATE.plusDays(2)), Date.valueOf(TRADE_DATE.plusYears(5))});
+
+            String text = instruction(i);
+            instructions.add(new Object[]{rowId, rowId, text});
+            for (String gram : SettlementInstructionIndex.grams(text)) {
+                grams.add(new Object[]{gram, rowId});
+            }
+
+            if (trades.size() == INSERT_BATCH || i == INSTRUCTIONS - 1) {
+                // Parents first, so the foreign keys hold at every batch
+                jdbcTemplate.batchUpdate(tradeSql, trades);
+                jdbcTemplate.batchUpdate(instructionSql, instructions);
+                jdbcTemplate.batchUpdate(gramSql, grams);
+                postings += grams.size();
+                trades.clear();
+                instructions.clear();
+                grams.clear();
+            }
+        }
+        return postings;
+    }
+
+    // e.g. "Settle via HSBC Tokyo, A/C 812345678, FFC Globex, ref SI123"
+    private static String instruction(int i) {
+        Random random = new Random(i);
+        return "Settle via " + BANKS[bank(i)] + " " + CITIES[random.nextInt(CITIES.length)] + ", A/C " + account(i)
+                + ", FFC " + CLIENTS[random.nextInt(CLIENTS.length)] + ", ref SI" + i
+                + (random.nextInt(10) == 0 ? ", x" + i % 10 : "");
+    }
+
+    private static int bank(int i) {
+        return Math.floorMod(i * 31, BANKS.length);
+    }
+
+    private static String account(int i) {
+        return String.format("%09d", Math.floorMod(i * 2_654_435_761L, 1_000_000_000L));
+    }
+}
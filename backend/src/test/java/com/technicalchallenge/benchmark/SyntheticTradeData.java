@@ -0,0 +1,247 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.position.PositionEngine;
+import com.technicalchallenge.schedule.BusinessCalendar;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.LegSchedule;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic books, counterparties, traders and multi-year fixed/floating swaps with their
+ * cashflows, at a configurable scale. The same seed, scale and as-of date always give the same
+ * rows. Cashflows come from ScheduleEngine, as they would for a booking, but every row is written
+ * straight through JDBC batches rather than the REST or service path, so nothing goes through the
+ * outbox. The authorization and position snapshots are rebuilt once the load is done.
+ *
+ * Traders are TRADER_SALES users whose first name is their login (trader0007 is "Trader0007
+ * Load"), so they can book and amend trades under their own name.
+ */
+final class SyntheticTradeData {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticTradeData.class);
+
+    // Clear of the seeded rows and the ids handed out by the pooled sequences
+    static final long FIRST_ROW_ID = 50_000_000;
+    static final long FIRST_TRADE_ID = 50_000_000;
+
+    private static final int INSERT_BATCH = 1_000;
+
+    // Reference data ids from the seed migration
+    private static final long[] COST_CENTER_IDS = {1000, 1001};
+    private static final long TRADER_SALES_PROFILE_ID = 1000;
+    private static final long[] TRADER_PRIVILEGE_IDS = {1000, 1001, 1002, 1007, 1008};
+    private static final long SWAP_TYPE_ID = 1001;
+    private static final long IR_SWAP_SUB_TYPE_ID = 1003;
+    private static final long NEW_STATUS_ID = 1000;
+    private static final long LIVE_STATUS_ID = 1004;
+    private static final long FIXED_LEG_TYPE_ID = 1000;
+    private static final long FLOATING_LEG_TYPE_ID = 1001;
+    private static final long PAY_ID = 1000;
+    private static final long RECEIVE_ID = 1001;
+    private static final long[] CURRENCY_IDS = {1000, 1001, 1002};
+    // Per currency: USD, EUR, GBP
+    private static final long[] CALENDAR_IDS = {1000, 1001, 1001};
+    private static final String[] CALENDAR_NAMES = {"NY", "LON", "LON"};
+    private static final long[] INDEX_IDS = {1000, 1001, 1000};
+    private static final long[] SCHEDULE_IDS = {1000, 1001};
+    private static final int[] SCHEDULE_MONTHS = {1, 3};
+    private static final long[] BDC_IDS = {1000, 1001};
+    private static final ScheduleEngine.RollConvention[] ROLL_CONVENTIONS =
+            {ScheduleEngine.RollConvention.FOLLOWING, ScheduleEngine.RollConvention.MODIFIED_FOLLOWING};
+    private static final long[] NOTIONAL_MILLIONS = {1, 2, 5, 10, 25, 50, 100};
+
+    /**
+     * How much to generate: trade dates fall in the historyDays before the as-of date and tenors
+     * run from one year to maxTenorYears.
+     */
+    record Scale(int books, int counterparties, int traders, int trades, int maxTenorYears, int historyDays) {
+
+        Scale {
+            if (books < 1 || counterparties < 1 || traders < 1 || trades < 0 || maxTenorYears < 1 || historyDays < 0) {
+                throw new IllegalArgumentException("Invalid synthetic data scale");
+            }
+        }
+
+        /** 10,000 trades over 20 books, 50 counterparties and 100 traders unless overridden. */
+        static Scale fromSystemProperties() {
+            return new Scale(
+                    Integer.getInteger("benchmark.books", 20),
+                    Integer.getInteger("benchmark.counterparties", 50),
+                    Integer.getInteger("benchmark.traders", 100),
+                    Integer.getInteger("benchmark.trades", 10_000),
+                    Integer.getInteger("benchmark.maxTenorYears", 10),
+                    Integer.getInteger("benchmark.historyDays", 3 * 365));
+        }
+    }
+
+    /** What was loaded; the trades have trade ids FIRST_TRADE_ID onwards. */
+    record Loaded(List<String> bookNames, List<String> counterpartyNames, List<String> traderLogins,
+                  int trades, long cashflows) {
+
+        static String traderName(String login) {
+            return Character.toUpperCase(login.charAt(0)) + login.substring(1) + " Load";
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduleEngine scheduleEngine;
+    private final HolidayCalendarRegistry holidayCalendarRegistry;
+    private final AuthorizationEngine authorizationEngine;
+    private final PositionEngine positionEngine;
+
+    SyntheticTradeData(JdbcTemplate jdbcTemplate, ScheduleEngine scheduleEngine, HolidayCalendarRegistry holidayCalendarRegistry,
+                       AuthorizationEngine authorizationEngine, PositionEngine positionEngine) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduleEngine = scheduleEngine;
+        this.holidayCalendarRegistry = holidayCalendarRegistry;
+        this.authorizationEngine = authorizationEngine;
+        this.positionEngine = positionEngine;
+    }
+
+    Loaded load(Scale scale, long seed, LocalDate asOf) {
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+
+        List<String> books = loadBooks(scale.books());
+        List<String> counterparties = loadCounterparties(scale.counterparties(), asOf);
+        List<String> traders = loadTraders(scale.traders(), asOf);
+        long cashflows = loadTrades(scale, random, asOf);
+
+        authorizationEngine.rebuild();
+        positionEngine.rebuild();
+
+        logger.warn("Loaded {} trades with {} cashflows over {} books, {} counterparties and {} traders in {} ms",
+                scale.trades(), cashflows, books.size(), counterparties.size(), traders.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new Loaded(books, counterparties, traders, scale.trades(), cashflows);
+    }
+
+    private List<String> loadBooks(int count) {
+        List<String> names = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = String.format("LOAD-BOOK-%03d", i);
+            names.add(name);
+            rows.add(new Object[]{FIRST_ROW_ID + i, name, COST_CENTER_IDS[i % COST_CENTER_IDS.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (id, book_name, active, version, cost_center_id) VALUES (?, ?, TRUE, 1, ?)", rows);
+        return names;
+    }
+
+    private List<String> loadCounterparties(int count, LocalDate asOf) {
+        List<String> names = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = String.format("LOAD-CPTY-%03d", i);
+            names.add(name);
+            rows.add(new Object[]{FIRST_ROW_ID + i, name, (i + 1) + " Market St", String.format("555-%07d", i),
+                    FIRST_ROW_ID + i, Date.valueOf(asOf), Date.valueOf(asOf)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO counterparty (id, name, address, phone_number, internal_code, created_date,"
+                + " last_modified_date, active) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE)", rows);
+        return names;
+    }
+
+    private List<String> loadTraders(int count, LocalDate asOf) {
+        List<String> logins = new ArrayList<>(count);
+        List<Object[]> users = new ArrayList<>(count);
+        List<Object[]> privileges = new ArrayList<>(count * TRADER_PRIVILEGE_IDS.length);
+        for (int i = 0; i < count; i++) {
+            long id = FIRST_ROW_ID + i;
+            String login = String.format("trader%04d", i);
+            logins.add(login);
+            String[] name = Loaded.traderName(login).split(" ");
+            users.add(new Object[]{id, name[0], name[1], login, TRADER_SALES_PROFILE_ID, Timestamp.valueOf(asOf.atStartOfDay())});
+            for (long privilegeId : TRADER_PRIVILEGE_IDS) {
+                privileges.add(new Object[]{id, privilegeId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO application_user (id, first_name, last_name, login_id, password, active,"
+                + " user_profile_id, version, last_modified_timestamp) VALUES (?, ?, ?, ?, 'password', TRUE, ?, 1, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO user_privilege (user_id, privilege_id) VALUES (?, ?)", privileges);
+        return logins;
+    }
+
+    private long loadTrades(Scale scale, Random random, LocalDate asOf) {
+        String tradeSql = "INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id,"
+                + " trade_type_id, trade_sub_type_id, trade_status_id, uti_code, trade_date, trade_start_date, trade_maturity_date,"
+                + " trade_execution_date, last_touch_timestamp, validity_start_date, active, created_date)"
+                + " VALUES (?, ?, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?)";
+        String legSql = "INSERT INTO trade_leg (leg_id, notional, rate, trade_id, currency_id, leg_rate_type_id, index_id,"
+                + " holiday_calendar_id, calculation_period_schedule_id, payment_business_day_convention_id,"
+                + " fixing_business_day_convention_id, pay_rec_id, active, created_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?)";
+        String cashflowSql = "INSERT INTO cashflow (id, payment_value, value_date, rate, leg_id, pay_rec_id, payment_type_id,"
+                + " payment_business_day_convention_id, active, created_date, validity_start_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?)";
+
+        BusinessCalendar[] calendars = new BusinessCalendar[CALENDAR_NAMES.length];
+        for (int i = 0; i < calendars.length; i++) {
+            calendars[i] = holidayCalendarRegistry.calendar(CALENDAR_NAMES[i]);
+        }
+
+        List<Object[]> trades = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> legs = new ArrayList<>(INSERT_BATCH * 2);
+        List<Object[]> cashflows = new ArrayList<>(INSERT_BATCH * 100);
+        long cashflowId = FIRST_ROW_ID;
+        for (int i = 0; i < scale.trades(); i++) {
+            long rowId = FIRST_ROW_ID + i;
+            LocalDate tradeDate = asOf.minusDays(random.nextInt(scale.historyDays() + 1));
+            LocalDate startDate = tradeDate.plusDays(2);
+            LocalDate maturityDate = startDate.plusYears(1 + random.nextInt(scale.maxTenorYears()));
+            Timestamp created = Timestamp.valueOf(tradeDate.atTime(8 + random.nextInt(10), random.nextInt(60)));
+            long traderId = FIRST_ROW_ID + random.nextInt(scale.traders());
+            // Anything booked in the last 30 days is still NEW
+            long statusId = tradeDate.isBefore(asOf.minusDays(30)) ? LIVE_STATUS_ID : NEW_STATUS_ID;
+            trades.add(new Object[]{rowId, FIRST_TRADE_ID + i, FIRST_ROW_ID + random.nextInt(scale.books()),
+                    FIRST_ROW_ID + random.nextInt(scale.counterparties()), traderId, traderId, SWAP_TYPE_ID, IR_SWAP_SUB_TYPE_ID,
+                    statusId, "UTI-LOAD-" + (FIRST_TRADE_ID + i), Date.valueOf(tradeDate), Date.valueOf(startDate),
+                    Date.valueOf(maturityDate), Date.valueOf(tradeDate), created, Date.valueOf(tradeDate), created});
+
+            // Both legs share notional, currency, calendar and roll convention, so they mature on the same day
+            int currency = random.nextInt(CURRENCY_IDS.length);
+            int bdc = random.nextInt(BDC_IDS.length);
+            BigDecimal notional = BigDecimal.valueOf(NOTIONAL_MILLIONS[random.nextInt(NOTIONAL_MILLIONS.length)] * 1_000_000);
+            double fixedRate = (100 + random.nextInt(400)) / 100.0;
+            boolean payFixed = random.nextBoolean();
+            for (int leg = 0; leg < 2; leg++) {
+                boolean fixed = leg == 0;
+                long legId = FIRST_ROW_ID + 2L * i + leg;
+                long payRecId = fixed == payFixed ? PAY_ID : RECEIVE_ID;
+                long legTypeId = fixed ? FIXED_LEG_TYPE_ID : FLOATING_LEG_TYPE_ID;
+                double rate = fixed ? fixedRate : 0.0;
+                int schedule = random.nextInt(SCHEDULE_IDS.length);
+                legs.add(new Object[]{legId, notional, rate, rowId, CURRENCY_IDS[currency], legTypeId,
+                        fixed ? null : INDEX_IDS[currency], CALENDAR_IDS[currency], SCHEDULE_IDS[schedule], BDC_IDS[bdc],
+                        BDC_IDS[bdc], payRecId, created});
+
+                LegSchedule legSchedule = scheduleEngine.generate(startDate, maturityDate, SCHEDULE_MONTHS[schedule], notional,
+                        rate, fixed, ROLL_CONVENTIONS[bdc], calendars[currency]);
+                for (int period = 0; period < legSchedule.size(); period++) {
+                    cashflows.add(new Object[]{cashflowId++, legSchedule.amount(period), Date.valueOf(legSchedule.paymentDate(period)),
+                            rate, legId, payRecId, legTypeId, BDC_IDS[bdc], created, Date.valueOf(tradeDate)});
+                }
+            }
+
+            if (trades.size() == INSERT_BATCH || i == scale.trades() - 1) {
+                // Parents first, so the foreign keys hold at every batch
+                jdbcTemplate.batchUpdate(tradeSql, trades);
+                jdbcTemplate.batchUpdate(legSql, legs);
+                jdbcTemplate.batchUpdate(cashflowSql, cashflows);
+                trades.clear();
+                legs.clear();
+                cashflows.clear();
+            }
+        }
+        return cashflowId - FIRST_ROW_ID;
+    }
+}
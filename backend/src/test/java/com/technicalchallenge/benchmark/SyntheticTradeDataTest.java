@@ -0,0 +1,76 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.position.PositionEngine;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import com.technicalchallenge.service.TradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loads a small synthetic population into H2 with the real migrations and checks the rows hang
+ * together the way bookings would leave them.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=synthetic-trade-data")
+class SyntheticTradeDataTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 2);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScheduleEngine scheduleEngine;
+
+    @Autowired
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @Autowired
+    private AuthorizationEngine authorizationEngine;
+
+    @Autowired
+    private PositionEngine positionEngine;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Test
+    void testLoad_WritesConsistentSwapsAndRefreshesTheSnapshots() {
+        SyntheticTradeData.Loaded loaded = new SyntheticTradeData(jdbcTemplate, scheduleEngine, holidayCalendarRegistry,
+                authorizationEngine, positionEngine).load(new SyntheticTradeData.Scale(3, 4, 5, 40, 5, 365), 7, AS_OF);
+
+        assertEquals(40, loaded.trades());
+        assertEquals(5, loaded.traderLogins().size());
+        assertEquals(loaded.cashflows(), count("SELECT COUNT(*) FROM cashflow WHERE id >= ?"));
+        assertEquals(80, count("SELECT COUNT(*) FROM trade_leg WHERE leg_id >= ?"));
+        // Every swap has two legs with cashflows, and both pay their last one on the same day
+        assertEquals(0, count("SELECT COUNT(*) FROM (SELECT l.trade_id FROM trade_leg l JOIN cashflow c ON c.leg_id = l.leg_id"
+                + " WHERE l.leg_id >= ? GROUP BY l.trade_id HAVING COUNT(DISTINCT c.leg_id) <> 2) t"));
+        assertEquals(0, count("SELECT COUNT(*) FROM (SELECT t.trade_id FROM (SELECT l.trade_id, MAX(c.value_date) AS last_date"
+                + " FROM trade_leg l JOIN cashflow c ON c.leg_id = l.leg_id WHERE l.leg_id >= ? GROUP BY l.leg_id, l.trade_id) t"
+                + " GROUP BY t.trade_id HAVING COUNT(DISTINCT t.last_date) <> 1) v"));
+
+        String trader = loaded.traderLogins().get(0);
+        assertEquals("TRADER_SALES", authorizationEngine.findUser(trader).orElseThrow().getUserType());
+        assertTrue(tradeService.getTradeById(SyntheticTradeData.FIRST_TRADE_ID).isPresent());
+        long positions = loaded.bookNames().stream()
+                .mapToLong(book -> positionEngine.positions(PositionEngine.BOOK, book).size())
+                .sum();
+        assertTrue(positions > 0);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, SyntheticTradeData.FIRST_ROW_ID);
+    }
+}
@@ -0,0 +1,348 @@
+package com.technicalchallenge.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.BackendApplication;
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.position.PositionEngine;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load on the trade REST API over a synthetic trade population (SyntheticTradeData,
+ * 10,000 swaps and about a million cashflows by default). Each simulated user is a trader who
+ * sends a request as soon as the last one is answered, picking the next one from a weighted mix:
+ * - book: POST /api/trades, a new swap under the user's own name
+ * - amend: PUT /api/trades/{id}, a new notional on one of the user's bookings from this run
+ *   (generated trades are older than the 30 days an amendment allows)
+ * - get: GET /api/trades/{id} for a generated trade
+ * - search: GET /api/trades/search by counterparty and book
+ * - rsql: GET /api/trades/rsql, one page of a counterparty's live trades
+ * Logs throughput, p50, p99, p99.9 and max latency and errors per endpoint after a warm-up.
+ *
+ * The data runs to millions of rows, so the database is an H2 file under target rather than in
+ * memory. Not part of the default surefire run (the class name does not end in Test). Runs in the
+ * benchmarks profile, which records each endpoint's latencies, throughput and errors in
+ * target/benchmark-report.json (see BenchmarkReport):
+ * mvn -Pbenchmarks verify -Dbenchmark.include=TradeApiLoadBenchmark. -Dbenchmark.users, -Dbenchmark.seconds, -Dbenchmark.seed
+ * and -Dbenchmark.mix (e.g. book=1,amend=1,get=3,search=2,rsql=3) change the load; the
+ * SyntheticTradeData.Scale properties change the data.
+ */
+class TradeApiLoadBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TradeApiLoadBenchmark.class);
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 100);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.seconds", 60));
+    private static final Duration WARMUP_DURATION = Duration.ofSeconds(Long.getLong("benchmark.warmupSeconds", 15));
+    private static final long SEED = Long.getLong("benchmark.seed", 42);
+    private static final String MIX = System.getProperty("benchmark.mix", "book=10,amend=10,get=30,search=20,rsql=30");
+
+    // A new file per run, so the load never meets rows from an earlier one
+    private static final String DATABASE_URL = "jdbc:h2:file:./target/trade-api-load-" + System.currentTimeMillis()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private enum Operation {
+        BOOK("POST /api/trades"),
+        AMEND("PUT /api/trades/{id}"),
+        GET("GET /api/trades/{id}"),
+        SEARCH("GET /api/trades/search"),
+        RSQL("GET /api/trades/rsql");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    @Test
+    void bookAmendAndSearchMix() throws Exception {
+        SyntheticTradeData.Scale scale = SyntheticTradeData.Scale.fromSystemProperties();
+        if (scale.traders() < USERS) {
+            throw new IllegalArgumentException("Each of the " + USERS + " users needs a trader of its own; raise -Dbenchmark.traders");
+        }
+        Map<Operation, Integer> mix = parseMix(MIX);
+
+        try (ConfigurableApplicationContext app = start()) {
+            SyntheticTradeData.Loaded data = new SyntheticTradeData(app.getBean(JdbcTemplate.class), app.getBean(ScheduleEngine.class),
+                    app.getBean(HolidayCalendarRegistry.class), app.getBean(AuthorizationEngine.class), app.getBean(PositionEngine.class))
+                    .load(scale, SEED, LocalDate.now());
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            Driver driver = new Driver(URI.create("http://localhost:" + port), app.getBean(ObjectMapper.class), data, mix);
+            driver.run(WARMUP_DURATION, SEED);
+            Map<Operation, Recorder> results = driver.run(DURATION, SEED + 1);
+
+            List<String> report = new ArrayList<>();
+            results.forEach((operation, recorder) -> {
+                report.add(String.format("%-24s %s", operation.endpoint, recorder.summary(DURATION)));
+                recorder.report(operation.endpoint, DURATION);
+            });
+            logger.warn("{} users for {} s over {} trades / {} cashflows, mix {}:\n{}", USERS, DURATION.toSeconds(),
+                    data.trades(), data.cashflows(), MIX, String.join("\n", report));
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        // Command line arguments, since default properties lose to application.properties
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("integration")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + DATABASE_URL,
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        // Bookings feed the outbox, so the relay is part of the load
+                        "--trade.events.relay.enabled=true");
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static final class Driver {
+        private final URI base;
+        private final ObjectMapper objectMapper;
+        private final SyntheticTradeData.Loaded data;
+        private final Operation[] weighted;
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        private Driver(URI base, ObjectMapper objectMapper, SyntheticTradeData.Loaded data, Map<Operation, Integer> mix) {
+            this.base = base;
+            this.objectMapper = objectMapper;
+            this.data = data;
+            List<Operation> operations = new ArrayList<>();
+            mix.forEach((operation, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    operations.add(operation);
+                }
+            });
+            this.weighted = operations.toArray(Operation[]::new);
+        }
+
+        // One platform thread per user, each with its own recorders; merged once everyone is done
+        private Map<Operation, Recorder> run(Duration duration, long seed) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            ExecutorService users = Executors.newFixedThreadPool(USERS);
+            List<Future<Map<Operation, Recorder>>> finished = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                User user = new User(data.traderLogins().get(i), new Random(seed * 31 + i));
+                finished.add(users.submit(() -> user.run(deadline)));
+            }
+            Map<Operation, Recorder> merged = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, Recorder>> user : finished) {
+                user.get().forEach((operation, recorder) -> merged.computeIfAbsent(operation, o -> new Recorder()).add(recorder));
+            }
+            users.shutdown();
+            return merged;
+        }
+
+        private final class User {
+            private final String login;
+            private final Random random;
+            private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+            // Trades this user booked, by trade id, with the version to amend next
+            private final Map<Long, TradeDTO> booked = new LinkedHashMap<>();
+            private final List<Long> bookedIds = new ArrayList<>();
+
+            private User(String login, Random random) {
+                this.login = login;
+                this.random = random;
+            }
+
+            private Map<Operation, Recorder> run(long deadline) {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = weighted[random.nextInt(weighted.length)];
+                    try {
+                        switch (operation) {
+                            case BOOK -> book();
+                            case AMEND -> {
+                                // Nothing of its own to amend yet
+                                if (bookedIds.isEmpty()) {
+                                    book();
+                                } else {
+                                    amend();
+                                }
+                            }
+                            case GET -> send(Operation.GET, get("/api/trades/" + (SyntheticTradeData.FIRST_TRADE_ID
+                                    + random.nextInt(data.trades()))), 200);
+                            case SEARCH -> send(Operation.SEARCH, get("/api/trades/search?counterparty=" + pick(data.counterpartyNames())
+                                    + "&book=" + pick(data.bookNames())), 200);
+                            case RSQL -> send(Operation.RSQL, get("/api/trades/rsql?size=20&query=" + URLEncoder.encode(
+                                    "counterparty.name==" + pick(data.counterpartyNames()) + ";tradeStatus.tradeStatus==LIVE",
+                                    StandardCharsets.UTF_8)), 200);
+                        }
+                    } catch (IOException e) {
+                        recorders.computeIfAbsent(operation, o -> new Recorder()).errors++;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                return recorders;
+            }
+
+            private void book() throws IOException, InterruptedException {
+                TradeDTO trade = swap(login, pick(data.bookNames()), pick(data.counterpartyNames()), notional());
+                HttpResponse<String> response = send(Operation.BOOK, post("/api/trades", trade), 201);
+                if (response != null) {
+                    JsonNode saved = objectMapper.readTree(response.body());
+                    trade.setTradeId(saved.path("tradeId").asLong());
+                    trade.setVersion(saved.path("version").asInt());
+                    booked.put(trade.getTradeId(), trade);
+                    bookedIds.add(trade.getTradeId());
+                }
+            }
+
+            private void amend() throws IOException, InterruptedException {
+                TradeDTO trade = booked.get(bookedIds.get(random.nextInt(bookedIds.size())));
+                BigDecimal notional = notional();
+                trade.getTradeLegs().forEach(leg -> leg.setNotional(notional));
+                HttpResponse<String> response = send(Operation.AMEND, put("/api/trades/" + trade.getTradeId(), trade), 200);
+                if (response != null) {
+                    trade.setVersion(objectMapper.readTree(response.body()).path("version").asInt());
+                }
+            }
+
+            // The response if it had the expected status, otherwise null and counted as an error
+            private HttpResponse<String> send(Operation operation, HttpRequest request, int expectedStatus)
+                    throws IOException, InterruptedException {
+                Recorder recorder = recorders.computeIfAbsent(operation, o -> new Recorder());
+                long start = System.nanoTime();
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                long latency = System.nanoTime() - start;
+                if (response.statusCode() != expectedStatus) {
+                    recorder.errors++;
+                    return null;
+                }
+                recorder.record(latency);
+                return response;
+            }
+
+            private HttpRequest get(String path) {
+                return request(path).GET().build();
+            }
+
+            private HttpRequest post(String path, TradeDTO trade) throws IOException {
+                return request(path).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(trade))).build();
+            }
+
+            private HttpRequest put(String path, TradeDTO trade) throws IOException {
+                return request(path).header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(trade))).build();
+            }
+
+            private HttpRequest.Builder request(String path) {
+                return HttpRequest.newBuilder(base.resolve(path)).timeout(Duration.ofSeconds(60)).header("X-User-Id", login);
+            }
+
+            private String pick(List<String> names) {
+                return names.get(random.nextInt(names.size()));
+            }
+
+            private BigDecimal notional() {
+                return BigDecimal.valueOf((1 + random.nextInt(100)) * 1_000_000L);
+            }
+        }
+    }
+
+    // A five year swap booked by one of the loaded traders
+    private static TradeDTO swap(String login, String bookName, String counterpartyName, BigDecimal notional) {
+        TradeDTO trade = TradeFixtures.swap(bookName, counterpartyName, notional, 5, "Quarterly");
+        String traderName = SyntheticTradeData.Loaded.traderName(login);
+        trade.setTraderUserName(traderName);
+        trade.setInputterUserName(traderName);
+        return trade;
+    }
+
+    // Latencies of one endpoint, in nanoseconds
+    private static final class Recorder {
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        private void add(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        private void report(String endpoint, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            BenchmarkReport.latency(TradeApiLoadBenchmark.class, endpoint,
+                    Map.of("users", USERS, "seconds", duration.toSeconds(), "mix", MIX), sorted, TimeUnit.MILLISECONDS,
+                    Map.of("throughput", new BenchmarkReport.Metric(count / (double) duration.toSeconds(), "req/s"),
+                            "errors", new BenchmarkReport.Metric(errors, "requests")));
+        }
+
+        private String summary(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format("%,9.1f req/s  p50 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms  errors %,d",
+                    count / (double) duration.toSeconds(), percentileMillis(sorted, 50), percentileMillis(sorted, 99),
+                    percentileMillis(sorted, 99.9), percentileMillis(sorted, 100), errors);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
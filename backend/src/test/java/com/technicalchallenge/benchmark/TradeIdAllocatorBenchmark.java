@@ -0,0 +1,50 @@
+package com.technicalchallenge.benchmark;
+
+import com.technicalchallenge.service.TradeIdAllocator;
+import com.technicalchallenge.service.TradeIdBlockService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JMH benchmark of trade ID allocation from eight threads sharing one allocator. The block
+ * reservation is stubbed, so this measures the in-memory range and its refills; the target is
+ * well over 100,000 IDs per second.
+ *
+ * Run with mvn -Pbenchmarks verify -Dbenchmark.include=TradeIdAllocatorBenchmark, which writes
+ * target/jmh-result.json; see BenchmarkRunner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class TradeIdAllocatorBenchmark {
+
+    @Param({"100", "1000"})
+    public int blockSize;
+
+    private TradeIdAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        // Stands in for the trade_id_block row: each reservation moves the high-water mark forward
+        AtomicLong highWaterMark = new AtomicLong(10000L);
+        TradeIdBlockService tradeIdBlockService = mock(TradeIdBlockService.class);
+        when(tradeIdBlockService.reserveBlock(anyInt()))
+                .thenAnswer(invocation -> highWaterMark.getAndAdd(invocation.<Integer>getArgument(0)));
+        allocator = new TradeIdAllocator(tradeIdBlockService, blockSize);
+    }
+
+    @Benchmark
+    public long nextTradeId() {
+        return allocator.nextTradeId();
+    }
+}
@@ -0,0 +1,216 @@
+package com.technicalchallenge.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Query plans and latency of the hot trade lookups against the migrated schema: loads 1M trade
+ * versions (4 per trade id, the last one active) plus settlement instructions straight through
+ * JDBC into an in-memory H2 database, logs EXPLAIN for each lookup and fails if any of them
+ * falls back to a table scan.
+ *
+ * Not part of the default surefire run (the class name does not end in Test). Runs in the
+ * benchmarks profile, which records each lookup's latencies in target/benchmark-report.json (see
+ * BenchmarkReport): mvn -Pbenchmarks verify -Dbenchmark.include=TradeLookupIndexBenchmark. Pass
+ * -Dbenchmark.tradeVersions to change the table size.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=lookup-benchmark")
+class TradeLookupIndexBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TradeLookupIndexBenchmark.class);
+
+    private static final int TRADE_VERSIONS = Integer.getInteger("benchmark.tradeVersions", 1_000_000);
+    private static final int VERSIONS_PER_TRADE = 4;
+    private static final int TRADE_IDS = TRADE_VERSIONS / VERSIONS_PER_TRADE;
+    private static final int TRADERS = 200;
+    private static final int COUNTERPARTIES = 100;
+    private static final int BOOKS = 20;
+    private static final int TRADE_DATE_DAYS = 1000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    // Clear of the seeded reference data and the ids handed out by the pooled sequences
+    private static final long FIRST_REFERENCE_ID = 5_000;
+    private static final long FIRST_ROW_ID = 50_000_000;
+    private static final long FIRST_TRADE_ID = 50_000_000;
+
+    private static final long LIVE_STATUS_ID = 1004;
+    private static final long AMENDED_STATUS_ID = 1001;
+    private static final LocalDate FIRST_TRADE_DATE = LocalDate.of(2022, 1, 3);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void lookupPlansAndLatencyAtOneMillionTradeVersions() {
+        long loadStart = System.nanoTime();
+        loadReferenceData();
+        loadTrades();
+        loadAdditionalInfo();
+        jdbcTemplate.execute("ANALYZE");
+        logger.warn("Loaded {} trade versions ({} trade ids) in {} ms",
+                TRADE_VERSIONS, TRADE_IDS, (System.nanoTime() - loadStart) / 1_000_000);
+
+        measure("active version by trade id",
+                "SELECT id, version FROM trade WHERE trade_id = ? AND active = TRUE",
+                () -> new Object[]{FIRST_TRADE_ID + random.nextInt(TRADE_IDS)});
+
+        measure("trades by trader",
+                "SELECT id FROM trade WHERE trader_user_id = ?",
+                () -> new Object[]{FIRST_REFERENCE_ID + random.nextInt(TRADERS)});
+
+        measure("filter by counterparty, status and trade date",
+                "SELECT id FROM trade WHERE counterparty_id = ? AND trade_status_id = ? AND trade_date BETWEEN ? AND ?"
+                        + " ORDER BY trade_date, id LIMIT 50",
+                () -> {
+                    LocalDate from = FIRST_TRADE_DATE.plusDays(random.nextInt(TRADE_DATE_DAYS - 30));
+                    return new Object[]{FIRST_REFERENCE_ID + random.nextInt(COUNTERPARTIES), LIVE_STATUS_ID,
+                            Date.valueOf(from), Date.valueOf(from.plusDays(30))};
+                });
+
+        measure("trade date keyset page",
+                "SELECT id FROM trade WHERE trade_date >= ? AND (trade_date > ? OR id > ?) ORDER BY trade_date, id LIMIT 50",
+                () -> {
+                    Date tradeDate = Date.valueOf(FIRST_TRADE_DATE.plusDays(random.nextInt(TRADE_DATE_DAYS)));
+                    return new Object[]{tradeDate, tradeDate, FIRST_ROW_ID + random.nextInt(TRADE_VERSIONS)};
+                });
+
+        String inList = String.join(",", Collections.nCopies(50, "?"));
+        measure("additional info for a page of 50 trades",
+                "SELECT id, field_name, field_value FROM additional_info"
+                        + " WHERE entity_type = 'TRADE' AND entity_id IN (" + inList + ") AND active = TRUE",
+                () -> {
+                    Object[] ids = new Object[50];
+                    long first = FIRST_TRADE_ID + random.nextInt(TRADE_IDS - 50);
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = first + i;
+                    }
+                    return ids;
+                });
+    }
+
+    private void measure(String name, String sql, Supplier<Object[]> parameters) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters.get()));
+        logger.warn("Plan for {}:\n{}", name, plan);
+        assertFalse(plan.contains("tableScan"), name + " scans the whole table:\n" + plan);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            jdbcTemplate.queryForList(sql, parameters.get());
+        }
+
+        long[] nanos = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            Object[] args = parameters.get();
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList(sql, args);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        BenchmarkReport.latency(TradeLookupIndexBenchmark.class, name, Map.of("tradeVersions", TRADE_VERSIONS),
+                nanos, TimeUnit.MICROSECONDS);
+        logger.warn("{}: p50 {} us, p99 {} us, max {} us over {} queries", name,
+                nanos[MEASURED_ITERATIONS / 2] / 1_000,
+                nanos[MEASURED_ITERATIONS * 99 / 100] / 1_000,
+                nanos[MEASURED_ITERATIONS - 1] / 1_000,
+                MEASURED_ITERATIONS);
+    }
+
+    private void loadReferenceData() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < TRADERS; i++) {
+            users.add(new Object[]{FIRST_REFERENCE_ID + i, "Bench" + i, "Trader", "bench-trader-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO application_user (id, first_name, last_name, login_id, password, active,"
+                + " user_profile_id, version) VALUES (?, ?, ?, ?, 'password', TRUE, 1000, 1)", users);
+
+        List<Object[]> counterparties = new ArrayList<>();
+        for (int i = 0; i < COUNTERPARTIES; i++) {
+            counterparties.add(new Object[]{FIRST_REFERENCE_ID + i, "Bench Counterparty " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO counterparty (id, name, active) VALUES (?, ?, TRUE)", counterparties);
+
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Object[]{FIRST_REFERENCE_ID + i, "BENCH-BOOK-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (id, book_name, active, version, cost_center_id) VALUES (?, ?, TRUE, 1, 1000)", books);
+    }
+
+    private void loadTrades() {
+        String sql = "INSERT INTO trade (id, trade_id, version, book_id, counterparty_id, trader_user_id, inputter_user_id,"
+                + " trade_type_id, trade_sub_type_id, trade_status_id, trade_date, trade_start_date, trade_maturity_date,"
+                + " active, created_date) VALUES (?, ?, ?, ?, ?, ?, ?, 1001, 1003, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        long rowId = FIRST_ROW_ID;
+        for (int t = 0; t < TRADE_IDS; t++) {
+            long trader = FIRST_REFERENCE_ID + t % TRADERS;
+            LocalDate tradeDate = FIRST_TRADE_DATE.plusDays(t % TRADE_DATE_DAYS);
+            for (int version = 1; version <= VERSIONS_PER_TRADE; version++) {
+                boolean active = version == VERSIONS_PER_TRADE;
+                batch.add(new Object[]{rowId++, FIRST_TRADE_ID + t, version,
+                        FIRST_REFERENCE_ID + t % BOOKS, FIRST_REFERENCE_ID + t % COUNTERPARTIES, trader, trader,
+                        active ? LIVE_STATUS_ID : AMENDED_STATUS_ID,
+                        Date.valueOf(tradeDate), Date.valueOf(tradeDate.plusDays(2)), Date.valueOf(tradeDate.plusYears(5)),
+                        active});
+                if (batch.size() == INSERT_BATCH) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private void loadAdditionalInfo() {
+        // One live settlement instruction per trade, plus a superseded one for every other trade
+        // Explicit ids: the seeded rows took theirs without moving the identity past them
+        String sql = "INSERT INTO additional_info (id, entity_type, entity_id, field_name, field_value, field_type, active,"
+                + " created_date, version) VALUES (?, 'TRADE', ?, 'SETTLEMENT_INSTRUCTIONS', ?, 'STRING', ?, CURRENT_TIMESTAMP, ?)";
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        long rowId = FIRST_ROW_ID;
+        for (int t = 0; t < TRADE_IDS; t++) {
+            long tradeId = FIRST_TRADE_ID + t;
+            if (t % 2 == 0) {
+                batch.add(new Object[]{rowId++, tradeId, "Settle via Euroclear, account " + t, false, 1});
+                batch.add(new Object[]{rowId++, tradeId, "Settle via JPM London, account " + t, true, 2});
+            } else {
+                batch.add(new Object[]{rowId++, tradeId, "Settle via JPM New York, account " + t, true, 1});
+            }
+            if (batch.size() >= INSERT_BATCH) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
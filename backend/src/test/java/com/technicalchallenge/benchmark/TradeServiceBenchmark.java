@@ -0,0 +1,157 @@
+package com.technicalchallenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.BackendApplication;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+import com.technicalchallenge.fixture.SwapPayloadFixture;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.rsql.RsqlSpecificationBuilder;
+import com.technicalchallenge.schedule.BusinessCalendar;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.LegSchedule;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import com.technicalchallenge.service.TradeService;
+import com.technicalchallenge.model.ValidationResult;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the TradeService hot paths, on the swap in sample-swap-post-payload.json
+ * (SwapPayloadFixture) and the application context against an in-memory H2 database:
+ * - mapping a booked trade, and one of its legs, to DTOs
+ * - validating the payload, reference data lookups included
+ * - parsing a leg's schedule and generating its payment dates and amounts (ScheduleEngine, which
+ *   replaced calculatePaymentDates and calculateCashflowValue)
+ * - turning an RSQL query into a predicate; the specification itself is built lazily, so parsing
+ *   and resolving the paths only happen in toPredicate
+ * - booking the trade end to end through createTrade
+ *
+ * Run them with mvn -Pbenchmarks verify -Dbenchmark.include=TradeServiceBenchmark, which writes
+ * target/jmh-result.json; see BenchmarkRunner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeServiceBenchmark {
+
+    private static final String RSQL_QUERY = "counterparty.name==MegaFund;book.bookName==RATES-BOOK-1;"
+            + "tradeStatus.tradeStatus=in=(NEW,AMENDED);tradeDate=ge=2025-01-01";
+    private static final String[] SCHEDULES = {"Monthly", "Quarterly", "Semi-annually", "Annually", "1M", "3M", "6M", "12M"};
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private ObjectMapper objectMapper;
+    private TradeService tradeService;
+    private TradeMapper tradeMapper;
+    private ScheduleEngine scheduleEngine;
+    private RsqlSpecificationBuilder<Trade> rsqlSpecificationBuilder;
+
+    private TradeDTO payload;
+    private Trade bookedTrade;
+    private TradeLeg bookedLeg;
+    private BusinessCalendar legCalendar;
+    private int legFrequencyMonths;
+    private boolean legFixedRate;
+    private ScheduleEngine.RollConvention legRollConvention;
+    private int schedule;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("integration")
+                .run("--spring.datasource.name=trade-service-benchmark",
+                        "--logging.level.root=WARN");
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        objectMapper = context.getBean(ObjectMapper.class);
+        tradeService = context.getBean(TradeService.class);
+        tradeMapper = context.getBean(TradeMapper.class);
+        scheduleEngine = context.getBean(ScheduleEngine.class);
+        rsqlSpecificationBuilder = context.getBean(RsqlSpecificationBuilder.class);
+
+        payload = SwapPayloadFixture.load(objectMapper);
+        Long tradeId = tradeService.createTrade(SwapPayloadFixture.copy(payload, objectMapper), "simon").getTradeId();
+
+        // Mapped once inside a transaction, so every association the mapper reads is loaded
+        TradeRepository tradeRepository = context.getBean(TradeRepository.class);
+        bookedTrade = context.getBean(TransactionTemplate.class).execute(status -> {
+            Trade trade = tradeRepository.findByTradeIdAndActiveTrue(tradeId).orElseThrow();
+            tradeMapper.toDto(trade);
+            return trade;
+        });
+        bookedLeg = bookedTrade.getTradeLegs().get(0);
+
+        legCalendar = context.getBean(HolidayCalendarRegistry.class).calendarFor(bookedLeg.getHolidayCalendar());
+        legFrequencyMonths = scheduleEngine.parseFrequencyMonths(bookedLeg.getCalculationPeriodSchedule().getSchedule());
+        legFixedRate = "Fixed".equalsIgnoreCase(bookedLeg.getLegRateType().getType());
+        legRollConvention = ScheduleEngine.RollConvention.from(bookedLeg.getPaymentBusinessDayConvention().getBdc());
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public TradeDTO tradeMapperToDto() {
+        return tradeMapper.toDto(bookedTrade);
+    }
+
+    @Benchmark
+    public TradeLegDTO tradeMapperLegToDto() {
+        return tradeMapper.tradeLegToDto(bookedLeg);
+    }
+
+    @Benchmark
+    public ValidationResult validateTradeAndLegs() {
+        return tradeService.validateTradeAndLegs(payload, tradeService.newReferenceResolver());
+    }
+
+    // Cycles through the spellings the UI and payloads use
+    @Benchmark
+    public int parseSchedule() {
+        schedule = (schedule + 1) % SCHEDULES.length;
+        return scheduleEngine.parseFrequencyMonths(SCHEDULES[schedule]);
+    }
+
+    @Benchmark
+    public LegSchedule generateLegSchedule() {
+        return scheduleEngine.generate(payload.getTradeStartDate(), payload.getTradeMaturityDate(), legFrequencyMonths,
+                bookedLeg.getNotional(), bookedLeg.getRate(), legFixedRate, legRollConvention, legCalendar);
+    }
+
+    @Benchmark
+    public Predicate rsqlSpecificationToPredicate() {
+        Specification<Trade> spec = rsqlSpecificationBuilder.createSpecification(RSQL_QUERY);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Trade> query = cb.createQuery(Trade.class);
+        Root<Trade> root = query.from(Trade.class);
+        return spec.toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Trade createTrade() {
+        return tradeService.createTrade(SwapPayloadFixture.copy(payload, objectMapper), "simon");
+    }
+}
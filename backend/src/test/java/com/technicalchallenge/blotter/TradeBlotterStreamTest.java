@@ -0,0 +1,257 @@
+package com.technicalchallenge.blotter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Privilege;
+import com.technicalchallenge.model.UserPrivilege;
+import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.repository.ApplicationUserRepository;
+import com.technicalchallenge.repository.PrivilegeRepository;
+import com.technicalchallenge.repository.UserPrivilegeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeBlotterStreamTest {
+
+    @Mock
+    private ApplicationUserRepository applicationUserRepository;
+
+    @Mock
+    private PrivilegeRepository privilegeRepository;
+
+    @Mock
+    private UserPrivilegeRepository userPrivilegeRepository;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AuthorizationEngine authorizationEngine;
+    private TradeBlotterStream stream;
+
+    @BeforeEach
+    void setUp() {
+        when(privilegeRepository.findAll()).thenReturn(List.of(privilege(1L, "READ_TRADE")));
+        when(applicationUserRepository.findAll()).thenReturn(List.of(
+                user(10L, "alice", "SUPPORT"), user(11L, "simon", "TRADER_SALES"), user(12L, "bob", "SUPPORT")));
+        when(userPrivilegeRepository.findAll()).thenReturn(List.of(new UserPrivilege(10L, 1L), new UserPrivilege(11L, 1L)));
+        authorizationEngine = new AuthorizationEngine(applicationUserRepository, privilegeRepository,
+                userPrivilegeRepository, new SimpleMeterRegistry());
+        authorizationEngine.rebuild();
+
+        // Buffers of 3 events, at most 6 clients, no heartbeats during the test
+        stream = new TradeBlotterStream(authorizationEngine, objectMapper, 3, 60_000, 6, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void testMatchingEvents_ArriveAsRowPatches() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(0);
+        stream.register(emitter, criteria("fx-book-1", null), "alice");
+
+        stream.onTradeEvent(event(1, "BOOKED", "FX-BOOK-1", 11L));
+        stream.onTradeEvent(event(2, "BOOKED", "RATES-BOOK-1", 11L));
+        stream.onTradeEvent(event(3, "TERMINATED", "FX-BOOK-1", 11L));
+
+        String booked = emitter.next();
+        assertTrue(booked.startsWith("id:1\nevent:BOOKED\n"), booked);
+        assertTrue(booked.contains("\"bookName\":\"FX-BOOK-1\""), booked);
+        String terminated = emitter.next();
+        assertTrue(terminated.startsWith("id:3\nevent:TERMINATED\n"), terminated);
+        assertTrue(terminated.contains("\"tradeStatus\":\"TERMINATED\""), terminated);
+        assertFalse(terminated.contains("bookName"), terminated);
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testTraderSales_OnlyReceiveTheirOwnTrades() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(0);
+        stream.register(emitter, criteria(null, null), "simon");
+
+        stream.onTradeEvent(event(1, "BOOKED", "FX-BOOK-1", 12L));
+        stream.onTradeEvent(event(2, "BOOKED", "FX-BOOK-1", 11L));
+
+        assertTrue(emitter.next().startsWith("id:2\n"));
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testSubscribe_RejectsUnauthorisedUsersUnsupportedCriteriaAndTooManyClients() {
+        assertThrows(UnauthorizedAccessException.class, () -> stream.register(new RecordingEmitter(0), criteria(null, null), "bob"));
+        TradeSearchDTO byStatus = criteria(null, null);
+        byStatus.setTradeStatus("NEW");
+        assertThrows(IllegalArgumentException.class, () -> stream.register(new RecordingEmitter(0), byStatus, "alice"));
+
+        for (int i = 0; i < 6; i++) {
+            stream.register(new RecordingEmitter(0), criteria(null, null), "alice");
+        }
+        assertThrows(RejectedExecutionException.class, () -> stream.register(new RecordingEmitter(0), criteria(null, null), "alice"));
+    }
+
+    @Test
+    void testSlowClient_IsEvictedWhenItsBufferFillsWithoutHoldingUpOthers() throws Exception {
+        RecordingEmitter stuck = new RecordingEmitter(1);
+        RecordingEmitter fast = new RecordingEmitter(0);
+        stream.register(stuck, criteria(null, null), "alice");
+        stream.register(fast, criteria(null, null), "alice");
+
+        // The stuck client's first write does not return; three more fill its buffer, the fifth evicts it
+        for (int offset = 1; offset <= 5; offset++) {
+            stream.onTradeEvent(event(offset, "BOOKED", "FX-BOOK-1", 11L));
+            assertTrue(fast.next().startsWith("id:" + offset + "\n"));
+        }
+
+        assertEquals(1, stream.getClientCount());
+        // Completed by its sender thread once the stuck write returns, not by the relay waiting on it
+        assertFalse(stuck.completed.await(200, TimeUnit.MILLISECONDS));
+        stuck.release.countDown();
+        assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStalledClients_NeverHoldUpTheOthers() throws Exception {
+        // More stalled clients than the four sender threads the stream used to share
+        List<RecordingEmitter> stalled = List.of(new RecordingEmitter(1), new RecordingEmitter(1),
+                new RecordingEmitter(1), new RecordingEmitter(1), new RecordingEmitter(1));
+        RecordingEmitter fast = new RecordingEmitter(0);
+        for (RecordingEmitter emitter : stalled) {
+            stream.register(emitter, criteria(null, null), "alice");
+        }
+        stream.register(fast, criteria(null, null), "alice");
+
+        for (int offset = 1; offset <= 5; offset++) {
+            stream.onTradeEvent(event(offset, "BOOKED", "FX-BOOK-1", 11L));
+            assertTrue(fast.next().startsWith("id:" + offset + "\n"));
+        }
+
+        assertEquals(1, stream.getClientCount());
+        for (RecordingEmitter emitter : stalled) {
+            emitter.release.countDown();
+            assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testStuckWrite_IsEvictedWithoutWaitingForIt() throws Exception {
+        TradeBlotterStream timed = new TradeBlotterStream(authorizationEngine, objectMapper, 3, 50, 6, 3_600_000);
+        try {
+            RecordingEmitter stuck = new RecordingEmitter(1);
+            timed.register(stuck, criteria(null, null), "alice");
+            timed.onTradeEvent(event(1, "BOOKED", "FX-BOOK-1", 11L));
+            Thread.sleep(200);
+
+            // The write has been stuck past the send timeout: the next event drops the client
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> timed.onTradeEvent(event(2, "BOOKED", "FX-BOOK-1", 11L)));
+
+            assertEquals(0, timed.getClientCount());
+            stuck.release.countDown();
+            assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, stuck.sent.size());
+        } finally {
+            timed.shutdown();
+        }
+    }
+
+    private TradeEventDTO event(long offset, String eventType, String bookName, Long traderUserId) throws IOException {
+        TradeDTO trade = new TradeDTO();
+        trade.setTradeId(100000 + offset);
+        trade.setVersion(1);
+        trade.setBookName(bookName);
+        trade.setCounterpartyName("BigBank");
+        trade.setTraderUserId(traderUserId);
+        trade.setTraderUserName("Simon King");
+        trade.setTradeStatus("BOOKED".equals(eventType) ? "NEW" : eventType);
+        return new TradeEventDTO(offset, trade.getTradeId(), 1, eventType, LocalDateTime.now(),
+                objectMapper.writeValueAsString(trade));
+    }
+
+    private static TradeSearchDTO criteria(String book, String trader) {
+        TradeSearchDTO criteria = new TradeSearchDTO();
+        criteria.setBook(book);
+        criteria.setTrader(trader);
+        return criteria;
+    }
+
+    private static Privilege privilege(Long id, String name) {
+        Privilege privilege = new Privilege();
+        privilege.setId(id);
+        privilege.setName(name);
+        return privilege;
+    }
+
+    private static ApplicationUser user(Long id, String loginId, String userType) {
+        UserProfile profile = new UserProfile();
+        profile.setUserType(userType);
+        ApplicationUser user = new ApplicationUser();
+        user.setId(id);
+        user.setLoginId(loginId);
+        user.setActive(true);
+        user.setUserProfile(profile);
+        return user;
+    }
+
+    // Records each event as its SSE text; the first blockedSends writes wait for release. Like
+    // SseEmitter, a write holds the emitter's lock, so complete() waits for it
+    private static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch release;
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(int blockedSends) {
+            release = new CountDownLatch(blockedSends);
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType data : builder.build()) {
+                text.append(data.getData());
+            }
+            sent.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event within 5 seconds");
+            return event;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.BookDTO;
 import com.technicalchallenge.mapper.BookMapper;
 import com.technicalchallenge.model.Book;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,9 @@ public class BookControllerTest {
     @MockBean
     private BookMapper bookMapper;
 
+    @MockBean
+    private PositionEngine positionEngine;
+
     @BeforeEach
     public void setup() {
         Book book = new Book();
@@ -4,10 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.technicalchallenge.dto.CashflowDTO;
 import com.technicalchallenge.dto.CashflowGenerationRequest;
+import com.technicalchallenge.dto.CashflowLadderDTO;
 import com.technicalchallenge.mapper.CashflowMapper;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.schedule.BusinessCalendar;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.ScheduleEngine;
 import com.technicalchallenge.service.CashflowService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -45,6 +50,12 @@ public class CashflowControllerTest {
     @MockBean
     private CashflowMapper cashflowMapper;
 
+    @SpyBean
+    private ScheduleEngine scheduleEngine;
+
+    @MockBean
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
     private ObjectMapper objectMapper;
     private CashflowDTO cashflowDTO;
     private Cashflow cashflow;
@@ -55,6 +66,7 @@ public class CashflowControllerTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
+        when(holidayCalendarRegistry.calendar(any())).thenReturn(BusinessCalendar.WEEKENDS_ONLY);
 
         // Set up related entities
         tradeLeg = new TradeLeg();
@@ -238,4 +250,73 @@ public class CashflowControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testGenerateCashflows_UsesScheduleEngineConventions() throws Exception {
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.of(2025, 3, 15));
+        request.setTradeMaturityDate(LocalDate.of(2026, 3, 15));
+
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(5.0);
+        legDTO.setCalculationPeriodSchedule("Quarterly");
+        legDTO.setPaymentBusinessDayConvention("Following");
+        request.setLegs(List.of(legDTO));
+
+        // 15 Jun 2025 is a Sunday, so the first payment rolls to Monday
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].valueDate", is("2025-06-16")))
+                .andExpect(jsonPath("$[0].paymentValue", is(12500.0)))
+                .andExpect(jsonPath("$[3].valueDate", is("2026-03-16")));
+    }
+
+    @Test
+    void testGenerateCashflowsWithInvalidSchedule() throws Exception {
+        CashflowGenerationRequest request = new CashflowGenerationRequest();
+        request.setTradeStartDate(LocalDate.now());
+        request.setTradeMaturityDate(LocalDate.now().plusYears(1));
+
+        CashflowGenerationRequest.TradeLegDTO legDTO = new CashflowGenerationRequest.TradeLegDTO();
+        legDTO.setNotional(BigDecimal.valueOf(1000000));
+        legDTO.setLegType("Fixed");
+        legDTO.setRate(5.0);
+        legDTO.setCalculationPeriodSchedule("Fortnightly");
+        request.setLegs(List.of(legDTO));
+
+        mockMvc.perform(post("/api/cashflows/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetCashflowLadder() throws Exception {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 12, 31);
+        when(cashflowService.getCashflowLadder(from, to, CashflowService.LadderBucket.MONTHLY, "FX-BOOK-1", null))
+                .thenReturn(List.of(new CashflowLadderDTO("USD", from, LocalDate.of(2025, 1, 31), 2,
+                        new BigDecimal("-100"), new BigDecimal("250"), new BigDecimal("150"), new BigDecimal("150"))));
+
+        mockMvc.perform(get("/api/cashflows/ladder")
+                .param("from", "2025-01-01")
+                .param("to", "2025-12-31")
+                .param("bucket", "monthly")
+                .param("book", "FX-BOOK-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bucketEnd", is("2025-01-31")))
+                .andExpect(jsonPath("$[0].netAmount", is(150)));
+    }
+
+    @Test
+    void testGetCashflowLadderWithUnknownBucket() throws Exception {
+        mockMvc.perform(get("/api/cashflows/ladder").param("bucket", "hourly"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -3,6 +3,7 @@ package com.technicalchallenge.controller;
 import com.technicalchallenge.dto.CounterpartyDTO;
 import com.technicalchallenge.mapper.CounterpartyMapper;
 import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.service.CounterpartyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,13 +11,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -31,6 +36,9 @@ public class CounterpartyControllerTest {
     @MockBean
     private CounterpartyMapper counterpartyMapper;
 
+    @MockBean
+    private PositionEngine positionEngine;
+
     @BeforeEach
     public void setup() {
         Counterparty counterparty = new Counterparty();
@@ -52,5 +60,17 @@ public class CounterpartyControllerTest {
         mockMvc.perform(get("/api/counterparties"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void shouldRefreshPositionNamesAfterSavingACounterparty() throws Exception {
+        when(counterpartyMapper.toEntity(any(CounterpartyDTO.class))).thenReturn(new Counterparty());
+
+        mockMvc.perform(post("/api/counterparties")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":1,\"name\":\"Counterparty 2\"}"))
+                .andExpect(status().isOk());
+
+        verify(positionEngine).refreshNames();
+    }
     // Add more tests for POST, PUT, DELETE as needed
 }
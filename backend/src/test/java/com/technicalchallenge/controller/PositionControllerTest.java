@@ -0,0 +1,93 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.CashflowTotalDTO;
+import com.technicalchallenge.dto.DailySummaryDTO;
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.TradeSummaryDTO;
+import com.technicalchallenge.position.PositionEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(PositionController.class)
+public class PositionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PositionEngine positionEngine;
+
+    private final PositionDTO usd = new PositionDTO("USD", "USD", 2, new BigDecimal("1000000"),
+            new BigDecimal("5000000"), new BigDecimal("4000000"));
+
+    @Test
+    void testGetSummary() throws Exception {
+        when(positionEngine.summary()).thenReturn(new TradeSummaryDTO(2, Map.of("NEW", 2L), List.of(usd), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/positions/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrades", is(2)))
+                .andExpect(jsonPath("$.totalTradesByStatus.NEW", is(2)))
+                .andExpect(jsonPath("$.totalNotionalAmountsByCurrency[0].netNotional", is(4000000)));
+    }
+
+    @Test
+    void testGetDailySummary() throws Exception {
+        LocalDate date = LocalDate.of(2024, 6, 3);
+        when(positionEngine.dailySummary(date)).thenReturn(new DailySummaryDTO(date, 2, List.of(usd), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/positions/daily-summary").param("date", "2024-06-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrades", is(2)))
+                .andExpect(jsonPath("$.totalNotional", hasSize(1)));
+    }
+
+    @Test
+    void testGetCashflowTotals() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        when(positionEngine.cashflows(from, to)).thenReturn(List.of(new CashflowTotalDTO(LocalDate.of(2024, 9, 3), "USD", 2,
+                new BigDecimal("10000"), new BigDecimal("50000"), new BigDecimal("40000"))));
+
+        mockMvc.perform(get("/api/positions/cashflows").param("from", "2024-01-01").param("to", "2024-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].cashflows", is(2)));
+    }
+
+    @Test
+    void testGetPositions_ForOneName() throws Exception {
+        when(positionEngine.positions("desk", "FX")).thenReturn(List.of(usd));
+
+        mockMvc.perform(get("/api/positions/desk").param("name", "FX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(positionEngine, never()).positions("desk");
+    }
+
+    @Test
+    void testGetPositions_UnknownLevelIsABadRequest() throws Exception {
+        when(positionEngine.positions("region")).thenThrow(new IllegalArgumentException("Unknown position level region"));
+
+        mockMvc.perform(get("/api/positions/region"))
+                .andExpect(status().isBadRequest());
+    }
+}
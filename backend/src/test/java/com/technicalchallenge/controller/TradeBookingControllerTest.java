@@ -0,0 +1,159 @@
+package com.technicalchallenge.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.IdempotencyKeyReuseException;
+import com.technicalchallenge.model.TradeBookingRequest;
+import com.technicalchallenge.service.TradeBookingService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(TradeBookingController.class)
+public class TradeBookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TradeBookingService tradeBookingService;
+
+    private ObjectMapper objectMapper;
+    private TradeDTO tradeDTO;
+    private UUID bookingId;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        tradeDTO = new TradeDTO();
+        tradeDTO.setTradeDate(LocalDate.now());
+        tradeDTO.setTradeStartDate(LocalDate.now().plusDays(2));
+        tradeDTO.setTradeMaturityDate(LocalDate.now().plusYears(5));
+        tradeDTO.setBookName("TestBook");
+        tradeDTO.setCounterpartyName("TestCounterparty");
+        tradeDTO.setTraderUserName("TestTrader");
+
+        bookingId = UUID.randomUUID();
+    }
+
+    @Test
+    void testBookTradeAsync_ReturnsAcceptedWithStatusLocation() throws Exception {
+        // Given
+        when(tradeBookingService.submit(any(TradeDTO.class), eq("simon"), eq("key-1")))
+                .thenReturn(bookingStatus(TradeBookingRequest.ACCEPTED, null));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/async")
+                        .header("X-User-Id", "simon")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/api/trades/async/" + bookingId)))
+                .andExpect(jsonPath("$.bookingId", is(bookingId.toString())))
+                .andExpect(jsonPath("$.status", is(TradeBookingRequest.ACCEPTED)));
+    }
+
+    @Test
+    void testBookTradeAsync_KeyReusedForDifferentTrade() throws Exception {
+        // Given
+        when(tradeBookingService.submit(any(TradeDTO.class), eq("simon"), eq("key-1")))
+                .thenThrow(new IdempotencyKeyReuseException("Idempotency-Key key-1 was already used for a different trade"));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/async")
+                        .header("X-User-Id", "simon")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testBookTradeAsync_QueueFullAsksClientToRetry() throws Exception {
+        // Given
+        when(tradeBookingService.submit(any(TradeDTO.class), eq("simon"), eq("key-1")))
+                .thenThrow(new TaskRejectedException("queue full"));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/async")
+                        .header("X-User-Id", "simon")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testBookTradeAsync_MissingBookIsRejectedBeforeQueueing() throws Exception {
+        // Given
+        tradeDTO.setBookName(null);
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/async")
+                        .header("X-User-Id", "simon")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isBadRequest());
+
+        verify(tradeBookingService, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void testGetBookingStatus_Completed() throws Exception {
+        // Given
+        when(tradeBookingService.getStatus(bookingId, "simon"))
+                .thenReturn(Optional.of(bookingStatus(TradeBookingRequest.COMPLETED, 200001L)));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/async/{bookingId}", bookingId)
+                        .header("X-User-Id", "simon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(TradeBookingRequest.COMPLETED)))
+                .andExpect(jsonPath("$.tradeId", is(200001)));
+    }
+
+    @Test
+    void testGetBookingStatus_NotFound() throws Exception {
+        // Given
+        when(tradeBookingService.getStatus(bookingId, "joey")).thenReturn(Optional.empty());
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/async/{bookingId}", bookingId)
+                        .header("X-User-Id", "joey"))
+                .andExpect(status().isNotFound());
+    }
+
+    private TradeBookingStatusDTO bookingStatus(String status, Long tradeId) {
+        LocalDateTime completedAt = TradeBookingRequest.COMPLETED.equals(status) ? LocalDateTime.now() : null;
+        return new TradeBookingStatusDTO(bookingId, "key-1", status, tradeId, List.of(), LocalDateTime.now(), completedAt);
+    }
+}
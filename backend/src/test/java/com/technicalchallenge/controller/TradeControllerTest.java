@@ -2,11 +2,21 @@ package com.technicalchallenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.blotter.TradeBlotterStream;
+import com.technicalchallenge.dto.KeysetPageDTO;
+import com.technicalchallenge.dto.TradeBatchItemResultDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
 import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeGridRequestDTO;
+import com.technicalchallenge.dto.TradeGridResponseDTO;
 import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.TradeVersionConflictException;
 import com.technicalchallenge.mapper.TradeMapper;
 import com.technicalchallenge.model.ApplicationUser;
 import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeBatchService;
+import com.technicalchallenge.service.TradeExportService;
+import com.technicalchallenge.service.TradeGridService;
 import com.technicalchallenge.service.TradeService;
 
 import org.assertj.core.util.Arrays;
@@ -20,17 +30,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -49,6 +70,18 @@ public class TradeControllerTest {
     @MockBean
     private TradeMapper tradeMapper;
 
+    @MockBean
+    private TradeExportService tradeExportService;
+
+    @MockBean
+    private TradeBatchService tradeBatchService;
+
+    @MockBean
+    private TradeGridService tradeGridService;
+
+    @MockBean
+    private TradeBlotterStream tradeBlotterStream;
+
     private ObjectMapper objectMapper;
     private TradeDTO tradeDTO;
     private Trade trade;
@@ -116,12 +149,14 @@ public class TradeControllerTest {
                 .andExpect(jsonPath("$[0].counterpartyName", is("TestCounterparty")));
 
         verify(tradeService).getAllTrades(anyString());
+        verify(tradeService).addAdditionalInfoToAll(anyList());
+        verify(tradeService, never()).addAdditionalInfo(any(TradeDTO.class));
     }
 
     @Test
     void testGetTradeById() throws Exception {
         // Given
-        when(tradeService.getTradeById(1001L)).thenReturn(Optional.of(trade));
+        when(tradeService.getTradeById(1001L, null)).thenReturn(Optional.of(trade));
         
 
         // When/Then
@@ -132,20 +167,64 @@ public class TradeControllerTest {
                 .andExpect(jsonPath("$.bookName", is("TestBook")))
                 .andExpect(jsonPath("$.counterpartyName", is("TestCounterparty")));
 
-        verify(tradeService).getTradeById(1001L);
+        verify(tradeService).getTradeById(1001L, null);
     }
 
     @Test
     void testGetTradeByIdNotFound() throws Exception {
         // Given
-        when(tradeService.getTradeById(9999L)).thenReturn(Optional.empty());
+        when(tradeService.getTradeById(9999L, null)).thenReturn(Optional.empty());
 
         // When/Then
         mockMvc.perform(get("/api/trades/9999")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(tradeService).getTradeById(9999L);
+        verify(tradeService).getTradeById(9999L, null);
+    }
+
+    @Test
+    void testGetTradeByIdAsOf() throws Exception {
+        // Given
+        LocalDateTime asOf = LocalDateTime.of(2024, 6, 1, 12, 0);
+        when(tradeService.getTradeById(1001L, asOf)).thenReturn(Optional.of(trade));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/1001")
+                        .param("asOf", "2024-06-01T12:00:00")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeId", is(1001)));
+
+        verify(tradeService).getTradeById(1001L, asOf);
+    }
+
+    @Test
+    void testGetTradeHistory() throws Exception {
+        // Given
+        Trade amended = new Trade();
+        amended.setTradeId(1001L);
+        amended.setVersion(2);
+        when(tradeService.getTradeHistory(1001L)).thenReturn(List.of(trade, amended));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/1001/history")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(tradeService).addAdditionalInfoToAll(anyList());
+    }
+
+    @Test
+    void testGetTradeHistoryNotFound() throws Exception {
+        // Given
+        when(tradeService.getTradeHistory(9999L)).thenReturn(List.of());
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/9999/history")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -221,6 +300,24 @@ public class TradeControllerTest {
         verify(tradeService).saveTrade(any(Trade.class), any(TradeDTO.class) , anyString());
     }
 
+    @Test
+    void testUpdateTrade_StaleVersionIsAConflict() throws Exception {
+        // Given
+        Long tradeId = 1001L;
+        tradeDTO.setTradeId(tradeId);
+        when(tradeService.saveTrade(any(Trade.class), any(TradeDTO.class), anyString()))
+                .thenThrow(new TradeVersionConflictException(tradeId, 1, 2));
+
+        // When/Then
+        mockMvc.perform(put("/api/trades/{id}", tradeId)
+                        .header("X-User-Id", "simon")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tradeDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.expectedVersion", is(1)))
+                .andExpect(jsonPath("$.currentVersion", is(2)));
+    }
+
     @Test
     void testUpdateTradeIdMismatch() throws Exception {
         // Given
@@ -321,7 +418,7 @@ public class TradeControllerTest {
         List<Trade> trades = List.of(trade);
         Page<Trade> tradePage = new PageImpl<>(trades, PageRequest.of(0,20), trades.size());
 
-        when(tradeService.searchTradeWithRsql(any(String.class), any(Pageable.class))).thenReturn((tradePage));
+        when(tradeService.searchTradeWithRsql(any(String.class), isNull(), any(Pageable.class))).thenReturn((tradePage));
 
         // When/Then
         mockMvc.perform(get("/api/trades/rsql")
@@ -335,14 +432,89 @@ public class TradeControllerTest {
                 .andExpect(jsonPath("$.totalElements", is(1)));
                 
 
-        verify(tradeService).searchTradeWithRsql((any(String.class)), any(Pageable.class));
+        verify(tradeService).searchTradeWithRsql((any(String.class)), isNull(), any(Pageable.class));
+    }
+
+    @Test
+    void testSearchTrade_RsqlSortedById_HasNoSecondIdOrder() throws Exception {
+        // Given
+        Page<Trade> tradePage = new PageImpl<>(List.of(trade), PageRequest.of(0,20), 1);
+        when(tradeService.searchTradeWithRsql(any(String.class), isNull(), any(Pageable.class))).thenReturn((tradePage));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/rsql")
+                        .param("query", "book.name==book")
+                        .param("sortBy", "id")
+                        .param("sortDir", "asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(tradeService).searchTradeWithRsql(any(String.class), isNull(),
+                argThat(pageable -> pageable.getSort().equals(Sort.by("id").ascending())));
+    }
+
+    @Test
+    void testFilterTradeWithPagination_AddsIdAsTieBreaker() throws Exception {
+        // Given
+        Page<Trade> tradePage = new PageImpl<>(List.of(trade), PageRequest.of(0,20), 1);
+        when(tradeService.filterTradeWithPagination(any(TradeSearchDTO.class), any(Pageable.class))).thenReturn((tradePage));
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/filter")
+                        .param("book", "book")
+                        .param("sortBy", "tradeDate")
+                        .param("sortDir", "desc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(tradeService).filterTradeWithPagination(any(TradeSearchDTO.class),
+                argThat(pageable -> pageable.getSort().equals(Sort.by("tradeDate").descending().and(Sort.by("id").descending()))));
+    }
+
+    @Test
+    void testFilterTradeWithKeysetPaging() throws Exception {
+        // Given
+        KeysetPageDTO<Trade> tradePage = new KeysetPageDTO<>(List.of(trade), 1, true, "next-token", null);
+        when(tradeService.filterTradeWithKeyset(any(TradeSearchDTO.class), eq("tradeDate"), eq("desc"), eq("token"), eq(1), eq(false)))
+                .thenReturn(tradePage);
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/filter")
+                        .param("size", "1")
+                        .param("cursor", "token")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].tradeId", is(1001)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")));
+
+        verify(tradeService, never()).filterTradeWithPagination(any(TradeSearchDTO.class), any(Pageable.class));
+    }
+
+    @Test
+    void testSearchTrade_RsqlWithoutCount() throws Exception {
+        // Given
+        Slice<Trade> tradeSlice = new SliceImpl<>(List.of(trade), PageRequest.of(0, 20), false);
+        when(tradeService.searchTradeWithRsqlWithoutCount(any(String.class), isNull(), any(Pageable.class))).thenReturn(tradeSlice);
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/rsql")
+                        .param("query", "book.name==book")
+                        .param("count", "false")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(tradeService, never()).searchTradeWithRsql(any(), any(), any());
     }
 
     @Test
     void testSearchTrade_RsqlWithEmptyQuery() throws Exception {
         // Given
 
-        when(tradeService.searchTradeWithRsql(any(String.class), any(Pageable.class))).thenThrow(new IllegalArgumentException("RSQL query cannot be empty"));
+        when(tradeService.searchTradeWithRsql(any(String.class), isNull(), any(Pageable.class))).thenThrow(new IllegalArgumentException("RSQL query cannot be empty"));
 
         // When/Then
         mockMvc.perform(get("/api/trades/rsql")
@@ -352,4 +524,144 @@ public class TradeControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testExportTrades_StreamsCsv() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("tradeId\n1001\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(tradeExportService).exportTrades(any(), eq(TradeExportService.Format.CSV), any(OutputStream.class));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/trades/export")
+                        .param("book", "TestBook")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"trades.csv\""))
+                .andExpect(content().string("tradeId\n1001\n"));
+
+        verify(tradeService).buildExportSpecification(any(TradeSearchDTO.class), isNull());
+    }
+
+    @Test
+    void testExportTrades_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/trades/export")
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verify(tradeExportService, never()).exportTrades(any(), any(), any(OutputStream.class));
+    }
+
+    @Test
+    void testGetGridRows_ReturnsGroupRows() throws Exception {
+        // Given
+        when(tradeGridService.getRows(any(TradeGridRequestDTO.class), any())).thenReturn(new TradeGridResponseDTO(
+                List.of(Map.of("bookName", "FX-BOOK-1", "childCount", 2, "notional", 3000000)), 1));
+        String request = """
+                {"startRow": 0, "endRow": 100,
+                 "rowGroupCols": [{"id": "bookName", "field": "bookName"}],
+                 "valueCols": [{"id": "notional", "aggFunc": "sum"}],
+                 "groupKeys": [],
+                 "filterModel": {"counterpartyName": {"filterType": "text", "type": "contains", "filter": "big"}},
+                 "sortModel": [{"colId": "notional", "sort": "desc"}]}
+                """;
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/grid")
+                        .param("book", "FX-BOOK-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowCount", is(1)))
+                .andExpect(jsonPath("$.rowData[0].bookName", is("FX-BOOK-1")))
+                .andExpect(jsonPath("$.rowData[0].childCount", is(2)));
+
+        verify(tradeService).buildExportSpecification(any(TradeSearchDTO.class), isNull());
+        verify(tradeGridService).getRows(argThat(grid -> grid.getEndRow() == 100
+                && "contains".equals(grid.getFilterModel().get("counterpartyName").getType())
+                && "desc".equals(grid.getSortModel().get(0).getSort())), any());
+    }
+
+    @Test
+    void testGetGridRows_UnknownColumnIsABadRequest() throws Exception {
+        // Given
+        when(tradeGridService.getRows(any(TradeGridRequestDTO.class), any()))
+                .thenThrow(new IllegalArgumentException("Unknown grid column settlement"));
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/grid")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startRow\": 0, \"endRow\": 100, \"sortModel\": [{\"colId\": \"settlement\", \"sort\": \"asc\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamTrades_OpensAnEventStreamForTheCriteria() throws Exception {
+        // Given
+        when(tradeBlotterStream.subscribe(any(TradeSearchDTO.class), eq("simon"))).thenReturn(new SseEmitter());
+
+        // When/Then
+        mockMvc.perform(get("/api/trades/stream")
+                        .header("X-User-Id", "simon")
+                        .param("book", "FX-BOOK-1")
+                        .param("trader", "simon")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(tradeBlotterStream).subscribe(argThat(criteria -> "FX-BOOK-1".equals(criteria.getBook())
+                && "simon".equals(criteria.getTrader()) && criteria.getCounterparty() == null), eq("simon"));
+    }
+
+    @Test
+    void testBookTradeBatch_ReturnsPerTradeResults() throws Exception {
+        // Given
+        TradeBatchResultDTO batchResult = new TradeBatchResultDTO(2, 1, 1, 0, List.of(
+                new TradeBatchItemResultDTO(0, TradeBatchItemResultDTO.BOOKED, 100010L, List.of()),
+                new TradeBatchItemResultDTO(1, TradeBatchItemResultDTO.REJECTED, null, List.of("Book is required"))));
+        when(tradeBatchService.bookTrades(any(), eq("simon"))).thenReturn(batchResult);
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/batch")
+                        .header("X-User-Id", "simon")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(tradeDTO, new TradeDTO()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booked", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results[0].tradeId", is(100010)))
+                .andExpect(jsonPath("$.results[1].errors[0]", is("Book is required")));
+
+        verify(tradeService, never()).saveTrade(any(), any(), anyString());
+    }
+
+    @Test
+    void testBookTradeBatch_ReadsNdjsonOneTradePerLine() throws Exception {
+        // Given
+        List<String> bookNames = new ArrayList<>();
+        when(tradeBatchService.bookTrades(any(), eq("simon"))).thenAnswer(invocation -> {
+            Iterator<TradeDTO> trades = invocation.getArgument(0);
+            trades.forEachRemaining(trade -> bookNames.add(trade.getBookName()));
+            return new TradeBatchResultDTO(bookNames.size(), bookNames.size(), 0, 0, List.of());
+        });
+        TradeDTO second = new TradeDTO();
+        second.setBookName("OtherBook");
+        String body = objectMapper.writeValueAsString(tradeDTO) + "\n" + objectMapper.writeValueAsString(second) + "\n";
+
+        // When/Then
+        mockMvc.perform(post("/api/trades/batch")
+                        .header("X-User-Id", "simon")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.submitted", is(2)));
+
+        assertEquals(List.of("TestBook", "OtherBook"), bookNames);
+    }
 }
@@ -0,0 +1,56 @@
+package com.technicalchallenge.controller;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.outbox.TradeOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(TradeEventController.class)
+public class TradeEventControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TradeOutbox tradeOutbox;
+
+    @Test
+    void testGetEvents_PayloadIsTheTradeAsJson() throws Exception {
+        TradeEventDTO event = new TradeEventDTO(42L, 100001L, 2, "AMENDED", LocalDateTime.of(2025, 1, 2, 9, 30),
+                "{\"tradeId\":100001,\"version\":2}");
+        when(tradeOutbox.eventsAfter(41L, 10)).thenReturn(List.of(event));
+
+        mockMvc.perform(get("/api/trade-events").param("after", "41").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].offset", is(42)))
+                .andExpect(jsonPath("$[0].eventType", is("AMENDED")))
+                .andExpect(jsonPath("$[0].trade.version", is(2)));
+    }
+
+    @Test
+    void testGetEvents_DefaultsToTheStartOfTheStream() throws Exception {
+        when(tradeOutbox.eventsAfter(0L, 100)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/trade-events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(tradeOutbox).eventsAfter(0L, 100);
+    }
+}
@@ -1,5 +1,6 @@
 package com.technicalchallenge.controller;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.dto.UserDTO;
 import com.technicalchallenge.mapper.ApplicationUserMapper;
 import com.technicalchallenge.model.ApplicationUser;
@@ -31,6 +32,8 @@ public class UserControllerTest {
     private ApplicationUserMapper applicationUserMapper;
     @MockBean
     private UserProfileService userProfileService;
+    @MockBean
+    private AuthorizationEngine authorizationEngine;
 
 
     @BeforeEach
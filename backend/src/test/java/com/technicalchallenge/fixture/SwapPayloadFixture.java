@@ -0,0 +1,90 @@
+package com.technicalchallenge.fixture;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * The swap in sample-swap-post-payload.json as a bookable TradeDTO. The file holds two versions of
+ * the payload run together with repeated keys; the first, name based one is what the UI posts, so
+ * the first occurrence of each key wins here where Jackson would keep the last. Its dates are
+ * moved so the trade date is today, keeping the sample's tenor, since bookings more than 30 days
+ * old are rejected, and each leg gets the one cashflow the UI sends: its maturity date.
+ */
+public final class SwapPayloadFixture {
+
+    private static final String RESOURCE = "/sample-swap-post-payload.json";
+
+    private SwapPayloadFixture() {
+    }
+
+    public static TradeDTO load(ObjectMapper objectMapper) {
+        try (InputStream in = SwapPayloadFixture.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(RESOURCE + " is not on the classpath");
+            }
+            JsonParser parser = objectMapper.createParser(in);
+            parser.nextToken();
+            ObjectNode payload = (ObjectNode) firstKeyWins(parser, objectMapper);
+            // Booked as a new trade, not an amendment of the sample's
+            payload.remove(List.of("id", "tradeId", "version"));
+
+            TradeDTO trade = objectMapper.treeToValue(payload, TradeDTO.class);
+            long shift = ChronoUnit.DAYS.between(trade.getTradeDate(), LocalDate.now());
+            trade.setTradeDate(trade.getTradeDate().plusDays(shift));
+            trade.setTradeStartDate(trade.getTradeStartDate().plusDays(shift));
+            trade.setTradeMaturityDate(trade.getTradeMaturityDate().plusDays(shift));
+            trade.setTradeExecutionDate(trade.getTradeDate());
+            trade.setValidityStartDate(trade.getTradeDate());
+            for (TradeLegDTO leg : trade.getTradeLegs()) {
+                CashflowDTO lastCashflow = new CashflowDTO();
+                lastCashflow.setValueDate(trade.getTradeMaturityDate());
+                leg.setCashflows(List.of(lastCashflow));
+            }
+            return trade;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A fresh copy, for operations such as booking that write to the DTO they are given. */
+    public static TradeDTO copy(TradeDTO trade, ObjectMapper objectMapper) {
+        return objectMapper.convertValue(trade, TradeDTO.class);
+    }
+
+    private static JsonNode firstKeyWins(JsonParser parser, ObjectMapper objectMapper) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            ObjectNode object = objectMapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                JsonNode value = firstKeyWins(parser, objectMapper);
+                if (!object.has(name)) {
+                    object.set(name, value);
+                }
+            }
+            return object;
+        }
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            ArrayNode array = objectMapper.createArrayNode();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                array.add(firstKeyWins(parser, objectMapper));
+            }
+            return array;
+        }
+        return parser.readValueAsTree();
+    }
+}
@@ -0,0 +1,78 @@
+package com.technicalchallenge.fixture;
+
+import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeLegDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Swaps that book against the seeded reference data: Simon King trading a fixed 3.5 pay leg
+ * against a floating LIBOR receive leg in USD, NY holidays, Following. The trade date is today
+ * and the start two days later, since bookings more than 30 days old are rejected, and each leg
+ * carries the one cashflow the UI sends: its maturity date.
+ */
+public final class TradeFixtures {
+
+    public static final String BOOK = "RATES-BOOK-1";
+    public static final String COUNTERPARTY = "MegaFund";
+    public static final String TRADER = "Simon King";
+
+    private TradeFixtures() {
+    }
+
+    /** One year quarterly, 10m notional, RATES-BOOK-1 against MegaFund. */
+    public static TradeDTO oneYearQuarterlySwap() {
+        return oneYearQuarterlySwap(BOOK, COUNTERPARTY, 10_000_000);
+    }
+
+    public static TradeDTO oneYearQuarterlySwap(String bookName, String counterpartyName, long notional) {
+        return swap(bookName, counterpartyName, BigDecimal.valueOf(notional), 1, "Quarterly");
+    }
+
+    public static TradeDTO swap(String bookName, String counterpartyName, BigDecimal notional, int tenorYears, String schedule) {
+        LocalDate tradeDate = LocalDate.now();
+        LocalDate startDate = tradeDate.plusDays(2);
+        LocalDate maturityDate = startDate.plusYears(tenorYears);
+
+        TradeDTO trade = new TradeDTO();
+        trade.setBookName(bookName);
+        trade.setCounterpartyName(counterpartyName);
+        trade.setTraderUserName(TRADER);
+        trade.setInputterUserName(TRADER);
+        trade.setTradeType("Swap");
+        trade.setTradeSubType("IR Swap");
+        trade.setTradeStatus("NEW");
+        trade.setTradeDate(tradeDate);
+        trade.setTradeStartDate(startDate);
+        trade.setTradeMaturityDate(maturityDate);
+        trade.setTradeExecutionDate(tradeDate);
+        trade.setTradeLegs(List.of(
+                leg("Fixed", "Pay", 3.5, null, notional, schedule, maturityDate),
+                leg("Floating", "Receive", 0.0, "LIBOR", notional, schedule, maturityDate)));
+        return trade;
+    }
+
+    private static TradeLegDTO leg(String legType, String payRec, double rate, String index, BigDecimal notional,
+                                   String schedule, LocalDate maturityDate) {
+        // validateTradeLegConsistency compares the last cashflow date supplied on each leg
+        CashflowDTO lastCashflow = new CashflowDTO();
+        lastCashflow.setValueDate(maturityDate);
+
+        TradeLegDTO leg = new TradeLegDTO();
+        leg.setNotional(notional);
+        leg.setRate(rate);
+        leg.setLegType(legType);
+        leg.setPayReceiveFlag(payRec);
+        leg.setIndexName(index);
+        leg.setCurrency("USD");
+        leg.setHolidayCalendar("NY");
+        leg.setCalculationPeriodSchedule(schedule);
+        leg.setPaymentBusinessDayConvention("Following");
+        leg.setFixingBusinessDayConvention("Following");
+        leg.setCashflows(List.of(lastCashflow));
+        return leg;
+    }
+}
@@ -0,0 +1,101 @@
+package com.technicalchallenge.mapper;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import com.technicalchallenge.service.TradeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the list read path against N+1 lazy loading: fetching a page of trades and mapping it
+ * with TradeMapper.toDto (legs, cashflows and all reference data) must take the same number of
+ * statements whatever the page size.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = {
+        "spring.datasource.name=query-count",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TradeMapperQueryCountTest {
+
+    // Page select + count + legs + leg/cashflow reference data, with headroom
+    private static final long MAX_STATEMENTS_PER_PAGE = 20;
+    private static final int BOOKED_TRADES = 40;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeMapper tradeMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testMappingAPageOfTrades_StatementCountDoesNotGrowWithPageSize() {
+        Long firstBookedTradeId = null;
+        for (int i = 0; i < BOOKED_TRADES; i++) {
+            Trade trade = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+            if (firstBookedTradeId == null) {
+                firstBookedTradeId = trade.getTradeId();
+            }
+        }
+
+        long smallPage = statementsToReadAndMap(firstBookedTradeId, 5);
+        long largePage = statementsToReadAndMap(firstBookedTradeId, BOOKED_TRADES);
+
+        assertTrue(largePage <= MAX_STATEMENTS_PER_PAGE,
+                "Mapping " + BOOKED_TRADES + " trades took " + largePage + " statements");
+        assertEquals(smallPage, largePage);
+    }
+
+    private long statementsToReadAndMap(Long firstBookedTradeId, int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        return transaction.execute(status -> {
+            statistics.clear();
+            Specification<Trade> bookedHere = (root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("tradeId"), firstBookedTradeId);
+            Page<Trade> page = tradeRepository.findAll(bookedHere, PageRequest.of(0, pageSize, Sort.by("id")));
+
+            List<TradeDTO> dtos = page.getContent().stream().map(tradeMapper::toDto).toList();
+            assertEquals(pageSize, dtos.size());
+            dtos.forEach(dto -> {
+                assertNotNull(dto.getBookName());
+                assertEquals(2, dto.getTradeLegs().size());
+                dto.getTradeLegs().forEach(leg -> {
+                    assertNotNull(leg.getCurrency());
+                    assertFalse(leg.getCashflows().isEmpty());
+                });
+            });
+            return statistics.getPrepareStatementCount();
+        });
+    }
+}
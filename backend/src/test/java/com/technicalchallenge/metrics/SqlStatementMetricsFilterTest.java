@@ -0,0 +1,64 @@
+package com.technicalchallenge.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementCounter sqlStatementCounter;
+    private SqlStatementMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sqlStatementCounter = new SqlStatementCounter();
+        filter = new SqlStatementMetricsFilter(sqlStatementCounter, meterRegistry);
+    }
+
+    @Test
+    void testDoFilter_RecordsTheStatementsRunByTheRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/trades/100001");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/trades/{id}");
+            sqlStatementCounter.inspect("select * from trade where trade_id = ?");
+            sqlStatementCounter.inspect("select * from trade_leg where trade_id = ?");
+        });
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/api/trades/{id}", "outcome", "SUCCESS").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+        // The count ends with the request
+        sqlStatementCounter.inspect("select 1");
+        assertEquals(0, sqlStatementCounter.stop());
+    }
+
+    @Test
+    void testDoFilter_RecordsFailedRequestsUnderTheirOutcome() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/trades");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> response.setStatus(400));
+
+        assertEquals(0, meterRegistry.get("http.server.requests.sql.statements")
+                .tags("method", "POST", "uri", "UNKNOWN", "outcome", "CLIENT_ERROR").summary().totalAmount());
+    }
+
+    @Test
+    void testOutcome_GroupsStatusCodes() {
+        assertEquals("SUCCESS", SqlStatementMetricsFilter.outcome(201));
+        assertEquals("REDIRECTION", SqlStatementMetricsFilter.outcome(302));
+        assertEquals("CLIENT_ERROR", SqlStatementMetricsFilter.outcome(404));
+        assertEquals("SERVER_ERROR", SqlStatementMetricsFilter.outcome(500));
+    }
+}
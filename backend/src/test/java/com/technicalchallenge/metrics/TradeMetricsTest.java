@@ -0,0 +1,91 @@
+package com.technicalchallenge.metrics;
+
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeType;
+import com.technicalchallenge.model.ValidationResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeMetrics tradeMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tradeMetrics = new TradeMetrics(meterRegistry);
+    }
+
+    @Test
+    void testLifecycle_Success_TagsTheTypeOfTheReturnedTrade() {
+        TradeType tradeType = new TradeType();
+        tradeType.setTradeType("Swap");
+        Trade trade = new Trade();
+        trade.setTradeType(tradeType);
+
+        assertSame(trade, tradeMetrics.lifecycle(TradeMetrics.TERMINATE, null, () -> trade));
+
+        assertEquals(1, meterRegistry.get("trade.lifecycle")
+                .tags("operation", "terminate", "trade.type", "Swap", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testLifecycle_Failure_RecordsTheOutcomeAndRethrows() {
+        assertThrows(UnauthorizedAccessException.class, () -> tradeMetrics.lifecycle(TradeMetrics.CREATE, "Swap", () -> {
+            throw new UnauthorizedAccessException("no");
+        }));
+        assertThrows(IllegalStateException.class, () -> tradeMetrics.lifecycle(TradeMetrics.AMEND, " ", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, meterRegistry.get("trade.lifecycle")
+                .tags("operation", "create", "trade.type", "Swap", "outcome", "unauthorized").timer().count());
+        assertEquals(1, meterRegistry.get("trade.lifecycle")
+                .tags("operation", "amend", "trade.type", "unknown", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void testOutcome_ValidationFailureIsInvalid() {
+        assertEquals("invalid", TradeMetrics.outcome(new IllegalArgumentException("Trade validation failed")));
+        assertEquals("error", TradeMetrics.outcome(new RuntimeException("Trade not found")));
+    }
+
+    @Test
+    void testValidation_CountsTheErrorsOfAFailedStage() {
+        ValidationResult invalid = new ValidationResult();
+        invalid.setValid(false);
+        invalid.setErrors(List.of("Start date cannot be before trade date", "Maturity date cannot be before trade date"));
+        ValidationResult valid = new ValidationResult();
+        valid.setValid(true);
+
+        assertSame(invalid, tradeMetrics.validation(TradeMetrics.BUSINESS_RULES, "Swap", () -> invalid));
+        tradeMetrics.validation(TradeMetrics.LEG_CONSISTENCY, "Swap", () -> valid);
+
+        assertEquals(1, meterRegistry.get("trade.validation")
+                .tags("stage", "business_rules", "outcome", "invalid").timer().count());
+        assertEquals(1, meterRegistry.get("trade.validation")
+                .tags("stage", "leg_consistency", "outcome", "valid").timer().count());
+        assertEquals(2, meterRegistry.get("trade.validation.errors").tags("stage", "business_rules").counter().count());
+        assertNull(meterRegistry.find("trade.validation.errors").tags("stage", "leg_consistency").counter());
+    }
+
+    @Test
+    void testCashflowGeneration_RecordsCashflowsPerLeg() {
+        tradeMetrics.cashflowGeneration("Swap", () -> List.of(1, 2, 3, 4));
+        tradeMetrics.cashflowGeneration("Swap", () -> List.of(1, 2));
+
+        assertEquals(2, meterRegistry.get("trade.cashflows.generation")
+                .tags("trade.type", "Swap", "outcome", "success").timer().count());
+        DistributionSummary perLeg = meterRegistry.get("trade.cashflows.per.leg").tags("trade.type", "Swap").summary();
+        assertEquals(2, perLeg.count());
+        assertEquals(6, perLeg.totalAmount());
+    }
+}
@@ -0,0 +1,101 @@
+package com.technicalchallenge.outbox;
+
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.model.TradeEventSinkOffset;
+import com.technicalchallenge.model.TradeOutboxEvent;
+import com.technicalchallenge.repository.TradeEventSinkOffsetRepository;
+import com.technicalchallenge.repository.TradeOutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeEventRelayTest {
+
+    @Mock
+    private TradeOutboxEventRepository tradeOutboxEventRepository;
+
+    @Mock
+    private TradeEventSinkOffsetRepository tradeEventSinkOffsetRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TradeEventSink failing;
+
+    @Mock
+    private TradeEventSink working;
+
+    private TradeEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new TradeEventRelay(tradeOutboxEventRepository, tradeEventSinkOffsetRepository, List.of(failing, working),
+                transactionTemplate, false, 500, 10);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testRelay_SequencesCommittedEventsAfterTheLastOffset() {
+        TradeOutboxEvent booked = event(null, 100001L, TradeOutboxEvent.BOOKED);
+        TradeOutboxEvent amended = event(null, 100001L, TradeOutboxEvent.AMENDED);
+        when(tradeOutboxEventRepository.findUnsequenced(any())).thenReturn(List.of(booked, amended));
+        when(tradeOutboxEventRepository.findLastStreamOffset()).thenReturn(7L);
+
+        relay.relay();
+
+        assertEquals(8L, booked.getStreamOffset());
+        assertEquals(9L, amended.getStreamOffset());
+        assertNotNull(amended.getSequencedDate());
+        verify(tradeOutboxEventRepository).saveAll(List.of(booked, amended));
+    }
+
+    @Test
+    void testRelay_FailingSinkKeepsItsOffsetAndTheOthersMoveOn() throws Exception {
+        when(tradeOutboxEventRepository.findUnsequenced(any())).thenReturn(List.of());
+        when(failing.getName()).thenReturn("failing");
+        when(working.getName()).thenReturn("working");
+        when(tradeEventSinkOffsetRepository.findById("failing")).thenReturn(Optional.empty());
+        when(tradeEventSinkOffsetRepository.findById("working")).thenReturn(Optional.of(new TradeEventSinkOffset("working")));
+        List<TradeOutboxEvent> pending = List.of(event(1L, 100001L, TradeOutboxEvent.BOOKED), event(2L, 100002L, TradeOutboxEvent.BOOKED));
+        when(tradeOutboxEventRepository.findSequencedAfter(eq(0L), any())).thenReturn(pending);
+        doThrow(new IOException("disk full")).when(failing).publish(any());
+        when(tradeEventSinkOffsetRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        relay.relay();
+
+        ArgumentCaptor<TradeEventSinkOffset> saved = ArgumentCaptor.forClass(TradeEventSinkOffset.class);
+        verify(tradeEventSinkOffsetRepository).save(saved.capture());
+        assertEquals("working", saved.getValue().getSinkName());
+        assertEquals(2L, saved.getValue().getLastOffset());
+        verify(working).publish(argThat((List<TradeEventDTO> events) ->
+                events.stream().map(TradeEventDTO::getOffset).toList().equals(List.of(1L, 2L))));
+        verify(tradeOutboxEventRepository).findSequencedAfter(eq(2L), any());
+    }
+
+    private static TradeOutboxEvent event(Long offset, Long tradeId, String eventType) {
+        TradeOutboxEvent event = new TradeOutboxEvent();
+        event.setTradeId(tradeId);
+        event.setTradeVersion(1);
+        event.setEventType(eventType);
+        event.setPayload("{}");
+        event.setStreamOffset(offset);
+        return event;
+    }
+}
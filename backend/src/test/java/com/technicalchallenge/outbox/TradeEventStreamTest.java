@@ -0,0 +1,201 @@
+package com.technicalchallenge.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.technicalchallenge.dto.TradeEventDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books, amends and terminates trades through TradeService against H2 with the real migrations,
+ * then runs the relay by hand (the scheduled one is off) and reads the stream back through the
+ * pull API, an NDJSON file and a webhook posting to a local HTTP stub.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = {
+        "spring.datasource.name=trade-event-stream",
+        "trade.events.relay.batch-size=2"
+})
+class TradeEventStreamTest {
+
+    private static final Path EVENT_FILE = tempFile();
+    // Request bodies the stub accepted, and the status it answers with
+    private static final List<String> WEBHOOK_BODIES = new CopyOnWriteArrayList<>();
+    private static volatile int webhookStatus = 200;
+    private static final HttpServer WEBHOOK = startWebhook();
+
+    @DynamicPropertySource
+    static void sinks(DynamicPropertyRegistry registry) {
+        registry.add("trade.events.file.path", EVENT_FILE::toString);
+        registry.add("trade.events.webhook.url",
+                () -> "http://localhost:" + WEBHOOK.getAddress().getPort() + "/trade-events");
+    }
+
+    @AfterAll
+    static void stopWebhook() {
+        WEBHOOK.stop(0);
+    }
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeOutbox tradeOutbox;
+
+    @Autowired
+    private TradeEventRelay tradeEventRelay;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testLifecycleEvents_ReachEverySinkInOrder() throws IOException {
+        Trade booked = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+        Long tradeId = booked.getTradeId();
+        tradeService.amendTrade(tradeId, TradeFixtures.oneYearQuarterlySwap(), "simon");
+        tradeService.terminateTrade(tradeId, "simon");
+
+        // Nothing is on the stream until the relay has sequenced it
+        assertEquals(List.of(), types(tradeOutbox.eventsAfter(0, 1000), tradeId));
+        tradeEventRelay.relay();
+
+        List<TradeEventDTO> events = tradeOutbox.eventsAfter(0, 1000).stream()
+                .filter(event -> tradeId.equals(event.getTradeId())).toList();
+        assertEquals(List.of("BOOKED", "AMENDED", "TERMINATED"), types(events, tradeId));
+        // Terminating inserts the next version, like an amendment
+        assertEquals(List.of(1, 2, 3), events.stream().map(TradeEventDTO::getVersion).toList());
+        assertTrue(events.get(0).getOffset() < events.get(1).getOffset());
+        assertTrue(events.get(1).getOffset() < events.get(2).getOffset());
+        assertEquals(tradeId.longValue(), objectMapper.readTree(events.get(2).getTrade()).get("tradeId").asLong());
+        assertEquals("TERMINATED", objectMapper.readTree(events.get(2).getTrade()).get("tradeStatus").asText());
+
+        // Resuming after the first event picks up the other two
+        assertEquals(List.of("AMENDED", "TERMINATED"), types(tradeOutbox.eventsAfter(events.get(0).getOffset(), 1000), tradeId));
+
+        List<String> fileTypes = new ArrayList<>();
+        for (String line : Files.readAllLines(EVENT_FILE)) {
+            JsonNode event = objectMapper.readTree(line);
+            if (event.get("tradeId").asLong() == tradeId) {
+                fileTypes.add(event.get("eventType").asText());
+            }
+        }
+        assertEquals(List.of("BOOKED", "AMENDED", "TERMINATED"), fileTypes);
+        assertEquals(List.of("BOOKED", "AMENDED", "TERMINATED"), webhookTypes(tradeId));
+    }
+
+    @Test
+    void testRolledBackBooking_WritesNoEvent() {
+        Long tradeId = transactionTemplate.execute(status -> {
+            Trade trade = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+            status.setRollbackOnly();
+            return trade.getTradeId();
+        });
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trade_outbox_event WHERE trade_id = ?",
+                Integer.class, tradeId));
+    }
+
+    @Test
+    void testFailingWebhook_ResumesFromItsOffsetWithoutHoldingUpTheFile() throws IOException {
+        Trade booked = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+        tradeService.cancelTrade(booked.getTradeId(), "simon");
+
+        webhookStatus = 500;
+        try {
+            tradeEventRelay.relay();
+        } finally {
+            webhookStatus = 200;
+        }
+        assertEquals(List.of(), webhookTypes(booked.getTradeId()));
+        assertEquals(sinkOffset("file"), jdbcTemplate.queryForObject(
+                "SELECT MAX(stream_offset) FROM trade_outbox_event", Long.class));
+        assertTrue(sinkOffset("webhook") < sinkOffset("file"));
+
+        tradeEventRelay.relay();
+        assertEquals(List.of("BOOKED", "CANCELLED"), webhookTypes(booked.getTradeId()));
+        assertEquals(sinkOffset("file"), sinkOffset("webhook"));
+    }
+
+    private Long sinkOffset(String sink) {
+        return jdbcTemplate.queryForList("SELECT last_offset FROM trade_event_sink_offset WHERE sink_name = ?",
+                Long.class, sink).stream().findFirst().orElse(0L);
+    }
+
+    private List<String> webhookTypes(Long tradeId) throws IOException {
+        List<String> types = new ArrayList<>();
+        for (String body : WEBHOOK_BODIES) {
+            for (JsonNode event : objectMapper.readTree(body)) {
+                if (event.get("tradeId").asLong() == tradeId) {
+                    types.add(event.get("eventType").asText());
+                }
+            }
+        }
+        return types;
+    }
+
+    private static List<String> types(List<TradeEventDTO> events, Long tradeId) {
+        return events.stream().filter(event -> tradeId.equals(event.getTradeId())).map(TradeEventDTO::getEventType).toList();
+    }
+
+    private static Path tempFile() {
+        try {
+            return Files.createTempDirectory("trade-events").resolve("events.ndjson");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HttpServer startWebhook() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/trade-events", exchange -> {
+                try (InputStream body = exchange.getRequestBody()) {
+                    String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    int status = webhookStatus;
+                    if (status == 200) {
+                        WEBHOOK_BODIES.add(json);
+                    }
+                    exchange.sendResponseHeaders(status, -1);
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.technicalchallenge.position;
+
+import com.technicalchallenge.dto.CashflowTotalDTO;
+import com.technicalchallenge.dto.DailySummaryDTO;
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.dto.TradeSummaryDTO;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Cashflow;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.PayRec;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.TradePositionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PositionEngineTest {
+
+    private static final LocalDate TRADE_DATE = LocalDate.of(2024, 6, 3);
+    private static final LocalDate VALUE_DATE = LocalDate.of(2024, 9, 3);
+    // Book, counterparty and currency ids the loaded rows use; SmallFund and GBP are not loaded
+    private static final Map<String, Long> IDS = Map.of(
+            "FX-BOOK-1", 1000L, "RATES-BOOK-1", 1001L,
+            "BigBank", 1L, "MegaFund", 2L, "SmallFund", 3L,
+            "USD", 1L, "EUR", 2L, "GBP", 3L);
+
+    @Mock
+    private TradePositionRepository tradePositionRepository;
+
+    private PositionEngine positionEngine;
+
+    @BeforeEach
+    void setUp() {
+        when(tradePositionRepository.findBookHierarchy()).thenReturn(List.of(
+                new Object[]{1000L, "FX-BOOK-1", 1L, "CC-FX", 1L, "FX-SPOT", 1L, "FX"},
+                new Object[]{1001L, "RATES-BOOK-1", 2L, "CC-RATES", 2L, "RATES-SWAPS", 2L, "RATES"}));
+        when(tradePositionRepository.findCounterpartyNames()).thenReturn(List.of(
+                new Object[]{1L, "BigBank"}, new Object[]{2L, "MegaFund"}));
+        when(tradePositionRepository.findCurrencyNames()).thenReturn(List.of(
+                new Object[]{1L, "USD"}, new Object[]{2L, "EUR"}));
+        when(tradePositionRepository.countActiveTradesByStatus()).thenReturn(List.<Object[]>of(new Object[]{"NEW", 2L}));
+        when(tradePositionRepository.countLiveTradesByTradeDate()).thenReturn(List.<Object[]>of(new Object[]{TRADE_DATE, 2L}));
+        when(tradePositionRepository.sumLiveNotionals()).thenReturn(List.of(
+                new Object[]{1000L, 1L, TRADE_DATE, 1L, 1L, new BigDecimal("1000000"), BigDecimal.ZERO},
+                new Object[]{1000L, 1L, TRADE_DATE, 2L, 1L, BigDecimal.ZERO, new BigDecimal("900000")},
+                new Object[]{1001L, 2L, TRADE_DATE, 1L, 1L, BigDecimal.ZERO, new BigDecimal("5000000")}));
+        when(tradePositionRepository.sumLiveCashflows()).thenReturn(List.<Object[]>of(
+                new Object[]{VALUE_DATE, 1L, 2L, new BigDecimal("10000"), new BigDecimal("50000")}));
+
+        positionEngine = new PositionEngine(tradePositionRepository);
+        positionEngine.rebuild();
+    }
+
+    @Test
+    void testRebuild_RollsBookTotalsUpTheHierarchy() {
+        TradeSummaryDTO summary = positionEngine.summary();
+        assertEquals(2, summary.getTotalTrades());
+        assertEquals(2L, summary.getTotalTradesByStatus().get("NEW"));
+
+        PositionDTO usd = position(summary.getTotalNotionalAmountsByCurrency(), "USD", "USD");
+        assertEquals(2, usd.getTrades());
+        assertAmount("1000000", usd.getPayNotional());
+        assertAmount("5000000", usd.getReceiveNotional());
+        assertAmount("4000000", usd.getNetNotional());
+
+        assertEquals(2, positionEngine.positions(PositionEngine.DESK, "FX").size());
+        assertEquals(2, positionEngine.positions(PositionEngine.COST_CENTER, "CC-FX").size());
+        assertAmount("5000000", position(positionEngine.positions(PositionEngine.SUB_DESK), "RATES-SWAPS", "USD").getReceiveNotional());
+    }
+
+    @Test
+    void testRecord_BookingAddsToEveryLevel() {
+        positionEngine.record(null, TradePosition.of(trade("NEW", "RATES-BOOK-1", "MegaFund",
+                leg("USD", "Pay", "2000000", new BigDecimal("5000")))));
+
+        assertEquals(3, positionEngine.summary().getTotalTrades());
+        PositionDTO ratesUsd = position(positionEngine.positions(PositionEngine.DESK, "RATES"), "RATES", "USD");
+        assertEquals(2, ratesUsd.getTrades());
+        assertAmount("2000000", ratesUsd.getPayNotional());
+        assertAmount("3000000", ratesUsd.getNetNotional());
+
+        CashflowTotalDTO cashflows = positionEngine.cashflows(VALUE_DATE, VALUE_DATE).get(0);
+        assertEquals(3, cashflows.getCashflows());
+        assertAmount("15000", cashflows.getPayAmount());
+
+        DailySummaryDTO daily = positionEngine.dailySummary(TRADE_DATE);
+        assertEquals(3, daily.getTotalTrades());
+        assertEquals(3, daily.getBookLevelSummaries().size());
+        assertAmount("3000000", position(daily.getTotalNotional(), "USD", "USD").getPayNotional());
+    }
+
+    @Test
+    void testRecord_AmendmentSwapsTheOldVersionForTheNew() {
+        Trade booked = trade("NEW", "RATES-BOOK-1", "MegaFund", leg("USD", "Pay", "2000000", new BigDecimal("5000")));
+        positionEngine.record(null, TradePosition.of(booked));
+
+        Trade amended = trade("AMENDED", "FX-BOOK-1", "MegaFund", leg("GBP", "Receive", "750000"));
+        positionEngine.record(TradePosition.of(booked), TradePosition.of(amended));
+
+        TradeSummaryDTO summary = positionEngine.summary();
+        assertEquals(3, summary.getTotalTrades());
+        assertEquals(1L, summary.getTotalTradesByStatus().get("AMENDED"));
+        assertEquals(1, positionEngine.positions(PositionEngine.DESK, "RATES").get(0).getTrades());
+        assertAmount("750000", position(positionEngine.positions(PositionEngine.DESK, "FX"), "FX", "GBP").getReceiveNotional());
+        assertAmount("10000", positionEngine.cashflows(VALUE_DATE, VALUE_DATE).get(0).getPayAmount());
+    }
+
+    @Test
+    void testRecord_CancellingTakesTheTradeOutOfThePositions() {
+        Trade trade = trade("NEW", "RATES-BOOK-1", "MegaFund", leg("USD", "Pay", "2000000", new BigDecimal("5000")));
+        positionEngine.record(null, TradePosition.of(trade));
+
+        TradePosition before = TradePosition.of(trade);
+        trade.setTradeStatus(status("CANCELLED"));
+        positionEngine.record(before, TradePosition.of(trade));
+
+        TradeSummaryDTO summary = positionEngine.summary();
+        assertEquals(3, summary.getTotalTrades());
+        assertEquals(2L, summary.getTotalTradesByStatus().get("NEW"));
+        assertEquals(1L, summary.getTotalTradesByStatus().get("CANCELLED"));
+        PositionDTO ratesUsd = position(positionEngine.positions(PositionEngine.DESK, "RATES"), "RATES", "USD");
+        assertEquals(1, ratesUsd.getTrades());
+        assertAmount("0", ratesUsd.getPayNotional());
+        assertEquals(2, positionEngine.cashflows(VALUE_DATE, VALUE_DATE).get(0).getCashflows());
+        assertEquals(2, positionEngine.dailySummary(TRADE_DATE).getTotalTrades());
+
+        // Nothing is left under a counterparty whose only trade was cancelled
+        Trade smallFund = trade("NEW", "FX-BOOK-1", "SmallFund", leg("USD", "Pay", "1"));
+        positionEngine.record(null, TradePosition.of(smallFund));
+        TradePosition open = TradePosition.of(smallFund);
+        smallFund.setTradeStatus(status("CANCELLED"));
+        positionEngine.record(open, TradePosition.of(smallFund));
+        assertTrue(positionEngine.positions(PositionEngine.COUNTERPARTY, "SmallFund").isEmpty());
+    }
+
+    @Test
+    void testRefreshHierarchy_ReRollsWithoutReloadingTrades() {
+        when(tradePositionRepository.findBookHierarchy()).thenReturn(List.of(
+                new Object[]{1000L, "FX-BOOK-1", 1L, "CC-FX", 1L, "FX-SPOT", 1L, "FX"},
+                new Object[]{1001L, "RATES-BOOK-1", 1L, "CC-FX", 1L, "FX-SPOT", 1L, "FX"}));
+
+        positionEngine.refreshHierarchy();
+
+        assertEquals(2, position(positionEngine.positions(PositionEngine.DESK, "FX"), "FX", "USD").getTrades());
+        assertTrue(positionEngine.positions(PositionEngine.DESK, "RATES").isEmpty());
+        verify(tradePositionRepository, times(1)).sumLiveNotionals();
+    }
+
+    @Test
+    void testRecord_CashflowsFollowTheLadderRule() {
+        TradeLeg leg = leg("USD", "Pay", "1000000", new BigDecimal("100"), new BigDecimal("200"), new BigDecimal("400"));
+        PayRec receive = new PayRec();
+        receive.setPayRec("Receive");
+        leg.getCashflows().get(0).setPayRec(receive);
+        leg.getCashflows().get(1).setActive(false);
+
+        positionEngine.record(null, TradePosition.of(trade("NEW", "FX-BOOK-1", "BigBank", leg)));
+
+        CashflowTotalDTO cashflows = positionEngine.cashflows(VALUE_DATE, VALUE_DATE).get(0);
+        assertEquals(4, cashflows.getCashflows());
+        assertAmount("10400", cashflows.getPayAmount());
+        assertAmount("50100", cashflows.getReceiveAmount());
+    }
+
+    @Test
+    void testRenames_KeepTheTotalsUnderTheNewName() {
+        // Captured before the renames, so it still carries the old names
+        TradePosition booked = TradePosition.of(trade("NEW", "RATES-BOOK-1", "MegaFund", leg("USD", "Pay", "2000000")));
+        when(tradePositionRepository.findBookHierarchy()).thenReturn(List.of(
+                new Object[]{1000L, "FX-BOOK-1", 1L, "CC-FX", 1L, "FX-SPOT", 1L, "FX"},
+                new Object[]{1001L, "RATES-BOOK-2", 2L, "CC-RATES", 2L, "RATES-SWAPS", 2L, "RATES"}));
+        when(tradePositionRepository.findCounterpartyNames()).thenReturn(List.of(
+                new Object[]{1L, "BigBank"}, new Object[]{2L, "MegaFund Ltd"}));
+        when(tradePositionRepository.findCurrencyNames()).thenReturn(List.of(
+                new Object[]{1L, "USN"}, new Object[]{2L, "EUR"}));
+
+        positionEngine.refreshHierarchy();
+        positionEngine.refreshNames();
+        positionEngine.record(null, booked);
+
+        assertTrue(positionEngine.positions(PositionEngine.BOOK, "RATES-BOOK-1").isEmpty());
+        PositionDTO book = position(positionEngine.positions(PositionEngine.BOOK, "RATES-BOOK-2"), "RATES-BOOK-2", "USN");
+        assertEquals(2, book.getTrades());
+        assertAmount("2000000", book.getPayNotional());
+        assertEquals(2, position(positionEngine.positions(PositionEngine.COUNTERPARTY), "MegaFund Ltd", "USN").getTrades());
+        assertTrue(positionEngine.positions(PositionEngine.COUNTERPARTY, "MegaFund").isEmpty());
+        assertEquals("USN", positionEngine.cashflows(VALUE_DATE, VALUE_DATE).get(0).getCurrency());
+        verify(tradePositionRepository, times(1)).sumLiveNotionals();
+    }
+
+    @Test
+    void testRebuild_WaitsForAChangeThatIsCommitting() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            positionEngine.record(null, TradePosition.of(trade("NEW", "FX-BOOK-1", "BigBank", leg("USD", "Pay", "100"))));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+            // The reload reads the database while the change commits, so its snapshot already holds the trade
+            when(tradePositionRepository.countActiveTradesByStatus()).thenReturn(List.<Object[]>of(new Object[]{"NEW", 3L}));
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> rebuild = executor.submit(positionEngine::rebuild);
+                assertThrows(TimeoutException.class, () -> rebuild.get(200, TimeUnit.MILLISECONDS));
+
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+                synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                rebuild.get(5, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(3, positionEngine.summary().getTotalTrades());
+    }
+
+    @Test
+    void testUnknownLevelAndReversedRange_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> positionEngine.positions("region"));
+        assertThrows(IllegalArgumentException.class, () -> positionEngine.cashflows(VALUE_DATE, TRADE_DATE));
+    }
+
+    @Test
+    void testRecord_BeforeTheFirstLoadIsLeftToTheLoad() {
+        PositionEngine notLoaded = new PositionEngine(mock(TradePositionRepository.class));
+
+        notLoaded.record(null, TradePosition.of(trade("NEW", "FX-BOOK-1", "BigBank", leg("USD", "Pay", "100"))));
+
+        assertEquals(0, notLoaded.summary().getTotalTrades());
+    }
+
+    private static PositionDTO position(List<PositionDTO> positions, String name, String currency) {
+        return positions.stream()
+                .filter(position -> name.equals(position.getName()) && currency.equals(position.getCurrency()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    private static Trade trade(String status, String bookName, String counterpartyName, TradeLeg... legs) {
+        Book book = new Book();
+        book.setId(IDS.get(bookName));
+        book.setBookName(bookName);
+        Counterparty counterparty = new Counterparty();
+        counterparty.setId(IDS.get(counterpartyName));
+        counterparty.setName(counterpartyName);
+
+        Trade trade = new Trade();
+        trade.setTradeStatus(status(status));
+        trade.setBook(book);
+        trade.setCounterparty(counterparty);
+        trade.setTradeDate(TRADE_DATE);
+        trade.setTradeLegs(List.of(legs));
+        return trade;
+    }
+
+    private static TradeStatus status(String name) {
+        TradeStatus status = new TradeStatus();
+        status.setTradeStatus(name);
+        return status;
+    }
+
+    private static TradeLeg leg(String currencyCode, String payRec, String notional, BigDecimal... payments) {
+        Currency currency = new Currency();
+        currency.setId(IDS.get(currencyCode));
+        currency.setCurrency(currencyCode);
+        PayRec flag = new PayRec();
+        flag.setPayRec(payRec);
+
+        TradeLeg leg = new TradeLeg();
+        leg.setCurrency(currency);
+        leg.setPayReceiveFlag(flag);
+        leg.setNotional(new BigDecimal(notional));
+        leg.setCashflows(Arrays.stream(payments).map(payment -> {
+            Cashflow cashflow = new Cashflow();
+            cashflow.setValueDate(VALUE_DATE);
+            cashflow.setPaymentValue(payment);
+            return cashflow;
+        }).toList());
+        return leg;
+    }
+}
@@ -0,0 +1,81 @@
+package com.technicalchallenge.position;
+
+import com.technicalchallenge.dto.CashflowTotalDTO;
+import com.technicalchallenge.dto.DailySummaryDTO;
+import com.technicalchallenge.dto.PositionDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books, amends, terminates and cancels trades through TradeService against H2 with the real
+ * migrations, then checks the totals PositionEngine kept up incrementally match a full reload.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=position-reconciliation")
+class PositionReconciliationTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private PositionEngine positionEngine;
+
+    @Test
+    void testIncrementalTotals_MatchAFullReload() {
+        List<String> before = snapshot();
+
+        Trade amended = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("RATES-BOOK-1", TradeFixtures.COUNTERPARTY, 10_000_000), "simon");
+        Trade terminated = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("FX-BOOK-1", TradeFixtures.COUNTERPARTY, 5_000_000), "simon");
+        Trade cancelled = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("RATES-BOOK-1", TradeFixtures.COUNTERPARTY, 2_000_000), "simon");
+        tradeService.amendTrade(amended.getTradeId(), TradeFixtures.oneYearQuarterlySwap("FX-BOOK-1", TradeFixtures.COUNTERPARTY, 7_500_000), "simon");
+        tradeService.terminateTrade(terminated.getTradeId(), "simon");
+        tradeService.cancelTrade(cancelled.getTradeId(), "simon");
+
+        List<String> incremental = snapshot();
+        assertNotEquals(before, incremental);
+
+        positionEngine.rebuild();
+        assertEquals(snapshot(), incremental);
+    }
+
+    // Every total as text; amounts without trailing zeros, since the database keeps two decimals
+    private List<String> snapshot() {
+        List<String> lines = new ArrayList<>();
+        lines.add("status " + positionEngine.summary().getTotalTradesByStatus());
+        for (String level : PositionEngine.LEVELS) {
+            for (PositionDTO position : positionEngine.positions(level)) {
+                lines.add(level + " " + position.getName() + " " + position.getCurrency() + " " + position.getTrades()
+                        + " " + plain(position.getPayNotional()) + " " + plain(position.getReceiveNotional()));
+            }
+        }
+        for (CashflowTotalDTO total : positionEngine.cashflows(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1))) {
+            lines.add("cashflow " + total.getValueDate() + " " + total.getCurrency() + " " + total.getCashflows()
+                    + " " + plain(total.getPayAmount()) + " " + plain(total.getReceiveAmount()));
+        }
+        DailySummaryDTO today = positionEngine.dailySummary(LocalDate.now());
+        lines.add("today " + today.getTotalTrades());
+        for (PositionDTO book : today.getBookLevelSummaries()) {
+            lines.add("today " + book.getName() + " " + book.getCurrency() + " " + book.getTrades()
+                    + " " + plain(book.getPayNotional()) + " " + plain(book.getReceiveNotional()));
+        }
+        return lines;
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Currency;
+import com.technicalchallenge.model.Desk;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that cached books, which carry their cost center, sub desk and desk, never outlive a write.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=book-cache-eviction")
+class BookCacheEvictionTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DeskRepository deskRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testDeskRename_EvictsTheCachedBook() {
+        Book cached = bookRepository.findByBookName("FX-BOOK-1").orElseThrow();
+        Desk desk = deskRepository.findById(cached.getCostCenter().getSubDesk().getDesk().getId()).orElseThrow();
+        desk.setDeskName("Renamed Desk");
+
+        deskRepository.saveAll(List.of(desk));
+
+        assertEquals("Renamed Desk",
+                bookRepository.findByBookName("FX-BOOK-1").orElseThrow().getCostCenter().getSubDesk().getDesk().getDeskName());
+    }
+
+    @Test
+    void testSaveAll_EvictsTheCachedBook() {
+        Book cached = bookRepository.findByBookName("RATES-BOOK-1").orElseThrow();
+        assertSame(cached, bookRepository.findByBookName("RATES-BOOK-1").orElseThrow());
+        cached.setBookName("RATES-BOOK-9");
+
+        bookRepository.saveAll(List.of(cached));
+
+        assertTrue(bookRepository.findByBookName("RATES-BOOK-1").isEmpty());
+        assertEquals("RATES-BOOK-9", bookRepository.findById(cached.getId()).orElseThrow().getBookName());
+    }
+
+    @Test
+    void testBatchDelete_EvictsTheCachedCurrency() {
+        Currency currency = new Currency();
+        currency.setCurrency("XTS");
+        currency = currencyRepository.save(currency);
+        assertTrue(currencyRepository.findByCurrency("XTS").isPresent());
+
+        currencyRepository.deleteAllByIdInBatch(List.of(currency.getId()));
+
+        assertTrue(currencyRepository.findByCurrency("XTS").isEmpty());
+    }
+
+    @Test
+    void testWriteInsideATransaction_EvictsOnlyOnCommit() {
+        Book cached = bookRepository.findByBookName("FX-BOOK-1").orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(cached.getId()).orElseThrow();
+            bookRepository.save(book);
+            assertSame(cached, bookRepository.findByBookName("FX-BOOK-1").orElseThrow());
+        });
+
+        assertNotSame(cached, bookRepository.findByBookName("FX-BOOK-1").orElseThrow());
+    }
+
+    @Test
+    void testRolledBackWrite_KeepsTheCachedBook() {
+        Book cached = bookRepository.findByBookName("FX-BOOK-1").orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Desk desk = deskRepository.findById(cached.getCostCenter().getSubDesk().getDesk().getId()).orElseThrow();
+            desk.setDeskName("Never Committed");
+            deskRepository.save(desk);
+            status.setRollbackOnly();
+        });
+
+        assertSame(cached, bookRepository.findByBookName("FX-BOOK-1").orElseThrow());
+    }
+}
@@ -0,0 +1,135 @@
+package com.technicalchallenge.repository;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.service.TradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against H2 and checks the trade version constraints they add.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=schema-constraints")
+class TradeSchemaConstraintTest {
+
+    private static final Long SEEDED_TRADE_ID = 100002L;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSecondActiveVersion_IsRejected() {
+        Trade secondActive = new Trade();
+        secondActive.setTradeId(SEEDED_TRADE_ID);
+        secondActive.setVersion(2);
+        secondActive.setActive(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> tradeRepository.saveAndFlush(secondActive));
+    }
+
+    @Test
+    void testDuplicateVersion_IsRejected() {
+        Trade duplicateVersion = new Trade();
+        duplicateVersion.setTradeId(SEEDED_TRADE_ID);
+        duplicateVersion.setVersion(1);
+        duplicateVersion.setActive(false);
+
+        assertThrows(DataIntegrityViolationException.class, () -> tradeRepository.saveAndFlush(duplicateVersion));
+    }
+
+    @Test
+    void testAmendTrade_LeavesOneActiveVersion() {
+        Trade booked = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+
+        Trade amended = tradeService.amendTrade(booked.getTradeId(), TradeFixtures.oneYearQuarterlySwap(), "simon");
+
+        assertEquals(2, amended.getVersion());
+        List<Trade> versions = tradeRepository.findByTradeId(booked.getTradeId());
+        assertEquals(2, versions.size());
+        assertEquals(1, versions.stream().filter(Trade::getActive).count());
+        assertEquals(2, tradeRepository.findByTradeIdAndActiveTrue(booked.getTradeId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testAsOf_ReadsEachVersionInItsOwnPeriod() {
+        Trade booked = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+        TradeDTO amendment = TradeFixtures.oneYearQuarterlySwap();
+        amendment.setBookName("FX-BOOK-1");
+        tradeService.amendTrade(booked.getTradeId(), amendment, "simon");
+
+        List<Trade> history = tradeService.getTradeHistory(booked.getTradeId());
+        assertEquals(List.of(1, 2), history.stream().map(Trade::getVersion).toList());
+        // The first version ends exactly when the amendment starts
+        LocalDateTime amendedAt = history.get(1).getCreatedDate();
+        assertEquals(amendedAt, history.get(0).getDeactivatedDate());
+
+        assertEquals(1, tradeService.getTradeById(booked.getTradeId(), amendedAt.minusNanos(1000)).orElseThrow().getVersion());
+        assertEquals(2, tradeService.getTradeById(booked.getTradeId(), amendedAt).orElseThrow().getVersion());
+        assertTrue(tradeService.getTradeById(booked.getTradeId(), booked.getCreatedDate().minusNanos(1000)).isEmpty());
+
+        // Searching a book as of a time finds the version that was in the book then
+        TradeSearchDTO ratesBookBefore = new TradeSearchDTO();
+        ratesBookBefore.setBook("RATES-BOOK-1");
+        ratesBookBefore.setAsOf(amendedAt.minusNanos(1000));
+        assertTrue(tradeService.searchTrade(ratesBookBefore).stream()
+                .anyMatch(trade -> trade.getTradeId().equals(booked.getTradeId()) && trade.getVersion() == 1));
+        ratesBookBefore.setAsOf(amendedAt);
+        assertTrue(tradeService.searchTrade(ratesBookBefore).stream()
+                .noneMatch(trade -> trade.getTradeId().equals(booked.getTradeId())));
+    }
+
+    @Test
+    void testAsOf_ReadsACancelledTradeAsBookedBeforeTheCancel() {
+        Trade booked = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon");
+
+        Trade cancelled = tradeService.cancelTrade(booked.getTradeId(), "simon");
+
+        assertEquals(2, cancelled.getVersion());
+        List<Trade> history = tradeService.getTradeHistory(booked.getTradeId());
+        assertEquals(List.of(1, 2), history.stream().map(Trade::getVersion).toList());
+        assertEquals(List.of(false, true), history.stream().map(Trade::getActive).toList());
+        LocalDateTime cancelledAt = history.get(1).getCreatedDate();
+        assertEquals(cancelledAt, history.get(0).getDeactivatedDate());
+        assertEquals(List.of("NEW", "CANCELLED"), history.stream().map(trade -> status(trade.getId())).toList());
+
+        Trade beforeCancel = tradeService.getTradeById(booked.getTradeId(), cancelledAt.minusNanos(1000)).orElseThrow();
+        assertEquals(1, beforeCancel.getVersion());
+        assertEquals("NEW", status(beforeCancel.getId()));
+        assertEquals(2, tradeService.getTradeById(booked.getTradeId(), cancelledAt).orElseThrow().getVersion());
+
+        // The cancelled version keeps the legs and cashflows of the version it replaced
+        List<Integer> cashflowsPerLeg = cashflowsPerLeg(history.get(0).getId());
+        assertEquals(2, cashflowsPerLeg.size());
+        assertEquals(cashflowsPerLeg, cashflowsPerLeg(history.get(1).getId()));
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT s.trade_status FROM trade t JOIN trade_status s ON s.id = t.trade_status_id "
+                + "WHERE t.id = ?", String.class, id);
+    }
+
+    private List<Integer> cashflowsPerLeg(Long id) {
+        return jdbcTemplate.queryForList("SELECT COUNT(c.id) FROM trade_leg l LEFT JOIN cashflow c ON c.leg_id = l.leg_id "
+                + "WHERE l.trade_id = ? GROUP BY l.leg_id ORDER BY l.leg_id", Integer.class, id);
+    }
+}
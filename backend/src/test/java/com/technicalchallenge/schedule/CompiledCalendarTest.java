@@ -0,0 +1,116 @@
+package com.technicalchallenge.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledCalendarTest {
+
+    private static final long[] NY_2025 = days(
+            "2025-01-01", "2025-01-20", "2025-02-17", "2025-05-26", "2025-06-19", "2025-07-04",
+            "2025-09-01", "2025-10-13", "2025-11-11", "2025-11-27", "2025-12-25");
+    private static final long[] LON_2025 = days(
+            "2025-01-01", "2025-04-18", "2025-04-21", "2025-05-05", "2025-05-26", "2025-08-25",
+            "2025-12-25", "2025-12-26");
+
+    @Test
+    void testHolidaysAndWeekendsAreClosed() {
+        CompiledCalendar ny = CompiledCalendar.compile("NY", NY_2025);
+
+        assertFalse(ny.isBusinessDay(day("2025-07-04")));
+        assertFalse(ny.isBusinessDay(day("2025-07-05")));
+        assertTrue(ny.isBusinessDay(day("2025-07-07")));
+        // Good Friday is a London holiday only
+        assertTrue(ny.isBusinessDay(day("2025-04-18")));
+        assertEquals(LocalDate.of(2025, 1, 1), ny.getFirstCompiledDate());
+        assertEquals(LocalDate.of(2025, 12, 31), ny.getLastCompiledDate());
+    }
+
+    @Test
+    void testAdjust_SkipsHolidays() {
+        CompiledCalendar ny = CompiledCalendar.compile("NY", NY_2025);
+
+        assertEquals(day("2025-07-07"), ny.adjust(day("2025-07-04"), ScheduleEngine.RollConvention.FOLLOWING));
+        assertEquals(day("2025-07-03"), ny.adjust(day("2025-07-05"), ScheduleEngine.RollConvention.PRECEDING));
+        assertEquals(day("2025-07-04"), ny.adjust(day("2025-07-04"), ScheduleEngine.RollConvention.UNADJUSTED));
+    }
+
+    @Test
+    void testJointCalendar_ModifiedFollowingStaysInMonth() {
+        CompiledCalendar joint = CompiledCalendar.compile("LON+NY", concat(NY_2025, LON_2025));
+
+        // Sat 30 Aug: Mon 1 Sep is Labor Day, Tue 2 Sep is the next month, so roll back to Fri 29 Aug
+        assertEquals(day("2025-08-29"), joint.adjust(day("2025-08-30"), ScheduleEngine.RollConvention.MODIFIED_FOLLOWING));
+        // Sat 24 May: Mon 26 May is closed in both centres
+        assertEquals(day("2025-05-27"), joint.adjust(day("2025-05-24"), ScheduleEngine.RollConvention.MODIFIED_FOLLOWING));
+        // Christmas and Boxing Day
+        assertEquals(day("2025-12-29"), joint.adjust(day("2025-12-25"), ScheduleEngine.RollConvention.FOLLOWING));
+        assertFalse(joint.isBusinessDay(day("2025-08-25")));
+    }
+
+    @Test
+    void testAdjust_OutsideCompiledYearsFallsBackToWeekends() {
+        CompiledCalendar ny = CompiledCalendar.compile("NY", NY_2025);
+
+        // Preceding from 1 Jan 2025 leaves the compiled range
+        assertEquals(day("2024-12-31"), ny.adjust(day("2025-01-01"), ScheduleEngine.RollConvention.PRECEDING));
+        // Following from Wed 31 Dec 2025 is itself; from Sat 3 Jan 2026 it is Mon 5 Jan
+        assertEquals(day("2025-12-31"), ny.adjust(day("2025-12-31"), ScheduleEngine.RollConvention.FOLLOWING));
+        assertEquals(day("2026-01-05"), ny.adjust(day("2026-01-03"), ScheduleEngine.RollConvention.FOLLOWING));
+        assertTrue(ny.isBusinessDay(day("2030-07-04")));
+    }
+
+    @Test
+    void testEmptyCalendar_IsWeekendsOnly() {
+        CompiledCalendar empty = CompiledCalendar.compile("EMPTY", new long[0]);
+
+        assertNull(empty.getFirstCompiledDate());
+        assertEquals(day("2025-06-16"), empty.adjust(day("2025-06-15"), ScheduleEngine.RollConvention.FOLLOWING));
+    }
+
+    @Test
+    void testBitScan_AgreesWithDayByDayLookup() {
+        // Dense random holidays so adjustments cross 64 day words and the compiled range ends
+        Random random = new Random(42);
+        long first = day("2024-01-01");
+        Set<Long> holidays = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            holidays.add(first + random.nextInt(3 * 366));
+        }
+        long[] holidayDays = holidays.stream().mapToLong(Long::longValue).toArray();
+        CompiledCalendar compiled = CompiledCalendar.compile("RANDOM", holidayDays);
+        BusinessCalendar reference = epochDay -> !BusinessCalendar.isWeekend(epochDay) && !holidays.contains(epochDay);
+
+        for (long epochDay = first - 40; epochDay < first + 4 * 366; epochDay++) {
+            assertEquals(reference.isBusinessDay(epochDay), compiled.isBusinessDay(epochDay), "isBusinessDay " + LocalDate.ofEpochDay(epochDay));
+            for (ScheduleEngine.RollConvention convention : ScheduleEngine.RollConvention.values()) {
+                assertEquals(reference.adjust(epochDay, convention), compiled.adjust(epochDay, convention),
+                        convention + " " + LocalDate.ofEpochDay(epochDay));
+            }
+        }
+    }
+
+    private static long day(String isoDate) {
+        return LocalDate.parse(isoDate).toEpochDay();
+    }
+
+    private static long[] days(String... isoDates) {
+        long[] days = new long[isoDates.length];
+        for (int i = 0; i < isoDates.length; i++) {
+            days[i] = day(isoDates[i]);
+        }
+        return days;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.technicalchallenge.schedule;
+
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarRegistryTest {
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    private HolidayCalendarRegistry registry;
+    private final List<Object[]> holidayRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(holidayCalendarRepository.findAll()).thenReturn(List.of(calendar(1000L, "NY"), calendar(1001L, "LON")));
+        when(holidayRepository.findAllCalendarDates()).thenReturn(holidayRows);
+        holidayRows.add(new Object[]{1000L, LocalDate.of(2025, 7, 4)});
+        holidayRows.add(new Object[]{1000L, LocalDate.of(2025, 9, 1)});
+        holidayRows.add(new Object[]{1001L, LocalDate.of(2025, 8, 25)});
+
+        registry = new HolidayCalendarRegistry(holidayCalendarRepository, holidayRepository);
+        registry.rebuild();
+    }
+
+    @Test
+    void testSingleCalendar() {
+        assertFalse(registry.isBusinessDay("NY", LocalDate.of(2025, 7, 4)));
+        assertTrue(registry.isBusinessDay("LON", LocalDate.of(2025, 7, 4)));
+        assertTrue(registry.isBusinessDay("ny", LocalDate.of(2025, 8, 25)));
+    }
+
+    @Test
+    void testJointCalendar_ClosedOnEitherCentresHolidays() {
+        assertFalse(registry.isBusinessDay("NY+LON", LocalDate.of(2025, 7, 4)));
+        assertFalse(registry.isBusinessDay("NY+LON", LocalDate.of(2025, 8, 25)));
+        // Sat 23 Aug -> Mon 25 Aug (LON) -> Tue 26 Aug
+        assertEquals(LocalDate.of(2025, 8, 26),
+                registry.adjust("NY+LON", LocalDate.of(2025, 8, 23), ScheduleEngine.RollConvention.FOLLOWING));
+    }
+
+    @Test
+    void testJointCalendar_CompiledOncePerMemberSet() {
+        BusinessCalendar joint = registry.calendar("NY+LON");
+
+        assertSame(joint, registry.calendar("lon, ny"));
+        assertSame(joint, registry.calendar("LON+NY+NY"));
+        assertEquals("LON+NY", ((CompiledCalendar) joint).getName());
+    }
+
+    @Test
+    void testNoCalendar_IsWeekendsOnly() {
+        assertSame(BusinessCalendar.WEEKENDS_ONLY, registry.calendar(null));
+        assertSame(BusinessCalendar.WEEKENDS_ONLY, registry.calendar(" "));
+        assertSame(BusinessCalendar.WEEKENDS_ONLY, registry.calendarFor(null));
+    }
+
+    @Test
+    void testUnknownCalendar_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> registry.calendar("NY+TOKYO"));
+    }
+
+    @Test
+    void testRebuild_PicksUpNewHolidays() {
+        BusinessCalendar before = registry.calendar("LON");
+        assertTrue(before.isBusinessDay(LocalDate.of(2025, 12, 26).toEpochDay()));
+
+        holidayRows.add(new Object[]{1001L, LocalDate.of(2025, 12, 26)});
+        registry.rebuild();
+
+        assertNotSame(before, registry.calendar("LON"));
+        assertFalse(registry.isBusinessDay("LON", LocalDate.of(2025, 12, 26)));
+    }
+
+    private static HolidayCalendar calendar(Long id, String name) {
+        HolidayCalendar calendar = new HolidayCalendar();
+        calendar.setId(id);
+        calendar.setHolidayCalendar(name);
+        return calendar;
+    }
+}
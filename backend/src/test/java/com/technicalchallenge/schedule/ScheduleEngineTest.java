@@ -0,0 +1,120 @@
+package com.technicalchallenge.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleEngineTest {
+
+    private final ScheduleEngine scheduleEngine = new ScheduleEngine();
+
+    @Test
+    void testQuarterlyFixedLeg_AdjustsPaymentsButAccruesOnRollDates() {
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 3, 15), LocalDate.of(2026, 3, 15), 3,
+                BigDecimal.valueOf(1_000_000), 5.0, true,
+                ScheduleEngine.RollConvention.FOLLOWING, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(4, schedule.size());
+        // 15 Jun 2025 and 15 Mar 2026 fall on Sundays
+        assertEquals(LocalDate.of(2025, 6, 16), schedule.paymentDate(0));
+        assertEquals(LocalDate.of(2025, 9, 15), schedule.paymentDate(1));
+        assertEquals(LocalDate.of(2026, 3, 16), schedule.paymentDate(3));
+        assertEquals(LocalDate.of(2025, 6, 15), schedule.accrualEndDate(0));
+        assertEquals(LocalDate.of(2025, 6, 15), schedule.accrualStartDate(1));
+        for (int period = 0; period < schedule.size(); period++) {
+            assertEquals(0, schedule.amount(period).compareTo(new BigDecimal("12500.00")));
+        }
+    }
+
+    @Test
+    void testModifiedFollowing_StaysInTheSameMonth() {
+        // 31 Aug 2025 is a Sunday; following would land in September
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 5, 31), LocalDate.of(2025, 8, 31), 3,
+                BigDecimal.valueOf(1_000_000), 5.0, true,
+                ScheduleEngine.RollConvention.MODIFIED_FOLLOWING, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(1, schedule.size());
+        assertEquals(LocalDate.of(2025, 8, 29), schedule.paymentDate(0));
+    }
+
+    @Test
+    void testMonthEndStart_RollsFromStartDateWithoutDrifting() {
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 4, 30), 1,
+                BigDecimal.valueOf(1_000_000), 5.0, true,
+                ScheduleEngine.RollConvention.UNADJUSTED, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(3, schedule.size());
+        assertEquals(LocalDate.of(2025, 2, 28), schedule.accrualEndDate(0));
+        assertEquals(LocalDate.of(2025, 3, 31), schedule.accrualEndDate(1));
+        assertEquals(LocalDate.of(2025, 4, 30), schedule.accrualEndDate(2));
+    }
+
+    @Test
+    void testMaturityOffRollDate_AddsShortStubAccruedOn30360() {
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 12, 1), 3,
+                BigDecimal.valueOf(1_000_000), 5.0, true,
+                ScheduleEngine.RollConvention.UNADJUSTED, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(4, schedule.size());
+        assertEquals(LocalDate.of(2025, 10, 15), schedule.accrualStartDate(3));
+        assertEquals(LocalDate.of(2025, 12, 1), schedule.accrualEndDate(3));
+        // 46 days on 30/360: 1,000,000 * 5% * 46 / 360
+        assertEquals(0, schedule.amount(3).compareTo(new BigDecimal("6388.89")));
+        assertEquals(638_889L, schedule.amountUnscaled(3));
+    }
+
+    @Test
+    void testFloatingLeg_PaysZero() {
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2026, 1, 15), 6,
+                BigDecimal.valueOf(1_000_000), 5.0, false,
+                ScheduleEngine.RollConvention.UNADJUSTED, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(2, schedule.size());
+        assertEquals(0, schedule.amount(0).compareTo(BigDecimal.ZERO));
+    }
+
+    @Test
+    void testMaturityNotAfterStart_GivesEmptySchedule() {
+        LegSchedule schedule = scheduleEngine.generate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15), 1,
+                BigDecimal.valueOf(1_000_000), 5.0, true,
+                ScheduleEngine.RollConvention.UNADJUSTED, BusinessCalendar.WEEKENDS_ONLY);
+
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    void testParseFrequencyMonths() {
+        assertEquals(3, scheduleEngine.parseFrequencyMonths(null));
+        assertEquals(1, scheduleEngine.parseFrequencyMonths("Monthly"));
+        assertEquals(3, scheduleEngine.parseFrequencyMonths("Quarterly"));
+        assertEquals(6, scheduleEngine.parseFrequencyMonths("6M"));
+        assertEquals(12, scheduleEngine.parseFrequencyMonths("Yearly"));
+        assertThrows(IllegalArgumentException.class, () -> scheduleEngine.parseFrequencyMonths("Fortnightly"));
+        assertThrows(IllegalArgumentException.class, () -> scheduleEngine.parseFrequencyMonths("0M"));
+    }
+
+    @Test
+    void testRollConvention_FromReferenceDataNames() {
+        assertEquals(ScheduleEngine.RollConvention.UNADJUSTED, ScheduleEngine.RollConvention.from(null));
+        assertEquals(ScheduleEngine.RollConvention.FOLLOWING, ScheduleEngine.RollConvention.from("Following"));
+        assertEquals(ScheduleEngine.RollConvention.MODIFIED_FOLLOWING, ScheduleEngine.RollConvention.from("Modified Following"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleEngine.RollConvention.from("End of Month"));
+    }
+
+    @Test
+    void testEpochDayArithmetic_MatchesLocalDate() {
+        for (int year = 1899; year <= 2101; year++) {
+            for (int month = 1; month <= 12; month++) {
+                int lastDay = EpochDays.lengthOfMonth(year, month);
+                assertEquals(LocalDate.of(year, month, 1).lengthOfMonth(), lastDay);
+                assertEquals(LocalDate.of(year, month, 1).toEpochDay(), EpochDays.of(year, month, 1));
+                assertEquals(LocalDate.of(year, month, lastDay).toEpochDay(), EpochDays.of(year, month, lastDay));
+                assertEquals(year * 12L + month - 1, EpochDays.monthIndex(EpochDays.of(year, month, 1)));
+                assertEquals(year * 12L + month - 1, EpochDays.monthIndex(EpochDays.of(year, month, lastDay)));
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.dto.CashflowLadderDTO;
 import com.technicalchallenge.model.Cashflow;
 import com.technicalchallenge.model.PayRec;
 import com.technicalchallenge.model.TradeLeg;
@@ -189,4 +190,61 @@ public class CashflowServiceTest {
         // Then
         verify(cashflowRepository).deleteById(cashflowId);
     }
+
+    @Test
+    void testGetCashflowLadder_FoldsValueDatesIntoMonthlyBuckets() {
+        LocalDate from = LocalDate.of(2025, 1, 15);
+        LocalDate to = LocalDate.of(2025, 3, 10);
+        when(cashflowRepository.sumByValueDateAndCurrency(from, to, "FX-BOOK-1", null)).thenReturn(List.of(
+                new Object[]{LocalDate.of(2025, 1, 20), "USD", 2L, new BigDecimal("100.00"), new BigDecimal("40.00")},
+                new Object[]{LocalDate.of(2025, 1, 31), "USD", 1L, BigDecimal.ZERO, new BigDecimal("30.00")},
+                new Object[]{LocalDate.of(2025, 3, 3), "USD", 1L, BigDecimal.ZERO, new BigDecimal("500.00")},
+                new Object[]{LocalDate.of(2025, 2, 14), "EUR", 1L, new BigDecimal("75.00"), BigDecimal.ZERO}));
+
+        List<CashflowLadderDTO> ladder = cashflowService.getCashflowLadder(from, to,
+                CashflowService.LadderBucket.MONTHLY, "FX-BOOK-1", null);
+
+        assertEquals(3, ladder.size());
+        assertEquals("EUR", ladder.get(0).getCurrency());
+        assertEquals(0, new BigDecimal("-75.00").compareTo(ladder.get(0).getNetAmount()));
+
+        // January is clipped to start at the requested date, March to end at it
+        CashflowLadderDTO january = ladder.get(1);
+        assertEquals(from, january.getBucketStart());
+        assertEquals(LocalDate.of(2025, 1, 31), january.getBucketEnd());
+        assertEquals(3, january.getCashflows());
+        assertEquals(0, new BigDecimal("-100.00").compareTo(january.getPayAmount()));
+        assertEquals(0, new BigDecimal("70.00").compareTo(january.getReceiveAmount()));
+        assertEquals(0, new BigDecimal("-30.00").compareTo(january.getNetAmount()));
+
+        CashflowLadderDTO march = ladder.get(2);
+        assertEquals(LocalDate.of(2025, 3, 1), march.getBucketStart());
+        assertEquals(to, march.getBucketEnd());
+        assertEquals(0, new BigDecimal("470.00").compareTo(march.getCumulativeNetAmount()));
+    }
+
+    @Test
+    void testGetCashflowLadder_WeeksStartOnMonday() {
+        LocalDate from = LocalDate.of(2025, 6, 1);
+        LocalDate to = LocalDate.of(2025, 6, 30);
+        when(cashflowRepository.sumByValueDateAndCurrency(from, to, null, null)).thenReturn(List.of(
+                new Object[]{LocalDate.of(2025, 6, 11), "USD", 1L, BigDecimal.ZERO, BigDecimal.TEN},
+                new Object[]{LocalDate.of(2025, 6, 15), "USD", 1L, BigDecimal.ZERO, BigDecimal.ONE}));
+
+        List<CashflowLadderDTO> ladder = cashflowService.getCashflowLadder(from, to,
+                CashflowService.LadderBucket.from("weekly"), null, null);
+
+        assertEquals(1, ladder.size());
+        assertEquals(LocalDate.of(2025, 6, 9), ladder.get(0).getBucketStart());
+        assertEquals(LocalDate.of(2025, 6, 15), ladder.get(0).getBucketEnd());
+        assertEquals(2, ladder.get(0).getCashflows());
+    }
+
+    @Test
+    void testGetCashflowLadder_RejectsUnknownBucketAndReversedRange() {
+        assertThrows(IllegalArgumentException.class, () -> CashflowService.LadderBucket.from("quarterly"));
+        assertThrows(IllegalArgumentException.class, () -> cashflowService.getCashflowLadder(LocalDate.of(2025, 2, 1),
+                LocalDate.of(2025, 1, 1), CashflowService.LadderBucket.DAILY, null, null));
+        verifyNoInteractions(cashflowRepository);
+    }
 }
@@ -0,0 +1,72 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.HolidayDTO;
+import com.technicalchallenge.model.Holiday;
+import com.technicalchallenge.model.HolidayCalendar;
+import com.technicalchallenge.repository.HolidayCalendarRepository;
+import com.technicalchallenge.repository.HolidayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarServiceTest {
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    @InjectMocks
+    private HolidayCalendarService holidayCalendarService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkLoadHolidays_SkipsDatesAlreadyLoaded() {
+        HolidayCalendar ny = new HolidayCalendar();
+        ny.setId(1000L);
+        ny.setHolidayCalendar("NY");
+        when(holidayRepository.findDatesByHolidayCalendarId(1000L)).thenReturn(List.of(LocalDate.of(2025, 7, 4)));
+
+        int inserted = holidayCalendarService.bulkLoadHolidays(ny, List.of(
+                holiday(LocalDate.of(2025, 7, 4), "Independence Day"),
+                holiday(LocalDate.of(2025, 9, 1), "Labor Day"),
+                holiday(LocalDate.of(2025, 9, 1), "Labor Day"),
+                holiday(LocalDate.of(2025, 11, 27), "Thanksgiving Day")));
+
+        assertEquals(2, inserted);
+        ArgumentCaptor<List<Holiday>> saved = ArgumentCaptor.forClass(List.class);
+        verify(holidayRepository).saveAll(saved.capture());
+        assertEquals(List.of(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 11, 27)),
+                saved.getValue().stream().map(Holiday::getHolidayDate).toList());
+        assertSame(ny, saved.getValue().get(0).getHolidayCalendar());
+    }
+
+    @Test
+    void testBulkLoadHolidays_RejectsMissingDate() {
+        HolidayCalendar ny = new HolidayCalendar();
+        ny.setId(1000L);
+        when(holidayRepository.findDatesByHolidayCalendarId(1000L)).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> holidayCalendarService.bulkLoadHolidays(ny, List.of(holiday(null, "Unknown"))));
+        verify(holidayRepository, never()).saveAll(any());
+    }
+
+    private static HolidayDTO holiday(LocalDate date, String description) {
+        HolidayDTO dto = new HolidayDTO();
+        dto.setHolidayDate(date);
+        dto.setDescription(description);
+        return dto;
+    }
+}
@@ -0,0 +1,64 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataFanOutTest {
+
+    @Mock
+    private TradeReferenceResolver references;
+
+    private final TradeDTO tradeDTO = new TradeDTO();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void testPrefetch_OutsideATransaction_FansOut() {
+        ReferenceDataFanOut fanOut = new ReferenceDataFanOut(Executors.newSingleThreadExecutor());
+        try {
+            fanOut.prefetch(references, tradeDTO);
+        } finally {
+            fanOut.shutdown();
+        }
+
+        verify(references).prefetch(eq(tradeDTO), any(Executor.class));
+        verify(references, never()).prefetch(tradeDTO);
+    }
+
+    @Test
+    void testPrefetch_InsideATransaction_RunsOnTheCallersConnection() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        ReferenceDataFanOut fanOut = new ReferenceDataFanOut(Executors.newSingleThreadExecutor());
+        try {
+            fanOut.prefetch(references, tradeDTO);
+        } finally {
+            fanOut.shutdown();
+        }
+
+        verify(references).prefetch(tradeDTO);
+        verify(references, never()).prefetch(any(TradeDTO.class), any(Executor.class));
+    }
+
+    @Test
+    void testPrefetch_WithoutVirtualThreads_LeavesTheLookupsToValidation() {
+        new ReferenceDataFanOut(false).prefetch(references, tradeDTO);
+
+        verifyNoInteractions(references);
+    }
+}
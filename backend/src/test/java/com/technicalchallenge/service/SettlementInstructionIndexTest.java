@@ -0,0 +1,104 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.AdditionalInfoDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Settlement instruction search against H2 with the real migrations: the seeded instructions are
+ * indexed at startup, and new, replaced and removed instructions through AdditionalInfoService.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=settlement-instruction-index")
+class SettlementInstructionIndexTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private AdditionalInfoService additionalInfoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSeededInstructions_AreIndexedAtStartup() {
+        // Only the active version of trade 1000's instructions is indexed
+        assertEquals(List.of(1000L), ids(tradeService.searchTradesBySettlementInstructions("jpm")));
+        assertEquals(List.of(), ids(tradeService.searchTradesBySettlementInstructions("new york")));
+        assertEquals(List.of(1001L), ids(tradeService.searchTradesBySettlementInstructions("EUROCLEAR")));
+    }
+
+    @Test
+    void testSubstringTokenAndPhraseQueries() {
+        Long id = tradeService.createTrade(swapSettling("Settle via Citi Tokyo, ref XQ-7781"), "simon").getId();
+
+        assertEquals(List.of(id), ids(tradeService.searchTradesBySettlementInstructions("tokyo")));
+        assertEquals(List.of(id), ids(tradeService.searchTradesBySettlementInstructions("okyo xq-778 CITI")));
+        assertEquals(List.of(id), ids(tradeService.searchTradesBySettlementInstructions("\"via citi\" 81")));
+        assertEquals(List.of(id), ids(tradeService.searchTradesBySettlementInstructions("xq")));
+        assertEquals(List.of(), ids(tradeService.searchTradesBySettlementInstructions("\"citi via\"")));
+        assertEquals(List.of(), ids(tradeService.searchTradesBySettlementInstructions("tokyo london")));
+        assertThrows(IllegalArgumentException.class, () -> tradeService.searchTradesBySettlementInstructions("  "));
+    }
+
+    @Test
+    void testNewVersionsReplaceAndRemovalDropsTheIndexEntries() {
+        Long id = tradeService.createTrade(swapSettling("Settle via BNP Paris"), "simon").getId();
+        Long firstVersion = jdbcTemplate.queryForObject("SELECT id FROM additional_info WHERE entity_id = ? AND active = TRUE", Long.class, id);
+
+        additionalInfoService.addAdditionalInfo(instructions(id, "Settle via HSBC Hong Kong"));
+        assertEquals(List.of(), ids(tradeService.searchTradesBySettlementInstructions("paris")));
+        assertEquals(List.of(id), ids(tradeService.searchTradesBySettlementInstructions("hong kong")));
+        assertEquals(0, postings(firstVersion));
+
+        additionalInfoService.removeAdditionalInfo("TRADE", id, "SETTLEMENT_INSTRUCTIONS");
+        assertEquals(List.of(), ids(tradeService.searchTradesBySettlementInstructions("hsbc")));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM settlement_instruction_gram g"
+                + " JOIN additional_info a ON a.id = g.additional_info_id WHERE a.entity_id = ?", Integer.class, id));
+    }
+
+    @Test
+    void testGrams_OnePerCharacterIncludingTheEnd() {
+        assertEquals(List.of("ab:", "b: ", ":  "), List.copyOf(SettlementInstructionIndex.grams("AB:")));
+        assertEquals(List.of("aaa", "aa ", "a  "), List.copyOf(SettlementInstructionIndex.grams("aaaa")));
+        assertEquals(List.of("via citi", "xq"), SettlementInstructionIndex.terms("  \"VIA Citi\"   XQ "));
+    }
+
+    private int postings(Long additionalInfoId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM settlement_instruction_gram WHERE additional_info_id = ?",
+                Integer.class, additionalInfoId);
+    }
+
+    private static List<Long> ids(List<Trade> trades) {
+        return trades.stream().map(Trade::getId).sorted().toList();
+    }
+
+    private static AdditionalInfoDTO instructions(Long tradeId, String text) {
+        AdditionalInfoDTO info = new AdditionalInfoDTO();
+        info.setEntityType("TRADE");
+        info.setEntityId(tradeId);
+        info.setFieldName("SETTLEMENT_INSTRUCTIONS");
+        info.setFieldValue(text);
+        info.setFieldType("STRING");
+        return info;
+    }
+
+    private TradeDTO swapSettling(String settlementInstructions) {
+        TradeDTO trade = TradeFixtures.oneYearQuarterlySwap(TradeFixtures.BOOK, TradeFixtures.COUNTERPARTY, 1_000_000);
+        trade.setAdditionalFields(List.of(instructions(null, settlementInstructions)));
+        return trade;
+    }
+}
@@ -0,0 +1,89 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.TradeVersionConflictException;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Amends one trade from many threads at once against H2 with the real migrations. Every attempt
+ * amends the version it last read, so most race each other: exactly one amendment per version may
+ * win, the rest must get a version conflict, and the trade must end with a single active version.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=amend-concurrency")
+class TradeAmendConcurrencyTest {
+
+    // Below the default Hikari pool size, so threads race on the row rather than on connections
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Test
+    void testConcurrentAmendments_OneWinnerPerVersion() throws Exception {
+        Long tradeId = tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap(), "simon").getTradeId();
+
+        AtomicInteger amended = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            running.add(threads.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    TradeDTO amendment = TradeFixtures.oneYearQuarterlySwap();
+                    amendment.setVersion(tradeRepository.findActiveVersion(tradeId).orElseThrow());
+                    try {
+                        tradeService.amendTrade(tradeId, amendment, "simon");
+                        amended.incrementAndGet();
+                    } catch (TradeVersionConflictException e) {
+                        conflicts.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> thread : running) {
+            thread.get(2, TimeUnit.MINUTES);
+        }
+        threads.shutdown();
+
+        assertTrue(unexpected.isEmpty(), () -> "Amendments failed other than by conflict: " + unexpected);
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, amended.get() + conflicts.get());
+        assertTrue(amended.get() > 0);
+
+        List<Trade> versions = tradeRepository.findByTradeId(tradeId);
+        assertEquals(1 + amended.get(), versions.size());
+        assertEquals(1, versions.stream().filter(Trade::getActive).count());
+        assertEquals(1 + amended.get(), tradeRepository.findByTradeIdAndActiveTrue(tradeId).orElseThrow().getVersion());
+    }
+}
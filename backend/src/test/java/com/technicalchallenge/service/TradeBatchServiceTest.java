@@ -0,0 +1,198 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeBatchItemResultDTO;
+import com.technicalchallenge.dto.TradeBatchResultDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.ValidationResult;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeBatchServiceTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private AuthorizationEngine authorizationEngine;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TradeReferenceResolver references;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private TradeBatchService tradeBatchService;
+
+    private final List<TradeDTO> trades = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tradeBatchService, "chunkSize", 2);
+        for (long tradeId = 200001L; tradeId <= 200003L; tradeId++) {
+            trades.add(trade(tradeId));
+        }
+    }
+
+    @Test
+    void testBookTrades_AuthorizesOnceAndBooksInChunks() {
+        allowBooking();
+        when(tradeService.validateTradeAndLegs(any(TradeDTO.class), eq(references))).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(any(TradeDTO.class), eq(references))).thenAnswer(invocation -> booked(invocation.getArgument(0)));
+
+        TradeBatchResultDTO result = tradeBatchService.bookTrades(trades.iterator(), "simon");
+
+        assertEquals(3, result.getSubmitted());
+        assertEquals(3, result.getBooked());
+        assertEquals(List.of(200001L, 200002L, 200003L), result.getResults().stream().map(TradeBatchItemResultDTO::getTradeId).toList());
+        verify(authorizationEngine, times(1)).isAuthorized(anyString(), anyString(), any());
+        verify(tradeService, times(1)).newReferenceResolver();
+        // Chunks of two: one transaction for the first two trades and one for the last
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(references, times(3)).prefetch(any(TradeDTO.class));
+    }
+
+    @Test
+    void testBookTrades_InvalidTradeIsRejectedWithoutStoppingTheRest() {
+        allowBooking();
+        trades.get(1).setBookName(null);
+        trades.get(2).setTradeLegs(List.of());
+        when(tradeService.validateTradeAndLegs(any(TradeDTO.class), eq(references))).thenAnswer(invocation -> {
+            TradeDTO tradeDTO = invocation.getArgument(0);
+            return tradeDTO.getTradeLegs() == null
+                    ? new ValidationResult(true, null)
+                    : new ValidationResult(false, List.of("Trade must have exactly 2 legs"));
+        });
+        when(tradeService.bookTrade(any(TradeDTO.class), eq(references))).thenAnswer(invocation -> booked(invocation.getArgument(0)));
+
+        TradeBatchResultDTO result = tradeBatchService.bookTrades(trades.iterator(), "simon");
+
+        assertEquals(1, result.getBooked());
+        assertEquals(2, result.getRejected());
+        assertEquals(TradeBatchItemResultDTO.BOOKED, result.getResults().get(0).getStatus());
+        assertEquals(List.of("Book name is required"), result.getResults().get(1).getErrors());
+        assertEquals(List.of("Trade must have exactly 2 legs"), result.getResults().get(2).getErrors());
+        verify(tradeService, never()).bookTrade(eq(trades.get(1)), any());
+        verify(tradeService, never()).bookTrade(eq(trades.get(2)), any());
+    }
+
+    @Test
+    void testBookTrades_FailedChunkIsRetriedOneTradeAtATime() {
+        allowBooking();
+        when(tradeService.validateTradeAndLegs(any(TradeDTO.class), eq(references))).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(any(TradeDTO.class), eq(references))).thenAnswer(invocation -> {
+            TradeDTO tradeDTO = invocation.getArgument(0);
+            if (tradeDTO.getTradeId() == 200002L) {
+                throw new DataIntegrityViolationException("uk_trade_trade_id_version");
+            }
+            return booked(tradeDTO);
+        });
+
+        TradeBatchResultDTO result = tradeBatchService.bookTrades(trades.iterator(), "simon");
+
+        assertEquals(2, result.getBooked());
+        assertEquals(1, result.getFailed());
+        assertEquals(TradeBatchItemResultDTO.BOOKED, result.getResults().get(0).getStatus());
+        assertEquals(TradeBatchItemResultDTO.FAILED, result.getResults().get(1).getStatus());
+        assertEquals(TradeBatchItemResultDTO.BOOKED, result.getResults().get(2).getStatus());
+        // First chunk as a whole, then each of its trades alone, then the second chunk
+        verify(transactionTemplate, times(4)).execute(any());
+    }
+
+    @Test
+    void testBookTrades_StopsAtUnreadableTrade() {
+        allowBooking();
+        when(tradeService.validateTradeAndLegs(any(TradeDTO.class), eq(references))).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(any(TradeDTO.class), eq(references))).thenAnswer(invocation -> booked(invocation.getArgument(0)));
+        Iterator<TradeDTO> malformedAfterFirst = new Iterator<>() {
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public TradeDTO next() {
+                if (first) {
+                    first = false;
+                    return trades.get(0);
+                }
+                throw new IllegalStateException("Unexpected character at line 2");
+            }
+        };
+
+        TradeBatchResultDTO result = tradeBatchService.bookTrades(malformedAfterFirst, "simon");
+
+        assertEquals(2, result.getSubmitted());
+        assertEquals(1, result.getBooked());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getResults().get(1).getIndex());
+        assertEquals(List.of("Unreadable trade: Unexpected character at line 2"), result.getResults().get(1).getErrors());
+    }
+
+    @Test
+    void testBookTrades_UnauthorizedUserBooksNothing() {
+        when(authorizationEngine.isAuthorized("joey", "createTrade", null)).thenReturn(false);
+
+        assertThrows(UnauthorizedAccessException.class, () -> tradeBatchService.bookTrades(trades.iterator(), "joey"));
+        verify(tradeService, never()).bookTrade(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allowBooking() {
+        when(authorizationEngine.isAuthorized("simon", "createTrade", null)).thenReturn(true);
+        when(tradeService.newReferenceResolver()).thenReturn(references);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static Trade booked(TradeDTO tradeDTO) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeDTO.getTradeId());
+        return trade;
+    }
+
+    private static TradeDTO trade(Long tradeId) {
+        TradeDTO tradeDTO = new TradeDTO();
+        tradeDTO.setTradeId(tradeId);
+        tradeDTO.setTradeDate(LocalDate.now());
+        tradeDTO.setTradeStartDate(LocalDate.now());
+        tradeDTO.setTradeMaturityDate(LocalDate.now().plusYears(1));
+        tradeDTO.setBookName("FX-BOOK-1");
+        tradeDTO.setCounterpartyName("BigBank");
+        tradeDTO.setTraderUserName("Simon");
+        return tradeDTO;
+    }
+}
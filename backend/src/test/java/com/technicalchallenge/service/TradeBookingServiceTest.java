@@ -0,0 +1,283 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.authorization.AuthorizationEngine;
+import com.technicalchallenge.dto.TradeBookingStatusDTO;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.exception.IdempotencyKeyReuseException;
+import com.technicalchallenge.exception.UnauthorizedAccessException;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.model.TradeBookingRequest;
+import com.technicalchallenge.model.ValidationResult;
+import com.technicalchallenge.repository.TradeBookingRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeBookingServiceTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private AuthorizationEngine authorizationEngine;
+
+    @Mock
+    private TradeBookingRequestRepository tradeBookingRequestRepository;
+
+    @Mock
+    private TradeBookingExecutor tradeBookingExecutor;
+
+    @Mock
+    private ReferenceDataFanOut referenceDataFanOut;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TradeReferenceResolver references;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private TradeBookingService tradeBookingService;
+
+    // Stands in for the trade_booking_request table; statuses records every status saved
+    private final Map<UUID, TradeBookingRequest> requests = new HashMap<>();
+    private final List<String> statuses = new ArrayList<>();
+    private TradeDTO tradeDTO;
+
+    @BeforeEach
+    void setUp() {
+        tradeDTO = new TradeDTO();
+        tradeDTO.setTradeDate(LocalDate.now());
+        tradeDTO.setTradeStartDate(LocalDate.now());
+        tradeDTO.setTradeMaturityDate(LocalDate.now().plusYears(1));
+        tradeDTO.setBookName("FX-BOOK-1");
+        tradeDTO.setCounterpartyName("BigBank");
+        tradeDTO.setTraderUserName("Simon");
+
+        lenient().when(tradeBookingRequestRepository.saveAndFlush(any(TradeBookingRequest.class))).thenAnswer(invocation -> {
+            TradeBookingRequest request = invocation.getArgument(0);
+            request.setId(UUID.randomUUID());
+            requests.put(request.getId(), request);
+            statuses.add(request.getStatus());
+            return request;
+        });
+        lenient().when(tradeBookingRequestRepository.save(any(TradeBookingRequest.class))).thenAnswer(invocation -> {
+            TradeBookingRequest request = invocation.getArgument(0);
+            statuses.add(request.getStatus());
+            return request;
+        });
+        lenient().when(tradeBookingRequestRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(requests.get(invocation.<UUID>getArgument(0))));
+        lenient().when(tradeBookingRequestRepository.findByRequestedByAndIdempotencyKey(anyString(), anyString()))
+                .thenAnswer(invocation -> requests.values().stream()
+                        .filter(request -> request.getRequestedBy().equals(invocation.getArgument(0))
+                                && request.getIdempotencyKey().equals(invocation.getArgument(1)))
+                        .findFirst());
+        lenient().when(authorizationEngine.isAuthorized(eq("simon"), eq("createTrade"), any())).thenReturn(true);
+        lenient().when(tradeService.newReferenceResolver()).thenReturn(references);
+    }
+
+    @Test
+    void testSubmit_BooksTradeThroughEachStage() {
+        runBookingsOnCallingThread();
+        when(tradeService.validateTradeAndLegs(tradeDTO, references)).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(tradeDTO, references)).thenReturn(booked(200001L));
+
+        TradeBookingStatusDTO status = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        assertEquals(TradeBookingRequest.COMPLETED, status.getStatus());
+        assertEquals(200001L, status.getTradeId());
+        assertNotNull(status.getCompletedAt());
+        assertEquals(List.of(TradeBookingRequest.ACCEPTED, TradeBookingRequest.VALIDATING,
+                TradeBookingRequest.BOOKING, TradeBookingRequest.COMPLETED), statuses);
+    }
+
+    @Test
+    void testSubmit_AssignsTheTradeIdBeforeTheTransactionOpens() {
+        runBookingsOnCallingThread();
+        when(tradeService.validateTradeAndLegs(tradeDTO, references)).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(tradeDTO, references)).thenReturn(booked(200001L));
+
+        tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        InOrder inOrder = inOrder(tradeService, transactionTemplate);
+        inOrder.verify(tradeService).assignTradeId(tradeDTO);
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void testSubmit_SameKeyAndTradeReturnsTheOriginalBooking() {
+        TradeBookingStatusDTO first = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+        TradeBookingStatusDTO retry = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        assertEquals(first.getBookingId(), retry.getBookingId());
+        verify(tradeBookingExecutor, times(1)).execute(any());
+        verify(tradeBookingRequestRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testSubmit_SameKeyForADifferentTradeIsRefused() {
+        tradeBookingService.submit(tradeDTO, "simon", "key-1");
+        tradeDTO.setBookName("RATES-BOOK-1");
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> tradeBookingService.submit(tradeDTO, "simon", "key-1"));
+        verify(tradeBookingExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    void testSubmit_InvalidTradeIsRejectedWithoutBooking() {
+        runBookingsOnCallingThread();
+        when(tradeService.validateTradeAndLegs(tradeDTO, references))
+                .thenReturn(new ValidationResult(false, List.of("Trade must have exactly 2 legs")));
+
+        TradeBookingStatusDTO status = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        assertEquals(TradeBookingRequest.REJECTED, status.getStatus());
+        assertEquals(List.of("Trade must have exactly 2 legs"), status.getErrors());
+        verify(tradeService, never()).bookTrade(any(), any());
+    }
+
+    @Test
+    void testSubmit_FailedSaveIsReportedAsFailed() {
+        runBookingsOnCallingThread();
+        when(tradeService.validateTradeAndLegs(tradeDTO, references)).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(tradeDTO, references)).thenThrow(new IllegalStateException("connection reset"));
+
+        TradeBookingStatusDTO status = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        assertEquals(TradeBookingRequest.FAILED, status.getStatus());
+        assertNull(status.getTradeId());
+        assertEquals(List.of("Trade could not be booked: connection reset"), status.getErrors());
+    }
+
+    @Test
+    void testSubmit_FailedBookingIsRunAgainUnderTheSameKey() {
+        runBookingsOnCallingThread();
+        stubStatusUpdates();
+        when(tradeService.validateTradeAndLegs(tradeDTO, references)).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(tradeDTO, references))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(booked(200002L));
+
+        TradeBookingStatusDTO failed = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+        TradeBookingStatusDTO retried = tradeBookingService.submit(tradeDTO, "simon", "key-1");
+
+        assertEquals(TradeBookingRequest.FAILED, failed.getStatus());
+        assertEquals(failed.getBookingId(), retried.getBookingId());
+        assertEquals(TradeBookingRequest.COMPLETED, retried.getStatus());
+        assertEquals(200002L, retried.getTradeId());
+        assertTrue(retried.getErrors().isEmpty());
+        verify(tradeBookingRequestRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testResumeUnfinished_RunsStoredTradesAgainAndFailsTheRest() {
+        // Accepted, then the application stopped before the worker finished it
+        UUID interrupted = tradeBookingService.submit(tradeDTO, "simon", "key-1").getBookingId();
+        requests.get(interrupted).setStatus(TradeBookingRequest.BOOKING);
+        TradeBookingRequest withoutTrade = new TradeBookingRequest();
+        withoutTrade.setId(UUID.randomUUID());
+        withoutTrade.setRequestedBy("simon");
+        withoutTrade.setIdempotencyKey("key-2");
+        withoutTrade.setRequestHash("hash");
+        withoutTrade.setStatus(TradeBookingRequest.VALIDATING);
+        requests.put(withoutTrade.getId(), withoutTrade);
+        when(tradeBookingRequestRepository.findByStatusIn(TradeBookingRequest.UNFINISHED))
+                .thenAnswer(invocation -> requests.values().stream().filter(request -> !request.isFinished()).toList());
+
+        runBookingsOnCallingThread();
+        when(tradeService.validateTradeAndLegs(any(TradeDTO.class), eq(references))).thenReturn(new ValidationResult(true, null));
+        when(tradeService.bookTrade(any(TradeDTO.class), eq(references))).thenReturn(booked(200003L));
+        tradeBookingService.resumeUnfinished();
+
+        TradeBookingStatusDTO resumed = tradeBookingService.getStatus(interrupted, "simon").orElseThrow();
+        assertEquals(TradeBookingRequest.COMPLETED, resumed.getStatus());
+        assertEquals(200003L, resumed.getTradeId());
+        TradeBookingStatusDTO failed = tradeBookingService.getStatus(withoutTrade.getId(), "simon").orElseThrow();
+        assertEquals(TradeBookingRequest.FAILED, failed.getStatus());
+        assertEquals(List.of("Booking was interrupted by a restart, submit it again"), failed.getErrors());
+        verify(tradeService, times(1)).bookTrade(argThat(trade -> "FX-BOOK-1".equals(trade.getBookName())), eq(references));
+    }
+
+    @Test
+    void testSubmit_FullQueueFreesTheKeyForARetry() {
+        doThrow(new RejectedExecutionException("queue full")).when(tradeBookingExecutor).execute(any());
+
+        assertThrows(RejectedExecutionException.class, () -> tradeBookingService.submit(tradeDTO, "simon", "key-1"));
+        verify(tradeBookingRequestRepository).deleteById(any(UUID.class));
+    }
+
+    @Test
+    void testSubmit_RequiresIdempotencyKeyAndPrivilege() {
+        assertThrows(IllegalArgumentException.class, () -> tradeBookingService.submit(tradeDTO, "simon", " "));
+        assertThrows(UnauthorizedAccessException.class, () -> tradeBookingService.submit(tradeDTO, "joey", "key-1"));
+        verify(tradeBookingRequestRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testGetStatus_OnlyVisibleToTheSubmitter() {
+        UUID bookingId = tradeBookingService.submit(tradeDTO, "simon", "key-1").getBookingId();
+
+        assertTrue(tradeBookingService.getStatus(bookingId, "simon").isPresent());
+        assertTrue(tradeBookingService.getStatus(bookingId, "joey").isEmpty());
+    }
+
+    // Compare-and-set on the stand-in table, as the repository's UPDATE ... WHERE status = does
+    private void stubStatusUpdates() {
+        when(tradeBookingRequestRepository.updateStatus(any(UUID.class), anyString(), anyString())).thenAnswer(invocation -> {
+            TradeBookingRequest request = requests.get(invocation.<UUID>getArgument(0));
+            if (request == null || !request.getStatus().equals(invocation.getArgument(1))) {
+                return 0;
+            }
+            request.setStatus(invocation.getArgument(2));
+            request.setErrors(null);
+            request.setCompletedDate(null);
+            return 1;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runBookingsOnCallingThread() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(tradeBookingExecutor).execute(any());
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static Trade booked(Long tradeId) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        return trade;
+    }
+}
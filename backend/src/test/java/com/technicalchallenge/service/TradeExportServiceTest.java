@@ -0,0 +1,141 @@
+package com.technicalchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.Trade;
+import com.technicalchallenge.repository.TradeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeExportServiceTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private TradeMapper tradeMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private TradeExportService tradeExportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tradeExportService, "fetchSize", 500);
+    }
+
+    @Test
+    void testExportTrades_CsvWritesHeaderAndEscapedRows() throws Exception {
+        Trade trade = trade(100001L);
+        trade.getCounterparty().setName("Mega, \"Fund\"");
+        when(tradeRepository.streamAll(any(), eq(500))).thenReturn(Stream.of(trade));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = tradeExportService.exportTrades(null, TradeExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("tradeId,version,tradeDate"));
+        assertTrue(lines[1].startsWith("100001,1,2025-01-02,"));
+        assertTrue(lines[1].contains(",RATES-BOOK-1,\"Mega, \"\"Fund\"\"\",Simon King,"));
+        verifyNoInteractions(tradeMapper);
+    }
+
+    @Test
+    void testExportTrades_NdjsonWritesOneTradePerLine() throws Exception {
+        when(tradeRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(trade(100001L), trade(100002L)));
+        when(tradeMapper.toDto(any(Trade.class))).thenAnswer(invocation -> {
+            TradeDTO dto = new TradeDTO();
+            dto.setTradeId(invocation.<Trade>getArgument(0).getTradeId());
+            return dto;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tradeExportService.exportTrades(null, TradeExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(100001L, objectMapper.readValue(lines[0], TradeDTO.class).getTradeId());
+        assertEquals(100002L, objectMapper.readValue(lines[1], TradeDTO.class).getTradeId());
+        verify(tradeService, times(1)).addAdditionalInfoToAll(anyList());
+    }
+
+    @Test
+    void testExportTrades_ClearsPersistenceContextPerChunkAndClosesCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Trade> trades = LongStream.range(0, 250).mapToObj(this::trade).onClose(() -> closed.set(true));
+        when(tradeRepository.streamAll(any(), anyInt())).thenReturn(trades);
+
+        long written = tradeExportService.exportTrades(null, TradeExportService.Format.CSV, new ByteArrayOutputStream());
+
+        assertEquals(250, written);
+        // chunks of 100, 100 and 50
+        verify(entityManager, times(3)).clear();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testFormatFrom_RejectsUnknownFormat() {
+        assertEquals(TradeExportService.Format.CSV, TradeExportService.Format.from("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> TradeExportService.Format.from("xlsx"));
+        assertThrows(IllegalArgumentException.class, () -> TradeExportService.Format.from(null));
+    }
+
+    private Trade trade(long tradeId) {
+        Book book = new Book();
+        book.setBookName("RATES-BOOK-1");
+        Counterparty counterparty = new Counterparty();
+        counterparty.setName("MegaFund");
+        ApplicationUser trader = new ApplicationUser();
+        trader.setFirstName("Simon");
+        trader.setLastName("King");
+
+        Trade trade = new Trade();
+        trade.setTradeId(tradeId);
+        trade.setVersion(1);
+        trade.setTradeDate(LocalDate.of(2025, 1, 2));
+        trade.setBook(book);
+        trade.setCounterparty(counterparty);
+        trade.setTraderUser(trader);
+        return trade;
+    }
+}
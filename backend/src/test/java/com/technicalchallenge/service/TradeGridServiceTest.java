@@ -0,0 +1,169 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.dto.TradeGridRequestDTO;
+import com.technicalchallenge.dto.TradeGridResponseDTO;
+import com.technicalchallenge.fixture.TradeFixtures;
+import com.technicalchallenge.model.Trade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs grid requests against H2 with the real migrations over three trades booked for the test:
+ * two in FX-BOOK-1 (BigBank 1m, MegaFund 2m) and one in RATES-BOOK-1 (MegaFund 5m), each with a
+ * pay and a receive leg of that notional.
+ */
+@SpringBootTest
+@ActiveProfiles("integration")
+@TestPropertySource(properties = "spring.datasource.name=trade-grid")
+class TradeGridServiceTest {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeGridService tradeGridService;
+
+    // Only the trades this test booked, whatever else the database holds
+    private Specification<Trade> booked;
+
+    @BeforeEach
+    void setUp() {
+        List<Long> ids = new ArrayList<>();
+        ids.add(tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("FX-BOOK-1", "BigBank", 1_000_000), "simon").getId());
+        ids.add(tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("FX-BOOK-1", "MegaFund", 2_000_000), "simon").getId());
+        ids.add(tradeService.createTrade(TradeFixtures.oneYearQuarterlySwap("RATES-BOOK-1", "MegaFund", 5_000_000), "simon").getId());
+        booked = (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    @Test
+    void testGroupRows_AggregateNotionalPerBook() {
+        TradeGridRequestDTO request = request(0, 100);
+        request.setRowGroupCols(List.of(column("bookName", null)));
+        request.setValueCols(List.of(column("notional", "sum"), column("tradeDate", "max")));
+        request.setSortModel(List.of(sort("notional", "desc")));
+
+        TradeGridResponseDTO response = tradeGridService.getRows(request, booked);
+
+        assertEquals(2, response.getRowCount());
+        Map<?, ?> rates = (Map<?, ?>) response.getRowData().get(0);
+        assertEquals("RATES-BOOK-1", rates.get("bookName"));
+        assertEquals(1L, rates.get("childCount"));
+        assertAmount("10000000", rates.get("notional"));
+        assertEquals(LocalDate.now(), rates.get("tradeDate"));
+        Map<?, ?> fx = (Map<?, ?>) response.getRowData().get(1);
+        assertEquals(2L, fx.get("childCount"));
+        assertAmount("6000000", fx.get("notional"));
+    }
+
+    @Test
+    void testLeafRows_UnderAGroupKeyInSortOrder() {
+        TradeGridRequestDTO request = request(0, 100);
+        request.setRowGroupCols(List.of(column("bookName", null)));
+        request.setGroupKeys(List.of("FX-BOOK-1"));
+        request.setSortModel(List.of(sort("counterpartyName", "desc")));
+
+        TradeGridResponseDTO response = tradeGridService.getRows(request, booked);
+
+        assertEquals(2, response.getRowCount());
+        assertEquals(List.of("MegaFund", "BigBank"), counterparties(response));
+    }
+
+    @Test
+    void testLeafRows_RowCountOnlyOnTheLastBlock() {
+        TradeGridResponseDTO first = tradeGridService.getRows(request(0, 2), booked);
+        assertEquals(2, first.getRowData().size());
+        assertNull(first.getRowCount());
+
+        TradeGridResponseDTO last = tradeGridService.getRows(request(2, 4), booked);
+        assertEquals(1, last.getRowData().size());
+        assertEquals(3, last.getRowCount());
+    }
+
+    @Test
+    void testFilterModel_TextSetAndCombinedFilters() {
+        TradeGridRequestDTO contains = request(0, 100);
+        contains.setFilterModel(Map.of("counterpartyName", filter("text", "contains", "BIG")));
+        assertEquals(List.of("BigBank"), counterparties(tradeGridService.getRows(contains, booked)));
+
+        TradeGridRequestDTO set = request(0, 100);
+        TradeGridRequestDTO.FilterModel rates = new TradeGridRequestDTO.FilterModel();
+        rates.setFilterType("set");
+        rates.setValues(List.of("RATES-BOOK-1"));
+        set.setFilterModel(Map.of("bookName", rates));
+        assertEquals(1, tradeGridService.getRows(set, booked).getRowCount());
+
+        TradeGridRequestDTO combined = request(0, 100);
+        TradeGridRequestDTO.FilterModel either = new TradeGridRequestDTO.FilterModel();
+        either.setFilterType("text");
+        either.setOperator("OR");
+        either.setConditions(List.of(filter("text", "startsWith", "big"), filter("text", "endsWith", "fund")));
+        combined.setFilterModel(Map.of("counterpartyName", either, "tradeStatus", filter("text", "equals", "new")));
+        assertEquals(3, tradeGridService.getRows(combined, booked).getRowCount());
+    }
+
+    @Test
+    void testUnknownColumnsAndBadBlocks_AreRejected() {
+        TradeGridRequestDTO unknownSort = request(0, 100);
+        unknownSort.setSortModel(List.of(sort("settlementInstructions", "asc")));
+        assertThrows(IllegalArgumentException.class, () -> tradeGridService.getRows(unknownSort, booked));
+
+        TradeGridRequestDTO textSum = request(0, 100);
+        textSum.setRowGroupCols(List.of(column("bookName", null)));
+        textSum.setValueCols(List.of(column("counterpartyName", "sum")));
+        assertThrows(IllegalArgumentException.class, () -> tradeGridService.getRows(textSum, booked));
+
+        assertThrows(IllegalArgumentException.class, () -> tradeGridService.getRows(request(10, 5), booked));
+    }
+
+    private static List<String> counterparties(TradeGridResponseDTO response) {
+        return response.getRowData().stream().map(row -> ((TradeDTO) row).getCounterpartyName()).toList();
+    }
+
+    private static void assertAmount(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    private static TradeGridRequestDTO request(int startRow, int endRow) {
+        TradeGridRequestDTO request = new TradeGridRequestDTO();
+        request.setStartRow(startRow);
+        request.setEndRow(endRow);
+        return request;
+    }
+
+    private static TradeGridRequestDTO.ColumnVO column(String id, String aggFunc) {
+        TradeGridRequestDTO.ColumnVO column = new TradeGridRequestDTO.ColumnVO();
+        column.setId(id);
+        column.setField(id);
+        column.setAggFunc(aggFunc);
+        return column;
+    }
+
+    private static TradeGridRequestDTO.SortModelItem sort(String colId, String direction) {
+        TradeGridRequestDTO.SortModelItem item = new TradeGridRequestDTO.SortModelItem();
+        item.setColId(colId);
+        item.setSort(direction);
+        return item;
+    }
+
+    private static TradeGridRequestDTO.FilterModel filter(String filterType, String type, Object value) {
+        TradeGridRequestDTO.FilterModel filter = new TradeGridRequestDTO.FilterModel();
+        filter.setFilterType(filterType);
+        filter.setType(type);
+        filter.setFilter(value);
+        return filter;
+    }
+}
@@ -0,0 +1,114 @@
+package com.technicalchallenge.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeIdAllocatorTest {
+
+    @Mock
+    private TradeIdBlockService tradeIdBlockService;
+
+    // Stands in for the trade_id_block row: each reservation moves the high-water mark forward
+    private final AtomicLong highWaterMark = new AtomicLong(10000L);
+
+    private void stubBlockReservation() {
+        when(tradeIdBlockService.reserveBlock(anyInt()))
+                .thenAnswer(invocation -> highWaterMark.getAndAdd(invocation.<Integer>getArgument(0)));
+    }
+
+    @Test
+    void testNextTradeId_SequentialWithinBlockAndReservesLazily() {
+        stubBlockReservation();
+        TradeIdAllocator allocator = new TradeIdAllocator(tradeIdBlockService, 3);
+
+        assertEquals(10000L, allocator.nextTradeId());
+        assertEquals(10001L, allocator.nextTradeId());
+        assertEquals(10002L, allocator.nextTradeId());
+        verify(tradeIdBlockService, times(1)).reserveBlock(3);
+
+        assertEquals(10003L, allocator.nextTradeId());
+        verify(tradeIdBlockService, times(2)).reserveBlock(3);
+    }
+
+    @Test
+    void testNextTradeId_RestartNeverReusesReservedIds() {
+        stubBlockReservation();
+        TradeIdAllocator beforeRestart = new TradeIdAllocator(tradeIdBlockService, 100);
+        long lastBeforeRestart = 0;
+        for (int i = 0; i < 10; i++) {
+            lastBeforeRestart = beforeRestart.nextTradeId();
+        }
+
+        // A new allocator (as after a restart) starts from the persisted high-water mark, skipping the unused tail
+        TradeIdAllocator afterRestart = new TradeIdAllocator(tradeIdBlockService, 100);
+        long firstAfterRestart = afterRestart.nextTradeId();
+
+        assertTrue(firstAfterRestart > lastBeforeRestart);
+        assertEquals(10100L, firstAfterRestart);
+    }
+
+    @Test
+    void testNextTradeId_InvalidBlockSize_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new TradeIdAllocator(tradeIdBlockService, 0));
+    }
+
+    @Test
+    void testNextTradeId_ConcurrentStress_UniqueAndContiguous() throws Exception {
+        stubBlockReservation();
+        TradeIdAllocator allocator = new TradeIdAllocator(tradeIdBlockService, 1000);
+
+        int threads = 8;
+        int perThread = 250_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = allocator.nextTradeId();
+                }
+                return ids;
+            }));
+        }
+
+        start.countDown();
+        long[] all = new long[threads * perThread];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get(60, TimeUnit.SECONDS);
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        executor.shutdown();
+
+        // Throughput is measured by TradeIdAllocatorBenchmark; here every ID is handed out once and
+        // whole blocks are used up, so the IDs run on from the first without gaps
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "Duplicate trade ID " + all[i]);
+        }
+        for (int i = 0; i < all.length; i++) {
+            assertEquals(10000L + i, all[i], "Gap in trade IDs at " + i);
+        }
+        verify(tradeIdBlockService, times(all.length / 1000)).reserveBlock(1000);
+    }
+}
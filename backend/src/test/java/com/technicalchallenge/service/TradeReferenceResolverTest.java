@@ -0,0 +1,118 @@
+package com.technicalchallenge.service;
+
+import com.technicalchallenge.dto.TradeDTO;
+import com.technicalchallenge.model.ApplicationUser;
+import com.technicalchallenge.model.Book;
+import com.technicalchallenge.model.Counterparty;
+import com.technicalchallenge.model.TradeStatus;
+import com.technicalchallenge.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeReferenceResolverTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CounterpartyRepository counterpartyRepository;
+
+    @Mock
+    private TradeStatusRepository tradeStatusRepository;
+
+    @Mock
+    private ApplicationUserRepository applicationUserRepository;
+
+    @Mock
+    private TradeTypeRepository tradeTypeRepository;
+
+    @Mock
+    private TradeSubTypeRepository tradeSubTypeRepository;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private LegTypeRepository legTypeRepository;
+
+    @Mock
+    private IndexRepository indexRepository;
+
+    @Mock
+    private HolidayCalendarRepository holidayCalendarRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private BusinessDayConventionRepository businessDayConventionRepository;
+
+    @Mock
+    private PayRecRepository payRecRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private TradeReferenceResolver references;
+    private TradeDTO tradeDTO;
+
+    @BeforeEach
+    void setUp() {
+        references = new TradeReferenceResolver(bookRepository, counterpartyRepository, tradeStatusRepository,
+                applicationUserRepository, tradeTypeRepository, tradeSubTypeRepository, currencyRepository,
+                legTypeRepository, indexRepository, holidayCalendarRepository, scheduleRepository,
+                businessDayConventionRepository, payRecRepository);
+
+        tradeDTO = new TradeDTO();
+        tradeDTO.setBookName("FX-BOOK-1");
+        tradeDTO.setCounterpartyName("BigBank");
+        tradeDTO.setTraderUserName("Simon King");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testPrefetchOnExecutor_LooksUpOnceAndAnswersFromMemory() {
+        Book book = new Book();
+        ApplicationUser trader = new ApplicationUser();
+        when(bookRepository.findByBookName("FX-BOOK-1")).thenReturn(Optional.of(book));
+        when(counterpartyRepository.findByName("BigBank")).thenReturn(Optional.of(new Counterparty()));
+        when(tradeStatusRepository.findByTradeStatus("NEW")).thenReturn(Optional.of(new TradeStatus()));
+        when(applicationUserRepository.findByFirstNameIgnoreCase("Simon")).thenReturn(Optional.of(trader));
+
+        references.prefetch(tradeDTO, executor);
+
+        assertSame(book, references.book("FX-BOOK-1").orElseThrow());
+        assertSame(trader, references.userByFirstName("Simon").orElseThrow());
+        assertTrue(references.tradeStatus("NEW").isPresent());
+        verify(bookRepository, times(1)).findByBookName("FX-BOOK-1");
+        verify(applicationUserRepository, times(1)).findByFirstNameIgnoreCase("Simon");
+        // Found by first name, so never tried as a login id
+        verify(applicationUserRepository, never()).findByLoginIdIgnoreCase(anyString());
+    }
+
+    @Test
+    void testPrefetchOnExecutor_LookupFailureReachesTheCaller() {
+        when(bookRepository.findByBookName("FX-BOOK-1")).thenThrow(new IllegalStateException("connection refused"));
+        lenient().when(counterpartyRepository.findByName("BigBank")).thenReturn(Optional.empty());
+        lenient().when(tradeStatusRepository.findByTradeStatus("NEW")).thenReturn(Optional.empty());
+        lenient().when(applicationUserRepository.findByFirstNameIgnoreCase("Simon")).thenReturn(Optional.of(new ApplicationUser()));
+
+        CompletionException thrown = assertThrows(CompletionException.class, () -> references.prefetch(tradeDTO, executor));
+        assertEquals("connection refused", thrown.getCause().getMessage());
+    }
+}
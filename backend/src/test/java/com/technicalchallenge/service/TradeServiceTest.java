@@ -1,11 +1,16 @@
 package com.technicalchallenge.service;
 
+import com.technicalchallenge.authorization.AuthorizationEngine;
 import com.technicalchallenge.controller.UserProfileController;
+import com.technicalchallenge.dto.AdditionalInfoDTO;
 import com.technicalchallenge.dto.CashflowDTO;
+import com.technicalchallenge.dto.KeysetPageDTO;
 import com.technicalchallenge.dto.TradeDTO;
 import com.technicalchallenge.dto.TradeLegDTO;
 import com.technicalchallenge.dto.TradeSearchDTO;
+import com.technicalchallenge.exception.TradeVersionConflictException;
 import com.technicalchallenge.mapper.TradeMapper;
+import com.technicalchallenge.metrics.TradeMetrics;
 import com.technicalchallenge.model.AdditionalInfo;
 import com.technicalchallenge.model.ApplicationUser;
 import com.technicalchallenge.model.Book;
@@ -21,11 +26,14 @@ import com.technicalchallenge.model.Privilege;
 import com.technicalchallenge.model.Schedule;
 import com.technicalchallenge.model.Trade;
 import com.technicalchallenge.model.TradeLeg;
+import com.technicalchallenge.model.TradeOutboxEvent;
 import com.technicalchallenge.model.TradeStatus;
 import com.technicalchallenge.model.TradeSubType;
 import com.technicalchallenge.model.TradeType;
 import com.technicalchallenge.model.UserPrivilege;
 import com.technicalchallenge.model.UserProfile;
+import com.technicalchallenge.outbox.TradeOutbox;
+import com.technicalchallenge.position.PositionEngine;
 import com.technicalchallenge.repository.ApplicationUserRepository;
 import com.technicalchallenge.repository.BookRepository;
 import com.technicalchallenge.repository.BusinessDayConventionRepository;
@@ -46,6 +54,10 @@ import com.technicalchallenge.repository.TradeTypeRepository;
 import com.technicalchallenge.repository.UserPrivilegeRepository;
 import com.technicalchallenge.repository.UserProfileRepository;
 import com.technicalchallenge.rsql.RsqlSpecificationBuilder;
+import com.technicalchallenge.schedule.BusinessCalendar;
+import com.technicalchallenge.schedule.HolidayCalendarRegistry;
+import com.technicalchallenge.schedule.ScheduleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.h2.engine.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,25 +65,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -147,6 +166,36 @@ class TradeServiceTest {
     @Mock
     private TradeMapper tradeMapper;
 
+    @Mock
+    private AuthorizationEngine authorizationEngine;
+
+    // Real engine so the cashflow tests check actual schedules and amounts
+    @Spy
+    private ScheduleEngine scheduleEngine = new ScheduleEngine();
+
+    @Mock
+    private HolidayCalendarRegistry holidayCalendarRegistry;
+
+    @Mock
+    private ReferenceDataFanOut referenceDataFanOut;
+
+    @Mock
+    private PositionEngine positionEngine;
+
+    @Mock
+    private SettlementInstructionIndex settlementInstructionIndex;
+
+    @Mock
+    private TradeOutbox tradeOutbox;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TradeMetrics tradeMetrics = new TradeMetrics(meterRegistry);
+
     @InjectMocks
     private TradeService tradeService;
 
@@ -164,13 +213,23 @@ class TradeServiceTest {
    
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
+        // Payment dates adjust for weekends only unless a test says otherwise
+        lenient().when(holidayCalendarRegistry.calendarFor(any())).thenReturn(BusinessCalendar.WEEKENDS_ONLY);
+        // Bookings run their callback as if in a transaction
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
         // Set up test data
         tradeDTO = new TradeDTO();
         tradeDTO.setTradeId(100001L);
-        tradeDTO.setTradeDate(LocalDate.of(2025, 10, 15));
-        tradeDTO.setTradeStartDate(LocalDate.of(2025, 10, 17));
-        tradeDTO.setTradeMaturityDate(LocalDate.of(2026, 10, 17));
+        // Relative to today, since trades dated more than 30 days back fail validation
+        LocalDate tradeDate = LocalDate.now();
+        LocalDate maturityDate = tradeDate.plusDays(2).plusYears(1);
+        tradeDTO.setTradeDate(tradeDate);
+        tradeDTO.setTradeStartDate(tradeDate.plusDays(2));
+        tradeDTO.setTradeMaturityDate(maturityDate);
         tradeDTO.setVersion(1);
         tradeDTO.setTraderUserName("Simon");
         tradeDTO.setTradeType("Swap");
@@ -180,8 +239,8 @@ class TradeServiceTest {
         CashflowDTO cashflow1 = new CashflowDTO();
         CashflowDTO cashflow2 = new CashflowDTO();
 
-        cashflow1.setValueDate(LocalDate.of(2026, 10, 17));
-        cashflow2.setValueDate(LocalDate.of(2026, 10, 17));
+        cashflow1.setValueDate(maturityDate);
+        cashflow2.setValueDate(maturityDate);
 
         List<CashflowDTO> leg1cashflow = Arrays.asList(cashflow1);
         List<CashflowDTO> leg2cashflow = Arrays.asList(cashflow2);
@@ -274,9 +333,7 @@ class TradeServiceTest {
         when(tradeStatusRepository.findByTradeStatus(any(String.class))).thenReturn(Optional.of(new TradeStatus()));
         lenient().when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
         lenient().when(tradeLegRepository.save(any(TradeLeg.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(applicationUserRepository.findByLoginIdIgnoreCase(anyString())).thenReturn(Optional.of(user));
-         when(privilegeRepository.findByName(anyString())).thenReturn(Optional.of(privilege));
-         when(userPrivilegeRepository.existsByUserIdAndPrivilegeId(anyLong(), anyLong())).thenReturn(true);
+        when(authorizationEngine.isAuthorized(anyString(), anyString(), any())).thenReturn(true);
           
         when(applicationUserRepository.findByFirstNameIgnoreCase(any(String.class))).thenReturn(Optional.of(user));
    
@@ -308,6 +365,7 @@ class TradeServiceTest {
         assertNotNull(result);
         assertEquals(100001L, result.getTradeId());
         verify(tradeRepository).save(any(Trade.class));
+        verify(tradeOutbox).record(TradeOutboxEvent.BOOKED, result);
     }
 
     @Test
@@ -364,6 +422,24 @@ class TradeServiceTest {
         assertTrue(exception.getMessage().contains("exactly 2 legs"));
     }
 
+    @Test
+    void testCreateTrade_InvalidTrade_RecordsLifecycleAndValidationMetrics() {
+        // Given
+        createTradeMocks();
+        tradeDTO.setTradeStartDate(LocalDate.of(2025, 1, 10)); // Before trade date
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> tradeService.createTrade(tradeDTO, user.getLoginId()));
+
+        // Then
+        assertEquals(1, meterRegistry.get("trade.lifecycle")
+                .tags("operation", "create", "trade.type", "Swap", "outcome", "invalid").timer().count());
+        assertEquals(1, meterRegistry.get("trade.validation")
+                .tags("stage", TradeMetrics.BUSINESS_RULES, "trade.type", "Swap", "outcome", "invalid").timer().count());
+        assertTrue(meterRegistry.get("trade.validation.errors")
+                .tags("stage", TradeMetrics.BUSINESS_RULES).counter().count() >= 1);
+    }
+
     @Test
     void testGetTradeById_Found() {
         // Given
@@ -389,6 +465,20 @@ class TradeServiceTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void testGetTradeById_AsOfReadsTheVersionActiveAtThatTime() {
+        // Given
+        LocalDateTime asOf = LocalDateTime.of(2024, 6, 1, 12, 0);
+        when(tradeRepository.findByTradeIdAsOf(100001L, asOf)).thenReturn(Optional.of(trade));
+
+        // When
+        Optional<Trade> result = tradeService.getTradeById(100001L, asOf);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(tradeRepository, never()).findByTradeIdAndActiveTrue(anyLong());
+    }
+
     @Test
     void testAmendTrade_Success() {
         // Given
@@ -401,8 +491,6 @@ class TradeServiceTest {
         legType.setType("Fixed");
 
 
-         when(privilegeRepository.findByName(anyString())).thenReturn(Optional.of(privilege));
-         when(userPrivilegeRepository.existsByUserIdAndPrivilegeId(anyLong(), anyLong())).thenReturn(true);
         when(applicationUserRepository.findByFirstNameIgnoreCase(any(String.class))).thenReturn(Optional.of(user));
 
         when(tradeSubTypeRepository.findByTradeSubType(any(String.class))).thenReturn(Optional.of(new TradeSubType()));
@@ -420,10 +508,9 @@ class TradeServiceTest {
        
         when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
         when(tradeMapper.toDto(any(Trade.class))).thenReturn(tradeDTO);
-         when(applicationUserRepository.findByLoginIdIgnoreCase(any(String.class))).thenReturn(Optional.of(user));
-          when(privilegeRepository.findByName(anyString())).thenReturn(Optional.of(privilege));
-         when(userPrivilegeRepository.existsByUserIdAndPrivilegeId(anyLong(), anyLong())).thenReturn(true);
+        when(authorizationEngine.isAuthorized(anyString(), anyString(), any())).thenReturn(true);
         when(tradeStatusRepository.findByTradeStatus("AMENDED")).thenReturn(Optional.of(new TradeStatus()));
+        when(tradeRepository.deactivateVersion(eq(100001L), eq(1), any(LocalDateTime.class))).thenReturn(1);
         when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(tradeLegRepository.save(any(TradeLeg.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -432,7 +519,54 @@ class TradeServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(tradeRepository, times(2)).save(any(Trade.class)); // Save old and new
+        assertEquals(2, result.getVersion());
+        // The old version is deactivated by the compare-and-set, only the new one is saved
+        verify(tradeRepository).deactivateVersion(eq(100001L), eq(1), any(LocalDateTime.class));
+        verify(tradeRepository, times(1)).save(any(Trade.class));
+        verify(tradeOutbox).record(TradeOutboxEvent.AMENDED, result);
+    }
+
+    @Test
+    void testAmendTrade_StaleVersionIsAConflict() {
+        // Given - the client amends version 1 but version 2 is already active
+        trade.setVersion(2);
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+        when(tradeMapper.toDto(any(Trade.class))).thenReturn(new TradeDTO());
+        when(authorizationEngine.isAuthorized(anyString(), anyString(), any())).thenReturn(true);
+
+        // When & Then
+        TradeVersionConflictException exception = assertThrows(TradeVersionConflictException.class,
+                () -> tradeService.amendTrade(100001L, tradeDTO, user.getLoginId()));
+
+        assertEquals(1, exception.getExpectedVersion());
+        assertEquals(2, exception.getCurrentVersion());
+        verify(tradeRepository, never()).deactivateVersion(any(), any(), any());
+        verify(tradeRepository, never()).save(any(Trade.class));
+    }
+
+    @Test
+    void testAmendTrade_LosingTheCompareAndSetIsAConflict() {
+        // Given - a valid amendment of version 1, which another amendment deactivated after it was read
+        createTradeMocks();
+        LocalDate today = LocalDate.now();
+        tradeDTO.setTradeDate(today);
+        tradeDTO.setTradeStartDate(today.plusDays(2));
+        tradeDTO.setTradeMaturityDate(today.plusDays(2).plusYears(1));
+        when(tradeRepository.findByTradeIdAndActiveTrue(100001L)).thenReturn(Optional.of(trade));
+        when(tradeMapper.toDto(any(Trade.class))).thenReturn(tradeDTO);
+        when(tradeRepository.deactivateVersion(eq(100001L), eq(1), any(LocalDateTime.class))).thenReturn(0);
+        when(tradeRepository.findActiveVersion(100001L)).thenReturn(Optional.of(2));
+
+        // When & Then
+        TradeVersionConflictException exception = assertThrows(TradeVersionConflictException.class,
+                () -> tradeService.amendTrade(100001L, tradeDTO, user.getLoginId()));
+
+        // Validation passed and the conflict came from the compare-and-set, which found version 2 active
+        assertEquals(1, exception.getExpectedVersion());
+        assertEquals(2, exception.getCurrentVersion());
+        verify(tradeRepository).deactivateVersion(eq(100001L), eq(1), any(LocalDateTime.class));
+        verify(tradeRepository).findActiveVersion(100001L);
+        verify(tradeRepository, never()).save(any(Trade.class));
     }
 
     @Test
@@ -470,6 +604,46 @@ class TradeServiceTest {
     }
 
 
+    @Test
+    void testCashflowGeneration_PersistsEachLegScheduleInOneBatch() {
+        Schedule schedule = new Schedule();
+        schedule.setId(1L);
+        schedule.setSchedule("1M");
+
+        createTradeMocks();
+
+        when(scheduleRepository.findBySchedule(any(String.class))).thenReturn(Optional.of(schedule));
+
+        tradeService.createTrade(tradeDTO, user.getLoginId());
+
+        // one saveAll per leg, no row-by-row saves
+        verify(cashflowRepository, times(2)).saveAll(anyList());
+        verify(cashflowRepository, never()).save(any(Cashflow.class));
+    }
+
+    @Test
+    void testAddAdditionalInfoToAll_LoadsFieldsForAllTradesInOneCall() {
+        TradeDTO first = new TradeDTO();
+        first.setId(1L);
+        TradeDTO second = new TradeDTO();
+        second.setId(2L);
+
+        AdditionalInfoDTO settlementInstructions = new AdditionalInfoDTO();
+        settlementInstructions.setEntityId(1L);
+        settlementInstructions.setFieldName("SETTLEMENT_INSTRUCTIONS");
+
+        when(additionalInfoService.getAdditionalInfoForEntities(eq("TRADE"), anyCollection()))
+                .thenReturn(Map.of(1L, List.of(settlementInstructions)));
+
+        tradeService.addAdditionalInfoToAll(List.of(first, second));
+
+        assertEquals(List.of(settlementInstructions), first.getAdditionalFields());
+        assertTrue(second.getAdditionalFields().isEmpty());
+        verify(additionalInfoService, times(1)).getAdditionalInfoForEntities(eq("TRADE"), anyCollection());
+        verify(additionalInfoService, never()).getAdditionalInfoForEntity(anyString(), anyLong());
+    }
+
+
     //advanced search tests
     @Test
      void testSearch_Trade(){
@@ -600,7 +774,7 @@ class TradeServiceTest {
 
 
           //When
-          Page<Trade> result = tradeService.searchTradeWithRsql(rsqlQuery, pageable);
+          Page<Trade> result = tradeService.searchTradeWithRsql(rsqlQuery, null, pageable);
 
           //Then
           assertNotNull(result);
@@ -620,12 +794,78 @@ class TradeServiceTest {
           when(rsqlSpecificationBuilder.createSpecification(query)).thenThrow(new IllegalArgumentException("Invalid RSQL query: " + query));
 
          assertThrows(IllegalArgumentException.class, () -> {
-            tradeService.searchTradeWithRsql(query, pageable);
+            tradeService.searchTradeWithRsql(query, null, pageable);
          });
 
          verify(rsqlSpecificationBuilder).createSpecification(query);
          }
 
+    @Test
+    void testFilterTradeWithKeyset_ReturnsCursorWhenMoreRowsExist(){
+          TradeSearchDTO searchDTO = new TradeSearchDTO();
+          List<Trade> window = List.of(keysetTrade(1L, LocalDate.of(2025, 1, 3)),
+                  keysetTrade(2L, LocalDate.of(2025, 1, 2)),
+                  keysetTrade(3L, LocalDate.of(2025, 1, 1)));
+
+          when(tradeRepository.findWindow(any(Specification.class), any(Sort.class), eq(0L), eq(3))).thenReturn(window);
+
+          KeysetPageDTO<Trade> firstPage = tradeService.filterTradeWithKeyset(searchDTO, "tradeDate", "desc", null, 2, false);
+
+          assertEquals(2, firstPage.getContent().size());
+          assertTrue(firstPage.isHasNext());
+          assertNotNull(firstPage.getNextCursor());
+          assertNull(firstPage.getTotalElements());
+          verify(tradeRepository, never()).count(any(Specification.class));
+
+          // The cursor is accepted for the same sort order and moves the window on
+          when(tradeRepository.findWindow(any(Specification.class), any(Sort.class), eq(0L), eq(3))).thenReturn(List.of(window.get(2)));
+          when(tradeRepository.count(any(Specification.class))).thenReturn(3L);
+
+          KeysetPageDTO<Trade> secondPage = tradeService.filterTradeWithKeyset(searchDTO, "tradeDate", "desc", firstPage.getNextCursor(), 2, true);
+
+          assertEquals(1, secondPage.getContent().size());
+          assertFalse(secondPage.isHasNext());
+          assertNull(secondPage.getNextCursor());
+          assertEquals(3L, secondPage.getTotalElements());
+         }
+
+    @Test
+    void testFilterTradeWithKeyset_RejectsCursorFromAnotherSortOrInvalidInput(){
+          TradeSearchDTO searchDTO = new TradeSearchDTO();
+          String cursor = TradeKeysetCursor.after(keysetTrade(5L, LocalDate.of(2025, 1, 1)), "tradeDate", Sort.Direction.DESC);
+
+          assertThrows(IllegalArgumentException.class,
+                  () -> tradeService.filterTradeWithKeyset(searchDTO, "tradeDate", "asc", cursor, 20, false));
+          assertThrows(IllegalArgumentException.class,
+                  () -> tradeService.filterTradeWithKeyset(searchDTO, "tradeDate", "desc", "not-a-cursor", 20, false));
+          assertThrows(IllegalArgumentException.class,
+                  () -> tradeService.filterTradeWithKeyset(searchDTO, "book", "desc", null, 20, false));
+          verify(tradeRepository, never()).findWindow(any(), any(), anyLong(), anyInt());
+         }
+
+    @Test
+    void testSearchTradeWithRsqlWithoutCount_FetchesOneExtraRowInsteadOfCounting(){
+          Pageable pageable = PageRequest.of(1, 2, Sort.by("tradeDate"));
+          Specification<Trade> spec = (root, query, cb) -> cb.conjunction();
+
+          when(rsqlSpecificationBuilder.createSpecification("book.name==book")).thenReturn(spec);
+          when(tradeRepository.findWindow(spec, pageable.getSort(), 2L, 3))
+                  .thenReturn(List.of(keysetTrade(3L, null), keysetTrade(4L, null), keysetTrade(5L, null)));
+
+          Slice<Trade> result = tradeService.searchTradeWithRsqlWithoutCount("book.name==book", null, pageable);
+
+          assertEquals(2, result.getContent().size());
+          assertTrue(result.hasNext());
+          verify(tradeRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+         }
+
+    private Trade keysetTrade(Long id, LocalDate tradeDate){
+        Trade keysetTrade = new Trade();
+        keysetTrade.setId(id);
+        keysetTrade.setTradeDate(tradeDate);
+        return keysetTrade;
+    }
+
 
     //cashflow value tests
     @Test
@@ -781,6 +1021,18 @@ class TradeServiceTest {
 
          //settlment instructions tests
 
+    @Test
+    void testSearchTradesBySettlementInstructions_OneQueryThroughTheIndex() {
+        Specification<Trade> matching = (root, query, cb) -> cb.conjunction();
+        when(settlementInstructionIndex.matching("jpm london")).thenReturn(matching);
+        when(tradeRepository.findAll(matching)).thenReturn(List.of(trade));
+
+        List<Trade> result = tradeService.searchTradesBySettlementInstructions("jpm london");
+
+        assertEquals(List.of(trade), result);
+        verify(tradeRepository, never()).findAllById(any());
+    }
+
         //   @Test
         // void testSettlementInstructions_Search(){
 